@@ -0,0 +1,209 @@
+package com.example.analysis.service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for the analysis endpoints. Work is split into lanes, each with its own
+ * concurrency limit, bounded wait queue and maximum wait: interactive single-deal calls never
+ * queue behind bulk, grid or simulation calls, and a bulk burst can hold at most its own permits
+ * (and request threads for at most its wait time). A request that finds its lane's queue full, or
+ * waits too long, fails fast with Overloaded, which carries a Retry-After estimate from the
+ * lane's recent service time.
+ *
+ * Limits come from system properties `analysis.admission.<lane>.{concurrency,queue,waitMs}`
+ * (lane = interactive or bulk), defaulting to Limits.defaults().
+ */
+public class AdmissionGate {
+
+  /** Kinds of work with separate limits. */
+  public enum Lane { INTERACTIVE, BULK }
+
+  /** Per-lane limits. */
+  public static final class Limits {
+    public final int concurrency, queue;
+    public final long waitMillis;
+
+    public Limits(int concurrency, int queue, long waitMillis) {
+      if (concurrency < 1) throw new IllegalArgumentException("concurrency must be >= 1");
+      if (queue < 0) throw new IllegalArgumentException("queue must be >= 0");
+      if (waitMillis < 0) throw new IllegalArgumentException("waitMillis must be >= 0");
+      this.concurrency = concurrency; this.queue = queue; this.waitMillis = waitMillis;
+    }
+
+    /**
+     * Interactive: two calls per core, a short queue and 250 ms of waiting. Bulk: calls that
+     * already fan out over every core, so two at a time, four queued for up to 2 s.
+     */
+    public static Map<Lane, Limits> defaults() {
+      int cores = Runtime.getRuntime().availableProcessors();
+      Map<Lane, Limits> m = new EnumMap<>(Lane.class);
+      m.put(Lane.INTERACTIVE, new Limits(2 * cores, 4 * cores, 250));
+      m.put(Lane.BULK, new Limits(2, 4, 2000));
+      return m;
+    }
+
+    /** defaults() overridden by `analysis.admission.*` system properties. */
+    public static Map<Lane, Limits> fromSystemProperties() {
+      Map<Lane, Limits> m = defaults();
+      for (Lane lane : Lane.values()) {
+        String p = "analysis.admission." + lane.name().toLowerCase() + ".";
+        Limits d = m.get(lane);
+        m.put(lane, new Limits(Integer.getInteger(p + "concurrency", d.concurrency),
+            Integer.getInteger(p + "queue", d.queue), Long.getLong(p + "waitMs", d.waitMillis)));
+      }
+      return m;
+    }
+  }
+
+  /** The lane is saturated; retry after `retryAfterSeconds`. */
+  public static final class Overloaded extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public final Lane lane;
+    public final long retryAfterSeconds;
+
+    Overloaded(Lane lane, String reason, long retryAfterSeconds) {
+      super(lane.name().toLowerCase() + " capacity exhausted (" + reason + ")", null, false, false);
+      this.lane = lane;
+      this.retryAfterSeconds = retryAfterSeconds;
+    }
+  }
+
+  /** A held slot; close() releases it (once, from any thread). */
+  public interface Permit extends AutoCloseable {
+    @Override void close();
+  }
+
+  private static final long MAX_RETRY_AFTER_SECONDS = 60;
+
+  private final EnumMap<Lane, LaneState> lanes = new EnumMap<>(Lane.class);
+
+  public AdmissionGate() { this(Limits.fromSystemProperties()); }
+
+  public AdmissionGate(Map<Lane, Limits> limits) {
+    for (Lane lane : Lane.values()) {
+      Limits l = limits.get(lane);
+      if (l == null) throw new IllegalArgumentException("no limits for lane " + lane);
+      lanes.put(lane, new LaneState(lane, l));
+    }
+  }
+
+  /**
+   * Take a slot in `lane`, waiting up to its waitMillis if a queue place is free.
+   * Throws Overloaded when the queue is full or the wait runs out.
+   */
+  public Permit acquire(Lane lane) {
+    return lanes.get(lane).acquire();
+  }
+
+  /** Per-lane gauges and counters: limits, active, queued, admitted, rejected (queue full / timed out). */
+  public Map<String, Map<String, Number>> stats() {
+    Map<String, Map<String, Number>> out = new LinkedHashMap<>();
+    for (LaneState s : lanes.values()) out.put(s.lane.name().toLowerCase(), s.stats());
+    return out;
+  }
+
+  public long rejected(Lane lane) {
+    LaneState s = lanes.get(lane);
+    return s.queueFull.sum() + s.timedOut.sum();
+  }
+
+  private static final class LaneState {
+    final Lane lane;
+    final Limits limits;
+    final Semaphore permits;
+    final AtomicInteger queued = new AtomicInteger();
+    final LongAdder admitted = new LongAdder(), queueFull = new LongAdder(), timedOut = new LongAdder();
+    final LongAdder waitNanos = new LongAdder();
+    volatile double serviceNanosAvg;   // Exponentially weighted hold time (approximate under races), for Retry-After
+
+    LaneState(Lane lane, Limits limits) {
+      this.lane = lane;
+      this.limits = limits;
+      permits = new Semaphore(limits.concurrency, true);
+    }
+
+    Permit acquire() {
+      long t0 = System.nanoTime();
+      if (!tryAcquire(0)) {
+        if (queued.incrementAndGet() > limits.queue) {
+          queued.decrementAndGet();
+          queueFull.increment();
+          throw new Overloaded(lane, "queue full", retryAfter());
+        }
+        boolean got;
+        try {
+          got = tryAcquire(limits.waitMillis);
+        } finally {
+          queued.decrementAndGet();
+        }
+        if (!got) {
+          timedOut.increment();
+          throw new Overloaded(lane, "queue wait exceeded " + limits.waitMillis + " ms", retryAfter());
+        }
+      }
+      long start = System.nanoTime();
+      waitNanos.add(start - t0);
+      admitted.increment();
+      return new Slot(this, start);
+    }
+
+    /** Fair acquire: never overtakes requests already waiting in this lane. */
+    private boolean tryAcquire(long waitMillis) {
+      try {
+        return permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+
+    void release(long start) {
+      long held = System.nanoTime() - start;
+      double avg = serviceNanosAvg;
+      serviceNanosAvg = avg == 0 ? held : avg + 0.1 * (held - avg);
+      permits.release();
+    }
+
+    /** Seconds until a queue place is likely free: queued work spread over the lane's slots. */
+    long retryAfter() {
+      double s = serviceNanosAvg / 1e9 * (queued.get() + 1) / limits.concurrency;
+      return Math.max(1, Math.min(MAX_RETRY_AFTER_SECONDS, (long) Math.ceil(s)));
+    }
+
+    Map<String, Number> stats() {
+      Map<String, Number> m = new LinkedHashMap<>();
+      m.put("concurrency", limits.concurrency);
+      m.put("queueCapacity", limits.queue);
+      m.put("maxWaitMs", limits.waitMillis);
+      m.put("active", limits.concurrency - permits.availablePermits());
+      m.put("queued", queued.get());
+      m.put("admitted", admitted.sum());
+      m.put("rejectedQueueFull", queueFull.sum());
+      m.put("rejectedTimeout", timedOut.sum());
+      long n = admitted.sum();
+      m.put("avgWaitMs", n == 0 ? 0.0 : waitNanos.sum() / 1e6 / n);
+      m.put("avgServiceMs", serviceNanosAvg / 1e6);
+      return m;
+    }
+  }
+
+  private static final class Slot implements Permit {
+    final LaneState lane;
+    final long start;
+    final AtomicInteger open = new AtomicInteger(1);
+
+    Slot(LaneState lane, long start) { this.lane = lane; this.start = start; }
+
+    @Override
+    public void close() {
+      if (open.compareAndSet(1, 0)) lane.release(start);
+    }
+  }
+}
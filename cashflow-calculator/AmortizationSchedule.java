@@ -0,0 +1,89 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.AmortizationScheduleResponse;
+
+import java.util.Arrays;
+
+/**
+ * Monthly-compounding amortization schedule (immutable, safe to share between threads).
+ * Month m runs 1..termMonths; the first `ioMonths` are interest-only, the rest amortize
+ * the full principal. Per-month interest, principal, payment and ending balance are
+ * precomputed once; callers read them through the accessors.
+ */
+public final class AmortizationSchedule {
+  public final double principal;
+  public final double annualRate;    // APR (as fraction), compounded monthly
+  public final int termMonths;       // Total term including interest-only months
+  public final int ioMonths;         // Initial interest-only months
+  public final double amortizingPayment; // Level payment once amortization starts
+  public final double totalInterest;
+
+  private final double[] interest, principalPaid, payment, balance; // index = month; balance[0] = principal
+
+  private AmortizationSchedule(double principal, double annualRate, int termMonths, int ioMonths) {
+    this.principal = principal; this.annualRate = annualRate;
+    this.termMonths = termMonths; this.ioMonths = ioMonths;
+    interest = new double[termMonths + 1]; principalPaid = new double[termMonths + 1];
+    payment = new double[termMonths + 1]; balance = new double[termMonths + 1];
+
+    double r = annualRate / 12;
+    int amortMonths = termMonths - ioMonths;
+    // Payment factor computed once per schedule
+    amortizingPayment = amortMonths <= 0 ? 0
+        : r == 0 ? principal / amortMonths : (principal * r) / (1 - Math.pow(1 + r, -amortMonths));
+
+    double bal = principal, totalI = 0;
+    balance[0] = bal;
+    for (int m = 1; m <= termMonths; m++) {
+      double i = bal * r;
+      double p = m <= ioMonths ? 0 : (m == termMonths ? bal : amortizingPayment - i);
+      interest[m] = i; principalPaid[m] = p; payment[m] = i + p;
+      totalI += i;
+      bal -= p;
+      balance[m] = m == termMonths ? 0 : bal;
+    }
+    totalInterest = totalI;
+  }
+
+  /** Build a schedule. `ioMonths` is clamped to the term; non-positive principal yields an all-zero schedule. */
+  public static AmortizationSchedule build(double principal, double annualRate, int termMonths, int ioMonths) {
+    if (termMonths < 1) throw new IllegalArgumentException("termMonths must be >= 1");
+    if (ioMonths < 0) throw new IllegalArgumentException("ioMonths must be >= 0");
+    return new AmortizationSchedule(Math.max(0, principal), annualRate, termMonths, Math.min(ioMonths, termMonths));
+  }
+
+  /** Interest paid in month m (0 outside 1..termMonths). */
+  public double interest(int m) { return inTerm(m) ? interest[m] : 0; }
+  /** Principal repaid in month m. */
+  public double principalPaid(int m) { return inTerm(m) ? principalPaid[m] : 0; }
+  /** Total payment in month m. */
+  public double payment(int m) { return inTerm(m) ? payment[m] : 0; }
+  /** Balance after month m (principal at m = 0, zero after maturity). */
+  public double balance(int m) { return m <= 0 ? principal : (m >= termMonths ? 0 : balance[m]); }
+
+  /** Sum of the 12 payments of year y (1-based). */
+  public double debtServiceYear(int y) {
+    double s = 0;
+    for (int m = (y - 1) * 12 + 1, end = y * 12; m <= end; m++) s += payment(m);
+    return s;
+  }
+
+  /** Balance at the end of year y. */
+  public double balanceEndOfYear(int y) { return balance(y * 12); }
+
+  /** Response DTO with copies of the monthly columns (the schedule itself stays immutable). */
+  public AmortizationScheduleResponse toResponse() {
+    AmortizationScheduleResponse out = new AmortizationScheduleResponse();
+    out.principal = principal; out.annualRate = annualRate;
+    out.termMonths = termMonths; out.interestOnlyMonths = ioMonths;
+    out.interestOnlyPayment = ioMonths > 0 ? payment[1] : 0;
+    out.amortizingPayment = amortizingPayment; out.totalInterest = totalInterest;
+    out.payment = Arrays.copyOfRange(payment, 1, termMonths + 1);
+    out.interest = Arrays.copyOfRange(interest, 1, termMonths + 1);
+    out.principalPaid = Arrays.copyOfRange(principalPaid, 1, termMonths + 1);
+    out.balance = Arrays.copyOfRange(balance, 1, termMonths + 1);
+    return out;
+  }
+
+  private boolean inTerm(int m) { return m >= 1 && m <= termMonths; }
+}
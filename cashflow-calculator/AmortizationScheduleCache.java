@@ -0,0 +1,86 @@
+package com.example.analysis.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, thread-safe LRU cache of monthly schedules keyed by (principal, rate, term, IO months).
+ * Most deals share a handful of standard loan terms, so they resolve to one precomputed
+ * schedule. Schedules are built outside the lock (a ReentrantLock, which virtual threads wait on
+ * without pinning their carrier); two threads racing on the same key may both build it, and the
+ * first one stored wins.
+ */
+public class AmortizationScheduleCache {
+
+  /**
+   * Process-wide cache behind GET /schedule and the monthly projection's loans. The yearly engine
+   * keeps its annual-compounding CashflowService.Amort tables, which are not monthly schedules.
+   */
+  public static final AmortizationScheduleCache SHARED = new AmortizationScheduleCache(512);
+
+  private final Map<Key, AmortizationSchedule> lru;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final LongAdder hits = new LongAdder(), misses = new LongAdder();
+
+  public AmortizationScheduleCache(int maxEntries) {
+    if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be >= 1");
+    this.lru = new LinkedHashMap<Key, AmortizationSchedule>(16, 0.75f, true) {
+      @Override protected boolean removeEldestEntry(Map.Entry<Key, AmortizationSchedule> e) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /** Cached schedule for these terms, building it on a miss. */
+  public AmortizationSchedule get(double principal, double annualRate, int termMonths, int ioMonths) {
+    Key k = new Key(principal, annualRate, termMonths, ioMonths);
+    AmortizationSchedule s;
+    lock.lock();
+    try {
+      s = lru.get(k);
+    } finally {
+      lock.unlock();
+    }
+    if (s != null) { hits.increment(); return s; }
+    misses.increment();
+    AmortizationSchedule built = AmortizationSchedule.build(principal, annualRate, termMonths, ioMonths);
+    lock.lock();
+    try {
+      s = lru.putIfAbsent(k, built);
+    } finally {
+      lock.unlock();
+    }
+    return s != null ? s : built;
+  }
+
+  public int size() {
+    lock.lock();
+    try {
+      return lru.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+  public long hits() { return hits.sum(); }
+  public long misses() { return misses.sum(); }
+
+  private static final class Key {
+    final double principal, rate; final int term, io;
+
+    Key(double principal, double rate, int term, int io) {
+      this.principal = principal; this.rate = rate; this.term = term; this.io = io;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (!(o instanceof Key)) return false;
+      Key k = (Key) o;
+      return Double.compare(principal, k.principal) == 0 && Double.compare(rate, k.rate) == 0
+          && term == k.term && io == k.io;
+    }
+
+    @Override public int hashCode() { return Objects.hash(principal, rate, term, io); }
+  }
+}
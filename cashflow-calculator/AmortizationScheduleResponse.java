@@ -0,0 +1,17 @@
+package com.example.analysis.dto;
+
+/** Output DTO for a monthly amortization schedule: parallel arrays, index 0 = month 1. */
+public class AmortizationScheduleResponse {
+  public double principal;
+  public double annualRate;          // APR, compounded monthly
+  public int termMonths;             // Total term including interest-only months
+  public int interestOnlyMonths;
+  public double interestOnlyPayment; // Monthly payment during the IO period
+  public double amortizingPayment;   // Level monthly payment after the IO period
+  public double totalInterest;
+
+  public double[] payment;           // Total payment per month
+  public double[] interest;          // Interest portion per month
+  public double[] principalPaid;     // Principal portion per month
+  public double[] balance;           // Ending balance per month
+}
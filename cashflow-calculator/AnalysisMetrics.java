@@ -0,0 +1,52 @@
+package com.example.analysis.service;
+
+/**
+ * Receives stage timings and IRR solver statistics from CashflowService.analyze. analyzed() is
+ * called for every analysis; stage() only for one in TIMING_SAMPLE per workspace (thread), as the
+ * clock reads would otherwise cost more than the cheaper stages themselves. A service built with
+ * NONE (the default) runs the untimed path; -Danalysis.metrics=false forces that for every
+ * service, and since ENABLED is a constant the JIT drops the checks and calls altogether.
+ * Implementations are called from every analysis thread and must be thread-safe and cheap.
+ */
+public interface AnalysisMetrics {
+
+  /** False when started with -Danalysis.metrics=false. */
+  boolean ENABLED = Boolean.parseBoolean(System.getProperty("analysis.metrics", "true"));
+
+  /** Stage timings for every n-th analysis per thread: -Danalysis.metrics.timingSample=n (default 8; 1 = all). */
+  int TIMING_SAMPLE = Math.max(1, Integer.getInteger("analysis.metrics.timingSample", 8));
+
+  /** Timed parts of analyze(), in execution order. */
+  enum Stage {
+    /** Income, opex and closing inputs plus scenario parameters (AnalysisStage INCOME, OPEX, CLOSING). */
+    INCOME_OPEX,
+    /** Loan amounts and the first / second loan tables (FINANCING). */
+    FINANCING,
+    /** Year-1 income stack and KPIs (YEAR_ONE_KPIS). */
+    YEAR_ONE,
+    /** Multi-year columnar projection (PROJECTION). */
+    PROJECTION,
+    /** Exit: equity multiple, IRR and MIRR (EXIT). */
+    IRR;
+
+    /** Lower-case name, e.g. "income_opex", for metric tags. */
+    public String tag() { return name().toLowerCase(); }
+  }
+
+  /** `nanos` spent in `stage` by one sampled analysis. */
+  void stage(Stage stage, long nanos);
+
+  /**
+   * One analysis finished: projection length in years, IRR solver iterations, whether an IRR
+   * was found (false = the summary's irr is null) and, if not, whether the cash flows have no IRR
+   * at all (IrrSolver.lastNoRoot()) rather than one the solver failed to converge on.
+   */
+  void analyzed(int years, int irrIterations, boolean irrFound, boolean irrNoRoot);
+
+  /** Records nothing; a CashflowService given NONE skips timing entirely. */
+  AnalysisMetrics NONE = new AnalysisMetrics() {
+    @Override public void stage(Stage stage, long nanos) {}
+    @Override public void analyzed(int years, int irrIterations, boolean irrFound, boolean irrNoRoot) {}
+    @Override public String toString() { return "AnalysisMetrics.NONE"; }
+  };
+}
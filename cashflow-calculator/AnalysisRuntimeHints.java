@@ -0,0 +1,78 @@
+package com.example.analysis.controller;
+
+import com.example.analysis.dto.AmortizationScheduleResponse;
+import com.example.analysis.dto.AnalysisSessionResponse;
+import com.example.analysis.dto.CashflowBatchItem;
+import com.example.analysis.dto.CashflowColumnsResponse;
+import com.example.analysis.dto.CashflowRequest;
+import com.example.analysis.dto.CashflowResponse;
+import com.example.analysis.dto.DealSelectionRequest;
+import com.example.analysis.dto.DealSelectionResponse;
+import com.example.analysis.dto.ExitCurveResponse;
+import com.example.analysis.dto.GoalSeekRequest;
+import com.example.analysis.dto.GoalSeekResponse;
+import com.example.analysis.dto.IrrRequest;
+import com.example.analysis.dto.IrrResponse;
+import com.example.analysis.dto.MonteCarloRequest;
+import com.example.analysis.dto.MonteCarloResponse;
+import com.example.analysis.dto.MonthlyProjectionRequest;
+import com.example.analysis.dto.MonthlyProjectionSummary;
+import com.example.analysis.dto.PortfolioRequest;
+import com.example.analysis.dto.PortfolioResponse;
+import com.example.analysis.dto.RepriceRequest;
+import com.example.analysis.dto.RepriceResponse;
+import com.example.analysis.dto.SavedDeal;
+import com.example.analysis.dto.SensitivityGridRequest;
+import com.example.analysis.dto.SensitivityGridResponse;
+import com.example.analysis.dto.TornadoRequest;
+import com.example.analysis.dto.TornadoResponse;
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * Reflection metadata for AOT-processed and GraalVM native builds of an application that hosts
+ * CashflowController (registered with @ImportRuntimeHints). Spring infers the @RequestBody and
+ * return types of handler methods, but not what the streamed endpoints read and write through
+ * their own mappers, the saved-deal log records, or the public fields RequestFields and
+ * SavedDealStore enumerate; every DTO is therefore registered explicitly, nested types included.
+ * Thread.isVirtual is looked up reflectively (VirtualThreads) and registered by name so the
+ * lookup also works on a Java 17 image, where it is simply absent.
+ */
+public class AnalysisRuntimeHints implements RuntimeHintsRegistrar {
+
+  /** Every type read or written as JSON / Smile / CBOR. */
+  static final List<Class<?>> DTOS = List.of(CashflowRequest.class, CashflowResponse.class,
+      CashflowColumnsResponse.class, CashflowBatchItem.class, ExitCurveResponse.class, MonthlyProjectionRequest.class,
+      MonthlyProjectionSummary.class, SensitivityGridRequest.class, SensitivityGridResponse.class, TornadoRequest.class,
+      TornadoResponse.class, MonteCarloRequest.class, MonteCarloResponse.class, GoalSeekRequest.class,
+      GoalSeekResponse.class, AnalysisSessionResponse.class, PortfolioRequest.class, PortfolioResponse.class,
+      DealSelectionRequest.class, DealSelectionResponse.class, SavedDeal.class, RepriceRequest.class,
+      RepriceResponse.class, IrrRequest.class, IrrResponse.class, AmortizationScheduleResponse.class);
+
+  static final String SAVED_DEAL_RECORD = "com.example.analysis.service.SavedDealStore$Record";
+
+  @Override
+  public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+    for (Class<?> dto : DTOS) registerDto(hints, dto);
+    // Package-private log record, bound by SavedDealStore's own mapper
+    hints.reflection().registerType(TypeReference.of(SAVED_DEAL_RECORD),
+        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.PUBLIC_FIELDS, MemberCategory.DECLARED_FIELDS);
+    hints.reflection().registerType(Thread.class, b -> b.withMethod("isVirtual", List.of(), ExecutableMode.INVOKE));
+  }
+
+  /**
+   * The DTOs bind through public fields (no getters for BindingReflectionHintsRegistrar to follow),
+   * so the type, its fields, and its nested types such as CashflowResponse.Summary are registered
+   * directly. PUBLIC_FIELDS also backs Class.getFields(), which RequestFields and SavedDealStore use.
+   */
+  private static void registerDto(RuntimeHints hints, Class<?> type) {
+    hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.PUBLIC_FIELDS,
+        MemberCategory.DECLARED_FIELDS);
+    for (Class<?> nested : type.getClasses()) registerDto(hints, nested);
+  }
+}
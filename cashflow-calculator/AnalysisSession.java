@@ -0,0 +1,120 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowRequest;
+import com.example.analysis.dto.CashflowResponse;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mutable analysis state behind one interactive session: the session's own copy of the request
+ * (boxed and primitive), its DealBase, first-loan table, projection columns and the last summary. An edit re-runs only
+ * the stages it invalidates (AnalysisStage) and warm-starts the IRR from the previous root.
+ * Edits to one session are serialized by `lock` (a ReentrantLock rather than a monitor, so a
+ * virtual thread waiting on a busy session parks instead of pinning its carrier); published
+ * responses are never modified afterwards.
+ */
+final class AnalysisSession {
+
+  final String id;
+  final ReentrantLock lock = new ReentrantLock();
+  private CashflowRequest req;
+  private final PrimitiveRequest prim;
+  private final DealBase base;
+  private final IrrSolver solver;
+  private double[][] first;
+  private ProjectionColumns cols;
+  private List<CashflowResponse.YearRow> rows;
+  private final PrimitiveSummary state = new PrimitiveSummary();
+  private CashflowResponse.Summary summary;     // published copy of `state`
+  private long version;
+  private volatile long lastAccess;
+
+  AnalysisSession(String id, CashflowRequest r, IrrSolver solver, long now) {
+    this.id = id;
+    this.req = RequestFields.copy(r);
+    this.prim = PrimitiveRequest.of(req);
+    this.solver = solver;
+    this.base = new DealBase(prim);
+    this.first = base.firstLoanTable(base.baseParams[DealBase.FIRST_RATE_ANNUAL]);
+    this.cols = new ProjectionColumns(base.hold);
+    this.lastAccess = now;
+    run(EnumSet.of(AnalysisStage.YEAR_ONE_KPIS, AnalysisStage.PROJECTION, AnalysisStage.EXIT));
+  }
+
+  long lastAccess() { return lastAccess; }
+
+  void touch(long now) { lastAccess = now; }
+
+  long version() {
+    lock.lock();
+    try {
+      return version;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Apply field edits and recompute what they invalidate. Returns the invalidated stages. */
+  EnumSet<AnalysisStage> apply(Map<String, Object> changes) {
+    lock.lock();
+    try {
+      return applyLocked(changes);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private EnumSet<AnalysisStage> applyLocked(Map<String, Object> changes) {
+    // Edit a copy so a bad patch leaves the session untouched
+    CashflowRequest edited = RequestFields.copy(req);
+    for (Map.Entry<String, Object> e : changes.entrySet()) RequestFields.assign(edited, e.getKey(), e.getValue());
+    req = edited;
+    prim.load(req);
+
+    EnumSet<AnalysisStage> dirty = AnalysisStage.invalidatedBy(changes.keySet());
+    version++;
+    if (dirty.isEmpty()) return dirty;
+
+    if (dirty.contains(AnalysisStage.INCOME)) base.income(prim);
+    if (dirty.contains(AnalysisStage.OPEX)) base.opex(prim);
+    if (dirty.contains(AnalysisStage.CLOSING)) base.closing(prim);
+    if (dirty.contains(AnalysisStage.FINANCING)) base.financing(prim);
+    base.params(prim);
+    if (dirty.contains(AnalysisStage.FINANCING)) first = base.firstLoanTable(base.baseParams[DealBase.FIRST_RATE_ANNUAL], first);
+    run(dirty);
+    return dirty;
+  }
+
+  /** Snapshot of the current result (rows and summary are not mutated by later edits). */
+  CashflowResponse result() {
+    lock.lock();
+    try {
+      CashflowResponse out = new CashflowResponse();
+      out.summary = summary;
+      out.projection = rows;
+      return out;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void run(EnumSet<AnalysisStage> dirty) {
+    PrimitiveSummary s = state;
+    if (dirty.contains(AnalysisStage.YEAR_ONE_KPIS)) CashflowService.yearOne(prim, base, first, s);
+    if (dirty.contains(AnalysisStage.PROJECTION)) {
+      if (cols.capacity() < base.hold) cols = new ProjectionColumns(base.hold);
+      ProjectionKernel.project(base, base.baseParams, first, cols);
+      rows = cols.toYearRows();
+    } else if (dirty.contains(AnalysisStage.EXIT)) {
+      ProjectionKernel.exit(base, base.baseParams[DealBase.EXIT_COST_RATE], first, cols);
+    }
+    if (dirty.contains(AnalysisStage.EXIT)) {
+      double guess = Double.isNaN(s.irr) ? NewtonBrentIrrSolver.DEFAULT_GUESS : s.irr;
+      CashflowService.exit(prim, cols, s, solver, guess);
+    }
+    summary = s.toSummary();
+  }
+}
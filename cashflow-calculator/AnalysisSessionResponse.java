@@ -0,0 +1,11 @@
+package com.example.analysis.dto;
+
+import java.util.List;
+
+/** Output DTO of an analysis session: the current result and what the last edit recomputed. */
+public class AnalysisSessionResponse {
+  public String sessionId;
+  public long version;                // Number of edits applied (0 right after opening)
+  public List<String> recomputed;     // Stages the last edit invalidated, in pipeline order
+  public CashflowResponse result;     // Same shape as POST /api/analysis/cashflow
+}
@@ -0,0 +1,135 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.AnalysisSessionResponse;
+import com.example.analysis.dto.CashflowRequest;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Interactive analysis sessions for slider-driven UIs. Opening a session runs a full analysis
+ * and keeps its intermediate state; each patch names the changed fields and recomputes only the
+ * stages they invalidate. Sessions live in a bounded LRU and expire after an idle timeout.
+ * The store lock only covers lookups; recomputation runs under the session's own lock, so
+ * concurrent users never wait on each other. Both are ReentrantLocks, so request handling on
+ * virtual threads parks rather than pinning a carrier thread while it waits.
+ */
+public class AnalysisSessionService {
+
+  public static final int DEFAULT_MAX_SESSIONS = 10_000;
+  public static final long DEFAULT_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+  private final int maxSessions;
+  private final long idleNanos;
+  private final Map<String, AnalysisSession> sessions;
+  private final ReentrantLock store = new ReentrantLock();
+
+  public AnalysisSessionService() { this(DEFAULT_MAX_SESSIONS, DEFAULT_IDLE_MILLIS); }
+
+  public AnalysisSessionService(int maxSessions, long idleMillis) {
+    if (maxSessions < 1) throw new IllegalArgumentException("maxSessions must be >= 1");
+    this.maxSessions = maxSessions;
+    this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+    this.sessions = new LinkedHashMap<String, AnalysisSession>(64, 0.75f, true) {
+      @Override protected boolean removeEldestEntry(Map.Entry<String, AnalysisSession> e) {
+        return size() > AnalysisSessionService.this.maxSessions;
+      }
+    };
+  }
+
+  /** Start a session with a full analysis of `r`. */
+  public AnalysisSessionResponse open(CashflowRequest r) {
+    if (r == null) throw new IllegalArgumentException("request body is required");
+    AnalysisSession s = new AnalysisSession(UUID.randomUUID().toString(), r, IrrSolver.newDefault(), System.nanoTime());
+    AnalysisSessionResponse out = response(s, EnumSet.allOf(AnalysisStage.class));
+    store.lock();
+    try {
+      sessions.put(s.id, s);
+    } finally {
+      store.unlock();
+    }
+    return out;
+  }
+
+  /**
+   * Apply changed fields ({"exitCostRate": 0.07, ...}; null clears a field) and return the
+   * updated result. Throws NoSuchElementException for unknown or expired sessions and
+   * IllegalArgumentException for unknown fields or mistyped values.
+   */
+  public AnalysisSessionResponse patch(String id, Map<String, Object> changes) {
+    if (changes == null || changes.isEmpty()) throw new IllegalArgumentException("at least one field is required");
+    AnalysisSession s = lookup(id);
+    s.lock.lock();
+    try {
+      return response(s, s.apply(changes));
+    } finally {
+      s.lock.unlock();
+    }
+  }
+
+  /** Current result without changes. */
+  public AnalysisSessionResponse get(String id) {
+    AnalysisSession s = lookup(id);
+    s.lock.lock();
+    try {
+      return response(s, EnumSet.noneOf(AnalysisStage.class));
+    } finally {
+      s.lock.unlock();
+    }
+  }
+
+  /** End a session; false if it did not exist. */
+  public boolean close(String id) {
+    store.lock();
+    try {
+      return sessions.remove(id) != null;
+    } finally {
+      store.unlock();
+    }
+  }
+
+  public int size() {
+    store.lock();
+    try {
+      return sessions.size();
+    } finally {
+      store.unlock();
+    }
+  }
+
+  private AnalysisSession lookup(String id) {
+    long now = System.nanoTime();
+    store.lock();
+    try {
+      AnalysisSession s = sessions.get(id);
+      if (s != null && now - s.lastAccess() > idleNanos) {
+        sessions.remove(id);
+        s = null;
+      }
+      if (s == null) throw new NoSuchElementException("no such session: " + id);
+      s.touch(now);
+      return s;
+    } finally {
+      store.unlock();
+    }
+  }
+
+  /** Build the response under the session lock so version and result match. */
+  private static AnalysisSessionResponse response(AnalysisSession s, EnumSet<AnalysisStage> recomputed) {
+    AnalysisSessionResponse out = new AnalysisSessionResponse();
+    out.sessionId = s.id;
+    out.version = s.version();
+    List<String> names = new ArrayList<>(recomputed.size());
+    for (AnalysisStage st : recomputed) names.add(st.name());
+    out.recomputed = names;
+    out.result = s.result();
+    return out;
+  }
+}
@@ -0,0 +1,58 @@
+package com.example.analysis.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Stages of CashflowService.analyze with the request fields each one reads. INCOME, OPEX,
+ * CLOSING and FINANCING feed both YEAR_ONE_KPIS and PROJECTION; PROJECTION feeds EXIT.
+ * An edit invalidates the stages that read a changed field plus everything downstream of them,
+ * e.g. exitCostRate only invalidates EXIT. Fields read by no stage (address, city, state, zip)
+ * invalidate nothing.
+ */
+public enum AnalysisStage {
+  INCOME("grossRentsAnnual", "parkingAnnual", "storageAnnual", "laundryVendingAnnual", "otherIncomeAnnual",
+      "managementRate", "repairsRate", "managementBase"),
+  OPEX("propertyTaxes", "insurance", "electricity", "gas", "waterSewer", "cable", "caretaking", "advertising",
+      "associationFees", "pest", "security", "trash", "misc", "commonAreaMaintenance", "capitalImprovements",
+      "accounting", "legal", "badDebts", "evictions", "otherExpenses"),
+  CLOSING("offerPrice", "repairs", "repairsContingency", "lenderFee", "brokerFee", "environmentals", "inspections",
+      "appraisals", "transferTax", "legalClose", "otherClosingCosts", "firstPrincipal", "secondPrincipal"),
+  FINANCING("firstPrincipal", "firstRateAnnual", "firstAmortYears", "firstInterestOnlyYears", "secondPrincipal",
+      "secondRateAnnual", "secondAmortYears", "otherMonthlyFinancingCosts", "holdYears"),
+  YEAR_ONE_KPIS("vacancyRate", "fmv", "offerPrice", "numberOfUnits", "grossRentsAnnual", "firstPrincipal",
+      "annualAppreciation"),
+  PROJECTION("vacancyRate", "rentGrowth", "expenseGrowth", "annualAppreciation", "offerPrice", "holdYears"),
+  EXIT("exitCostRate", "financeRate", "reinvestRate", "firstRateAnnual");
+
+  private final List<String> inputs;
+
+  AnalysisStage(String... inputs) { this.inputs = Collections.unmodifiableList(Arrays.asList(inputs)); }
+
+  /** Request fields this stage reads directly. */
+  public List<String> inputs() { return inputs; }
+
+  /** Stages that consume this stage's output, transitively. */
+  public EnumSet<AnalysisStage> downstream() {
+    switch (this) {
+      case INCOME: case OPEX: case CLOSING: case FINANCING: return EnumSet.of(YEAR_ONE_KPIS, PROJECTION, EXIT);
+      case PROJECTION: return EnumSet.of(EXIT);
+      default: return EnumSet.noneOf(AnalysisStage.class);
+    }
+  }
+
+  /** Stages to recompute after `fields` change. */
+  public static EnumSet<AnalysisStage> invalidatedBy(Collection<String> fields) {
+    EnumSet<AnalysisStage> out = EnumSet.noneOf(AnalysisStage.class);
+    for (AnalysisStage s : values()) {
+      if (out.contains(s)) continue;
+      for (String f : fields) {
+        if (s.inputs.contains(f)) { out.add(s); out.addAll(s.downstream()); break; }
+      }
+    }
+    return out;
+  }
+}
@@ -0,0 +1,52 @@
+package com.example.analysis.service;
+
+/**
+ * Reusable scratch state for one analysis at a time: the primitive request, DealBase, first-loan
+ * table, projection columns, exit curve, IRR solver and primitive summary. Tables grow to the
+ * longest hold seen and are then reused, so a warm CashflowService.analyze(PrimitiveRequest,
+ * workspace) allocates nothing. Not thread-safe: CashflowService keeps one per thread, batch callers may
+ * keep one per worker.
+ */
+public final class AnalysisWorkspace {
+
+  /** Holds longer than this are analyzed but not kept cached in the per-thread workspace. */
+  public static final int RETAIN_YEARS = 100;
+
+  final PrimitiveRequest request = new PrimitiveRequest();
+  final DealBase base = new DealBase();
+  final PrimitiveSummary summary = new PrimitiveSummary();
+  final IrrSolver solver;
+  double[][] loan;
+  ProjectionColumns cols = new ProjectionColumns(30);
+  ExitCurve curve;
+  int untilTimed;   // Analyses until the next one with stage timings (AnalysisMetrics.TIMING_SAMPLE)
+
+  public AnalysisWorkspace() { this(IrrSolver.newDefault()); }
+
+  public AnalysisWorkspace(IrrSolver solver) { this.solver = solver; }
+
+  /** Request slots owned by this workspace (fill in place to avoid a PrimitiveRequest per item). */
+  public PrimitiveRequest request() { return request; }
+
+  /** Summary of the last analysis. */
+  public PrimitiveSummary summary() { return summary; }
+
+  /** Projection of the last analysis (`years` rows). */
+  public ProjectionColumns columns() { return cols; }
+
+  /** Exit curve of the last CashflowService.exitCurve call on this workspace. */
+  public ExitCurve exitCurve() { return curve; }
+
+  /** Exit curve with room for `years` exits (created on first use), `years` set. */
+  ExitCurve exitCurve(int years) {
+    if (curve == null || curve.capacity() < years) curve = new ExitCurve(Math.max(years, curve == null ? 30 : curve.capacity() * 2));
+    curve.years = years;
+    return curve;
+  }
+
+  /** Columns with room for `years` rows, growing them if needed. */
+  ProjectionColumns columns(int years) {
+    if (cols.capacity() < years) cols = new ProjectionColumns(Math.max(years, cols.capacity() * 2));
+    return cols;
+  }
+}
@@ -0,0 +1,148 @@
+package com.example.analysis.service;
+
+import java.util.Arrays;
+
+/**
+ * NPV / IRR over many short cash-flow vectors at once. Vectors are stored column-wise (lane j,
+ * period t at cf[t * maxLanes + j], shorter vectors zero-padded), so each Horner step runs
+ * across all lanes in SIMD: with `--add-modules jdk.incubator.vector` on the JDK Vector API,
+ * otherwise in plain lane loops (set -Danalysis.simd=false to force those). Newton steps are
+ * taken in lock-step for every lane with the same rules as NewtonBrentIrrSolver, and lanes that
+ * leave Newton are re-solved by it, so results and iteration counts match the scalar solver
+ * exactly. Not thread-safe; keep one per worker.
+ */
+public final class BatchIrrEvaluator {
+
+  private static final NpvKernel DEFAULT_KERNEL = pickKernel();
+
+  private final NpvKernel kernel;
+  private final int maxLanes, maxPeriods;
+  private final double[] cf;
+  private final int[] len;
+  private final double[] x, v, p, dp, col;
+  private final boolean[] active, retry;
+  private final NewtonBrentIrrSolver fallback = new NewtonBrentIrrSolver();
+  private int lanes, periods;
+
+  public BatchIrrEvaluator(int maxLanes, int maxPeriods) { this(maxLanes, maxPeriods, DEFAULT_KERNEL); }
+
+  BatchIrrEvaluator(int maxLanes, int maxPeriods, NpvKernel kernel) {
+    if (maxLanes < 1 || maxPeriods < 1) throw new IllegalArgumentException("maxLanes and maxPeriods must be >= 1");
+    this.kernel = kernel;
+    this.maxLanes = maxLanes; this.maxPeriods = maxPeriods;
+    cf = new double[maxLanes * maxPeriods];
+    len = new int[maxLanes];
+    x = new double[maxLanes]; v = new double[maxLanes]; p = new double[maxLanes]; dp = new double[maxLanes];
+    active = new boolean[maxLanes]; retry = new boolean[maxLanes];
+    col = new double[maxPeriods];
+  }
+
+  /** True when the Vector API kernel is in use by default. */
+  public static boolean vectorized() { return DEFAULT_KERNEL != NpvKernel.SCALAR; }
+
+  /** Name of this evaluator's kernel, e.g. "vector-4" or "scalar". */
+  public String kernel() { return kernel.toString(); }
+
+  public int lanes() { return lanes; }
+
+  public int capacity() { return maxLanes; }
+
+  /** Drop all lanes. */
+  public void clear() {
+    if (periods > 0) Arrays.fill(cf, 0, periods * maxLanes, 0);
+    lanes = 0; periods = 0;
+  }
+
+  /** Append cash[0..n) as the next lane and return its index. */
+  public int add(double[] cash, int n) {
+    if (lanes == maxLanes) throw new IllegalStateException("batch is full (" + maxLanes + " lanes)");
+    if (n < 0 || n > maxPeriods) throw new IllegalArgumentException("vector length must be 0.." + maxPeriods);
+    int j = lanes++;
+    for (int t = 0; t < n; t++) cf[t * maxLanes + j] = cash[t];
+    len[j] = n;
+    if (n > periods) periods = n;
+    return j;
+  }
+
+  /** NPV of every lane at `rate` into out[0..lanes). */
+  public void npv(double rate, double[] out) {
+    Arrays.fill(v, 0, lanes, 1 / (1 + rate));
+    horner();
+    System.arraycopy(p, 0, out, 0, lanes);
+  }
+
+  /** NPV of lane j at rates[j] into out[j]. */
+  public void npv(double[] rates, double[] out) {
+    for (int j = 0; j < lanes; j++) v[j] = 1 / (1 + rates[j]);
+    horner();
+    System.arraycopy(p, 0, out, 0, lanes);
+  }
+
+  /**
+   * IRR of every lane, Newton from `guess`, into out[0..lanes) (NaN where there is none);
+   * iterations per lane into `iterations` when given.
+   */
+  public void irr(double guess, double[] out, int[] iterations) {
+    double g = (guess > -1 && guess < Double.POSITIVE_INFINITY) ? guess : NewtonBrentIrrSolver.DEFAULT_GUESS;
+    int open = 0;
+    for (int j = 0; j < lanes; j++) {
+      x[j] = g;
+      active[j] = len[j] >= 2;
+      retry[j] = false;
+      if (active[j]) open++;
+      out[j] = Double.NaN;
+      if (iterations != null) iterations[j] = 0;
+    }
+    for (int i = 0; i < NewtonBrentIrrSolver.MAX_NEWTON && open > 0; i++) {
+      for (int j = 0; j < lanes; j++) v[j] = 1 / (1 + x[j]);
+      horner();
+      for (int j = 0; j < lanes; j++) {
+        if (!active[j]) continue;
+        if (iterations != null) iterations[j]++;
+        double vj = v[j], d = -vj * vj * dp[j];
+        double x1 = x[j] - p[j] / d;
+        if (d == 0 || Double.isNaN(d) || Double.isInfinite(d) || Double.isNaN(x1) || Double.isInfinite(x1) || x1 <= -1) {
+          // Leaves Newton: resolved by the scalar solver below
+          active[j] = false; open--;
+          retry[j] = true;
+        } else if (Math.abs(x1 - x[j]) < NewtonBrentIrrSolver.STEP_TOL) {
+          active[j] = false; open--;
+          out[j] = x1;
+        } else {
+          x[j] = x1;
+        }
+      }
+    }
+    for (int j = 0; j < lanes; j++) {
+      if (!active[j] && !retry[j]) continue;
+      // Newton failed or ran out of steps: same answer (and count) as a scalar solve
+      int n = len[j];
+      for (int t = 0; t < n; t++) col[t] = cf[t * maxLanes + j];
+      out[j] = fallback.irr(col, n, g);
+      if (iterations != null) iterations[j] = fallback.lastIterations();
+    }
+  }
+
+  /** NPV of one vector cash[0..n) at rates[0..k) into out (many rate guesses in one pass). */
+  public static void npvAtRates(double[] cash, int n, double[] rates, int k, double[] out) {
+    if (n == 0) { Arrays.fill(out, 0, k, 0); return; }
+    double[] v = new double[k];
+    for (int j = 0; j < k; j++) v[j] = 1 / (1 + rates[j]);
+    DEFAULT_KERNEL.points(cash, n, v, k, out);
+  }
+
+  private void horner() {
+    if (periods == 0) { Arrays.fill(p, 0, lanes, 0); Arrays.fill(dp, 0, lanes, 0); return; }
+    kernel.lanes(cf, maxLanes, lanes, periods, v, p, dp);
+  }
+
+  private static NpvKernel pickKernel() {
+    if (!Boolean.parseBoolean(System.getProperty("analysis.simd", "true"))) return NpvKernel.SCALAR;
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return NpvKernel.SCALAR;
+    try {
+      return new VectorNpvKernel();
+    } catch (LinkageError e) {
+      return NpvKernel.SCALAR;
+    }
+  }
+}
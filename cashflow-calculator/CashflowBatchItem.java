@@ -0,0 +1,17 @@
+package com.example.analysis.dto;
+
+/**
+ * One line of a batch (NDJSON) analysis response.
+ * Exactly one of `result` / `error` is set; `index` is the 0-based position in the input.
+ */
+public class CashflowBatchItem {
+  public long index;                 // Position of the request in the input batch
+  public CashflowResponse result;    // Analysis output (null on error)
+  public String error;               // Per-item error message (null on success)
+
+  public CashflowBatchItem() {}
+
+  public CashflowBatchItem(long index, CashflowResponse result, String error) {
+    this.index = index; this.result = result; this.error = error;
+  }
+}
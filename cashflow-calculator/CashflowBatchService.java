@@ -0,0 +1,118 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowBatchItem;
+import com.example.analysis.dto.CashflowRequest;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs CashflowService.analyze over a (possibly unbounded) stream of requests in parallel.
+ * At most `parallelism` requests are in flight per batch; results are handed to the sink
+ * in input order as soon as the head of the window completes, so memory stays bounded
+ * by the window rather than the batch size. Per-item failures become error items.
+ */
+public class CashflowBatchService {
+
+  /** Upper bound for the per-batch parallelism (one worker per core). */
+  public static final int MAX_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+  // Shared by all batches; daemon threads so an idle pool never blocks shutdown
+  private static final ExecutorService POOL = Executors.newFixedThreadPool(MAX_PARALLELISM, task -> {
+    Thread t = new Thread(task, "cashflow-batch");
+    t.setDaemon(true);
+    return t;
+  });
+
+  /** Pull-based input. `next()` may throw for a single unreadable item; `hasNext()` failures end the batch. */
+  public interface Source {
+    boolean hasNext() throws IOException;
+    CashflowRequest next() throws IOException;
+  }
+
+  /** Receives finished items in input order. */
+  public interface Sink {
+    void accept(CashflowBatchItem item) throws IOException;
+  }
+
+  private final CashflowService svc;
+
+  public CashflowBatchService(CashflowService svc) { this.svc = svc; }
+
+  /** Clamp a caller-supplied parallelism to [1, MAX_PARALLELISM]; null/non-positive means all cores. */
+  public static int clampParallelism(Integer requested) {
+    if (requested == null || requested <= 0) return MAX_PARALLELISM;
+    return Math.min(requested, MAX_PARALLELISM);
+  }
+
+  /** Analyze every request from `in` and emit one item per request to `out`. Returns the item count. */
+  public long run(Source in, int parallelism, Sink out) throws IOException {
+    int window = clampParallelism(parallelism);
+    ArrayDeque<Future<CashflowBatchItem>> inFlight = new ArrayDeque<>(window);
+    long index = 0;
+    try {
+      while (true) {
+        boolean more;
+        try {
+          more = in.hasNext();
+        } catch (IOException e) {
+          // Malformed stream: flush what we have, then report the failure as the last item
+          drain(inFlight, out);
+          out.accept(new CashflowBatchItem(index, null, "Unreadable input: " + e.getMessage()));
+          return index + 1;
+        }
+        if (!more) break;
+
+        final long i = index++;
+        CashflowRequest req;
+        try {
+          req = in.next();
+        } catch (IOException e) {
+          inFlight.add(CompletableFuture.completedFuture(
+              new CashflowBatchItem(i, null, "Invalid request: " + e.getMessage())));
+          if (inFlight.size() >= window) out.accept(await(inFlight.poll()));
+          continue;
+        }
+        inFlight.add(POOL.submit(() -> analyzeOne(i, req)));
+        if (inFlight.size() >= window) out.accept(await(inFlight.poll()));
+      }
+      drain(inFlight, out);
+      return index;
+    } finally {
+      // Client went away or we were interrupted: don't keep computing results nobody reads
+      for (Future<CashflowBatchItem> f : inFlight) f.cancel(true);
+    }
+  }
+
+  private CashflowBatchItem analyzeOne(long index, CashflowRequest req) {
+    if (req == null) return new CashflowBatchItem(index, null, "Invalid request: null");
+    try {
+      return new CashflowBatchItem(index, svc.analyze(req), null);
+    } catch (RuntimeException e) {
+      return new CashflowBatchItem(index, null, e.getClass().getSimpleName()
+          + (e.getMessage() != null ? ": " + e.getMessage() : ""));
+    }
+  }
+
+  private static void drain(ArrayDeque<Future<CashflowBatchItem>> inFlight, Sink out) throws IOException {
+    while (!inFlight.isEmpty()) out.accept(await(inFlight.poll()));
+  }
+
+  private static CashflowBatchItem await(Future<CashflowBatchItem> f) throws IOException {
+    try {
+      return f.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Batch interrupted");
+    } catch (ExecutionException e) {
+      // analyzeOne never throws; keep the contract anyway
+      throw new IOException(e.getCause());
+    }
+  }
+}
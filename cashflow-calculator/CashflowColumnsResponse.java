@@ -0,0 +1,49 @@
+package com.example.analysis.dto;
+
+import java.util.List;
+
+/**
+ * CashflowResponse with the projection packed column-wise into primitive arrays (index = year - 1),
+ * returned for `layout=columns`. Same numbers, no per-row objects or repeated field names, which
+ * keeps long projections small on the wire (especially in CBOR / Smile).
+ */
+public class CashflowColumnsResponse {
+  public CashflowResponse.Summary summary;
+  public Columns projection;
+
+  public static class Columns {
+    public int years;
+    public double[] totalIncome, vacancyLoss, egi;
+    public double[] management, repairsRateBased, totalExpenses, noi;
+    public double[] debtService, cashFlowBeforeTax;
+    public double[] endingBalanceFirst, endingBalanceSecond;
+    public double[] propertyValue;
+  }
+
+  /** Pack a row-wise response (missing values become NaN). */
+  public static CashflowColumnsResponse of(CashflowResponse r) {
+    CashflowColumnsResponse out = new CashflowColumnsResponse();
+    out.summary = r.summary;
+    List<CashflowResponse.YearRow> rows = r.projection;
+    int n = rows == null ? 0 : rows.size();
+    Columns c = new Columns();
+    c.years = n;
+    c.totalIncome = new double[n]; c.vacancyLoss = new double[n]; c.egi = new double[n];
+    c.management = new double[n]; c.repairsRateBased = new double[n]; c.totalExpenses = new double[n];
+    c.noi = new double[n]; c.debtService = new double[n]; c.cashFlowBeforeTax = new double[n];
+    c.endingBalanceFirst = new double[n]; c.endingBalanceSecond = new double[n]; c.propertyValue = new double[n];
+    for (int i = 0; i < n; i++) {
+      CashflowResponse.YearRow y = rows.get(i);
+      c.totalIncome[i] = v(y.totalIncome); c.vacancyLoss[i] = v(y.vacancyLoss); c.egi[i] = v(y.egi);
+      c.management[i] = v(y.management); c.repairsRateBased[i] = v(y.repairsRateBased);
+      c.totalExpenses[i] = v(y.totalExpenses); c.noi[i] = v(y.noi);
+      c.debtService[i] = v(y.debtService); c.cashFlowBeforeTax[i] = v(y.cashFlowBeforeTax);
+      c.endingBalanceFirst[i] = v(y.endingBalanceFirst); c.endingBalanceSecond[i] = v(y.endingBalanceSecond);
+      c.propertyValue[i] = v(y.propertyValue);
+    }
+    out.projection = c;
+    return out;
+  }
+
+  private static double v(Double d) { return d == null ? Double.NaN : d; }
+}
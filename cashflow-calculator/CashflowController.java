@@ -1,22 +1,556 @@
 package com.example.analysis.controller;
 
+import com.example.analysis.dto.AmortizationScheduleResponse;
+import com.example.analysis.dto.AnalysisSessionResponse;
+import com.example.analysis.dto.CashflowColumnsResponse;
 import com.example.analysis.dto.CashflowRequest;
 import com.example.analysis.dto.CashflowResponse;
+import com.example.analysis.dto.ExitCurveResponse;
+import com.example.analysis.dto.GoalSeekRequest;
+import com.example.analysis.dto.GoalSeekResponse;
+import com.example.analysis.dto.IrrRequest;
+import com.example.analysis.dto.IrrResponse;
+import com.example.analysis.dto.MonteCarloRequest;
+import com.example.analysis.dto.MonthlyProjectionRequest;
+import com.example.analysis.dto.MonthlyProjectionSummary;
+import com.example.analysis.dto.MonteCarloResponse;
+import com.example.analysis.dto.DealSelectionRequest;
+import com.example.analysis.dto.DealSelectionResponse;
+import com.example.analysis.dto.PortfolioRequest;
+import com.example.analysis.dto.PortfolioResponse;
+import com.example.analysis.dto.RepriceRequest;
+import com.example.analysis.dto.RepriceResponse;
+import com.example.analysis.dto.SavedDeal;
+import com.example.analysis.dto.SensitivityGridRequest;
+import com.example.analysis.dto.SensitivityGridResponse;
+import com.example.analysis.dto.TornadoRequest;
+import com.example.analysis.dto.TornadoResponse;
+import com.example.analysis.service.AdmissionGate;
+import com.example.analysis.service.AnalysisMetrics;
+import com.example.analysis.service.AmortizationScheduleCache;
+import com.example.analysis.service.AnalysisSessionService;
+import com.example.analysis.service.CashflowBatchService;
+import com.example.analysis.service.CashflowResultCache;
 import com.example.analysis.service.CashflowService;
+import com.example.analysis.service.GoalSeekService;
+import com.example.analysis.service.IrrSolver;
+import com.example.analysis.service.MonteCarloService;
+import com.example.analysis.service.MonthlyChunk;
+import com.example.analysis.service.MonthlyProjectionService;
+import com.example.analysis.service.NewtonBrentIrrSolver;
+import com.example.analysis.service.DealSelectionService;
+import com.example.analysis.service.PortfolioService;
+import com.example.analysis.service.SavedDealStore;
+import com.example.analysis.service.SensitivityGridService;
+import com.example.analysis.service.TornadoService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 /**
- * REST controller exposing the cashflow analysis endpoint.
- * POST /api/analysis/cashflow  ->  returns summary KPIs and yearly projection.
+ * REST controller exposing the cashflow analysis endpoints. JSON by default; every endpoint also
+ * reads and writes CBOR (application/cbor) and Smile (application/x-jackson-smile) by
+ * Content-Type / Accept. Computing endpoints pass an AdmissionGate lane: single-deal calls are
+ * INTERACTIVE, batch / grid / simulation / portfolio calls BULK; a saturated lane answers 429
+ * with Retry-After instead of tying up request threads. When Micrometer is on the classpath the
+ * analyses behind /cashflow, /batch and /goal-seek report stage timings and IRR statistics to
+ * Metrics.globalRegistry (see MicrometerAnalysisMetrics); -Danalysis.metrics=false turns that off.
+ * AOT / native-image builds of the hosting application pick up AnalysisRuntimeHints.
+ * POST /api/analysis/cashflow        ->  returns summary KPIs and yearly projection (cached).
+ * GET|DELETE /api/analysis/cashflow/cache -> result cache counters / clear the cache.
+ * POST /api/analysis/cashflow/batch  ->  streams one NDJSON result line per request.
+ * POST /api/analysis/cashflow/exit-curve -> IRR / equity multiple / sale proceeds for every exit year.
+ * POST /api/analysis/cashflow/monthly ->  streams a month-by-month projection in chunks, then IRR / XIRR.
+ * POST /api/analysis/cashflow/grid   ->  IRR / equity multiple / DSCR matrices over assumption axes.
+ * POST /api/analysis/cashflow/tornado -> inputs ranked by IRR / NOI / cash-on-cash swing under +/-X%.
+ * POST /api/analysis/cashflow/simulate -> Monte Carlo outcome distributions.
+ * POST /api/analysis/cashflow/goal-seek -> input value (e.g. max offer price) meeting target KPIs.
+ * POST /api/analysis/sessions        ->  open an interactive session (full analysis, kept warm).
+ * PATCH|GET|DELETE /api/analysis/sessions/{id} -> edit fields and recompute affected stages / read / close.
+ * POST /api/analysis/deals          ->  save a deal (request + latest summary) under a new id; PUT /deals/{id} under yours.
+ * GET|DELETE /api/analysis/deals/{id} -> read (optionally with projection) / remove a saved deal; GET /deals lists.
+ * POST /api/analysis/deals/reprice   ->  apply assumption overrides to all / filtered saved deals, report KPI deltas.
+ * POST /api/analysis/portfolio       ->  calendar-year roll-up of many properties with portfolio IRR.
+ * POST /api/analysis/portfolio/select -> max-NPV subset of candidate deals under an equity budget and limits.
+ * POST /api/analysis/irr             ->  IRR / XIRR / MIRR of an arbitrary cash-flow vector.
+ * GET  /api/analysis/schedule        ->  monthly amortization schedule (shared, cached).
+ * GET  /api/analysis/admission       ->  admission-control lanes: limits, active / queued requests, rejects.
  */
 @RestController
 @RequestMapping("/api/analysis")
+@ImportRuntimeHints(AnalysisRuntimeHints.class)
 public class CashflowController {
 
-  private final CashflowService svc = new CashflowService();
+  private final CashflowService svc = new CashflowService(IrrSolver::newDefault, analysisMetrics());
+  private final CashflowResultCache results = new CashflowResultCache(svc, CashflowResultCache.DEFAULT_MAX_ROWS);
+  private final CashflowBatchService batch = new CashflowBatchService(svc);
+  private final SensitivityGridService grid = new SensitivityGridService();
+  private final TornadoService tornado = new TornadoService();
+  private final MonteCarloService monteCarlo = new MonteCarloService();
+  private final MonthlyProjectionService monthly = new MonthlyProjectionService();
+  private final GoalSeekService goalSeek = new GoalSeekService(svc);
+  private final PortfolioService portfolio = new PortfolioService();
+  private final DealSelectionService selection = new DealSelectionService();
+  private final AnalysisSessionService sessions = new AnalysisSessionService();
+  private final AdmissionGate admission = new AdmissionGate();
+  private final ReentrantLock dealsOpen = new ReentrantLock();
+  private volatile SavedDealStore deals;
+
+  /** Micrometer-backed metrics when enabled and Micrometer is present, else none. */
+  private static AnalysisMetrics analysisMetrics() {
+    if (!AnalysisMetrics.ENABLED
+        || !ClassUtils.isPresent("io.micrometer.core.instrument.MeterRegistry", CashflowController.class.getClassLoader()))
+      return AnalysisMetrics.NONE;
+    return MicrometerAnalysisMetrics.global();
+  }
 
+  /**
+   * Single analysis, served from the result cache when an equivalent request was seen.
+   * `Cache-Control: no-cache` recomputes and refreshes the entry; `no-store` bypasses the cache.
+   * The `X-Cache` response header is HIT, MISS, REFRESH (no-cache) or BYPASS (no-store).
+   * `layout=columns` packs the projection into one primitive array per field
+   * (CashflowColumnsResponse) instead of one object per year.
+   */
   @PostMapping("/cashflow")
-  public CashflowResponse analyze(@RequestBody CashflowRequest req){
-    return svc.analyze(req);
+  public ResponseEntity<Object> analyze(@RequestBody CashflowRequest req,
+                                        @RequestHeader(value="Cache-Control", required=false) String cacheControl,
+                                        @RequestParam(required=false) String layout){
+    boolean columns = "columns".equalsIgnoreCase(layout);
+    if (layout != null && !columns && !"rows".equalsIgnoreCase(layout))
+      throw new IllegalArgumentException("layout must be rows or columns");
+    boolean noStore = cacheControl != null && cacheControl.contains("no-store");
+    boolean noCache = noStore || (cacheControl != null && cacheControl.contains("no-cache"));
+    CashflowResponse out = noCache ? null : results.get(req);
+    String status = "HIT";
+    if (out == null) {
+      out = admitted(AdmissionGate.Lane.INTERACTIVE, () -> svc.analyze(req));
+      if (!noStore) results.put(req, out);
+      status = noStore ? "BYPASS" : noCache ? "REFRESH" : "MISS";
+    }
+    return ResponseEntity.ok().header("X-Cache", status).body(columns ? CashflowColumnsResponse.of(out) : out);
+  }
+
+  /**
+   * Admission control per lane (interactive, bulk): limits, active and queued requests, admitted
+   * and rejected counts (queue full / wait exceeded), average queue wait and service time.
+   */
+  @GetMapping("/admission")
+  public Map<String, Map<String, Number>> admissionStats(){
+    return admission.stats();
+  }
+
+  /** Result cache counters. */
+  @GetMapping("/cashflow/cache")
+  public Map<String, Long> cacheStats(){
+    return Map.of("hits", results.hits(), "misses", results.misses(), "evictions", results.evictions(),
+        "entries", (long) results.size(), "rows", results.rows(), "maxRows", (long) results.maxRows());
+  }
+
+  @DeleteMapping("/cashflow/cache")
+  public ResponseEntity<Void> clearCache(){
+    results.clear();
+    return ResponseEntity.noContent().build();
+  }
+
+  /**
+   * Batch analysis. Body is a JSON array or an NDJSON stream of CashflowRequest (or a sequence of
+   * Smile / CBOR values, by Content-Type); it is read incrementally and results are written as
+   * they complete, in input order, each tagged with its 0-based `index`. Per-item failures are
+   * reported inline in `error`. Output is NDJSON unless Accept asks for Smile or CBOR, in which
+   * case it is a sequence of binary values (application/x-jackson-smile, application/cbor-seq).
+   * Example: POST /api/analysis/cashflow/batch?parallelism=8
+   */
+  @PostMapping(value = "/cashflow/batch",
+               produces = { MediaType.APPLICATION_NDJSON_VALUE, WireFormat.SMILE_VALUE, "application/cbor-seq", WireFormat.CBOR_VALUE })
+  public ResponseEntity<StreamingResponseBody> analyzeBatch(InputStream body,
+                                                            @RequestParam(required=false) Integer parallelism,
+                                                            @RequestHeader(value="Content-Type", required=false) String contentType,
+                                                            @RequestHeader(value="Accept", required=false) String accept){
+    int p = CashflowBatchService.clampParallelism(parallelism);
+    WireFormat in = WireFormat.forContentType(contentType), outFormat = WireFormat.forAccept(accept);
+    AdmissionGate.Permit permit = admission.acquire(AdmissionGate.Lane.BULK);
+    StreamingResponseBody stream = holding(permit, out -> {
+      try (MappingIterator<CashflowRequest> it = in.mapper().readerFor(CashflowRequest.class).readValues(body)) {
+        CashflowBatchService.Source source = new CashflowBatchService.Source() {
+          public boolean hasNext() throws IOException { return it.hasNextValue(); }
+          public CashflowRequest next() throws IOException { return it.nextValue(); }
+        };
+        if (outFormat == WireFormat.JSON) {
+          batch.run(source, p, item -> {
+            out.write(outFormat.mapper().writeValueAsBytes(item));
+            out.write('\n');
+            out.flush();
+          });
+          return;
+        }
+        // One generator for the whole stream so Smile back-references span items
+        try (SequenceWriter w = outFormat.mapper().writer().writeValues(out)) {
+          batch.run(source, p, item -> { w.write(item); w.flush(); });
+        }
+      }
+    });
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType(outFormat.streamType())).body(stream);
+  }
+
+  /**
+   * Exit curve: sale proceeds, IRR and equity multiple for selling at the end of each year
+   * 1..holdYears, from one projection (instead of one analysis per candidate hold).
+   * Example: POST /api/analysis/cashflow/exit-curve  body: {...,"holdYears":30}
+   */
+  @PostMapping("/cashflow/exit-curve")
+  public ExitCurveResponse exitCurve(@RequestBody CashflowRequest req){
+    return admitted(AdmissionGate.Lane.INTERACTIVE, () -> svc.exitCurve(req));
+  }
+
+  /**
+   * Monthly projection (lease-up, rehab months, capex, rate resets), streamed: one
+   * {"chunk":{"fromMonth":1,"months":12,"noi":[...],...}} item per `chunkMonths` rows as they are
+   * computed, then a final {"summary":{...}} with monthly IRR, annualized IRR and XIRR. Rows are
+   * written straight from the reusable chunk buffer and never collected. NDJSON by default,
+   * Smile / CBOR value sequences by Accept. Invalid input fails with 400 before streaming starts.
+   * Example: POST /api/analysis/cashflow/monthly
+   *   body: {"base":{...,"holdYears":30},"startDate":"2025-01-01",
+   *          "periods":[{"fromMonth":1,"toMonth":6,"occupancy":0,"capex":25000},
+   *                     {"fromMonth":7,"toMonth":18,"occupancy":0.4,"occupancyEnd":0.95}],
+   *          "rateResets":[{"month":61,"rateAnnual":0.075}]}
+   */
+  @PostMapping(value = "/cashflow/monthly",
+               produces = { MediaType.APPLICATION_NDJSON_VALUE, WireFormat.SMILE_VALUE, "application/cbor-seq", WireFormat.CBOR_VALUE })
+  public ResponseEntity<StreamingResponseBody> monthly(@RequestBody MonthlyProjectionRequest req,
+                                                       @RequestHeader(value="Accept", required=false) String accept){
+    MonthlyProjectionService.Plan plan = monthly.plan(req);
+    WireFormat format = WireFormat.forAccept(accept);
+    AdmissionGate.Permit permit = admission.acquire(AdmissionGate.Lane.INTERACTIVE);
+    StreamingResponseBody stream = holding(permit, out -> {
+      try (JsonGenerator gen = format.mapper().createGenerator(out)) {
+        MonthlyProjectionSummary summary = plan.run(chunk -> {
+          gen.writeStartObject();
+          gen.writeFieldName("chunk");
+          writeChunk(gen, chunk);
+          gen.writeEndObject();
+          endItem(gen, format, out);
+        });
+        gen.writeStartObject();
+        gen.writeObjectField("summary", summary);
+        gen.writeEndObject();
+        endItem(gen, format, out);
+      }
+    });
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType(format.streamType())).body(stream);
+  }
+
+  private static void writeChunk(JsonGenerator gen, MonthlyChunk c) throws IOException {
+    int n = c.months;
+    gen.writeStartObject();
+    gen.writeNumberField("fromMonth", c.fromMonth);
+    gen.writeNumberField("months", n);
+    writeColumn(gen, "totalIncome", c.totalIncome, n); writeColumn(gen, "vacancyLoss", c.vacancyLoss, n);
+    writeColumn(gen, "egi", c.egi, n); writeColumn(gen, "management", c.management, n);
+    writeColumn(gen, "repairsRateBased", c.repairsRateBased, n); writeColumn(gen, "totalExpenses", c.totalExpenses, n);
+    writeColumn(gen, "noi", c.noi, n); writeColumn(gen, "debtService", c.debtService, n);
+    writeColumn(gen, "capex", c.capex, n); writeColumn(gen, "cashFlowBeforeTax", c.cashFlowBeforeTax, n);
+    writeColumn(gen, "endingBalanceFirst", c.endingBalanceFirst, n);
+    writeColumn(gen, "endingBalanceSecond", c.endingBalanceSecond, n);
+    writeColumn(gen, "propertyValue", c.propertyValue, n);
+    gen.writeEndObject();
+  }
+
+  private static void writeColumn(JsonGenerator gen, String name, double[] values, int n) throws IOException {
+    gen.writeFieldName(name);
+    gen.writeArray(values, 0, n);
+  }
+
+  /** Push one stream item to the client (NDJSON items end with a newline). */
+  private static void endItem(JsonGenerator gen, WireFormat format, OutputStream out) throws IOException {
+    gen.flush();
+    if (format == WireFormat.JSON) { out.write('\n'); out.flush(); }
+  }
+
+  /**
+   * Tornado ranking: each non-zero numeric input moved by -/+delta, one at a time.
+   * Example: POST /api/analysis/cashflow/tornado  body: {"base":{...},"delta":0.1}
+   */
+  @PostMapping("/cashflow/tornado")
+  public TornadoResponse tornado(@RequestBody TornadoRequest req){
+    return admitted(AdmissionGate.Lane.INTERACTIVE, () -> tornado.rank(req));
+  }
+
+  /**
+   * Sensitivity sweep over up to six assumption axes.
+   * Example: POST /api/analysis/cashflow/grid
+   *   body: {"base":{...},"axes":[{"field":"rentGrowth","from":0,"to":0.05,"steps":11},
+   *                               {"field":"firstRateAnnual","values":[0.06,0.065,0.07]}]}
+   */
+  @PostMapping("/cashflow/grid")
+  public SensitivityGridResponse sweep(@RequestBody SensitivityGridRequest req){
+    return admitted(AdmissionGate.Lane.BULK, () -> grid.sweep(req));
+  }
+
+  /**
+   * Monte Carlo simulation of the projection.
+   * Example: POST /api/analysis/cashflow/simulate
+   *   body: {"base":{...},"paths":100000,"seed":42,
+   *          "rentGrowth":{"type":"NORMAL","mean":0.03,"stdDev":0.01},
+   *          "vacancyRate":{"type":"TRIANGULAR","min":0.03,"mode":0.05,"max":0.12}}
+   */
+  @PostMapping("/cashflow/simulate")
+  public MonteCarloResponse simulate(@RequestBody MonteCarloRequest req){
+    return admitted(AdmissionGate.Lane.BULK, () -> monteCarlo.simulate(req));
+  }
+
+  /**
+   * Inverse solve: highest/lowest value of one input that meets every target.
+   * Example: POST /api/analysis/cashflow/goal-seek
+   *   body: {"base":{...},"variable":"offerPrice",
+   *          "targets":[{"metric":"irr","min":0.15},{"metric":"dscrY1","min":1.25}]}
+   */
+  @PostMapping("/cashflow/goal-seek")
+  public GoalSeekResponse goalSeek(@RequestBody GoalSeekRequest req){
+    return admitted(AdmissionGate.Lane.INTERACTIVE, () -> goalSeek.solve(req));
+  }
+
+  /** Open an interactive session: full analysis now, incremental re-analysis on PATCH. */
+  @PostMapping("/sessions")
+  public AnalysisSessionResponse openSession(@RequestBody CashflowRequest req){
+    return admitted(AdmissionGate.Lane.INTERACTIVE, () -> sessions.open(req));
+  }
+
+  /**
+   * Edit a session and recompute only the stages the changed fields feed; `recomputed` lists them.
+   * Example: PATCH /api/analysis/sessions/{id}
+   *   body: {"exitCostRate":0.07}            -> recomputed ["EXIT"]
+   *   body: {"rentGrowth":0.04}              -> recomputed ["PROJECTION","EXIT"]
+   */
+  @PatchMapping("/sessions/{id}")
+  public AnalysisSessionResponse patchSession(@PathVariable String id, @RequestBody Map<String, Object> changes){
+    return admitted(AdmissionGate.Lane.INTERACTIVE, () -> sessions.patch(id, changes));
+  }
+
+  @GetMapping("/sessions/{id}")
+  public AnalysisSessionResponse getSession(@PathVariable String id){
+    return sessions.get(id);
+  }
+
+  @DeleteMapping("/sessions/{id}")
+  public ResponseEntity<Void> closeSession(@PathVariable String id){
+    return sessions.close(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+  }
+
+  /** Save a deal under a new id (analyzed now; the summary is stored with it). */
+  @PostMapping("/deals")
+  public SavedDeal saveDeal(@RequestBody CashflowRequest req){
+    return admitted(AdmissionGate.Lane.INTERACTIVE, () -> deals().save(null, req));
+  }
+
+  /** Save or replace the deal with this id; its version goes up by one. */
+  @PutMapping("/deals/{id}")
+  public SavedDeal putDeal(@PathVariable String id, @RequestBody CashflowRequest req){
+    return admitted(AdmissionGate.Lane.INTERACTIVE, () -> deals().save(id, req));
+  }
+
+  /** A saved deal; `projection=true` adds the yearly projection (recomputed from the request). */
+  @GetMapping("/deals/{id}")
+  public SavedDeal getDeal(@PathVariable String id, @RequestParam(defaultValue = "false") boolean projection){
+    if (!projection) return deals().get(id, false);
+    return admitted(AdmissionGate.Lane.INTERACTIVE, () -> deals().get(id, true));
+  }
+
+  /** Saved deals in save order, optionally filtered by state / city / zip. */
+  @GetMapping("/deals")
+  public List<SavedDeal> listDeals(@RequestParam(required=false) String state,
+                                   @RequestParam(required=false) String city,
+                                   @RequestParam(required=false) String zip,
+                                   @RequestParam(defaultValue = "0") int offset,
+                                   @RequestParam(defaultValue = "100") int limit){
+    return deals().list(state, city, zip, offset, limit);
+  }
+
+  @DeleteMapping("/deals/{id}")
+  public ResponseEntity<Void> deleteDeal(@PathVariable String id){
+    return deals().delete(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+  }
+
+  /**
+   * Bulk re-price: apply assumption overrides to every saved deal (or those matching ids / state /
+   * city / zip), re-analyze in parallel and save the deals whose summary changed.
+   * Example: POST /api/analysis/deals/reprice
+   *   body: {"shift":{"firstRateAnnual":0.005},"set":{"exitCostRate":0.07},"state":"TX","dryRun":true}
+   */
+  @PostMapping("/deals/reprice")
+  public RepriceResponse repriceDeals(@RequestBody RepriceRequest req){
+    return admitted(AdmissionGate.Lane.BULK, () -> deals().reprice(req));
+  }
+
+  /** The saved-deal store, opened on first use at SavedDealStore.defaultFile(). */
+  private SavedDealStore deals(){
+    SavedDealStore d = deals;
+    if (d != null) return d;
+    dealsOpen.lock();
+    try {
+      if (deals == null) deals = new SavedDealStore(SavedDealStore.defaultFile(), svc);
+      return deals;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      dealsOpen.unlock();
+    }
+  }
+
+  /**
+   * Portfolio roll-up across properties with different acquisition years and holds.
+   * Example: POST /api/analysis/portfolio
+   *   body: {"properties":[{"id":"A","acquisitionYear":2019,"deal":{...}},
+   *                        {"id":"B","acquisitionYear":2022,"deal":{...}}]}
+   */
+  @PostMapping("/portfolio")
+  public PortfolioResponse portfolio(@RequestBody PortfolioRequest req){
+    return admitted(AdmissionGate.Lane.BULK, () -> portfolio.aggregate(req));
+  }
+
+  /**
+   * Deal selection: the candidates with the highest total NPV that fit the equity budget and limits.
+   * Example: POST /api/analysis/portfolio/select
+   *   body: {"equityBudget":2000000,"hurdleRate":0.1,"minDscr":1.2,"maxDeals":8,"maxZipShare":0.4,
+   *          "candidates":[{"id":"A","deal":{...}}, ...]}
+   */
+  @PostMapping("/portfolio/select")
+  public DealSelectionResponse selectDeals(@RequestBody DealSelectionRequest req){
+    return admitted(AdmissionGate.Lane.BULK, () -> selection.select(req));
+  }
+
+  /**
+   * Standalone IRR / XIRR / MIRR.
+   * Example: POST /api/analysis/irr
+   *   body: {"cashFlows":[-10000,2750,4250,3250,2750],
+   *          "dates":["2008-01-01","2008-03-01","2008-10-30","2009-02-15","2009-04-01"]}
+   */
+  @PostMapping("/irr")
+  public IrrResponse irr(@RequestBody IrrRequest req){
+    return admitted(AdmissionGate.Lane.INTERACTIVE, () -> solveIrr(req));
+  }
+
+  private static IrrResponse solveIrr(IrrRequest req){
+    if (req.cashFlows == null || req.cashFlows.length < 2)
+      throw new IllegalArgumentException("cashFlows needs at least two values");
+    double[] cf = req.cashFlows;
+    double guess = req.guess != null ? req.guess : NewtonBrentIrrSolver.DEFAULT_GUESS;
+    NewtonBrentIrrSolver solver = new NewtonBrentIrrSolver();
+    IrrResponse out = new IrrResponse();
+
+    double irr = solver.irr(cf, cf.length, guess);
+    out.irr = Double.isNaN(irr) ? null : irr;
+    out.irrIterations = solver.lastIterations();
+    out.irrBracketed = solver.lastUsedBracket();
+
+    if (req.dates != null) {
+      if (req.dates.length != cf.length) throw new IllegalArgumentException("dates must match cashFlows in length");
+      LocalDate[] dates = new LocalDate[cf.length];
+      for (int i = 0; i < dates.length; i++) dates[i] = LocalDate.parse(req.dates[i]);
+      double xirr = solver.xirr(cf, dates, guess);
+      out.xirr = Double.isNaN(xirr) ? null : xirr;
+      out.xirrIterations = solver.lastIterations();
+    }
+    if (req.financeRate != null && req.reinvestRate != null) {
+      double mirr = NewtonBrentIrrSolver.mirr(cf, cf.length, req.financeRate, req.reinvestRate);
+      out.mirr = Double.isNaN(mirr) ? null : mirr;
+    }
+    return out;
+  }
+
+  /**
+   * Monthly amortization schedule; identical loan terms are served from a shared LRU cache.
+   * Example: /api/analysis/schedule?principal=800000&rateAnnual=0.065&amortYears=30&ioMonths=24
+   */
+  @GetMapping("/schedule")
+  public AmortizationScheduleResponse schedule(@RequestParam double principal,
+                                               @RequestParam double rateAnnual,
+                                               @RequestParam(defaultValue = "30") int amortYears,
+                                               @RequestParam(required=false) Integer termMonths,
+                                               @RequestParam(defaultValue = "0") int ioMonths){
+    int term = termMonths != null ? termMonths : amortYears * 12;
+    if (term < 1 || term > 1200) throw new IllegalArgumentException("term must be 1..1200 months");
+    return admitted(AdmissionGate.Lane.INTERACTIVE,
+        () -> AmortizationScheduleCache.SHARED.get(principal, rateAnnual, term, ioMonths).toResponse());
+  }
+
+  /** Run `call` holding a permit of `lane`; a saturated lane throws Overloaded (-> 429). */
+  private <T> T admitted(AdmissionGate.Lane lane, Supplier<T> call){
+    AdmissionGate.Permit p = admission.acquire(lane);
+    try {
+      return call.get();
+    } finally {
+      p.close();
+    }
+  }
+
+  /**
+   * Streamed body holding `permit`, which is acquired on the request thread so a saturated lane
+   * still fails with 429 before anything is committed (acquire it just before returning the body).
+   * The permit is released once the body is written, and also when async processing ends without
+   * running it (executor rejection, async timeout, client gone before dispatch): Permit.close()
+   * is idempotent, so whichever comes first wins.
+   */
+  private static StreamingResponseBody holding(AdmissionGate.Permit permit, StreamingResponseBody body){
+    RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+    if (attrs instanceof ServletRequestAttributes) {
+      WebAsyncUtils.getAsyncManager(((ServletRequestAttributes) attrs).getRequest())
+          .registerCallableInterceptor(permit, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+              permit.close();
+            }
+          });
+    }
+    return out -> {
+      try (permit) {
+        body.writeTo(out);
+      }
+    };
+  }
+
+  /** Lane saturated -> 429 with Retry-After (seconds). */
+  @ExceptionHandler(AdmissionGate.Overloaded.class)
+  public ResponseEntity<Map<String, String>> overloaded(AdmissionGate.Overloaded e){
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.retryAfterSeconds))
+        .body(Map.of("error", String.valueOf(e.getMessage())));
+  }
+
+  /** Invalid sweep/batch parameters -> 400 with the reason. */
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e){
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", String.valueOf(e.getMessage())));
+  }
+
+  /** Unknown or expired session, unknown saved deal -> 404. */
+  @ExceptionHandler(NoSuchElementException.class)
+  public ResponseEntity<Map<String, String>> notFound(NoSuchElementException e){
+    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", String.valueOf(e.getMessage())));
   }
 }
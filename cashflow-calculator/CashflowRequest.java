@@ -60,6 +60,10 @@ public class CashflowRequest {
   public Double expenseGrowth;      // Annual growth rate for expenses
   public Double exitCostRate;       // Selling cost rate applied at exit
 
+  // MIRR (optional): computed when reinvestRate is set; financeRate defaults to firstRateAnnual
+  public Double financeRate;        // Rate at which negative flows are financed
+  public Double reinvestRate;       // Rate at which positive flows are reinvested
+
   // Management fee base: "EGI" (default) or "GROSS_RENTS"
   public String managementBase;
 }
@@ -39,6 +39,8 @@ public class CashflowResponse {
 
     // Exit / multi-year
     public Double irr;               // Project IRR over holding period
+    public Integer irrIterations;    // Solver iterations spent on the IRR
+    public Double mirr;              // Modified IRR (only when reinvestRate is given)
     public Double equityMultiple;    // (Total distributions) / (Total invested)
     public Double saleProceedsNet;   // Net sale proceeds at exit
   }
@@ -0,0 +1,171 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowRequest;
+import com.example.analysis.dto.CashflowResponse;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, thread-safe LRU cache of analyze() results keyed by a canonical form of the request:
+ * every numeric input with null resolved the way the service resolves it (0, or the default
+ * hold/amortization years), the management base, and the MIRR inputs only when MIRR is requested.
+ * Identification fields (address/city/state/zip) are not part of the key.
+ *
+ * The bound is on projection rows rather than entries, so a 50-year deal costs five times a
+ * 10-year one. Results are built outside the lock and shared between callers: treat cached
+ * responses as read-only. The lock is a ReentrantLock so request handling on virtual threads
+ * parks rather than pinning its carrier when the cache is contended.
+ */
+public class CashflowResultCache {
+
+  /** Default bound: about 100k year rows (tens of MB of responses). */
+  public static final int DEFAULT_MAX_ROWS = 100_000;
+
+  private static final List<String> FIELDS = RequestFields.numericNames();
+  // Slots after the numeric fields
+  private static final int MGMT_BASE = FIELDS.size(), KEY_LENGTH = FIELDS.size() + 1;
+  private static final int HOLD = FIELDS.indexOf("holdYears"), FIRST_AMORT = FIELDS.indexOf("firstAmortYears"),
+      SECOND_AMORT = FIELDS.indexOf("secondAmortYears"), FIRST_RATE = FIELDS.indexOf("firstRateAnnual"),
+      FINANCE = FIELDS.indexOf("financeRate"), REINVEST = FIELDS.indexOf("reinvestRate");
+
+  private final CashflowService svc;
+  private final int maxRows;
+  private final LinkedHashMap<Key, CashflowResponse> lru = new LinkedHashMap<>(256, 0.75f, true);
+  private final ReentrantLock lock = new ReentrantLock();
+  private long rows;   // guarded by lock
+  private final LongAdder hits = new LongAdder(), misses = new LongAdder(), evictions = new LongAdder();
+
+  public CashflowResultCache(CashflowService svc, int maxRows) {
+    if (maxRows < 1) throw new IllegalArgumentException("maxRows must be >= 1");
+    this.svc = svc;
+    this.maxRows = maxRows;
+  }
+
+  /** Cached result for an equivalent request, analyzing and storing it on a miss. */
+  public CashflowResponse analyze(CashflowRequest r) {
+    Key k = key(r);
+    CashflowResponse hit = lookup(k);
+    if (hit != null) return hit;
+    CashflowResponse out = svc.analyze(r);
+    store(k, out);
+    return out;
+  }
+
+  /** Cached result for an equivalent request, or null (counts a hit or a miss). */
+  public CashflowResponse get(CashflowRequest r) { return lookup(key(r)); }
+
+  /** Store (or replace) the result for a request. */
+  public void put(CashflowRequest r, CashflowResponse result) { store(key(r), result); }
+
+  public void clear() {
+    lock.lock();
+    try {
+      lru.clear();
+      rows = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int size() {
+    lock.lock();
+    try {
+      return lru.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long rows() {
+    lock.lock();
+    try {
+      return rows;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int maxRows() { return maxRows; }
+  public long hits() { return hits.sum(); }
+  public long misses() { return misses.sum(); }
+  public long evictions() { return evictions.sum(); }
+
+  private CashflowResponse lookup(Key k) {
+    CashflowResponse v;
+    lock.lock();
+    try {
+      v = lru.get(k);
+    } finally {
+      lock.unlock();
+    }
+    if (v != null) hits.increment(); else misses.increment();
+    return v;
+  }
+
+  private void store(Key k, CashflowResponse v) {
+    int w = weight(v);
+    if (w > maxRows) return;   // Would evict everything else
+    lock.lock();
+    try {
+      CashflowResponse old = lru.put(k, v);
+      rows += w - (old != null ? weight(old) : 0);
+      Iterator<Map.Entry<Key, CashflowResponse>> it = lru.entrySet().iterator();
+      while (rows > maxRows && it.hasNext()) {
+        Map.Entry<Key, CashflowResponse> e = it.next();
+        if (e.getKey().equals(k)) continue;
+        rows -= weight(e.getValue());
+        it.remove();
+        evictions.increment();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static int weight(CashflowResponse v) {
+    return 1 + (v.projection == null ? 0 : v.projection.size());
+  }
+
+  /** Canonical key: equal for requests the service cannot tell apart. */
+  static Key key(CashflowRequest r) {
+    double[] v = new double[KEY_LENGTH];
+    for (int i = 0; i < FIELDS.size(); i++) {
+      Double d = RequestFields.get(r, FIELDS.get(i));
+      v[i] = d != null ? d : (i == HOLD ? 10 : i == FIRST_AMORT ? 30 : i == SECOND_AMORT ? 20 : 0);
+    }
+    // MIRR inputs matter only when MIRR is requested; financeRate then defaults to the first rate
+    if (r.reinvestRate == null) { v[REINVEST] = Double.NaN; v[FINANCE] = Double.NaN; }
+    else if (r.financeRate == null) v[FINANCE] = v[FIRST_RATE];
+    v[MGMT_BASE] = "GROSS_RENTS".equalsIgnoreCase(r.managementBase) ? 1 : 0;
+    for (int i = 0; i < v.length; i++) v[i] += 0.0;   // -0.0 -> 0.0
+    return new Key(v);
+  }
+
+  static final class Key {
+    final double[] v;
+    final int hash;
+
+    Key(double[] v) {
+      this.v = v;
+      long h = 0x9E3779B97F4A7C15L;
+      for (double d : v) {
+        h ^= Double.doubleToLongBits(d);
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 31;
+      }
+      this.hash = (int) (h ^ (h >>> 32));
+    }
+
+    @Override public boolean equals(Object o) {
+      return o instanceof Key && ((Key) o).hash == hash && Arrays.equals(((Key) o).v, v);
+    }
+
+    @Override public int hashCode() { return hash; }
+  }
+}
@@ -2,146 +2,269 @@ package com.example.analysis.service;
 
 import com.example.analysis.dto.CashflowRequest;
 import com.example.analysis.dto.CashflowResponse;
+import com.example.analysis.dto.ExitCurveResponse;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import java.util.function.Supplier;
 
 /**
  * Core calculator for investment cashflow (before tax).
  * Implements Year-1 KPIs and multi-year projection with optional interest-only period,
- * principal pay-down, appreciation, and exit proceeds.
+ * principal pay-down, appreciation, and exit proceeds. Inputs are read from a PrimitiveRequest,
+ * the projection runs in ProjectionKernel over primitive columns, and everything lives in a
+ * reusable per-thread AnalysisWorkspace; the DTOs are built only at the end. Virtual threads
+ * live for one request, so they borrow workspaces from a small shared pool instead.
  */
 public class CashflowService {
 
-  /** Run the analysis and produce summary + yearly projection. */
+  private final Supplier<IrrSolver> irrSolvers;
+  private final ThreadLocal<AnalysisWorkspace> workspaces;
+  private final ArrayBlockingQueue<AnalysisWorkspace> spares =
+      new ArrayBlockingQueue<>(4 * Runtime.getRuntime().availableProcessors());
+  private final AnalysisMetrics metrics;
+
+  public CashflowService() { this(IrrSolver::newDefault); }
+
+  /** Use a custom IRR strategy; the supplier is called once per thread (each workspace keeps its solver). */
+  public CashflowService(Supplier<IrrSolver> irrSolvers) { this(irrSolvers, AnalysisMetrics.NONE); }
+
+  /**
+   * As CashflowService(irrSolvers), reporting stage timings and IRR statistics of every analysis
+   * to `metrics` (ignored under -Danalysis.metrics=false).
+   */
+  public CashflowService(Supplier<IrrSolver> irrSolvers, AnalysisMetrics metrics) {
+    this.irrSolvers = irrSolvers;
+    this.workspaces = ThreadLocal.withInitial(() -> new AnalysisWorkspace(irrSolvers.get()));
+    this.metrics = AnalysisMetrics.ENABLED ? metrics : AnalysisMetrics.NONE;
+  }
+
+  /**
+   * Run the analysis and produce summary + yearly projection. Uses this thread's workspace,
+   * so once warm the only allocations are the response objects themselves.
+   */
   public CashflowResponse analyze(CashflowRequest r) {
-    // --- Defaults & convenience values ---
-    int hold = nzInt(r.holdYears, 10);
-    double rentGrowth = nz(r.rentGrowth), expGrowth = nz(r.expenseGrowth);
-    double appr = nz(r.annualAppreciation), exitRate = nz(r.exitCostRate);
+    AnalysisWorkspace ws = workspace();
+    analyze(ws.request.load(r), ws);
+    CashflowResponse out = new CashflowResponse();
+    out.summary = ws.summary.toSummary();
+    out.projection = ws.cols.toYearRows();
+    release(ws);
+    return out;
+  }
+
+  /** This thread's workspace; on a virtual thread a pooled (or new) one, handed back by release(). */
+  private AnalysisWorkspace workspace() {
+    if (!VirtualThreads.isVirtual(Thread.currentThread())) return workspaces.get();
+    AnalysisWorkspace ws = spares.poll();
+    return ws != null ? ws : new AnalysisWorkspace(irrSolvers.get());
+  }
+
+  private void release(AnalysisWorkspace ws) {
+    boolean huge = ws.base.hold > AnalysisWorkspace.RETAIN_YEARS;   // don't pin huge tables
+    if (!VirtualThreads.isVirtual(Thread.currentThread())) {
+      if (huge) workspaces.remove();
+    } else if (!huge) {
+      spares.offer(ws);   // dropped when the pool is full
+    }
+  }
+
+  /**
+   * Allocation-free analysis of `r` into `ws` (any workspace the caller owns; `r` may be
+   * `ws.request()`). Returns `ws.summary()`; the projection is in `ws.columns()`. Both are
+   * overwritten by the next call on the same workspace.
+   */
+  public PrimitiveSummary analyze(PrimitiveRequest r, AnalysisWorkspace ws) {
+    if (AnalysisMetrics.ENABLED && metrics != AnalysisMetrics.NONE) {
+      if (--ws.untilTimed <= 0) {
+        ws.untilTimed = AnalysisMetrics.TIMING_SAMPLE;
+        analyzeTimed(r, ws);
+      } else {
+        run(r, ws);
+      }
+      metrics.analyzed(ws.base.hold, ws.summary.irrIterations, !Double.isNaN(ws.summary.irr), ws.summary.irrNoRoot);
+    } else {
+      run(r, ws);
+    }
+    return ws.summary;
+  }
+
+  private static void run(PrimitiveRequest r, AnalysisWorkspace ws) {
+    DealBase base = ws.base;
+    base.load(r);
+    ws.loan = base.firstLoanTable(r.or(PrimitiveRequest.FIRST_RATE_ANNUAL, 0), ws.loan);
+    yearOne(r, base, ws.loan, ws.summary);
+
+    // --- Multi-year projection & exit (columnar kernel) ---
+    ProjectionKernel.project(base, base.baseParams, ws.loan, ws.columns(base.hold));
+    exit(r, ws.cols, ws.summary, ws.solver, 0.10); // 10% initial guess
+  }
+
+  /** run() with a clock read between stages; same steps (DealBase.load split in two). */
+  private void analyzeTimed(PrimitiveRequest r, AnalysisWorkspace ws) {
+    DealBase base = ws.base;
+    long t0 = System.nanoTime();
+    base.income(r);
+    base.opex(r);
+    base.closing(r);
+    base.params(r);
+    long t1 = System.nanoTime();
+    base.financing(r);
+    ws.loan = base.firstLoanTable(r.or(PrimitiveRequest.FIRST_RATE_ANNUAL, 0), ws.loan);
+    long t2 = System.nanoTime();
+    yearOne(r, base, ws.loan, ws.summary);
+    long t3 = System.nanoTime();
+    ProjectionKernel.project(base, base.baseParams, ws.loan, ws.columns(base.hold));
+    long t4 = System.nanoTime();
+    exit(r, ws.cols, ws.summary, ws.solver, 0.10);
+    long t5 = System.nanoTime();
+
+    AnalysisMetrics m = metrics;
+    m.stage(AnalysisMetrics.Stage.INCOME_OPEX, t1 - t0);
+    m.stage(AnalysisMetrics.Stage.FINANCING, t2 - t1);
+    m.stage(AnalysisMetrics.Stage.YEAR_ONE, t3 - t2);
+    m.stage(AnalysisMetrics.Stage.PROJECTION, t4 - t3);
+    m.stage(AnalysisMetrics.Stage.IRR, t5 - t4);
+  }
 
+  /**
+   * IRR, equity multiple and net sale proceeds for every exit year 1..holdYears, from one
+   * projection over the full hold. Same numbers as analyze() with holdYears set to each exit year.
+   */
+  public ExitCurveResponse exitCurve(CashflowRequest r) {
+    AnalysisWorkspace ws = workspace();
+    ExitCurve c = exitCurve(ws.request.load(r), ws);
+    ExitCurveResponse out = new ExitCurveResponse();
+    out.years = c.years;
+    out.cashToClose = ws.base.cashToClose;
+    out.saleProceedsNet = Arrays.copyOf(c.saleProceedsNet, c.years);
+    out.irr = Arrays.copyOf(c.irr, c.years);
+    out.equityMultiple = Arrays.copyOf(c.equityMultiple, c.years);
+    out.irrIterations = Arrays.copyOf(c.irrIterations, c.years);
+    out.bestIrrYear = c.bestIrrYear() > 0 ? c.bestIrrYear() : null;
+    out.bestEquityMultipleYear = c.bestEquityMultipleYear() > 0 ? c.bestEquityMultipleYear() : null;
+    release(ws);
+    return out;
+  }
+
+  /**
+   * Allocation-free exit curve of `r` into `ws` (returns `ws.exitCurve()`; the full-hold analysis
+   * is left in `ws.summary()` / `ws.columns()`). The running cash-flow vector is reused: exit year
+   * k temporarily adds that year's net sale to cash[k] and solves IRR over cash[0..k], warm-started
+   * from year k-1's root, so the whole curve costs one projection plus holdYears warm solves.
+   */
+  public ExitCurve exitCurve(PrimitiveRequest r, AnalysisWorkspace ws) {
+    analyze(r, ws);
+    DealBase base = ws.base;
+    ProjectionColumns cols = ws.cols;
+    ExitCurve out = ws.exitCurve(cols.years);
+    double exitRate = r.or(PrimitiveRequest.EXIT_COST_RATE, 0);
+    double[] cash = cols.cash;
+    double pos = cash[0] > 0 ? cash[0] : 0, guess = 0.10;
+    for (int k = 1; k <= cols.years; k++) {
+      double cf = cols.cashFlowBeforeTax[k - 1], sale = ProjectionKernel.netSale(base, exitRate, ws.loan, cols, k);
+      double held = cash[k];
+      cash[k] = cf + sale;
+      out.saleProceedsNet[k - 1] = sale;
+      out.equityMultiple[k - 1] = (pos + Math.max(0, cf + sale)) / -cash[0];
+      double irr = ws.solver.irr(cash, k + 1, guess);
+      out.irr[k - 1] = irr;
+      out.irrIterations[k - 1] = ws.solver.lastIterations();
+      if (irr == irr) guess = irr;
+      cash[k] = held;
+      if (cf > 0) pos += cf;
+    }
+    return out;
+  }
+
+  /**
+   * Year-1 KPI stage: income stack, debt service, RPP/cash to close and the Year-1 ratios,
+   * written into `s` (every Year-1 field is assigned; NaN where a KPI is undefined).
+   * `first` is the first-loan table.
+   */
+  static void yearOne(PrimitiveRequest r, DealBase base, double[][] first, PrimitiveSummary s) {
     // --- Year-1 income stack ---
-    double totalIncomeY1 = nz(r.grossRentsAnnual) + nz(r.parkingAnnual) + nz(r.storageAnnual)
-        + nz(r.laundryVendingAnnual) + nz(r.otherIncomeAnnual);
-    double vacancyLossY1 = totalIncomeY1 * nz(r.vacancyRate) * -1.0;
+    double totalIncomeY1 = base.totalIncomeBase;
+    double vacancyLossY1 = totalIncomeY1 * r.or(PrimitiveRequest.VACANCY_RATE, 0) * -1.0;
     double egiY1 = totalIncomeY1 + vacancyLossY1;
 
     // Management base: by default EGI; optionally Gross Rents
-    double mgmtBaseY1 = "GROSS_RENTS".equalsIgnoreCase(r.managementBase)
-        ? nz(r.grossRentsAnnual) : egiY1;
-    double managementY1 = nz(r.managementRate) * Math.max(0, mgmtBaseY1);
+    double mgmtBaseY1 = base.mgmtOnGrossRents ? base.grossRents : egiY1;
+    double managementY1 = base.managementRate * Math.max(0, mgmtBaseY1);
 
     // Repairs rate is applied to gross rents
-    double repairsRateBasedY1 = nz(r.repairsRate) * nz(r.grossRentsAnnual);
+    double repairsRateBasedY1 = base.repairsRate * base.grossRents;
 
     // Flat (amount-based) annual operating expenses
-    double otherOpexY1 = sum(
-      r.propertyTaxes, r.insurance, r.electricity, r.gas, r.waterSewer, r.cable,
-      r.caretaking, r.advertising, r.associationFees, r.pest, r.security, r.trash, r.misc,
-      r.commonAreaMaintenance, r.capitalImprovements, r.accounting, r.legal, r.badDebts,
-      r.evictions, r.otherExpenses
-    );
+    double otherOpexY1 = base.otherOpexY1;
     double totalExpensesY1 = managementY1 + repairsRateBasedY1 + otherOpexY1;
     double noiY1 = egiY1 - totalExpensesY1;
 
-    // --- Financing & debt service ---
-    Amort first = new Amort(nz(r.firstPrincipal), nz(r.firstRateAnnual),
-        nzInt(r.firstAmortYears, 30), nzInt(r.firstInterestOnlyYears, 0));
-    Amort second = nz(r.secondPrincipal) > 0
-        ? new Amort(nz(r.secondPrincipal), nz(r.secondRateAnnual), nzInt(r.secondAmortYears, 20), 0)
-        : null;
-    double otherFinAnnual = nz(r.otherMonthlyFinancingCosts) * 12;
-
-    double annualDebtServiceY1 = first.annualDebtService(1)
-        + (second != null ? second.annualDebtService(1) : 0) + otherFinAnnual;
-    Double dscrY1 = annualDebtServiceY1 > 0 ? noiY1 / annualDebtServiceY1 : null;
+    // --- Financing & debt service (per-year tables, built in one pass) ---
+    double annualDebtServiceY1 = first[0][1] + base.otherDebtService[1];
+    double dscrY1 = annualDebtServiceY1 > 0 ? noiY1 / annualDebtServiceY1 : Double.NaN;
 
     // --- Real Purchase Price (RPP) and cash to close ---
-    double rpp = nz(r.offerPrice) + sum(r.repairs, r.repairsContingency, r.lenderFee, r.brokerFee,
-        r.environmentals, r.inspections, r.appraisals, r.transferTax, r.legalClose, r.otherClosingCosts);
-    double cashToClose = rpp - nz(r.firstPrincipal) - nz(r.secondPrincipal);
+    double rpp = base.rpp;
+    double cashToClose = base.cashToClose;
 
     // --- Year-1 KPIs ---
-    Double capRatePPY1  = nz(r.offerPrice) > 0 ? noiY1 / r.offerPrice : null;
-    Double capRateFMVY1 = nz(r.fmv) > 0 ? noiY1 / r.fmv : null;
+    double offerPrice = r.or(PrimitiveRequest.OFFER_PRICE, 0), fmv = r.or(PrimitiveRequest.FMV, 0);
+    double grossRents = r.or(PrimitiveRequest.GROSS_RENTS_ANNUAL, 0), firstPrincipal = base.firstPrincipal;
+    int units = r.intOr(PrimitiveRequest.NUMBER_OF_UNITS, 0);
+    double capRatePPY1  = offerPrice > 0 ? noiY1 / offerPrice : Double.NaN;
+    double capRateFMVY1 = fmv > 0 ? noiY1 / fmv : Double.NaN;
     double monthlyProfitY1 = (noiY1 - annualDebtServiceY1) / 12.0;
-    Double avgRentPerUnitY1 = (nzInt(r.numberOfUnits, 0) > 0 && nz(r.grossRentsAnnual) > 0)
-        ? (r.grossRentsAnnual / 12.0 / r.numberOfUnits) : null;
-    Double cfPerUnitPerMonthY1 = (nzInt(r.numberOfUnits, 0) > 0) ? monthlyProfitY1 / r.numberOfUnits : null;
-    Double grmY1 = nz(r.grossRentsAnnual) > 0 ? nz(r.offerPrice) / r.grossRentsAnnual : null;
-    Double ltvFMV = nz(r.fmv) > 0 ? nz(r.firstPrincipal) / r.fmv : null;
-    Double ltppPP = nz(r.offerPrice) > 0 ? nz(r.firstPrincipal) / r.offerPrice : null;
-
-    Double cocY1 = cashToClose > 0 ? (noiY1 - annualDebtServiceY1) / cashToClose : null;
-    Double equityROIY1 = cashToClose > 0
-        ? (first.principalPaidYear(1) + (second != null ? second.principalPaidYear(1) : 0)) / cashToClose
-        : null;
-    Double appreciationROIY1 = (cashToClose > 0 && nz(r.fmv) > 0)
-        ? (r.fmv * nz(r.annualAppreciation)) / cashToClose : null;
-    Double totalROIY1 = sum(cocY1, equityROIY1, appreciationROIY1);
-    Double forcedAppROIY1 = cashToClose > 0 ? (nz(r.fmv) - rpp) / cashToClose : null;
-
-    // --- Build response summary ---
-    CashflowResponse out = new CashflowResponse();
-    out.summary = new CashflowResponse.Summary();
-    out.summary.rpp = rpp; out.summary.cashToClose = cashToClose;
-    out.summary.totalIncomeY1 = totalIncomeY1; out.summary.vacancyLossY1 = vacancyLossY1;
-    out.summary.egiY1 = egiY1; out.summary.totalExpensesY1 = totalExpensesY1; out.summary.noiY1 = noiY1;
-    out.summary.annualDebtServiceY1 = annualDebtServiceY1; out.summary.dscrY1 = dscrY1;
-    out.summary.capRatePPY1 = capRatePPY1; out.summary.capRateFMVY1 = capRateFMVY1;
-    out.summary.grmY1 = grmY1; out.summary.avgRentPerUnitY1 = avgRentPerUnitY1;
-    out.summary.monthlyProfitY1 = monthlyProfitY1; out.summary.cashflowPerUnitPerMonthY1 = cfPerUnitPerMonthY1;
-    out.summary.ltvFMV = ltvFMV; out.summary.ltppPP = ltppPP;
-    out.summary.cashOnCashY1 = cocY1; out.summary.equityROIY1 = equityROIY1;
-    out.summary.appreciationROIY1 = appreciationROIY1; out.summary.totalROIY1 = totalROIY1;
-    out.summary.forcedAppreciationROIY1 = forcedAppROIY1;
-
-    // --- Multi-year projection & exit ---
-    out.projection = new ArrayList<>();
-    double pv; double bal1; double bal2;
-    List<Double> cash = new ArrayList<>(); cash.add(-cashToClose);
-
-    for (int y = 1; y <= hold; y++) {
-      double totalIncome = (nz(r.grossRentsAnnual) + nz(r.parkingAnnual) + nz(r.storageAnnual)
-          + nz(r.laundryVendingAnnual) + nz(r.otherIncomeAnnual)) * Math.pow(1 + rentGrowth, y - 1);
-      double vacancy = totalIncome * nz(r.vacancyRate) * -1.0;
-      double egi = totalIncome + vacancy;
-
-      // Grow expenses: amount-based block grows by expenseGrowth; management/repairs are rule-based
-      double mgmtBase = "GROSS_RENTS".equalsIgnoreCase(r.managementBase)
-          ? nz(r.grossRentsAnnual) * Math.pow(1 + rentGrowth, y - 1) : egi;
-      double mgmt = nz(r.managementRate) * Math.max(0, mgmtBase);
-      double repairsRateBased = nz(r.repairsRate) * nz(r.grossRentsAnnual) * Math.pow(1 + rentGrowth, y - 1);
-      double otherOpex = otherOpexY1 * Math.pow(1 + expGrowth, y - 1);
-
-      double totalExp = mgmt + repairsRateBased + otherOpex;
-      double noi = egi - totalExp;
-
-      double ds = first.annualDebtService(y) + (second != null ? second.annualDebtService(y) : 0) + otherFinAnnual;
-      bal1 = first.balanceEndOfYear(y); bal2 = (second != null ? second.balanceEndOfYear(y) : 0);
-
-      pv = nz(r.offerPrice) * Math.pow(1 + appr, y);
-
-      CashflowResponse.YearRow row = new CashflowResponse.YearRow();
-      row.year = y;
-      row.totalIncome = totalIncome; row.vacancyLoss = vacancy; row.egi = egi;
-      row.management = mgmt; row.repairsRateBased = repairsRateBased; row.totalExpenses = totalExp;
-      row.noi = noi; row.debtService = ds; row.cashFlowBeforeTax = noi - ds;
-      row.endingBalanceFirst = bal1; row.endingBalanceSecond = bal2; row.propertyValue = pv;
-      out.projection.add(row);
-
-      if (y < hold) cash.add(row.cashFlowBeforeTax);
-      else {
-        double saleCosts = pv * exitRate;
-        double netSale = pv - saleCosts - (bal1 + bal2);
-        out.summary.saleProceedsNet = netSale;
-        cash.add(row.cashFlowBeforeTax + netSale);
-      }
-    }
+    double avgRentPerUnitY1 = (units > 0 && grossRents > 0) ? (grossRents / 12.0 / units) : Double.NaN;
+    double cfPerUnitPerMonthY1 = units > 0 ? monthlyProfitY1 / units : Double.NaN;
+    double grmY1 = grossRents > 0 ? offerPrice / grossRents : Double.NaN;
+    double ltvFMV = fmv > 0 ? firstPrincipal / fmv : Double.NaN;
+    double ltppPP = offerPrice > 0 ? firstPrincipal / offerPrice : Double.NaN;
 
-    out.summary.equityMultiple = sumPos(cash) / -cash.get(0);
-    out.summary.irr = irr(cash, 0.10); // 10% initial guess
-    return out;
+    double cocY1 = cashToClose > 0 ? (noiY1 - annualDebtServiceY1) / cashToClose : Double.NaN;
+    double principalPaidY1 = Math.max(0, first[1][0] - first[1][1])
+        + Math.max(0, base.secondBalance[0] - base.secondBalance[1]);
+    double equityROIY1 = cashToClose > 0 ? principalPaidY1 / cashToClose : Double.NaN;
+    double appreciationROIY1 = (cashToClose > 0 && fmv > 0)
+        ? (fmv * r.or(PrimitiveRequest.ANNUAL_APPRECIATION, 0)) / cashToClose : Double.NaN;
+    double totalROIY1 = nz(cocY1) + nz(equityROIY1) + nz(appreciationROIY1);
+    double forcedAppROIY1 = cashToClose > 0 ? (fmv - rpp) / cashToClose : Double.NaN;
+
+    // --- Summary ---
+    s.rpp = rpp; s.cashToClose = cashToClose;
+    s.totalIncomeY1 = totalIncomeY1; s.vacancyLossY1 = vacancyLossY1;
+    s.egiY1 = egiY1; s.totalExpensesY1 = totalExpensesY1; s.noiY1 = noiY1;
+    s.annualDebtServiceY1 = annualDebtServiceY1; s.dscrY1 = dscrY1;
+    s.capRatePPY1 = capRatePPY1; s.capRateFMVY1 = capRateFMVY1;
+    s.grmY1 = grmY1; s.avgRentPerUnitY1 = avgRentPerUnitY1;
+    s.monthlyProfitY1 = monthlyProfitY1; s.cashflowPerUnitPerMonthY1 = cfPerUnitPerMonthY1;
+    s.ltvFMV = ltvFMV; s.ltppPP = ltppPP;
+    s.cashOnCashY1 = cocY1; s.equityROIY1 = equityROIY1;
+    s.appreciationROIY1 = appreciationROIY1; s.totalROIY1 = totalROIY1;
+    s.forcedAppreciationROIY1 = forcedAppROIY1;
+  }
+
+  /**
+   * Exit/IRR stage over a finished projection: net sale proceeds, equity multiple, IRR (solved
+   * from `irrGuess`) and MIRR when requested, written into `s`.
+   */
+  static void exit(PrimitiveRequest r, ProjectionColumns cols, PrimitiveSummary s, IrrSolver solver,
+                   double irrGuess) {
+    s.saleProceedsNet = cols.years > 0 ? cols.saleProceedsNet : Double.NaN;
+
+    double[] cash = cols.cash;
+    double pos = 0;
+    for (int t = 0; t <= cols.years; t++) if (cash[t] > 0) pos += cash[t];
+    s.equityMultiple = pos / -cash[0];
+    s.irr = solver.irr(cash, cols.years + 1, irrGuess);
+    s.irrIterations = solver.lastIterations();
+    s.irrNoRoot = solver.lastNoRoot();
+    s.mirr = Double.NaN;
+    if (r.has(PrimitiveRequest.REINVEST_RATE)) {
+      double financeRate = r.or(PrimitiveRequest.FINANCE_RATE, r.or(PrimitiveRequest.FIRST_RATE_ANNUAL, 0));
+      s.mirr = NewtonBrentIrrSolver.mirr(cash, cols.years + 1, financeRate, r.get(PrimitiveRequest.REINVEST_RATE));
+    }
   }
 
   // ---------- Amortization helper (annual) ----------
@@ -150,18 +273,18 @@ public class CashflowService {
     final double r;        // APR (as fraction)
     final int nYears;      // total term (years)
     final int ioYears;     // initial interest-only years
+    final double a;        // level annual payment after IO (computed once)
 
     Amort(double principal, double rate, int years, int ioYears) {
       this.P = principal; this.r = rate; this.nYears = years; this.ioYears = Math.min(ioYears, years);
+      int remaining = nYears - this.ioYears;
+      this.a = r == 0 ? P / remaining : (P * r) / (1 - Math.pow(1 + r, -remaining));
     }
 
     /** Total annual payment (principal + interest). During IO, this is interest only. */
     double annualDebtService(int year) {
       if (P <= 0) return 0.0;
       if (year <= ioYears) return P * r;
-      int remaining = nYears - ioYears;
-      if (r == 0) return P / remaining;
-      double a = (P * r) / (1 - Math.pow(1 + r, -remaining));
       return a;
     }
 
@@ -169,13 +292,33 @@ public class CashflowService {
     double balanceEndOfYear(int year) {
       if (P <= 0) return 0.0;
       if (year <= ioYears) return P;
-      int k = year - ioYears; int remaining = nYears - ioYears;
-      if (r == 0) return Math.max(0, P - (P / remaining) * k);
-      double a = (P * r) / (1 - Math.pow(1 + r, -remaining));
+      int k = year - ioYears;
+      if (r == 0) return Math.max(0, P - a * k);
       double bal = P * Math.pow(1 + r, k) - a * ((Math.pow(1 + r, k) - 1) / r);
       return Math.max(0, bal);
     }
 
+    /**
+     * Debt service and ending balance for years 1..n in one forward pass, index = year
+     * (bal[0] = opening principal). The balance is rolled forward from the level payment,
+     * giving the same values as annualDebtService/balanceEndOfYear.
+     */
+    void fill(int n, double[] ds, double[] bal) { fill(P, r, nYears, ioYears, n, ds, bal); }
+
+    /** fill() without an instance (same values); for the allocation-free paths. */
+    static void fill(double P, double r, int years, int ioYears, int n, double[] ds, double[] bal) {
+      if (P <= 0) return;                    // arrays stay zero
+      int io = Math.min(ioYears, years), remaining = years - io;
+      double a = r == 0 ? P / remaining : (P * r) / (1 - Math.pow(1 + r, -remaining));
+      bal[0] = P;
+      double b = P;                          // unclamped, like the closed form
+      for (int y = 1; y <= n; y++) {
+        if (y <= io) { ds[y] = P * r; bal[y] = P; continue; }
+        b = r == 0 ? b - a : b * (1 + r) - a;
+        ds[y] = a; bal[y] = Math.max(0, b);
+      }
+    }
+
     /** Principal reduction during a specific year (zero during IO). */
     double principalPaidYear(int year) {
       if (year <= ioYears || P <= 0) return 0.0;
@@ -186,26 +329,5 @@ public class CashflowService {
   }
 
   // ---------- Utilities ----------
-  private static double nz(Double d){ return d == null ? 0.0 : d; }
-  private static int nzInt(Integer i, int def){ return i == null ? def : i; }
-  private static double sum(Double... xs){ double s=0; for (Double x: xs) s += nz(x); return s; }
-  private static double sumPos(List<Double> v){ double s=0; for (double x: v) if (x>0) s+=x; return s; }
-
-  /** Newton–Raphson IRR (cash[0] negative; yearly periods). Returns null if not converged. */
-  private static Double irr(List<Double> cash, double guess) {
-    double x = guess;
-    for (int i = 0; i < 50; i++) {
-      double f = 0, df = 0;
-      for (int t = 0; t < cash.size(); t++) {
-        double ct = cash.get(t), d = Math.pow(1 + x, t);
-        f += ct / d;
-        if (t > 0) df += -t * ct / Math.pow(1 + x, t + 1);
-      }
-      double x1 = x - f / df;
-      if (Double.isNaN(x1) || Double.isInfinite(x1)) break;
-      if (Math.abs(x1 - x) < 1e-7) return x1;
-      x = x1;
-    }
-    return null;
-  }
+  private static double nz(double d){ return Double.isNaN(d) ? 0.0 : d; }
 }
@@ -1,7 +1,29 @@
 package com.example.analysis.service;
 
+import com.example.analysis.dto.AnalysisSessionResponse;
+import com.example.analysis.controller.WireFormat;
+import com.example.analysis.dto.CashflowBatchItem;
+import com.example.analysis.dto.CashflowColumnsResponse;
 import com.example.analysis.dto.CashflowRequest;
 import com.example.analysis.dto.CashflowResponse;
+import com.example.analysis.dto.DealSelectionRequest;
+import com.example.analysis.dto.DealSelectionResponse;
+import com.example.analysis.dto.ExitCurveResponse;
+import com.example.analysis.dto.GoalSeekRequest;
+import com.example.analysis.dto.GoalSeekResponse;
+import com.example.analysis.dto.MonteCarloRequest;
+import com.example.analysis.dto.MonteCarloResponse;
+import com.example.analysis.dto.MonthlyProjectionRequest;
+import com.example.analysis.dto.MonthlyProjectionSummary;
+import com.example.analysis.dto.PortfolioRequest;
+import com.example.analysis.dto.PortfolioResponse;
+import com.example.analysis.dto.RepriceRequest;
+import com.example.analysis.dto.RepriceResponse;
+import com.example.analysis.dto.SavedDeal;
+import com.example.analysis.dto.SensitivityGridRequest;
+import com.example.analysis.dto.SensitivityGridResponse;
+import com.example.analysis.dto.TornadoRequest;
+import com.example.analysis.dto.TornadoResponse;
 
 /**
  * Test Suite for Cashflow Analysis Calculator
@@ -91,6 +113,226 @@ public class CashflowServiceTest {
             System.out.println("✗ FAILED: Interest-Only Period");
         }
         
+        // Test 8: Sensitivity Grid
+        total++;
+        System.out.println("\n--- TEST 8: Sensitivity Grid ---");
+        if (test.testSensitivityGrid()) {
+            passed++;
+            System.out.println("✓ PASSED: Sensitivity Grid");
+        } else {
+            System.out.println("✗ FAILED: Sensitivity Grid");
+        }
+        
+        // Test 9: Monte Carlo Simulation
+        total++;
+        System.out.println("\n--- TEST 9: Monte Carlo Simulation ---");
+        if (test.testMonteCarlo()) {
+            passed++;
+            System.out.println("✓ PASSED: Monte Carlo Simulation");
+        } else {
+            System.out.println("✗ FAILED: Monte Carlo Simulation");
+        }
+        
+        // Test 10: Projection Kernel
+        total++;
+        System.out.println("\n--- TEST 10: Projection Kernel ---");
+        if (test.testProjectionKernel()) {
+            passed++;
+            System.out.println("✓ PASSED: Projection Kernel");
+        } else {
+            System.out.println("✗ FAILED: Projection Kernel");
+        }
+        
+        // Test 11: IRR Solver
+        total++;
+        System.out.println("\n--- TEST 11: IRR Solver ---");
+        if (test.testIrrSolver()) {
+            passed++;
+            System.out.println("✓ PASSED: IRR Solver");
+        } else {
+            System.out.println("✗ FAILED: IRR Solver");
+        }
+        
+        // Test 12: Monthly Amortization Schedule
+        total++;
+        System.out.println("\n--- TEST 12: Monthly Amortization Schedule ---");
+        if (test.testMonthlyAmortization()) {
+            passed++;
+            System.out.println("✓ PASSED: Monthly Amortization Schedule");
+        } else {
+            System.out.println("✗ FAILED: Monthly Amortization Schedule");
+        }
+        
+        // Test 13: Goal Seek
+        total++;
+        System.out.println("\n--- TEST 13: Goal Seek ---");
+        if (test.testGoalSeek()) {
+            passed++;
+            System.out.println("✓ PASSED: Goal Seek");
+        } else {
+            System.out.println("✗ FAILED: Goal Seek");
+        }
+        
+        // Test 14: Result Cache
+        total++;
+        System.out.println("\n--- TEST 14: Result Cache ---");
+        if (test.testResultCache()) {
+            passed++;
+            System.out.println("✓ PASSED: Result Cache");
+        } else {
+            System.out.println("✗ FAILED: Result Cache");
+        }
+        
+        // Test 15: Portfolio Roll-Up
+        total++;
+        System.out.println("\n--- TEST 15: Portfolio Roll-Up ---");
+        if (test.testPortfolio()) {
+            passed++;
+            System.out.println("✓ PASSED: Portfolio Roll-Up");
+        } else {
+            System.out.println("✗ FAILED: Portfolio Roll-Up");
+        }
+        
+        // Test 16: Analysis Sessions
+        total++;
+        System.out.println("\n--- TEST 16: Analysis Sessions ---");
+        if (test.testAnalysisSessions()) {
+            passed++;
+            System.out.println("✓ PASSED: Analysis Sessions");
+        } else {
+            System.out.println("✗ FAILED: Analysis Sessions");
+        }
+        
+        // Test 17: Binary Wire Format
+        total++;
+        System.out.println("\n--- TEST 17: Binary Wire Format ---");
+        if (test.testWireFormat()) {
+            passed++;
+            System.out.println("✓ PASSED: Binary Wire Format");
+        } else {
+            System.out.println("✗ FAILED: Binary Wire Format");
+        }
+        
+        // Test 18: Primitive Request and Workspace
+        total++;
+        System.out.println("\n--- TEST 18: Primitive Request and Workspace ---");
+        if (test.testPrimitiveWorkspace()) {
+            passed++;
+            System.out.println("✓ PASSED: Primitive Request and Workspace");
+        } else {
+            System.out.println("✗ FAILED: Primitive Request and Workspace");
+        }
+        
+        // Test 19: Monthly Projection
+        total++;
+        System.out.println("\n--- TEST 19: Monthly Projection ---");
+        if (test.testMonthlyProjection()) {
+            passed++;
+            System.out.println("✓ PASSED: Monthly Projection");
+        } else {
+            System.out.println("✗ FAILED: Monthly Projection");
+        }
+        
+        // Test 20: Exit Curve
+        total++;
+        System.out.println("\n--- TEST 20: Exit Curve ---");
+        if (test.testExitCurve()) {
+            passed++;
+            System.out.println("✓ PASSED: Exit Curve");
+        } else {
+            System.out.println("✗ FAILED: Exit Curve");
+        }
+        
+        // Test 21: Tornado Sensitivity
+        total++;
+        System.out.println("\n--- TEST 21: Tornado Sensitivity ---");
+        if (test.testTornado()) {
+            passed++;
+            System.out.println("✓ PASSED: Tornado Sensitivity");
+        } else {
+            System.out.println("✗ FAILED: Tornado Sensitivity");
+        }
+        
+        // Test 22: Batch IRR Evaluator
+        total++;
+        System.out.println("\n--- TEST 22: Batch IRR Evaluator ---");
+        if (test.testBatchIrr()) {
+            passed++;
+            System.out.println("✓ PASSED: Batch IRR Evaluator");
+        } else {
+            System.out.println("✗ FAILED: Batch IRR Evaluator");
+        }
+        
+        // Test 23: Deal Selection
+        total++;
+        System.out.println("\n--- TEST 23: Deal Selection ---");
+        if (test.testDealSelection()) {
+            passed++;
+            System.out.println("✓ PASSED: Deal Selection");
+        } else {
+            System.out.println("✗ FAILED: Deal Selection");
+        }
+        
+        // Test 24: CSV Batch
+        total++;
+        System.out.println("\n--- TEST 24: CSV Batch ---");
+        if (test.testCsvBatch()) {
+            passed++;
+            System.out.println("✓ PASSED: CSV Batch");
+        } else {
+            System.out.println("✗ FAILED: CSV Batch");
+        }
+        
+        // Test 25: Admission Control
+        total++;
+        System.out.println("\n--- TEST 25: Admission Control ---");
+        if (test.testAdmission()) {
+            passed++;
+            System.out.println("✓ PASSED: Admission Control");
+        } else {
+            System.out.println("✗ FAILED: Admission Control");
+        }
+        
+        // Test 26: Analysis Metrics
+        total++;
+        System.out.println("\n--- TEST 26: Analysis Metrics ---");
+        if (test.testAnalysisMetrics()) {
+            passed++;
+            System.out.println("✓ PASSED: Analysis Metrics");
+        } else {
+            System.out.println("✗ FAILED: Analysis Metrics");
+        }
+        
+        // Test 27: Saved Deals and Re-price
+        total++;
+        System.out.println("\n--- TEST 27: Saved Deals and Re-price ---");
+        if (test.testSavedDealReprice()) {
+            passed++;
+            System.out.println("✓ PASSED: Saved Deals and Re-price");
+        } else {
+            System.out.println("✗ FAILED: Saved Deals and Re-price");
+        }
+        
+        // Test 28: Native-Image Runtime Hints
+        total++;
+        System.out.println("\n--- TEST 28: Native-Image Runtime Hints ---");
+        if (test.testRuntimeHints()) {
+            passed++;
+            System.out.println("✓ PASSED: Native-Image Runtime Hints");
+        } else {
+            System.out.println("✗ FAILED: Native-Image Runtime Hints");
+        }
+        
+        // Test 29: Batch Engine
+        total++;
+        System.out.println("\n--- TEST 29: Batch Engine ---");
+        if (test.testBatchEngine()) {
+            passed++;
+            System.out.println("✓ PASSED: Batch Engine");
+        } else {
+            System.out.println("✗ FAILED: Batch Engine");
+        }
+        
         System.out.println("\n====================================");
         System.out.println("TEST RESULTS: " + passed + "/" + total + " PASSED");
         System.out.println("Success Rate: " + String.format("%.1f%%", (passed * 100.0 / total)));
@@ -585,6 +827,1976 @@ public class CashflowServiceTest {
         return true;
     }
     
+    /**
+     * Test 8: Sensitivity Grid - every cell must match a full analyze() run with the same inputs
+     */
+    public boolean testSensitivityGrid() {
+        CashflowService service = new CashflowService();
+        SensitivityGridService gridService = new SensitivityGridService();
+        CashflowRequest req = new CashflowRequest();
+        
+        req.offerPrice = 1000000.0;
+        req.fmv = 1050000.0;
+        req.grossRentsAnnual = 110000.0;
+        req.parkingAnnual = 3000.0;
+        req.vacancyRate = 0.05;
+        req.managementRate = 0.08;
+        req.repairsRate = 0.04;
+        req.propertyTaxes = 12000.0;
+        req.insurance = 2500.0;
+        req.firstPrincipal = 700000.0;
+        req.firstRateAnnual = 0.06;
+        req.firstAmortYears = 30;
+        req.firstInterestOnlyYears = 2;
+        req.secondPrincipal = 100000.0;
+        req.secondRateAnnual = 0.08;
+        req.lenderFee = 7000.0;
+        req.holdYears = 7;
+        req.rentGrowth = 0.03;
+        req.expenseGrowth = 0.02;
+        req.annualAppreciation = 0.03;
+        req.exitCostRate = 0.06;
+        
+        SensitivityGridRequest grid = new SensitivityGridRequest();
+        SensitivityGridRequest.Axis rent = new SensitivityGridRequest.Axis();
+        rent.field = "rentGrowth"; rent.from = 0.0; rent.to = 0.04; rent.steps = 3;
+        SensitivityGridRequest.Axis rate = new SensitivityGridRequest.Axis();
+        rate.field = "firstRateAnnual"; rate.values = new double[]{0.05, 0.06, 0.07, 0.08};
+        grid.base = req;
+        grid.axes = java.util.Arrays.asList(rent, rate);
+        
+        SensitivityGridResponse resp = gridService.sweep(grid);
+        System.out.println("  Grid Shape: " + resp.shape[0] + " x " + resp.shape[1] + " = " + resp.cells + " cells");
+        if (resp.cells != 12 || resp.irr.length != 12) {
+            System.out.println("  ERROR: Grid shape mismatch!");
+            return false;
+        }
+        
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 4; j++) {
+                req.rentGrowth = resp.axes.get(0).values[i];
+                req.firstRateAnnual = resp.axes.get(1).values[j];
+                CashflowResponse full = service.analyze(req);
+                int cell = i * 4 + j;
+                if (!approxEqual(resp.irr[cell], full.summary.irr, 1e-6)
+                    || !approxEqual(resp.equityMultiple[cell], full.summary.equityMultiple, 1e-9)
+                    || !approxEqual(resp.dscrY1[cell], full.summary.dscrY1, 1e-9)) {
+                    System.out.println("  ERROR: Cell (" + i + "," + j + ") differs from analyze()!");
+                    return false;
+                }
+            }
+        }
+        System.out.println("  IRR at (rentGrowth=4%, rate=5%): " + String.format("%.2f%%", resp.irr[8] * 100));
+        System.out.println("  IRR at (rentGrowth=0%, rate=8%): " + String.format("%.2f%%", resp.irr[3] * 100));
+        System.out.println("  ✓ All grid cells match full analysis");
+        return true;
+    }
+    
+    /**
+     * Test 9: Monte Carlo Simulation - reproducible from a seed, degenerate to analyze() when fixed
+     */
+    public boolean testMonteCarlo() {
+        CashflowService service = new CashflowService();
+        MonteCarloService mc = new MonteCarloService();
+        CashflowRequest req = new CashflowRequest();
+        
+        req.offerPrice = 1000000.0;
+        req.grossRentsAnnual = 110000.0;
+        req.vacancyRate = 0.05;
+        req.managementRate = 0.08;
+        req.propertyTaxes = 12000.0;
+        req.insurance = 2500.0;
+        req.firstPrincipal = 750000.0;
+        req.firstRateAnnual = 0.065;
+        req.firstAmortYears = 30;
+        req.holdYears = 10;
+        req.rentGrowth = 0.03;
+        req.expenseGrowth = 0.025;
+        req.annualAppreciation = 0.03;
+        req.exitCostRate = 0.06;
+        
+        // All assumptions fixed: every path equals the deterministic analysis
+        MonteCarloRequest fixed = new MonteCarloRequest();
+        fixed.base = req; fixed.paths = 100; fixed.seed = 1L;
+        MonteCarloResponse det = mc.simulate(fixed);
+        CashflowResponse full = service.analyze(req);
+        System.out.println("  Deterministic IRR: " + String.format("%.4f%%", full.summary.irr * 100)
+            + " / Fixed-path p50: " + String.format("%.4f%%", det.irr.p50 * 100));
+        if (!approxEqual(det.irr.p05, full.summary.irr, 1e-6) || !approxEqual(det.irr.p95, full.summary.irr, 1e-6)) {
+            System.out.println("  ERROR: Fixed distributions should reproduce analyze()!");
+            return false;
+        }
+        
+        MonteCarloRequest sim = new MonteCarloRequest();
+        sim.base = req; sim.paths = 100000; sim.seed = 42L;
+        sim.rentGrowth = new MonteCarloRequest.Distribution();
+        sim.rentGrowth.type = "NORMAL"; sim.rentGrowth.mean = 0.03; sim.rentGrowth.stdDev = 0.015;
+        sim.vacancyRate = new MonteCarloRequest.Distribution();
+        sim.vacancyRate.type = "TRIANGULAR"; sim.vacancyRate.min = 0.02; sim.vacancyRate.mode = 0.05; sim.vacancyRate.max = 0.15;
+        sim.annualAppreciation = new MonteCarloRequest.Distribution();
+        sim.annualAppreciation.type = "UNIFORM"; sim.annualAppreciation.min = -0.02; sim.annualAppreciation.max = 0.05;
+        
+        long t0 = System.nanoTime();
+        MonteCarloResponse a = mc.simulate(sim);
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        MonteCarloResponse b = mc.simulate(sim);
+        System.out.println("  " + a.paths + " paths in " + ms + " ms");
+        System.out.println("  IRR p05/p50/p95: " + String.format("%.2f%% / %.2f%% / %.2f%%",
+            a.irr.p05 * 100, a.irr.p50 * 100, a.irr.p95 * 100));
+        System.out.println("  Probability of Loss: " + String.format("%.2f%%", a.probabilityOfLoss * 100));
+        System.out.println("  Probability DSCR < 1.0: " + String.format("%.2f%%", a.probabilityDscrBelowOne * 100));
+        
+        if (!a.irr.p50.equals(b.irr.p50) || !a.minDscr.p05.equals(b.minDscr.p05)) {
+            System.out.println("  ERROR: Same seed should reproduce identical results!");
+            return false;
+        }
+        if (!(a.irr.p05 < a.irr.p50 && a.irr.p50 < a.irr.p95)) {
+            System.out.println("  ERROR: IRR percentiles should be increasing!");
+            return false;
+        }
+        if (a.probabilityOfLoss < 0 || a.probabilityOfLoss > 1) {
+            System.out.println("  ERROR: Probability of loss out of range!");
+            return false;
+        }
+        
+        // Fully financed: no cash invested, so the equity multiple is undefined on every path
+        req.firstPrincipal = req.offerPrice * 1.05;
+        MonteCarloResponse levered = mc.simulate(sim);
+        if (levered.equityMultiple.count != 0 || levered.equityMultiple.mean != null) {
+            System.out.println("  ERROR: Equity multiple without cash invested should be undefined, got "
+                + levered.equityMultiple.count + " paths, mean " + levered.equityMultiple.mean);
+            return false;
+        }
+        System.out.println("  ✓ Simulation reproducible from seed");
+        return true;
+    }
+    
+    /**
+     * Test 10: Projection Kernel - incremental 30-year pass matches the closed-form formulas
+     */
+    public boolean testProjectionKernel() {
+        CashflowService service = new CashflowService();
+        CashflowRequest req = new CashflowRequest();
+        
+        req.offerPrice = 1500000.0;
+        req.grossRentsAnnual = 150000.0;
+        req.vacancyRate = 0.05;
+        req.managementRate = 0.08;
+        req.repairsRate = 0.05;
+        req.propertyTaxes = 18000.0;
+        req.firstPrincipal = 1000000.0;
+        req.firstRateAnnual = 0.065;
+        req.firstAmortYears = 25;
+        req.firstInterestOnlyYears = 2;
+        req.secondPrincipal = 150000.0;
+        req.secondRateAnnual = 0.09;
+        req.secondAmortYears = 10;
+        req.holdYears = 30;                // Runs past both loan maturities
+        req.rentGrowth = 0.03;
+        req.expenseGrowth = 0.025;
+        req.annualAppreciation = 0.035;
+        req.exitCostRate = 0.06;
+        
+        CashflowResponse resp = service.analyze(req);
+        CashflowService.Amort first = new CashflowService.Amort(1000000.0, 0.065, 25, 2);
+        CashflowService.Amort second = new CashflowService.Amort(150000.0, 0.09, 10, 0);
+        
+        for (CashflowResponse.YearRow row : resp.projection) {
+            int y = row.year;
+            double expectedIncome = 150000.0 * Math.pow(1.03, y - 1);
+            double expectedValue = 1500000.0 * Math.pow(1.035, y);
+            double expectedDs = first.annualDebtService(y) + second.annualDebtService(y);
+            if (!approxEqual(row.totalIncome, expectedIncome, 1e-6)
+                || !approxEqual(row.propertyValue, expectedValue, 1e-6)
+                || !approxEqual(row.debtService, expectedDs, 1e-6)
+                || !approxEqual(row.endingBalanceFirst, first.balanceEndOfYear(y), 1e-4)
+                || !approxEqual(row.endingBalanceSecond, second.balanceEndOfYear(y), 1e-4)) {
+                System.out.println("  ERROR: Year " + y + " differs from closed-form values!");
+                return false;
+            }
+        }
+        System.out.println("  Years Projected: " + resp.projection.size());
+        System.out.println("  Year 30 Property Value: $" + String.format("%,.2f", resp.projection.get(29).propertyValue));
+        System.out.println("  Year 12 Balance (2nd loan, matured): $" + String.format("%,.2f", resp.projection.get(11).endingBalanceSecond));
+        
+        // Equity ROI uses principal paid in Year 1 across both loans (1st is interest-only)
+        double expectedEquityROI = second.principalPaidYear(1) / resp.summary.cashToClose;
+        if (!approxEqual(resp.summary.equityROIY1, expectedEquityROI, 1e-9)) {
+            System.out.println("  ERROR: Equity ROI mismatch!");
+            return false;
+        }
+        System.out.println("  ✓ Columnar projection matches closed-form growth and amortization");
+        return true;
+    }
+    
+    /**
+     * Test 11: IRR Solver - Newton, bracketed fallback, warm start, XIRR and MIRR
+     */
+    public boolean testIrrSolver() {
+        NewtonBrentIrrSolver solver = new NewtonBrentIrrSolver();
+        
+        // Simple case: -100 then 110 => 10%
+        double simple = solver.irr(new double[]{-100, 110}, 2, 0.10);
+        System.out.println("  IRR(-100, 110): " + String.format("%.6f", simple) + " in " + solver.lastIterations() + " iterations");
+        if (!approxEqual(simple, 0.10, 1e-9)) {
+            System.out.println("  ERROR: Simple IRR mismatch!");
+            return false;
+        }
+        
+        // Deep loss: plain Newton from 10% leaves the domain; the bracket must still find the root
+        double[] loss = {-1000, 10, 10, 10};
+        double deep = solver.irr(loss, 4, 0.10);
+        System.out.println("  IRR(-1000, 10, 10, 10): " + String.format("%.4f%%", deep * 100)
+            + " (bracketed: " + solver.lastUsedBracket() + ")");
+        if (Double.isNaN(deep) || solver.lastNoRoot() || Math.abs(NewtonBrentIrrSolver.npv(loss, 4, deep)) > 1e-6) {
+            System.out.println("  ERROR: Deep-loss IRR should be found by the bracketed fallback!");
+            return false;
+        }
+        
+        // No sign change => no IRR
+        if (!Double.isNaN(solver.irr(new double[]{100, 10, 10}, 3, 0.10)) || !solver.lastNoRoot()) {
+            System.out.println("  ERROR: All-positive flows have no IRR!");
+            return false;
+        }
+        
+        // Warm start near the root converges in a few iterations
+        double[] deal = {-250000, 20000, 21000, 22000, 23000, 24000, 25000, 26000, 27000, 28000, 400000};
+        double root = solver.irr(deal, deal.length, 0.10);
+        solver.irr(deal, deal.length, root + 0.002);
+        System.out.println("  Warm-start iterations: " + solver.lastIterations());
+        if (solver.lastIterations() > 3) {
+            System.out.println("  ERROR: Warm start should converge in <= 3 iterations!");
+            return false;
+        }
+        
+        // XIRR reference (Excel documentation example): 37.34%
+        double xirr = solver.xirr(new double[]{-10000, 2750, 4250, 3250, 2750}, new java.time.LocalDate[]{
+            java.time.LocalDate.of(2008, 1, 1), java.time.LocalDate.of(2008, 3, 1), java.time.LocalDate.of(2008, 10, 30),
+            java.time.LocalDate.of(2009, 2, 15), java.time.LocalDate.of(2009, 4, 1)}, 0.10);
+        System.out.println("  XIRR: " + String.format("%.4f%%", xirr * 100) + " (Expected: 37.34%)");
+        if (!approxEqual(xirr, 0.373362535, 1e-6)) {
+            System.out.println("  ERROR: XIRR mismatch!");
+            return false;
+        }
+        
+        // MIRR reference (Excel documentation example): 12.61%
+        double mirr = NewtonBrentIrrSolver.mirr(new double[]{-120000, 39000, 30000, 21000, 37000, 46000}, 6, 0.10, 0.12);
+        System.out.println("  MIRR: " + String.format("%.4f%%", mirr * 100) + " (Expected: 12.61%)");
+        if (!approxEqual(mirr, 0.126094, 1e-6)) {
+            System.out.println("  ERROR: MIRR mismatch!");
+            return false;
+        }
+        
+        System.out.println("  ✓ IRR solver validated");
+        return true;
+    }
+    
+    /**
+     * Test 12: Monthly Amortization Schedule - payment, IO period, payoff and cache reuse
+     */
+    public boolean testMonthlyAmortization() {
+        AmortizationScheduleCache cache = new AmortizationScheduleCache(2);
+        
+        // $300k at 6% for 30 years: standard payment is $1,798.65/month
+        AmortizationSchedule s = cache.get(300000.0, 0.06, 360, 0);
+        System.out.println("  Monthly Payment: $" + String.format("%,.2f", s.payment(1)) + " (Expected: $1,798.65)");
+        if (!approxEqual(s.payment(1), 1798.65, 0.01)) {
+            System.out.println("  ERROR: Monthly payment mismatch!");
+            return false;
+        }
+        if (!approxEqual(s.interest(1), 1500.0, 1e-9) || !approxEqual(s.balance(360), 0.0, 1e-9)) {
+            System.out.println("  ERROR: First-month interest or final balance mismatch!");
+            return false;
+        }
+        System.out.println("  Total Interest: $" + String.format("%,.2f", s.totalInterest));
+        
+        // Interest-only for 24 months, then amortizes over the remaining 336
+        AmortizationSchedule io = cache.get(300000.0, 0.06, 360, 24);
+        System.out.println("  IO Payment: $" + String.format("%,.2f", io.payment(24))
+            + " / Amortizing Payment: $" + String.format("%,.2f", io.payment(25)));
+        if (!approxEqual(io.payment(24), 1500.0, 1e-9) || !approxEqual(io.balance(24), 300000.0, 1e-9)
+            || io.balance(25) >= 300000.0) {
+            System.out.println("  ERROR: Interest-only period mismatch!");
+            return false;
+        }
+        
+        // Same terms resolve to the same cached instance; LRU keeps the bound
+        if (cache.get(300000.0, 0.06, 360, 0) != s || cache.hits() != 1 || cache.misses() != 2) {
+            System.out.println("  ERROR: Schedule should be served from cache!");
+            return false;
+        }
+        cache.get(500000.0, 0.07, 360, 0);
+        if (cache.size() != 2) {
+            System.out.println("  ERROR: Cache should stay bounded!");
+            return false;
+        }
+        System.out.println("  Cache: " + cache.hits() + " hit(s), " + cache.misses() + " miss(es), size " + cache.size());
+        System.out.println("  ✓ Monthly schedule and cache validated");
+        return true;
+    }
+    
+    /**
+     * Test 13: Goal Seek - max offer price for IRR and DSCR targets, closed-form DSCR/GRM
+     */
+    public boolean testGoalSeek() {
+        CashflowService service = new CashflowService();
+        GoalSeekService seeker = new GoalSeekService(service);
+        CashflowRequest req = new CashflowRequest();
+        
+        req.offerPrice = 1000000.0;
+        req.fmv = 1000000.0;
+        req.grossRentsAnnual = 120000.0;
+        req.vacancyRate = 0.05;
+        req.managementRate = 0.08;
+        req.propertyTaxes = 12000.0;
+        req.insurance = 3000.0;
+        req.firstPrincipal = 750000.0;
+        req.firstRateAnnual = 0.06;
+        req.firstAmortYears = 30;
+        req.holdYears = 10;
+        req.rentGrowth = 0.03;
+        req.expenseGrowth = 0.02;
+        req.annualAppreciation = 0.03;
+        req.exitCostRate = 0.06;
+        
+        // Highest price (loan held at 75% LTPP) that still yields IRR >= 12%
+        GoalSeekRequest gs = new GoalSeekRequest();
+        gs.base = req;
+        gs.variable = "offerPrice";
+        gs.scaleLoanWithPrice = true;
+        GoalSeekRequest.Target irr = new GoalSeekRequest.Target();
+        irr.metric = "irr"; irr.min = 0.12;
+        gs.targets = java.util.Arrays.asList(irr);
+        GoalSeekResponse resp = seeker.solve(gs);
+        if (!resp.feasible || !"BRACKETED".equals(resp.bounds.get(0).method)) {
+            System.out.println("  ERROR: IRR target should be solved by bracketing!");
+            return false;
+        }
+        System.out.println("  Max Price for 12% IRR: $" + String.format("%,.2f", resp.value)
+            + " (" + resp.evaluations + " evaluations)");
+        CashflowRequest check = RequestFields.copy(req);
+        check.offerPrice = resp.value;
+        check.firstPrincipal = 0.75 * resp.value;
+        if (!approxEqual(service.analyze(check).summary.irr, 0.12, 1e-6)) {
+            System.out.println("  ERROR: IRR at solved price should equal the target!");
+            return false;
+        }
+        
+        // Min rent for DSCR >= 1.25 and GRM <= 9: both are Year-1 ratios, solved in closed form
+        GoalSeekRequest rent = new GoalSeekRequest();
+        rent.base = req;
+        rent.variable = "grossRentsAnnual";
+        GoalSeekRequest.Target dscr = new GoalSeekRequest.Target();
+        dscr.metric = "dscrY1"; dscr.min = 1.25;
+        GoalSeekRequest.Target grm = new GoalSeekRequest.Target();
+        grm.metric = "grmY1"; grm.max = 9.0;
+        rent.targets = java.util.Arrays.asList(dscr, grm);
+        GoalSeekResponse r2 = seeker.solve(rent);
+        if (!r2.feasible || !"CLOSED_FORM".equals(r2.bounds.get(0).method) || !"CLOSED_FORM".equals(r2.bounds.get(1).method)) {
+            System.out.println("  ERROR: DSCR and GRM targets should be solved in closed form!");
+            return false;
+        }
+        System.out.println("  Min Rent for DSCR 1.25 / GRM 9: $" + String.format("%,.2f", r2.value)
+            + " (" + r2.evaluations + " evaluations)");
+        boolean dscrBinds = r2.summary.dscrY1 < 1.25 + 1e-9;
+        if (r2.summary.dscrY1 < 1.25 - 1e-9 || r2.summary.grmY1 > 9.0 + 1e-9
+            || !(dscrBinds || approxEqual(r2.summary.grmY1, 9.0, 1e-9))) {
+            System.out.println("  ERROR: Solved rent should meet both targets with one binding!");
+            return false;
+        }
+        
+        // Unreachable target is reported, not guessed
+        irr.min = 5.0;
+        GoalSeekResponse r3 = seeker.solve(gs);
+        if (r3.feasible || r3.value != null) {
+            System.out.println("  ERROR: 500% IRR should be infeasible!");
+            return false;
+        }
+        System.out.println("  ✓ Goal seek targets validated");
+        return true;
+    }
+    
+    /**
+     * Test 14: Result Cache - equivalent requests share an entry, distinct ones do not, rows are bounded
+     */
+    public boolean testResultCache() {
+        CashflowResultCache cache = new CashflowResultCache(new CashflowService(), 25);
+        CashflowRequest req = new CashflowRequest();
+        req.address = "1 Main St";
+        req.offerPrice = 500000.0;
+        req.grossRentsAnnual = 60000.0;
+        req.vacancyRate = 0.05;
+        req.propertyTaxes = 6000.0;
+        req.firstPrincipal = 400000.0;
+        req.firstRateAnnual = 0.065;
+        
+        CashflowResponse first = cache.analyze(req);
+        
+        // Same deal: different address, explicit zeros and defaults instead of nulls
+        CashflowRequest same = RequestFields.copy(req);
+        same.address = "2 Elm St";
+        same.insurance = 0.0;
+        same.holdYears = 10;
+        same.firstAmortYears = 30;
+        if (cache.analyze(same) != first || cache.hits() != 1 || cache.misses() != 1) {
+            System.out.println("  ERROR: Equivalent request should hit the cache!");
+            return false;
+        }
+        
+        // reinvestRate = 0 requests MIRR, so it is not the same as null
+        CashflowRequest mirr = RequestFields.copy(req);
+        mirr.reinvestRate = 0.0;
+        CashflowResponse withMirr = cache.analyze(mirr);
+        if (withMirr == first || withMirr.summary.mirr == null) {
+            System.out.println("  ERROR: MIRR request should miss the cache!");
+            return false;
+        }
+        System.out.println("  Hits: " + cache.hits() + ", Misses: " + cache.misses() + ", Rows: " + cache.rows());
+        
+        // Two 10-year results fill 22 of 25 rows; a third evicts the least recently used
+        CashflowRequest other = RequestFields.copy(req);
+        other.offerPrice = 510000.0;
+        cache.analyze(other);
+        if (cache.evictions() != 1 || cache.size() != 2 || cache.rows() > 25) {
+            System.out.println("  ERROR: Cache should evict to stay within its row bound!");
+            return false;
+        }
+        System.out.println("  Evictions: " + cache.evictions() + ", Entries: " + cache.size());
+        System.out.println("  ✓ Result cache validated");
+        return true;
+    }
+    
+    /**
+     * Test 15: Portfolio Roll-Up - calendar alignment, totals and IRR on the combined vector
+     */
+    public boolean testPortfolio() {
+        CashflowService service = new CashflowService();
+        PortfolioService portfolioService = new PortfolioService();
+        
+        // 20 properties, acquired 2015..2024 with 5..24-year holds
+        PortfolioRequest req = new PortfolioRequest();
+        req.properties = new java.util.ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            CashflowRequest deal = new CashflowRequest();
+            deal.offerPrice = 400000.0 + 25000.0 * i;
+            deal.grossRentsAnnual = 44000.0 + 2500.0 * i;
+            deal.vacancyRate = 0.05;
+            deal.managementRate = 0.08;
+            deal.propertyTaxes = 5000.0;
+            deal.firstPrincipal = deal.offerPrice * 0.7;
+            deal.firstRateAnnual = 0.06;
+            deal.firstInterestOnlyYears = i % 3;
+            deal.holdYears = 5 + i;
+            deal.rentGrowth = 0.03;
+            deal.expenseGrowth = 0.02;
+            deal.annualAppreciation = 0.03;
+            deal.exitCostRate = 0.06;
+            PortfolioRequest.Property p = new PortfolioRequest.Property();
+            p.id = "P" + i; p.acquisitionYear = 2015 + i % 10; p.deal = deal;
+            req.properties.add(p);
+        }
+        PortfolioResponse resp = portfolioService.aggregate(req);
+        System.out.println("  Span: " + resp.firstYear + "-" + resp.lastYear + " (" + resp.years.length + " years)");
+        
+        // Rebuild the calendar vector from individual analyses
+        double[] net = new double[resp.years.length];
+        double noi2030 = 0, invested = 0;
+        for (PortfolioRequest.Property p : req.properties) {
+            CashflowResponse r = service.analyze(p.deal);
+            int off = p.acquisitionYear - resp.firstYear;
+            net[off] -= r.summary.cashToClose;
+            invested += r.summary.cashToClose;
+            for (CashflowResponse.YearRow row : r.projection) {
+                net[off + row.year] += row.cashFlowBeforeTax;
+                if (p.acquisitionYear + row.year == 2030) noi2030 += row.noi;
+            }
+            net[off + r.projection.size()] += r.summary.saleProceedsNet;
+        }
+        for (int i = 0; i < net.length; i++) {
+            if (!approxEqual(resp.netCashFlow[i], net[i], 1e-4)) {
+                System.out.println("  ERROR: Net cash flow mismatch in " + resp.years[i] + "!");
+                return false;
+            }
+        }
+        if (!approxEqual(resp.noi[2030 - resp.firstYear], noi2030, 1e-4)
+            || !approxEqual(resp.totalEquityInvested, invested, 1e-4)) {
+            System.out.println("  ERROR: Calendar-year NOI or equity total mismatch!");
+            return false;
+        }
+        if (resp.irr == null || Math.abs(NewtonBrentIrrSolver.npv(resp.netCashFlow, net.length, resp.irr)) > 1e-3) {
+            System.out.println("  ERROR: Portfolio IRR should zero the combined NPV!");
+            return false;
+        }
+        System.out.println("  Portfolio IRR: " + String.format("%.2f%%", resp.irr * 100)
+            + ", Equity Multiple: " + String.format("%.2fx", resp.equityMultiple));
+        System.out.println("  NOI in 2030: $" + String.format("%,.2f", resp.noi[2030 - resp.firstYear]));
+        
+        // A one-property portfolio reproduces the single analysis
+        PortfolioRequest one = new PortfolioRequest();
+        one.properties = java.util.Arrays.asList(req.properties.get(3));
+        PortfolioResponse single = portfolioService.aggregate(one);
+        CashflowResponse direct = service.analyze(req.properties.get(3).deal);
+        if (!approxEqual(single.irr, direct.summary.irr, 1e-9)
+            || !approxEqual(single.equityMultiple, direct.summary.equityMultiple, 1e-9)
+            || !"P3".equals(single.holdings.get(0).id)) {
+            System.out.println("  ERROR: Single-property portfolio should match analyze()!");
+            return false;
+        }
+        
+        // A fully financed property has no equity multiple (no Infinity / NaN)
+        CashflowRequest financed = RequestFields.copy(req.properties.get(3).deal);
+        financed.firstPrincipal += service.analyze(financed).summary.cashToClose;
+        PortfolioRequest.Property fp = new PortfolioRequest.Property();
+        fp.id = "F"; fp.acquisitionYear = 2020; fp.deal = financed;
+        one.properties = java.util.Arrays.asList(fp);
+        PortfolioResponse zero = portfolioService.aggregate(one);
+        if (zero.holdings.get(0).equityMultiple != null || zero.equityMultiple != null) {
+            System.out.println("  ERROR: Zero-equity property should have a null equity multiple, got "
+                + zero.holdings.get(0).equityMultiple);
+            return false;
+        }
+        System.out.println("  ✓ Portfolio aggregation validated");
+        return true;
+    }
+    
+    /**
+     * Test 16: Analysis Sessions - incremental re-analysis matches a full analyze of the edited deal
+     */
+    public boolean testAnalysisSessions() {
+        CashflowService service = new CashflowService();
+        AnalysisSessionService sessions = new AnalysisSessionService();
+        
+        CashflowRequest req = new CashflowRequest();
+        req.address = "12 Elm St";
+        req.offerPrice = 750000.0;
+        req.grossRentsAnnual = 86000.0;
+        req.vacancyRate = 0.05;
+        req.managementRate = 0.08;
+        req.propertyTaxes = 9000.0;
+        req.insurance = 2400.0;
+        req.firstPrincipal = 525000.0;
+        req.firstRateAnnual = 0.065;
+        req.firstInterestOnlyYears = 2;
+        req.secondPrincipal = 50000.0;
+        req.secondRateAnnual = 0.09;
+        req.holdYears = 10;
+        req.rentGrowth = 0.03;
+        req.expenseGrowth = 0.02;
+        req.annualAppreciation = 0.03;
+        req.exitCostRate = 0.06;
+        req.reinvestRate = 0.05;
+        
+        AnalysisSessionResponse open = sessions.open(req);
+        if (!sameResult(open.result, service.analyze(req)) || open.recomputed.size() != AnalysisStage.values().length) {
+            System.out.println("  ERROR: Opening a session should run the full analysis!");
+            return false;
+        }
+        
+        // Each edit recomputes only the invalidated stages and still matches a full analysis
+        Object[][] edits = {
+            {"exitCostRate", 0.07, "[EXIT]"},
+            {"rentGrowth", 0.04, "[PROJECTION, EXIT]"},
+            {"propertyTaxes", 11000.0, "[OPEX, YEAR_ONE_KPIS, PROJECTION, EXIT]"},
+            {"firstRateAnnual", 0.06, "[FINANCING, YEAR_ONE_KPIS, PROJECTION, EXIT]"},
+            {"holdYears", 25, "[FINANCING, YEAR_ONE_KPIS, PROJECTION, EXIT]"},
+            {"address", "14 Elm St", "[]"},
+        };
+        for (Object[] e : edits) {
+            AnalysisSessionResponse r = sessions.patch(open.sessionId, java.util.Map.of((String) e[0], e[1]));
+            RequestFields.assign(req, (String) e[0], e[1]);
+            if (!e[2].equals(r.recomputed.toString())) {
+                System.out.println("  ERROR: " + e[0] + " recomputed " + r.recomputed + ", expected " + e[2]);
+                return false;
+            }
+            if (!sameResult(r.result, service.analyze(req))) {
+                System.out.println("  ERROR: Session result after " + e[0] + " differs from a full analysis!");
+                return false;
+            }
+            System.out.println("  " + e[0] + " -> " + r.recomputed + ", IRR " + String.format("%.4f%%", r.result.summary.irr * 100)
+                + " in " + r.result.summary.irrIterations + " iterations");
+        }
+        
+        // Every numeric input feeds some stage; bad edits leave the session untouched
+        for (String f : RequestFields.numericNames()) {
+            if (AnalysisStage.invalidatedBy(java.util.List.of(f)).isEmpty()) {
+                System.out.println("  ERROR: " + f + " is not an input of any stage!");
+                return false;
+            }
+        }
+        long version = sessions.get(open.sessionId).version;
+        try {
+            sessions.patch(open.sessionId, java.util.Map.of("exitCostRate", 0.05, "noSuchField", 1));
+            System.out.println("  ERROR: Unknown field should be rejected!");
+            return false;
+        } catch (IllegalArgumentException expected) { }
+        if (sessions.get(open.sessionId).version != version) {
+            System.out.println("  ERROR: Rejected patch should not change the session!");
+            return false;
+        }
+        if (!sessions.close(open.sessionId) || sessions.size() != 0) {
+            System.out.println("  ERROR: Session should close!");
+            return false;
+        }
+        try {
+            sessions.get(open.sessionId);
+            System.out.println("  ERROR: Closed session should not be found!");
+            return false;
+        } catch (java.util.NoSuchElementException expected) { }
+        System.out.println("  ✓ Incremental re-analysis validated");
+        return true;
+    }
+    
+    /**
+     * Test 17: Binary Wire Format - CBOR / Smile round trips, value sequences and the column layout
+     */
+    public boolean testWireFormat() {
+        CashflowService service = new CashflowService();
+        CashflowRequest req = new CashflowRequest();
+        req.offerPrice = 1200000.0;
+        req.grossRentsAnnual = 132000.0;
+        req.vacancyRate = 0.05;
+        req.managementRate = 0.08;
+        req.propertyTaxes = 14000.0;
+        req.firstPrincipal = 840000.0;
+        req.firstRateAnnual = 0.065;
+        req.firstInterestOnlyYears = 3;
+        req.holdYears = 30;
+        req.rentGrowth = 0.03;
+        req.expenseGrowth = 0.02;
+        req.annualAppreciation = 0.03;
+        req.exitCostRate = 0.06;
+        CashflowResponse resp = service.analyze(req);
+        
+        try {
+            if (WireFormat.forAccept(null) != WireFormat.JSON
+                || WireFormat.forAccept("application/x-jackson-smile") != WireFormat.SMILE
+                || WireFormat.forAccept("application/cbor-seq") != WireFormat.CBOR
+                || WireFormat.forContentType("application/cbor") != WireFormat.CBOR) {
+                System.out.println("  ERROR: Media type negotiation mismatch!");
+                return false;
+            }
+            
+            // Requests and responses survive a round trip through every format
+            int jsonRows = 0, jsonColumns = 0;
+            for (WireFormat f : WireFormat.values()) {
+                com.fasterxml.jackson.databind.ObjectMapper m = f.mapper();
+                byte[] rows = m.writeValueAsBytes(resp);
+                byte[] columns = m.writeValueAsBytes(CashflowColumnsResponse.of(resp));
+                CashflowResponse back = m.readValue(rows, CashflowResponse.class);
+                CashflowRequest reqBack = m.readValue(m.writeValueAsBytes(req), CashflowRequest.class);
+                if (!sameResult(back, resp) || !sameResult(service.analyze(reqBack), resp)) {
+                    System.out.println("  ERROR: " + f + " round trip changed the result!");
+                    return false;
+                }
+                CashflowColumnsResponse packed = m.readValue(columns, CashflowColumnsResponse.class);
+                if (packed.projection.years != 30
+                    || packed.projection.noi[29] != resp.projection.get(29).noi
+                    || packed.projection.endingBalanceFirst[0] != resp.projection.get(0).endingBalanceFirst
+                    || !approxEqual(packed.summary.irr, resp.summary.irr, 1e-15)) {
+                    System.out.println("  ERROR: " + f + " column layout does not match the rows!");
+                    return false;
+                }
+                if (f == WireFormat.JSON) { jsonRows = rows.length; jsonColumns = columns.length; }
+                else if (columns.length >= jsonRows || rows.length >= jsonRows) {
+                    System.out.println("  ERROR: " + f + " should be smaller than JSON!");
+                    return false;
+                }
+                System.out.println("  " + f + ": rows " + rows.length + " B, columns " + columns.length + " B");
+            }
+            if (jsonColumns >= jsonRows) {
+                System.out.println("  ERROR: Column layout should be smaller than rows!");
+                return false;
+            }
+            
+            // Batch streams: a sequence of binary values reads back item by item
+            for (WireFormat f : new WireFormat[] { WireFormat.SMILE, WireFormat.CBOR }) {
+                java.io.ByteArrayOutputStream buf = new java.io.ByteArrayOutputStream();
+                try (com.fasterxml.jackson.databind.SequenceWriter w = f.mapper().writer().writeValues(buf)) {
+                    for (int i = 0; i < 3; i++) w.write(new CashflowBatchItem(i, resp, null));
+                    w.write(new CashflowBatchItem(3, null, "Invalid request"));
+                }
+                int n = 0;
+                try (com.fasterxml.jackson.databind.MappingIterator<CashflowBatchItem> it =
+                         f.mapper().readerFor(CashflowBatchItem.class).readValues(buf.toByteArray())) {
+                    while (it.hasNextValue()) {
+                        CashflowBatchItem item = it.nextValue();
+                        if (item.index != n || (n < 3 && !sameResult(item.result, resp)) || (n == 3 && item.error == null)) {
+                            System.out.println("  ERROR: " + f + " sequence item " + n + " mismatch!");
+                            return false;
+                        }
+                        n++;
+                    }
+                }
+                if (n != 4) {
+                    System.out.println("  ERROR: " + f + " sequence should hold 4 items, got " + n);
+                    return false;
+                }
+            }
+        } catch (java.io.IOException e) {
+            System.out.println("  ERROR: " + e);
+            return false;
+        }
+        System.out.println("  ✓ Binary encodings validated");
+        return true;
+    }
+    
+    /**
+     * Test 18: Primitive Request and Workspace - slot-filled requests and a reused workspace match the DTO path
+     */
+    public boolean testPrimitiveWorkspace() {
+        CashflowService service = new CashflowService();
+        AnalysisWorkspace ws = new AnalysisWorkspace();
+        
+        // Long hold, short hold, no debt, zero hold: one workspace, tables reused and regrown
+        int[] holds = { 40, 5, 12, 0, 60 };
+        for (int k = 0; k < holds.length; k++) {
+            CashflowRequest req = new CashflowRequest();
+            req.offerPrice = 900000.0 + 50000.0 * k;
+            req.fmv = 950000.0;
+            req.grossRentsAnnual = 98000.0;
+            req.numberOfUnits = 8;
+            req.parkingAnnual = 2400.0;
+            req.vacancyRate = 0.05;
+            req.managementRate = 0.07;
+            req.managementBase = k % 2 == 0 ? "GROSS_RENTS" : null;
+            req.propertyTaxes = 11000.0;
+            req.insurance = 3200.0;
+            req.repairs = 15000.0;
+            if (k != 2) {
+                req.firstPrincipal = 630000.0;
+                req.firstRateAnnual = 0.0625;
+                req.firstInterestOnlyYears = k;
+                req.secondPrincipal = k == 1 ? 60000.0 : null;
+                req.secondRateAnnual = 0.09;
+            }
+            req.holdYears = holds[k];
+            req.rentGrowth = 0.03;
+            req.expenseGrowth = 0.025;
+            req.annualAppreciation = 0.03;
+            req.exitCostRate = 0.06;
+            req.reinvestRate = k == 3 ? null : 0.05;
+            CashflowResponse expected = service.analyze(req);
+            
+            PrimitiveSummary s = service.analyze(ws.request().load(req), ws);
+            CashflowResponse viaWorkspace = new CashflowResponse();
+            viaWorkspace.summary = s.toSummary();
+            viaWorkspace.projection = ws.columns().toYearRows();
+            if (!sameResult(viaWorkspace, expected) || ws.columns().years != holds[k]) {
+                System.out.println("  ERROR: Workspace result differs for hold " + holds[k] + "!");
+                return false;
+            }
+        }
+        System.out.println("  Reused workspace over holds 40/5/12/0/60: columns capacity " + ws.columns().capacity());
+        
+        // Filling slots directly is equivalent to the DTO; unset slots are NaN
+        CashflowRequest req = new CashflowRequest();
+        req.offerPrice = 500000.0; req.grossRentsAnnual = 60000.0; req.vacancyRate = 0.05;
+        req.firstPrincipal = 375000.0; req.firstRateAnnual = 0.065; req.holdYears = 10;
+        req.rentGrowth = 0.03; req.annualAppreciation = 0.03; req.exitCostRate = 0.05;
+        PrimitiveRequest p = new PrimitiveRequest()
+            .set(PrimitiveRequest.OFFER_PRICE, 500000).set(PrimitiveRequest.GROSS_RENTS_ANNUAL, 60000)
+            .set(PrimitiveRequest.VACANCY_RATE, 0.05).set(PrimitiveRequest.FIRST_PRINCIPAL, 375000)
+            .set(PrimitiveRequest.FIRST_RATE_ANNUAL, 0.065).set(PrimitiveRequest.HOLD_YEARS, 10)
+            .set(PrimitiveRequest.RENT_GROWTH, 0.03).set(PrimitiveRequest.ANNUAL_APPRECIATION, 0.03)
+            .set(PrimitiveRequest.EXIT_COST_RATE, 0.05);
+        if (p.has(PrimitiveRequest.FMV) || !Double.isNaN(p.get(PrimitiveRequest.REINVEST_RATE))
+            || PrimitiveRequest.SLOTS != RequestFields.numericNames().size()) {
+            System.out.println("  ERROR: Unset slots should be NaN!");
+            return false;
+        }
+        PrimitiveSummary s = service.analyze(p, ws);
+        CashflowResponse expected = service.analyze(req);
+        if (!approxEqual(s.irr, expected.summary.irr, 1e-12) || !approxEqual(s.dscrY1, expected.summary.dscrY1, 1e-12)
+            || !approxEqual(s.noiY1, expected.summary.noiY1, 1e-9) || s.toSummary().capRateFMVY1 != null) {
+            System.out.println("  ERROR: Slot-filled request should match the DTO!");
+            return false;
+        }
+        System.out.println("  Slot-filled IRR: " + String.format("%.4f%%", s.irr * 100) + ", NOI Y1: $" + String.format("%,.2f", s.noiY1));
+        System.out.println("  ✓ Primitive path validated");
+        return true;
+    }
+    
+    /**
+     * Test 19: Monthly Projection - months add up to the yearly projection, chunks stream in order,
+     * rehab / lease-up / capex / rate resets apply and the monthly IRR zeroes the NPV
+     */
+    public boolean testMonthlyProjection() {
+        CashflowService service = new CashflowService();
+        MonthlyProjectionService monthly = new MonthlyProjectionService();
+        CashflowRequest base = new CashflowRequest();
+        base.offerPrice = 1200000.0;
+        base.grossRentsAnnual = 132000.0;
+        base.numberOfUnits = 10;
+        base.laundryVendingAnnual = 3000.0;
+        base.vacancyRate = 0.06;
+        base.managementRate = 0.08;
+        base.repairsRate = 0.04;
+        base.propertyTaxes = 14000.0;
+        base.insurance = 4200.0;
+        base.repairs = 40000.0;
+        base.firstPrincipal = 900000.0;
+        base.firstRateAnnual = 0.065;
+        base.firstInterestOnlyYears = 1;
+        base.holdYears = 30;
+        base.rentGrowth = 0.03;
+        base.expenseGrowth = 0.025;
+        base.annualAppreciation = 0.035;
+        base.exitCostRate = 0.06;
+        CashflowResponse yearly = service.analyze(base);
+        AmortizationSchedule schedule = AmortizationSchedule.build(900000.0, 0.065, 30 * 12, 12);
+        
+        // Plain deal: twelve months per projection year
+        MonthlyProjectionRequest req = new MonthlyProjectionRequest();
+        req.base = base;
+        req.startDate = "2025-01-01";
+        double[][] yearSums = new double[30][3];
+        double[] valueAtYearEnd = new double[30];
+        java.util.List<Integer> starts = new java.util.ArrayList<>();
+        double[] maxDsGap = { 0 };
+        try {
+            MonthlyProjectionSummary plain = monthly.plan(req).run(c -> {
+                starts.add(c.fromMonth);
+                for (int i = 0; i < c.months; i++) {
+                    int m = c.fromMonth + i, y = (m - 1) / 12;
+                    yearSums[y][0] += c.totalIncome[i]; yearSums[y][1] += c.totalExpenses[i]; yearSums[y][2] += c.noi[i];
+                    if (m % 12 == 0) valueAtYearEnd[y] = c.propertyValue[i];
+                    maxDsGap[0] = Math.max(maxDsGap[0], Math.abs(c.debtService[i] - schedule.payment(m)));
+                }
+            });
+            if (starts.size() != 30 || starts.get(0) != 1 || starts.get(29) != 349) {
+                System.out.println("  ERROR: Expected 30 chunks from month 1 to 349, got " + starts);
+                return false;
+            }
+            for (int y = 0; y < 30; y++) {
+                CashflowResponse.YearRow row = yearly.projection.get(y);
+                if (!approxEqual(yearSums[y][0], row.totalIncome, 1e-6) || !approxEqual(yearSums[y][1], row.totalExpenses, 1e-6)
+                    || !approxEqual(yearSums[y][2], row.noi, 1e-6) || !approxEqual(valueAtYearEnd[y], row.propertyValue, 1e-4)) {
+                    System.out.println("  ERROR: Year " + (y + 1) + " months do not add up to the yearly row!");
+                    return false;
+                }
+            }
+            if (maxDsGap[0] > 1e-6) {
+                System.out.println("  ERROR: Monthly debt service should follow the amortization schedule!");
+                return false;
+            }
+            if (plain.months != 360 || !"2055-01-01".equals(plain.exitDate) || plain.irrMonthly == null
+                || !approxEqual(plain.cashToClose, yearly.summary.cashToClose, 1e-9)) {
+                System.out.println("  ERROR: Unexpected monthly summary!");
+                return false;
+            }
+            System.out.println("  Plain deal: 30 chunks; IRR " + String.format("%.4f%%", plain.irrAnnualized * 100)
+                + " annualized vs " + String.format("%.4f%%", yearly.summary.irr * 100) + " yearly");
+            
+            // Rehab, lease-up, capex and a rate reset, one month per chunk
+            MonthlyProjectionRequest.Period rehab = new MonthlyProjectionRequest.Period();
+            rehab.fromMonth = 1; rehab.toMonth = 6; rehab.occupancy = 0.0; rehab.capex = 20000.0;
+            MonthlyProjectionRequest.Period leaseUp = new MonthlyProjectionRequest.Period();
+            leaseUp.fromMonth = 7; leaseUp.toMonth = 16; leaseUp.occupancy = 0.3; leaseUp.occupancyEnd = 0.93;
+            MonthlyProjectionRequest.RateReset reset = new MonthlyProjectionRequest.RateReset();
+            reset.month = 61; reset.rateAnnual = 0.08;
+            req.periods = java.util.List.of(rehab, leaseUp);
+            req.rateResets = java.util.List.of(reset);
+            req.chunkMonths = 1;
+            double[] egi = new double[361], ds = new double[361], bal = new double[361], cf = new double[361];
+            MonthlyProjectionSummary value = monthly.plan(req).run(c -> {
+                int m = c.fromMonth;
+                egi[m] = c.egi[0]; ds[m] = c.debtService[0]; bal[m] = c.endingBalanceFirst[0]; cf[m] = c.cashFlowBeforeTax[0];
+                if (c.months != 1) throw new IllegalStateException("chunk of " + c.months);
+            });
+            if (egi[3] != 0 || egi[7] <= 0 || egi[16] <= egi[7] || !approxEqual(value.totalCapex, 120000.0, 1e-9)
+                || !(cf[1] < -20000) || !approxEqual(ds[60], schedule.payment(60), 1e-9) || !(ds[61] > ds[60] * 1.1)
+                || !approxEqual(bal[60], schedule.balance(60), 1e-6) || !(value.irrAnnualized < plain.irrAnnualized)
+                || !approxEqual(ds[61], AmortizationSchedule.build(bal[60], 0.08, 300, 0).payment(1), 1e-9) || bal[360] != 0) {
+                System.out.println("  ERROR: Rehab / lease-up / capex / reset not applied as expected!");
+                return false;
+            }
+            System.out.println("  Value-add: month-1 cash flow $" + String.format("%,.2f", cf[1]) + ", debt service $"
+                + String.format("%,.2f", ds[60]) + " -> $" + String.format("%,.2f", ds[61]) + " after the reset");
+            
+            // NPV at the monthly IRR is zero; XIRR on calendar days lands near the annualized IRR
+            double npv = -value.cashToClose;
+            for (int m = 1; m <= 360; m++) npv += (m == 360 ? cf[m] + value.saleProceedsNet : cf[m]) / Math.pow(1 + value.irrMonthly, m);
+            if (Math.abs(npv) > 1e-4 || value.xirr == null || Math.abs(value.xirr - value.irrAnnualized) > 0.002) {
+                System.out.println("  ERROR: Monthly IRR / XIRR inconsistent (NPV " + npv + ", XIRR " + value.xirr + ")!");
+                return false;
+            }
+            System.out.println("  Value-add IRR " + String.format("%.4f%%", value.irrAnnualized * 100) + " annualized, XIRR "
+                + String.format("%.4f%%", value.xirr * 100));
+        } catch (java.io.IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+        
+        // Invalid inputs are rejected before anything is computed
+        MonthlyProjectionRequest bad = new MonthlyProjectionRequest();
+        bad.base = base;
+        bad.chunkMonths = 0;
+        MonthlyProjectionRequest badPeriod = new MonthlyProjectionRequest();
+        badPeriod.base = base;
+        MonthlyProjectionRequest.Period late = new MonthlyProjectionRequest.Period();
+        late.fromMonth = 300; late.toMonth = 400; late.occupancy = 0.5;
+        badPeriod.periods = java.util.List.of(late);
+        for (MonthlyProjectionRequest r : new MonthlyProjectionRequest[] { bad, badPeriod, new MonthlyProjectionRequest() }) {
+            try {
+                monthly.plan(r);
+                System.out.println("  ERROR: Invalid monthly request should be rejected!");
+                return false;
+            } catch (IllegalArgumentException expected) {
+                // ok
+            }
+        }
+        System.out.println("  ✓ Monthly projection validated");
+        return true;
+    }
+    
+    /**
+     * Test 20: Exit Curve - every exit year matches a full analysis with that hold, from one projection
+     */
+    public boolean testExitCurve() {
+        CashflowService service = new CashflowService();
+        CashflowRequest req = new CashflowRequest();
+        req.offerPrice = 750000.0;
+        req.fmv = 800000.0;
+        req.grossRentsAnnual = 84000.0;
+        req.numberOfUnits = 6;
+        req.vacancyRate = 0.05;
+        req.managementRate = 0.08;
+        req.propertyTaxes = 9000.0;
+        req.insurance = 2800.0;
+        req.repairs = 25000.0;
+        req.lenderFee = 7500.0;
+        req.firstPrincipal = 560000.0;
+        req.firstRateAnnual = 0.0675;
+        req.firstInterestOnlyYears = 3;
+        req.secondPrincipal = 40000.0;
+        req.secondRateAnnual = 0.095;
+        req.secondAmortYears = 10;
+        req.holdYears = 30;
+        req.rentGrowth = 0.03;
+        req.expenseGrowth = 0.035;
+        req.annualAppreciation = 0.03;
+        req.exitCostRate = 0.07;
+        
+        ExitCurveResponse curve = service.exitCurve(req);
+        if (curve.years != 30 || curve.irr.length != 30) {
+            System.out.println("  ERROR: Expected 30 exit years!");
+            return false;
+        }
+        int warmIterations = 0, coldIterations = 0;
+        for (int k = 1; k <= 30; k++) {
+            req.holdYears = k;
+            CashflowResponse.Summary s = service.analyze(req).summary;
+            if (!approxEqual(curve.irr[k - 1], s.irr, 1e-9) || !approxEqual(curve.equityMultiple[k - 1], s.equityMultiple, 1e-12)
+                || !approxEqual(curve.saleProceedsNet[k - 1], s.saleProceedsNet, 1e-6)) {
+                System.out.println("  ERROR: Exit year " + k + " differs from analyze(holdYears=" + k + ")!");
+                return false;
+            }
+            warmIterations += curve.irrIterations[k - 1];
+            coldIterations += s.irrIterations;
+        }
+        int best = curve.bestIrrYear;
+        for (int k = 1; k <= 30; k++) {
+            if (curve.irr[k - 1] > curve.irr[best - 1]) {
+                System.out.println("  ERROR: bestIrrYear is not the IRR maximum!");
+                return false;
+            }
+        }
+        if (warmIterations > coldIterations) {
+            System.out.println("  ERROR: Warm starts should not cost more iterations than cold solves!");
+            return false;
+        }
+        System.out.println("  Best exit: year " + best + " at " + String.format("%.4f%%", curve.irr[best - 1] * 100)
+            + " IRR; best equity multiple in year " + curve.bestEquityMultipleYear);
+        System.out.println("  IRR iterations: " + warmIterations + " warm-started vs " + coldIterations + " cold");
+        
+        // Zero hold: empty curve
+        req.holdYears = 0;
+        ExitCurveResponse none = service.exitCurve(req);
+        if (none.years != 0 || none.irr.length != 0 || none.bestIrrYear != null) {
+            System.out.println("  ERROR: Zero hold should give an empty curve!");
+            return false;
+        }
+        System.out.println("  ✓ Exit curve validated");
+        return true;
+    }
+    
+    /**
+     * Test 21: Tornado Sensitivity - every bar matches a full analysis of the perturbed request,
+     * null / zero inputs are skipped and the rankings are ordered by swing
+     */
+    public boolean testTornado() {
+        CashflowRequest base = new CashflowRequest();
+        base.offerPrice = 1100000.0;
+        base.fmv = 1150000.0;
+        base.grossRentsAnnual = 118000.0;
+        base.numberOfUnits = 10;
+        base.parkingAnnual = 3600.0;
+        base.vacancyRate = 0.05;
+        base.managementRate = 0.08;
+        base.managementBase = "GROSS_RENTS";
+        base.repairsRate = 0.03;
+        base.propertyTaxes = 13500.0;
+        base.insurance = 3900.0;
+        base.waterSewer = 4200.0;
+        base.repairs = 30000.0;
+        base.lenderFee = 8000.0;
+        base.firstPrincipal = 825000.0;
+        base.firstRateAnnual = 0.0625;
+        base.firstAmortYears = 30;
+        base.firstInterestOnlyYears = 2;
+        base.secondPrincipal = 50000.0;
+        base.secondRateAnnual = 0.09;
+        base.holdYears = 15;
+        base.rentGrowth = 0.03;
+        base.expenseGrowth = 0.025;
+        base.annualAppreciation = 0.03;
+        base.exitCostRate = 0.06;
+        base.reinvestRate = 0.05;
+        TornadoRequest req = new TornadoRequest();
+        req.base = base;
+        req.delta = 0.10;
+        
+        long start = System.nanoTime();
+        TornadoResponse t = new TornadoService().rank(req);
+        double ms = (System.nanoTime() - start) / 1e6;
+        
+        int set = 0;
+        for (String f : RequestFields.numericNames()) {
+            Double v = RequestFields.get(base, f);
+            if (v != null && v != 0) set++;
+        }
+        if (t.bars.size() != set || t.evaluations != 2 * set || t.skipped.size() != RequestFields.numericNames().size() - set
+            || !t.skipped.contains("electricity") || t.skipped.contains("offerPrice")) {
+            System.out.println("  ERROR: Expected one bar per non-zero input and the rest skipped!");
+            return false;
+        }
+        
+        // Each side equals a full analysis of the request with that one input moved
+        CashflowService service = new CashflowService();
+        for (TornadoResponse.Bar b : t.bars) {
+            for (int side = 0; side < 2; side++) {
+                CashflowRequest moved = RequestFields.copy(base);
+                RequestFields.set(moved, b.field, side == 0 ? b.lowValue : b.highValue);
+                CashflowResponse.Summary s = service.analyze(moved).summary;
+                Double irr = side == 0 ? b.irrLow : b.irrHigh, noi = side == 0 ? b.noiLow : b.noiHigh;
+                Double coc = side == 0 ? b.cashOnCashLow : b.cashOnCashHigh;
+                if (!approxEqual(irr, s.irr, 1e-9) || !approxEqual(noi, s.noiY1, 1e-6) || !approxEqual(coc, s.cashOnCashY1, 1e-12)) {
+                    System.out.println("  ERROR: " + b.field + (side == 0 ? " low" : " high") + " differs from a full analysis!");
+                    return false;
+                }
+            }
+        }
+        
+        // Stage reuse: opex inputs keep the loan table, exit inputs only re-solve
+        TornadoResponse.Bar taxes = bar(t, "propertyTaxes"), exit = bar(t, "exitCostRate"), units = bar(t, "numberOfUnits");
+        if (taxes.recomputed.contains("FINANCING") || !exit.recomputed.equals(java.util.List.of("EXIT"))
+            || units.lowValue != 9 || units.highValue != 11 || units.irrSwing != 0) {
+            System.out.println("  ERROR: Unexpected stage reuse or integer step!");
+            return false;
+        }
+        
+        // Rankings are ordered by swing and the bars follow the IRR ranking
+        for (int i = 1; i < t.rankByNoi.size(); i++) {
+            if (bar(t, t.rankByNoi.get(i)).noiSwing > bar(t, t.rankByNoi.get(i - 1)).noiSwing) {
+                System.out.println("  ERROR: NOI ranking out of order!");
+                return false;
+            }
+        }
+        if (!t.bars.get(0).field.equals(t.rankByIrr.get(0)) || !t.rankByNoi.get(0).equals("grossRentsAnnual")) {
+            System.out.println("  ERROR: Unexpected top inputs " + t.rankByIrr.get(0) + " / " + t.rankByNoi.get(0));
+            return false;
+        }
+        System.out.println("  " + t.evaluations + " evaluations in " + String.format("%.1f", ms) + " ms (cold)");
+        System.out.println("  Top IRR drivers: " + t.rankByIrr.subList(0, 5));
+        System.out.println("  Top cash-on-cash drivers: " + t.rankByCashOnCash.subList(0, 3));
+        
+        // Unknown fields and bad deltas are rejected
+        req.fields = java.util.List.of("managementBase");
+        try {
+            new TornadoService().rank(req);
+            System.out.println("  ERROR: Text field should be rejected!");
+            return false;
+        } catch (IllegalArgumentException expected) {
+            // ok
+        }
+        req.fields = null;
+        req.delta = 1.5;
+        try {
+            new TornadoService().rank(req);
+            System.out.println("  ERROR: delta >= 1 should be rejected!");
+            return false;
+        } catch (IllegalArgumentException expected) {
+            // ok
+        }
+        System.out.println("  ✓ Tornado ranking validated");
+        return true;
+    }
+    
+    /**
+     * Test 22: Batch IRR Evaluator - column-wise NPV / IRR (SIMD and plain lanes) is bit-identical
+     * to the scalar solver, including Brent fallbacks, no-root and too-short vectors
+     */
+    public boolean testBatchIrr() {
+        java.util.Random rnd = new java.util.Random(17);
+        int lanes = 203;                     // not a multiple of any vector width: exercises the tail
+        double[][] vectors = new double[lanes][];
+        for (int j = 0; j < lanes; j++) {
+            int n = j % 50 == 0 ? j % 3 : 2 + rnd.nextInt(40);
+            double[] c = new double[n];
+            for (int t = 0; t < n; t++) c[t] = (rnd.nextDouble() - 0.3) * 20000;
+            if (n > 0 && j % 7 != 0) c[0] = -100000 - rnd.nextDouble() * 400000;   // j % 7 == 0: often no root
+            if (n > 1 && j % 5 == 0) c[n - 1] += 500000 + rnd.nextDouble() * 500000;
+            vectors[j] = c;
+        }
+        BatchIrrEvaluator simd = new BatchIrrEvaluator(256, 41);
+        BatchIrrEvaluator plain = new BatchIrrEvaluator(256, 41, NpvKernel.SCALAR);
+        NewtonBrentIrrSolver scalar = new NewtonBrentIrrSolver();
+        double[] rates = new double[lanes];
+        for (int j = 0; j < lanes; j++) rates[j] = -0.5 + rnd.nextDouble();
+        
+        for (BatchIrrEvaluator batch : new BatchIrrEvaluator[] { simd, plain }) {
+            for (int round = 0; round < 2; round++) {     // second round: reused after clear()
+                batch.clear();
+                for (double[] c : vectors) batch.add(c, c.length);
+                double[] irr = new double[lanes], npv = new double[lanes];
+                int[] its = new int[lanes];
+                batch.irr(0.08, irr, its);
+                batch.npv(rates, npv);
+                int brent = 0, none = 0;
+                for (int j = 0; j < lanes; j++) {
+                    double[] c = vectors[j];
+                    double expected = scalar.irr(c, c.length, 0.08);
+                    if (Double.compare(irr[j], expected) != 0 || its[j] != scalar.lastIterations()
+                        || Double.compare(npv[j], NewtonBrentIrrSolver.npv(c, c.length, rates[j])) != 0) {
+                        System.out.println("  ERROR: Lane " + j + " (" + batch.kernel() + ") differs: " + irr[j] + " vs " + expected);
+                        return false;
+                    }
+                    if (scalar.lastUsedBracket()) brent++;
+                    if (Double.isNaN(expected)) none++;
+                }
+                if (round == 0) System.out.println("  " + batch.kernel() + ": " + lanes + " lanes identical to the scalar solver ("
+                    + brent + " via Brent, " + none + " without IRR)");
+            }
+        }
+        
+        // One vector at many rates
+        double[] c = vectors[1], at = new double[lanes];
+        BatchIrrEvaluator.npvAtRates(c, c.length, rates, lanes, at);
+        for (int j = 0; j < lanes; j++) {
+            if (Double.compare(at[j], NewtonBrentIrrSolver.npv(c, c.length, rates[j])) != 0) {
+                System.out.println("  ERROR: npvAtRates differs at rate " + rates[j]);
+                return false;
+            }
+        }
+        while (plain.lanes() < plain.capacity()) plain.add(c, c.length);
+        try {
+            plain.add(c, c.length);
+            System.out.println("  ERROR: Adding to a full batch should fail!");
+            return false;
+        } catch (IllegalStateException expected) {
+            // ok
+        }
+        System.out.println("  Vector API kernel active: " + BatchIrrEvaluator.vectorized());
+        System.out.println("  ✓ Batch IRR validated");
+        return true;
+    }
+    
+    /**
+     * Test 23: Deal Selection - branch-and-bound matches exhaustive search on a small set, proves
+     * optimality on a few hundred candidates and bounds the greedy fallback
+     */
+    public boolean testDealSelection() {
+        DealSelectionService service = new DealSelectionService();
+        DealSelectionRequest req = new DealSelectionRequest();
+        req.candidates = selectionCandidates(new java.util.Random(23), 20, 4);
+        req.equityBudget = 1200000.0;
+        req.hurdleRate = 0.08;
+        req.minDscr = 1.1;
+        req.maxDeals = 6;
+        req.maxPerZip = 2;
+        req.maxZipShare = 0.5;
+        DealSelectionResponse r = service.select(req);
+        
+        // Exhaustive search over the eligible candidates with the same constraints
+        java.util.List<DealSelectionResponse.CandidateResult> el = new java.util.ArrayList<>();
+        for (DealSelectionResponse.CandidateResult c : r.candidates) if (c.excludedReason == null) el.add(c);
+        if (el.size() != r.eligible || el.size() < 10) {
+            System.out.println("  ERROR: Expected at least 10 eligible candidates, got " + el.size());
+            return false;
+        }
+        double best = 0;
+        for (int mask = 0; mask < 1 << el.size(); mask++) {
+            if (Integer.bitCount(mask) > req.maxDeals) continue;
+            double eq = 0, npv = 0;
+            java.util.Map<String, double[]> zips = new java.util.HashMap<>();
+            for (int j = 0; j < el.size(); j++) {
+                if ((mask & 1 << j) == 0) continue;
+                DealSelectionResponse.CandidateResult c = el.get(j);
+                eq += c.cashToClose; npv += c.npv;
+                double[] z = zips.computeIfAbsent(c.zip, k -> new double[2]);
+                z[0]++; z[1] += c.cashToClose;
+            }
+            boolean ok = eq <= req.equityBudget;
+            for (double[] z : zips.values()) ok &= z[0] <= req.maxPerZip && z[1] <= req.maxZipShare * req.equityBudget;
+            if (ok && npv > best) best = npv;
+        }
+        if (!r.optimal || !r.method.equals("BRANCH_AND_BOUND") || !approxEqual(r.totalNpv, best, 1e-6) || r.gap != 0
+            || r.totalEquity > req.equityBudget || r.count > req.maxDeals) {
+            System.out.println("  ERROR: Selection NPV " + r.totalNpv + " differs from exhaustive search " + best + "!");
+            return false;
+        }
+        for (DealSelectionResponse.CandidateResult c : r.candidates) {
+            if (c.excludedReason != null && (c.selected || (c.npv > 0 && c.minDscr != null && c.minDscr >= req.minDscr
+                && c.cashToClose <= req.maxZipShare * req.equityBudget))) {
+                System.out.println("  ERROR: Candidate " + c.id + " wrongly excluded or selected (" + c.excludedReason + ")!");
+                return false;
+            }
+        }
+        System.out.println("  20 candidates: " + r.count + " selected, NPV " + String.format("%.0f", r.totalNpv)
+            + " = exhaustive search (" + r.nodes + " nodes)");
+        
+        // A few hundred candidates: proven optimal, at least as good as greedy, greedy gap is bounded
+        req.candidates = selectionCandidates(new java.util.Random(7), 300, 25);
+        req.equityBudget = 6000000.0;
+        req.maxDeals = 25;
+        req.maxPerZip = 3;
+        req.maxZipShare = 0.25;
+        long start = System.nanoTime();
+        DealSelectionResponse exact = service.select(req);
+        double ms = (System.nanoTime() - start) / 1e6;
+        req.exactLimit = 0;
+        DealSelectionResponse greedy = service.select(req);
+        if (!exact.optimal || !greedy.method.equals("GREEDY") || greedy.nodes != 0 || exact.totalNpv < greedy.totalNpv - 1e-6
+            || greedy.upperBound < exact.totalNpv - 1e-6 || greedy.gap < 0 || greedy.gap >= 1
+            || exact.totalEquity > req.equityBudget || exact.count > req.maxDeals) {
+            System.out.println("  ERROR: Unexpected exact / greedy results: " + exact.totalNpv + " / " + greedy.totalNpv
+                + " (bound " + greedy.upperBound + ")");
+            return false;
+        }
+        System.out.println("  300 candidates: optimal NPV " + String.format("%.0f", exact.totalNpv) + " (" + exact.count
+            + " deals, " + exact.nodes + " nodes) in " + String.format("%.1f", ms) + " ms; greedy "
+            + String.format("%.0f", greedy.totalNpv) + ", gap " + String.format("%.4f", greedy.gap));
+        
+        req.equityBudget = 0.0;
+        try {
+            service.select(req);
+            System.out.println("  ERROR: Zero budget should be rejected!");
+            return false;
+        } catch (IllegalArgumentException expected) {
+            // ok
+        }
+        System.out.println("  ✓ Deal selection validated");
+        return true;
+    }
+    
+    /** Random but plausible small multifamily deals spread over `zips` zip codes. */
+    private static java.util.List<DealSelectionRequest.Candidate> selectionCandidates(java.util.Random rnd, int n, int zips) {
+        java.util.List<DealSelectionRequest.Candidate> out = new java.util.ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            CashflowRequest d = new CashflowRequest();
+            double price = 250000 + rnd.nextInt(1000) * 1000.0;
+            d.offerPrice = price;
+            d.fmv = price * (0.95 + 0.15 * rnd.nextDouble());
+            d.grossRentsAnnual = price * (0.08 + 0.05 * rnd.nextDouble());
+            d.numberOfUnits = 2 + rnd.nextInt(20);
+            d.vacancyRate = 0.03 + 0.05 * rnd.nextDouble();
+            d.managementRate = 0.08;
+            d.repairsRate = 0.05;
+            d.propertyTaxes = price * 0.012;
+            d.insurance = price * 0.004;
+            d.firstPrincipal = price * (0.6 + 0.2 * rnd.nextDouble());
+            d.firstRateAnnual = 0.055 + 0.02 * rnd.nextDouble();
+            d.firstAmortYears = 30;
+            d.holdYears = 10;
+            d.rentGrowth = 0.02 + 0.02 * rnd.nextDouble();
+            d.expenseGrowth = 0.025;
+            d.annualAppreciation = 0.01 + 0.03 * rnd.nextDouble();
+            d.exitCostRate = 0.06;
+            d.zip = String.valueOf(94100 + rnd.nextInt(zips));
+            DealSelectionRequest.Candidate c = new DealSelectionRequest.Candidate();
+            c.id = "D" + i;
+            c.deal = d;
+            out.add(c);
+        }
+        return out;
+    }
+    
+    /**
+     * Test 24: CSV Batch - mapped columns, formatted cells and defaults give the same KPIs as
+     * analyze, rows stay in input order across threads, bad rows get an error and long inputs stream
+     */
+    public boolean testCsvBatch() {
+        try {
+            return csvBatch();
+        } catch (java.io.IOException e) {
+            System.out.println("  ERROR: " + e);
+            return false;
+        }
+    }
+    
+    private boolean csvBatch() throws java.io.IOException {
+        String csv = "\uFEFFid,Asking Price,Gross Rents,units,vacancyRate,Loan,Rate,managementBase,propertyTaxes\n"
+            + "A-1,\"$1,200,000\",\"$140,000\",12,5%,900000,6.5%,GROSS_RENTS,14000\n"
+            + "\r\n"
+            + "\"B, \"\"north\"\"\",850000,98000,8,0.06,,,EGI,(1000)\r\n"
+            + "C,abc,98000,8,0.06,600000,0.07,,9000\n"
+            + "D,600000,72000,6,,450000,0.07,,\"7,500\"\n";
+        CsvBatchService.Options o = new CsvBatchService.Options();
+        o.mapping.put("Asking Price", "offerPrice");
+        o.mapping.put("Gross Rents", "grossRentsAnnual");
+        o.mapping.put("units", "numberOfUnits");
+        o.mapping.put("Loan", "firstPrincipal");
+        o.mapping.put("Rate", "firstRateAnnual");
+        o.defaults.put("holdYears", "10");
+        o.defaults.put("vacancyRate", "0.05");
+        o.defaults.put("managementRate", "0.08");
+        o.defaults.put("firstAmortYears", "30");
+        o.defaults.put("annualAppreciation", "0.03");
+        o.defaults.put("exitCostRate", "0.06");
+        o.threads = 3;
+        o.blockRows = 1;
+        o.blocksInFlight = 2;
+        java.io.StringWriter out = new java.io.StringWriter(), proj = new java.io.StringWriter();
+        CashflowService service = new CashflowService();
+        CsvBatchService.Stats st = new CsvBatchService(service).run(new java.io.StringReader(csv), out, proj, o, null);
+        
+        String[] lines = out.toString().split("\n");
+        String[] header = lines[0].split(",", -1);
+        if (st.rows != 4 || st.errors != 1 || lines.length != 5 || !header[1].equals("id")
+            || header.length != 3 + CsvBatchService.SUMMARY_COLUMNS.size()) {
+            System.out.println("  ERROR: Unexpected output shape: " + st.rows + " rows, " + st.errors + " errors, " + lines.length + " lines");
+            return false;
+        }
+        
+        // Each row equals analyze() of the equivalent request
+        CashflowRequest[] expected = new CashflowRequest[3];
+        double[][] cells = { { 1200000, 140000, 12, 0.05, 900000, 0.065, 14000 }, { 850000, 98000, 8, 0.06, Double.NaN, Double.NaN, -1000 },
+            { 600000, 72000, 6, 0.05, 450000, 0.07, 7500 } };
+        for (int k = 0; k < 3; k++) {
+            CashflowRequest r = new CashflowRequest();
+            r.offerPrice = cells[k][0]; r.grossRentsAnnual = cells[k][1]; r.numberOfUnits = (int) cells[k][2];
+            r.vacancyRate = cells[k][3];
+            if (!Double.isNaN(cells[k][4])) { r.firstPrincipal = cells[k][4]; r.firstRateAnnual = cells[k][5]; }
+            r.propertyTaxes = cells[k][6];
+            r.managementBase = k == 0 ? "GROSS_RENTS" : "EGI";
+            r.holdYears = 10; r.managementRate = 0.08; r.firstAmortYears = 30; r.annualAppreciation = 0.03; r.exitCostRate = 0.06;
+            expected[k] = r;
+        }
+        int[] lineOf = { 1, 2, 4 };
+        String[] ids = { "A-1", "\"B, \"\"north\"\"\"", "D" };
+        for (int k = 0; k < 3; k++) {
+            String line = lines[lineOf[k]];
+            if (!line.startsWith(lineOf[k] + "," + ids[k] + ",")) {
+                System.out.println("  ERROR: Row " + lineOf[k] + " out of order or id lost: " + line);
+                return false;
+            }
+            java.util.List<String> v = csvCells(line).subList(2, 3 + CsvBatchService.SUMMARY_COLUMNS.size());
+            CashflowResponse.Summary s = service.analyze(expected[k]).summary;
+            if (!approxEqual(Double.valueOf(v.get(CsvBatchService.SUMMARY_COLUMNS.indexOf("irr"))), s.irr, 1e-12)
+                || !approxEqual(Double.valueOf(v.get(CsvBatchService.SUMMARY_COLUMNS.indexOf("noiY1"))), s.noiY1, 1e-6)
+                || !approxEqual(Double.valueOf(v.get(CsvBatchService.SUMMARY_COLUMNS.indexOf("cashToClose"))), s.cashToClose, 1e-6)
+                || !v.get(CsvBatchService.SUMMARY_COLUMNS.size()).isEmpty()) {
+                System.out.println("  ERROR: Row " + lineOf[k] + " differs from analyze(): " + line);
+                return false;
+            }
+        }
+        if (!lines[3].startsWith("3,C,") || !lines[3].endsWith("Asking Price: not a number: abc")) {
+            System.out.println("  ERROR: Bad cell should produce an error row: " + lines[3]);
+            return false;
+        }
+        if (proj.toString().split("\n").length != 1 + 3 * 10) {
+            System.out.println("  ERROR: Expected ten projection rows per analyzed row!");
+            return false;
+        }
+        System.out.println("  4 rows across 3 threads: in order, KPIs equal analyze(), bad cell reported");
+        
+        // A generated stream much larger than the block pool: flat memory, rows/sec reported
+        int rows = 50000;
+        java.io.Reader big = new java.io.Reader() {
+            final StringBuilder line = new StringBuilder();
+            int row = -1, pos;
+            @Override public int read(char[] buf, int off, int len) {
+                if (pos == line.length()) {
+                    if (++row > rows) return -1;
+                    line.setLength(0); pos = 0;
+                    if (row == 0) line.append("id,offerPrice,grossRentsAnnual,firstPrincipal\n");
+                    else line.append(row).append(',').append(500000 + row % 1000 * 1000).append(',')
+                        .append(60000 + row % 700 * 50).append(',').append(350000 + row % 500 * 500).append('\n');
+                }
+                int n = Math.min(len, line.length() - pos);
+                line.getChars(pos, pos + n, buf, off);
+                pos += n;
+                return n;
+            }
+            @Override public void close() {}
+        };
+        o = new CsvBatchService.Options();
+        o.defaults.put("firstRateAnnual", "0.065");
+        o.defaults.put("holdYears", "10");
+        long[] reports = new long[1];
+        java.io.Writer sink = new java.io.Writer() {
+            @Override public void write(char[] c, int off, int len) {}
+            @Override public void flush() {}
+            @Override public void close() {}
+        };
+        st = new CsvBatchService(service).run(big, sink, null, o, (n, e, rate) -> reports[0]++);
+        if (st.rows != rows || st.errors != 0 || reports[0] < 1) {
+            System.out.println("  ERROR: Expected " + rows + " rows without errors, got " + st.rows);
+            return false;
+        }
+        System.out.println("  " + rows + " streamed rows: " + String.format("%,.0f", st.rowsPerSecond()) + " rows/s on "
+            + o.threads + " threads");
+        
+        o.progressMillis = 0;
+        try {
+            new CsvBatchService(service).run(new java.io.StringReader(csv), sink, null, o, (n, e, rate) -> {
+                throw new IllegalStateException("progress sink closed");
+            });
+            System.out.println("  ERROR: A failing progress callback should fail the run!");
+            return false;
+        } catch (java.io.IOException failed) {
+            if (!(failed.getCause() instanceof IllegalStateException)) {
+                System.out.println("  ERROR: Expected the progress failure as cause, got " + failed);
+                return false;
+            }
+        }
+        
+        o.mapping.put("Asking Price", "address");
+        try {
+            new CsvBatchService(service).run(new java.io.StringReader(csv), sink, null, o, null);
+            System.out.println("  ERROR: Mapping to a non-input field should be rejected!");
+            return false;
+        } catch (IllegalArgumentException expected2) {
+            // ok
+        }
+        System.out.println("  ✓ CSV batch validated");
+        return true;
+    }
+    
+    /** Cells of one CSV line (quotes removed, doubled quotes unescaped). */
+    private static java.util.List<String> csvCells(String line) {
+        java.util.List<String> out = new java.util.ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') { cell.append('"'); i++; }
+                else quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                out.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        out.add(cell.toString());
+        return out;
+    }
+    
+    /**
+     * Test 25: Admission Control - a full lane rejects at once or after its wait with a Retry-After,
+     * permits release once, and the interactive lane keeps admitting while bulk is saturated
+     */
+    public boolean testAdmission() {
+        try {
+            return admission();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("  ERROR: interrupted");
+            return false;
+        }
+    }
+    
+    private boolean admission() throws InterruptedException {
+        java.util.Map<AdmissionGate.Lane, AdmissionGate.Limits> limits = new java.util.EnumMap<>(AdmissionGate.Lane.class);
+        limits.put(AdmissionGate.Lane.INTERACTIVE, new AdmissionGate.Limits(2, 2, 200));
+        limits.put(AdmissionGate.Lane.BULK, new AdmissionGate.Limits(1, 1, 100));
+        AdmissionGate gate = new AdmissionGate(limits);
+        
+        // Bulk: one running, one queued, the next one rejected immediately
+        AdmissionGate.Permit running = gate.acquire(AdmissionGate.Lane.BULK);
+        String[] queuedOutcome = new String[1];
+        Thread queued = new Thread(() -> {
+            try {
+                gate.acquire(AdmissionGate.Lane.BULK).close();
+                queuedOutcome[0] = "admitted";
+            } catch (AdmissionGate.Overloaded e) {
+                queuedOutcome[0] = e.getMessage();
+            }
+        });
+        queued.start();
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        while (gate.stats().get("bulk").get("queued").intValue() == 0 && System.nanoTime() < deadline) Thread.onSpinWait();
+        try {
+            gate.acquire(AdmissionGate.Lane.BULK).close();
+            System.out.println("  ERROR: Bulk lane with a full queue should reject!");
+            return false;
+        } catch (AdmissionGate.Overloaded e) {
+            if (e.retryAfterSeconds < 1 || e.lane != AdmissionGate.Lane.BULK || !e.getMessage().contains("queue full")) {
+                System.out.println("  ERROR: Unexpected rejection " + e.getMessage() + " / " + e.retryAfterSeconds);
+                return false;
+            }
+        }
+        
+        // Interactive is unaffected while bulk is saturated
+        long t0 = System.nanoTime();
+        AdmissionGate.Permit a = gate.acquire(AdmissionGate.Lane.INTERACTIVE);
+        AdmissionGate.Permit b = gate.acquire(AdmissionGate.Lane.INTERACTIVE);
+        long waited = System.nanoTime() - t0;
+        b.close();
+        a.close();
+        if (waited > 50_000_000L) {
+            System.out.println("  ERROR: Interactive calls waited behind bulk work!");
+            return false;
+        }
+        queued.join();
+        if (queuedOutcome[0] == null || !queuedOutcome[0].contains("wait exceeded")) {
+            System.out.println("  ERROR: Queued bulk call should time out, got " + queuedOutcome[0]);
+            return false;
+        }
+        running.close();
+        running.close();   // second close is a no-op
+        java.util.Map<String, Number> bulk = gate.stats().get("bulk");
+        if (bulk.get("active").intValue() != 0 || bulk.get("rejectedQueueFull").longValue() != 1
+            || bulk.get("rejectedTimeout").longValue() != 1 || bulk.get("admitted").longValue() != 1) {
+            System.out.println("  ERROR: Unexpected bulk counters " + bulk);
+            return false;
+        }
+        gate.acquire(AdmissionGate.Lane.BULK).close();   // admitted again once released
+        System.out.println("  Bulk lane: queue-full and wait rejections with Retry-After, interactive unaffected");
+        
+        // Under a bulk flood the interactive lane keeps admitting every call
+        CashflowRequest deal = new CashflowRequest();
+        deal.offerPrice = 1000000.0; deal.grossRentsAnnual = 110000.0; deal.vacancyRate = 0.05;
+        deal.firstPrincipal = 750000.0; deal.firstRateAnnual = 0.065; deal.firstAmortYears = 30; deal.holdYears = 30;
+        deal.rentGrowth = 0.03; deal.annualAppreciation = 0.03; deal.exitCostRate = 0.06;
+        CashflowService service = new CashflowService();
+        java.util.concurrent.atomic.AtomicBoolean stop = new java.util.concurrent.atomic.AtomicBoolean();
+        Thread[] flood = new Thread[6];
+        for (int i = 0; i < flood.length; i++) {
+            flood[i] = new Thread(() -> {
+                while (!stop.get()) {
+                    try {
+                        AdmissionGate.Permit p = gate.acquire(AdmissionGate.Lane.BULK);
+                        try {
+                            for (int k = 0; k < 200; k++) service.analyze(deal);
+                        } finally {
+                            p.close();
+                        }
+                    } catch (AdmissionGate.Overloaded e) {
+                        try { Thread.sleep(5); } catch (InterruptedException ie) { return; }
+                    }
+                }
+            });
+            flood[i].start();
+        }
+        long[] latency = new long[300];
+        for (int i = 0; i < latency.length; i++) {
+            long s = System.nanoTime();
+            AdmissionGate.Permit p = gate.acquire(AdmissionGate.Lane.INTERACTIVE);
+            try {
+                service.analyze(deal);
+            } finally {
+                p.close();
+            }
+            latency[i] = System.nanoTime() - s;
+        }
+        stop.set(true);
+        for (Thread t : flood) t.join();
+        java.util.Arrays.sort(latency);
+        if (gate.rejected(AdmissionGate.Lane.INTERACTIVE) != 0 || gate.rejected(AdmissionGate.Lane.BULK) <= 2) {
+            System.out.println("  ERROR: Expected bulk rejections and no interactive ones: " + gate.stats());
+            return false;
+        }
+        System.out.println("  Bulk flood: " + gate.rejected(AdmissionGate.Lane.BULK) + " bulk rejections, 0 interactive; interactive p50 "
+            + String.format("%.2f", latency[latency.length / 2] / 1e6) + " ms, p99 "
+            + String.format("%.2f", latency[latency.length * 99 / 100] / 1e6) + " ms");
+        System.out.println("  ✓ Admission control validated");
+        return true;
+    }
+    
+    /**
+     * Test 26: Analysis Metrics - a metered service returns the same results and records sampled
+     * stage timings, the projection length, IRR iterations and non-converged IRRs
+     */
+    public boolean testAnalysisMetrics() {
+        io.micrometer.core.instrument.simple.SimpleMeterRegistry registry = new io.micrometer.core.instrument.simple.SimpleMeterRegistry();
+        com.example.analysis.controller.MicrometerAnalysisMetrics metrics = new com.example.analysis.controller.MicrometerAnalysisMetrics();
+        metrics.bindTo(registry);
+        CashflowService plain = new CashflowService();
+        CashflowService metered = new CashflowService(IrrSolver::newDefault, metrics);
+        if (!AnalysisMetrics.ENABLED) {
+            System.out.println("  ERROR: metrics disabled without -Danalysis.metrics=false");
+            return false;
+        }
+        
+        int[] holds = {10, 5, 30, 0, 10};
+        long years = 0, iterations = 0;
+        int solved = 0;
+        for (int i = 0; i < holds.length; i++) {
+            CashflowRequest req = new CashflowRequest();
+            req.offerPrice = 1000000.0;
+            req.grossRentsAnnual = i == 4 ? 20000.0 : 120000.0;   // i == 4: cash flows never repay the equity
+            req.vacancyRate = 0.05;
+            req.managementRate = 0.08;
+            req.propertyTaxes = 12000.0;
+            req.firstPrincipal = 750000.0;
+            req.firstRateAnnual = 0.06;
+            req.firstAmortYears = 30;
+            req.holdYears = holds[i];
+            req.rentGrowth = 0.03;
+            req.annualAppreciation = i == 4 ? -0.05 : 0.03;
+            req.exitCostRate = 0.06;
+            CashflowResponse a = plain.analyze(req), b = metered.analyze(req);
+            if (!sameResult(a, b)) {
+                System.out.println("  ERROR: Metered analysis differs for hold " + holds[i]);
+                return false;
+            }
+            if (i == 4 && b.summary.irr != null) {
+                System.out.println("  ERROR: Expected a null IRR, got " + b.summary.irr);
+                return false;
+            }
+            years += holds[i];
+            if (holds[i] > 0) { solved++; iterations += b.summary.irrIterations; }
+        }
+        
+        // Stage timings: the first analysis on this thread, then every TIMING_SAMPLE-th
+        int timed = (holds.length + AnalysisMetrics.TIMING_SAMPLE - 1) / AnalysisMetrics.TIMING_SAMPLE;
+        for (AnalysisMetrics.Stage stage : AnalysisMetrics.Stage.values()) {
+            io.micrometer.core.instrument.FunctionTimer t = registry.get("analysis.stage").tag("stage", stage.tag()).functionTimer();
+            System.out.println("  " + stage.tag() + ": " + (long) t.count() + " x "
+                + String.format("%.2f", t.mean(java.util.concurrent.TimeUnit.MICROSECONDS)) + " us");
+            if (t.count() != timed || t.totalTime(java.util.concurrent.TimeUnit.NANOSECONDS) <= 0) {
+                System.out.println("  ERROR: Stage " + stage.tag() + " recorded " + t.count() + " times");
+                return false;
+            }
+        }
+        double yearsCount = registry.get("analysis.projection.years").tag("le", "+Inf").functionCounter().count();
+        double yearsUpTo5 = registry.get("analysis.projection.years").tag("le", "5").functionCounter().count();
+        double yearsSum = registry.get("analysis.projection.years.sum").functionCounter().count();
+        double solves = registry.get("analysis.irr.iterations").tag("le", "+Inf").functionCounter().count();
+        double iterationSum = registry.get("analysis.irr.iterations.sum").functionCounter().count();
+        double nonConverged = registry.get("analysis.irr.nonconvergence").functionCounter().count();
+        double undefined = registry.get("analysis.irr.undefined").functionCounter().count();
+        System.out.println("  projection years: " + (long) yearsCount + " analyses, " + (long) yearsSum + " years; IRR iterations: "
+            + (long) solves + " solves, " + (long) iterationSum + " total; non-converged: " + (long) nonConverged
+            + ", undefined: " + (long) undefined);
+        if (yearsCount != holds.length || yearsUpTo5 != 2 || yearsSum != years || solves != solved
+            || iterationSum != iterations || nonConverged != 0 || undefined != 1) {
+            System.out.println("  ERROR: Unexpected counts");
+            return false;
+        }
+        
+        // A solver that gives up on cash flows that do have an IRR counts as non-convergence
+        IrrSolver givesUp = new IrrSolver() {
+            @Override public double irr(double[] cash, int n, double guess) { return Double.NaN; }
+            @Override public int lastIterations() { return 100; }
+        };
+        CashflowRequest ok = new CashflowRequest();
+        ok.offerPrice = 1000000.0;
+        ok.grossRentsAnnual = 120000.0;
+        ok.firstPrincipal = 750000.0;
+        ok.firstRateAnnual = 0.06;
+        ok.holdYears = 10;
+        new CashflowService(() -> givesUp, metrics).analyze(ok);
+        if (registry.get("analysis.irr.nonconvergence").functionCounter().count() != 1
+            || registry.get("analysis.irr.undefined").functionCounter().count() != 1) {
+            System.out.println("  ERROR: A solver failure should count as non-convergence only");
+            return false;
+        }
+        System.out.println("  ✓ Stage timers, IRR and projection metrics validated");
+        return true;
+    }
+    
+    /**
+     * Test 27: Saved Deals and Re-price - overrides re-analyze matching deals, only changed
+     * summaries are saved, a dry run saves nothing, and the log replays after a restart
+     */
+    public boolean testSavedDealReprice() {
+        CashflowService svc = new CashflowService();
+        java.nio.file.Path dir;
+        try {
+            dir = java.nio.file.Files.createTempDirectory("saved-deals");
+        } catch (java.io.IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+        java.nio.file.Path file = dir.resolve("deals.ndjson");
+        try {
+            SavedDealStore store = new SavedDealStore(file, svc);
+            String[] states = {"TX", "TX", "CA"};
+            for (int i = 0; i < 3; i++) {
+                CashflowRequest req = new CashflowRequest();
+                req.state = states[i];
+                req.offerPrice = 1000000.0 + 100000.0 * i;
+                req.grossRentsAnnual = 130000.0;
+                req.vacancyRate = 0.05;
+                req.propertyTaxes = 12000.0;
+                if (i < 2) {   // C is bought with cash: the loan rate does not matter
+                    req.firstPrincipal = 700000.0;
+                    req.firstRateAnnual = 0.06;
+                    req.firstAmortYears = 30;
+                }
+                req.holdYears = 10;
+                req.rentGrowth = 0.03;
+                req.annualAppreciation = 0.03;
+                req.exitCostRate = 0.06;
+                store.save("ABC".substring(i, i + 1), req);
+            }
+            CashflowResponse.Summary aBefore = store.get("A", false).summary;
+            
+            // Dry run: +100 bp on the Texas deals, nothing saved
+            RepriceRequest dry = new RepriceRequest();
+            dry.shift = java.util.Map.of("firstRateAnnual", 0.01);
+            dry.state = "tx";
+            dry.dryRun = true;
+            RepriceResponse d = store.reprice(dry);
+            RepriceResponse.KpiDelta irr = d.kpis.get("irr");
+            System.out.println("  Dry run: matched " + d.matched + ", changed " + d.changed + ", mean IRR "
+                + String.format("%.4f -> %.4f", irr.meanBefore, irr.meanAfter));
+            if (d.matched != 2 || d.changed != 2 || d.saved || !(irr.maxDelta < 0) || irr.count != 2
+                || store.get("A", false).version != 1 || d.deals.size() != 2) {
+                System.out.println("  ERROR: Unexpected dry run");
+                return false;
+            }
+            
+            // 7% on every deal: A and B re-price; C's summary does not change, but its new rate is still saved
+            RepriceRequest all = new RepriceRequest();
+            all.set = java.util.Map.of("firstRateAnnual", 0.07);
+            RepriceResponse r = store.reprice(all);
+            SavedDeal a = store.get("A", false);
+            CashflowResponse expected = svc.analyze(a.request);
+            SavedDeal c = store.get("C", false);
+            System.out.println("  Re-price: matched " + r.matched + ", changed " + r.changed + ", inputs only " + r.inputsOnly
+                + ", unchanged " + r.unchanged + "; A v" + a.version + " IRR " + String.format("%.4f -> %.4f", aBefore.irr, a.summary.irr));
+            if (r.matched != 3 || r.changed != 2 || r.inputsOnly != 1 || r.unchanged != 0 || !r.saved || a.version != 2
+                || a.request.firstRateAnnual != 0.07 || !approxEqual(a.summary.irr, expected.summary.irr, 1e-12)
+                || !(a.summary.irr < aBefore.irr) || c.version != 2 || c.request.firstRateAnnual != 0.07
+                || r.kpis.get("irr").count != 2
+                || !approxEqual(r.deals.get(0).delta.get("irr"), r.deals.get(0).irrAfter - r.deals.get(0).irrBefore, 1e-12)) {
+                System.out.println("  ERROR: Unexpected re-price");
+                return false;
+            }
+            RepriceResponse again = store.reprice(all);
+            if (again.changed != 0 || again.inputsOnly != 0 || again.unchanged != 3) {
+                System.out.println("  ERROR: Repeating the re-price changed deals");
+                return false;
+            }
+            try {
+                RepriceRequest bad = new RepriceRequest();
+                bad.set = java.util.Map.of("noSuchField", 1.0);
+                store.reprice(bad);
+                System.out.println("  ERROR: Unknown field accepted");
+                return false;
+            } catch (IllegalArgumentException expectedError) {
+                // expected
+            }
+            store.delete("B");
+            store.close();
+            
+            // Restart: replay, then again with a torn last line (dropped and rewritten)
+            for (int pass = 0; pass < 2; pass++) {
+                if (pass == 1) java.nio.file.Files.writeString(file, "{\"op\":\"put\",\"id\":\"X", java.nio.file.StandardOpenOption.APPEND);
+                SavedDealStore reopened = new SavedDealStore(file, svc);
+                SavedDeal ra = reopened.get("A", false);
+                boolean ok = reopened.size() == 2 && ra.version == 2 && ra.request.firstRateAnnual == 0.07
+                    && ra.summary.irr.equals(a.summary.irr) && reopened.get("C", false).version == 2
+                    && reopened.get("C", false).request.firstRateAnnual == 0.07
+                    && reopened.list("ca", null, null, 0, 10).size() == 1 && (pass == 0 || reopened.logRecords() == 2);
+                reopened.close();
+                if (!ok) {
+                    System.out.println("  ERROR: Unexpected state after " + (pass == 0 ? "restart" : "torn write"));
+                    return false;
+                }
+            }
+        } catch (java.io.IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        } finally {
+            try (java.util.stream.Stream<java.nio.file.Path> files = java.nio.file.Files.list(dir)) {
+                for (java.nio.file.Path f : (Iterable<java.nio.file.Path>) files::iterator) java.nio.file.Files.delete(f);
+                java.nio.file.Files.delete(dir);
+            } catch (java.io.IOException ignored) {
+                // temp files only
+            }
+        }
+        System.out.println("  ✓ Saved-deal store and re-price validated");
+        return true;
+    }
+    
+    /**
+     * Test 28: Native-Image Runtime Hints - request / response DTOs (nested types included), the
+     * fields enumerated by RequestFields and SavedDealStore, and the saved-deal log record are
+     * registered for reflection
+     */
+    public boolean testRuntimeHints() {
+        org.springframework.aot.hint.RuntimeHints hints = new org.springframework.aot.hint.RuntimeHints();
+        new com.example.analysis.controller.AnalysisRuntimeHints().registerHints(hints, getClass().getClassLoader());
+        org.springframework.aot.hint.predicate.ReflectionHintsPredicates reflection =
+            org.springframework.aot.hint.predicate.RuntimeHintsPredicates.reflection();
+        Class<?>[] types = {CashflowRequest.class, CashflowResponse.class, CashflowResponse.Summary.class,
+            CashflowResponse.YearRow.class, CashflowBatchItem.class, DealSelectionRequest.Candidate.class,
+            RepriceRequest.class, RepriceResponse.KpiDelta.class, SavedDeal.class, MonteCarloRequest.class,
+            MonthlyProjectionSummary.class, TornadoResponse.Bar.class};
+        for (Class<?> t : types) {
+            if (!reflection.onType(t).test(hints)) {
+                System.out.println("  ERROR: No reflection hint for " + t.getName());
+                return false;
+            }
+        }
+        try {
+            for (java.lang.reflect.Field f : CashflowRequest.class.getFields()) {
+                if (!reflection.onField(f).test(hints)) {
+                    System.out.println("  ERROR: Request field " + f.getName() + " not registered");
+                    return false;
+                }
+            }
+            for (java.lang.reflect.Field f : CashflowResponse.Summary.class.getFields()) {
+                if (!reflection.onField(f).test(hints)) {
+                    System.out.println("  ERROR: Summary field " + f.getName() + " not registered");
+                    return false;
+                }
+            }
+            Class<?> record = Class.forName("com.example.analysis.service.SavedDealStore$Record");
+            if (!reflection.onConstructor(record.getDeclaredConstructor()).test(hints)
+                || !reflection.onField(record.getField("summaryDiff")).test(hints)) {
+                System.out.println("  ERROR: Saved-deal log record not registered");
+                return false;
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        boolean isVirtual = hints.reflection().getTypeHint(Thread.class).methods()
+            .anyMatch(m -> m.getName().equals("isVirtual"));
+        long typeCount = hints.reflection().typeHints().count();
+        System.out.println("  " + typeCount + " types registered; Thread.isVirtual: " + isVirtual);
+        if (!isVirtual) {
+            System.out.println("  ERROR: Thread.isVirtual not registered");
+            return false;
+        }
+        System.out.println("  ✓ Runtime hints validated");
+        return true;
+    }
+    
+    /**
+     * Test 29: Batch Engine - ordered output, inline per-item errors, a final item for an unreadable
+     * stream, and never more than `parallelism` requests in flight
+     */
+    public boolean testBatchEngine() {
+        java.util.concurrent.atomic.AtomicInteger active = new java.util.concurrent.atomic.AtomicInteger();
+        java.util.concurrent.atomic.AtomicInteger maxActive = new java.util.concurrent.atomic.AtomicInteger();
+        CashflowService counting = new CashflowService() {
+            @Override
+            public CashflowResponse analyze(CashflowRequest r) {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    if (r.offerPrice < 0) throw new IllegalArgumentException("offerPrice must be >= 0");
+                    Thread.sleep(1);   // let the window fill up
+                    return super.analyze(r);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    active.decrementAndGet();
+                }
+            }
+        };
+        int parallelism = 4, window = CashflowBatchService.clampParallelism(parallelism), n = 40;
+        int nullAt = 7, unreadableAt = 13, invalidAt = 21;
+        java.util.List<CashflowBatchItem> items = new java.util.ArrayList<>();
+        int[] issued = { 0 };
+        boolean[] overfilled = { false };
+        CashflowBatchService.Source source = new CashflowBatchService.Source() {
+            @Override
+            public boolean hasNext() throws java.io.IOException {
+                if (issued[0] == n) throw new java.io.IOException("truncated");
+                return true;
+            }
+            
+            @Override
+            public CashflowRequest next() throws java.io.IOException {
+                if (issued[0] - items.size() >= window) overfilled[0] = true;
+                int i = issued[0]++;
+                if (i == nullAt) return null;
+                if (i == unreadableAt) throw new java.io.IOException("bad line " + i);
+                CashflowRequest r = new CashflowRequest();
+                r.offerPrice = i == invalidAt ? -1.0 : 500000.0 + 10000.0 * i;
+                r.grossRentsAnnual = 60000.0; r.vacancyRate = 0.05;
+                r.firstPrincipal = 350000.0; r.firstRateAnnual = 0.065; r.holdYears = 10;
+                return r;
+            }
+        };
+        long count;
+        try {
+            count = new CashflowBatchService(counting).run(source, parallelism, items::add);
+        } catch (java.io.IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+        System.out.println("  " + count + " items, window " + window + ", max concurrent analyses " + maxActive.get());
+        
+        if (count != n + 1 || items.size() != n + 1) {
+            System.out.println("  ERROR: Expected " + (n + 1) + " items, got " + items.size() + " (returned " + count + ")");
+            return false;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            CashflowBatchItem item = items.get(i);
+            boolean failed = i == nullAt || i == unreadableAt || i == invalidAt || i == n;
+            if (item.index != i || (item.result == null) != failed || (item.error == null) == failed) {
+                System.out.println("  ERROR: Item " + i + " out of order or wrong outcome (index " + item.index
+                    + ", error " + item.error + ")");
+                return false;
+            }
+        }
+        if (!items.get(nullAt).error.equals("Invalid request: null")
+            || !items.get(unreadableAt).error.equals("Invalid request: bad line " + unreadableAt)
+            || !items.get(invalidAt).error.startsWith("IllegalArgumentException")
+            || !items.get(n).error.equals("Unreadable input: truncated")) {
+            System.out.println("  ERROR: Unexpected error items " + items.get(nullAt).error + " / "
+                + items.get(unreadableAt).error + " / " + items.get(invalidAt).error + " / " + items.get(n).error);
+            return false;
+        }
+        CashflowRequest first = new CashflowRequest();
+        first.offerPrice = 500000.0; first.grossRentsAnnual = 60000.0; first.vacancyRate = 0.05;
+        first.firstPrincipal = 350000.0; first.firstRateAnnual = 0.065; first.holdYears = 10;
+        if (!approxEqual(items.get(0).result.summary.irr, new CashflowService().analyze(first).summary.irr, 1e-12)) {
+            System.out.println("  ERROR: Batch result should match a direct analysis!");
+            return false;
+        }
+        if (overfilled[0] || maxActive.get() > window) {
+            System.out.println("  ERROR: More than " + window + " requests in flight!");
+            return false;
+        }
+        System.out.println("  ✓ Batch engine validated");
+        return true;
+    }
+    
+    private static TornadoResponse.Bar bar(TornadoResponse t, String field) {
+        for (TornadoResponse.Bar b : t.bars) if (b.field.equals(field)) return b;
+        throw new IllegalStateException("no bar for " + field);
+    }
+    
+    /**
+     * Helper method: Summary KPIs (except solver iterations) and projection rows agree
+     */
+    private boolean sameResult(CashflowResponse a, CashflowResponse b) {
+        try {
+            for (java.lang.reflect.Field f : CashflowResponse.Summary.class.getFields()) {
+                if (f.getType() != Double.class) continue;
+                if (!approxEqual((Double) f.get(a.summary), (Double) f.get(b.summary), 1e-6)) {
+                    System.out.println("  Mismatch in " + f.getName() + ": " + f.get(a.summary) + " vs " + f.get(b.summary));
+                    return false;
+                }
+            }
+            if (a.projection.size() != b.projection.size()) return false;
+            for (int i = 0; i < a.projection.size(); i++) {
+                for (java.lang.reflect.Field f : CashflowResponse.YearRow.class.getFields()) {
+                    if (f.getType() != Double.class) continue;
+                    if (!approxEqual((Double) f.get(a.projection.get(i)), (Double) f.get(b.projection.get(i)), 1e-6)) return false;
+                }
+            }
+            return true;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
     /**
      * Helper method: Compare two doubles with default tolerance (0.01)
      */
@@ -0,0 +1,133 @@
+package com.example.analysis.cli;
+
+import com.example.analysis.service.CashflowService;
+import com.example.analysis.service.CsvBatchService;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Command-line front end of CsvBatchService: analyzes every row of a (possibly multi-GB) CSV export
+ * and streams the Summary KPIs, and optionally the yearly projection, to CSV. Files ending in .gz
+ * are read and written gzipped; `-` is stdin / stdout. Progress goes to stderr.
+ *
+ *   java -cp cashflow-calculator.jar com.example.analysis.cli.CsvBatchCli deals.csv kpis.csv \
+ *     --map "Asking Price=offerPrice" --map "Gross Rents=grossRentsAnnual" --default holdYears=10
+ */
+public final class CsvBatchCli {
+
+  private static final String USAGE = String.join("\n",
+      "usage: CsvBatchCli [options] <input.csv | -> [output.csv | -]",
+      "  --map HEADER=field      map a CSV column to a CashflowRequest field (repeatable)",
+      "  --mapping FILE          HEADER=field lines (# comments); columns named like a field map automatically",
+      "  --default field=value   value when a row leaves the field empty or has no such column (repeatable)",
+      "  --id COLUMN             column echoed as `id` in the output (default: a column named id)",
+      "  --delimiter C           cell delimiter, e.g. ';' or tab (default ',')",
+      "  --projection FILE       also write one row per input row and projection year",
+      "  --threads N             analysis threads (default: all cores)",
+      "  --block-rows N          rows per work unit (default " + CsvBatchService.DEFAULT_BLOCK_ROWS + ")",
+      "  --quiet                 no progress on stderr");
+
+  private CsvBatchCli() {}
+
+  public static void main(String[] args) {
+    System.exit(run(args));
+  }
+
+  /** Exit code: 0 done (row errors are in the output), 1 I/O failure, 2 bad usage. */
+  static int run(String[] args) {
+    CsvBatchService.Options o = new CsvBatchService.Options();
+    String input = null, output = "-", projection = null;
+    boolean quiet = false;
+    try {
+      for (int i = 0; i < args.length; i++) {
+        String a = args[i];
+        switch (a) {
+          case "--map": pair(value(args, ++i, a), o.mapping); break;
+          case "--mapping":
+            for (String line : Files.readAllLines(Path.of(value(args, ++i, a)), StandardCharsets.UTF_8)) {
+              if (!line.isBlank() && !line.trim().startsWith("#")) pair(line, o.mapping);
+            }
+            break;
+          case "--default": pair(value(args, ++i, a), o.defaults); break;
+          case "--id": o.idColumn = value(args, ++i, a); break;
+          case "--delimiter": {
+            String d = value(args, ++i, a);
+            if (d.equals("tab") || d.equals("\\t")) d = "\t";
+            if (d.length() != 1) throw new IllegalArgumentException("--delimiter takes one character");
+            o.delimiter = d.charAt(0);
+            break;
+          }
+          case "--projection": projection = value(args, ++i, a); break;
+          case "--threads": o.threads = Integer.parseInt(value(args, ++i, a)); break;
+          case "--block-rows": o.blockRows = Integer.parseInt(value(args, ++i, a)); break;
+          case "--quiet": quiet = true; break;
+          case "-h": case "--help": System.out.println(USAGE); return 0;
+          default:
+            if (a.startsWith("--")) throw new IllegalArgumentException("unknown option " + a);
+            if (input == null) input = a; else output = a;
+        }
+      }
+      if (input == null) throw new IllegalArgumentException("input file is required");
+    } catch (IllegalArgumentException e) {
+      System.err.println("error: " + e.getMessage() + "\n" + USAGE);
+      return 2;
+    } catch (IOException e) {
+      System.err.println("error: cannot read mapping: " + e.getMessage());
+      return 1;
+    }
+
+    boolean progress = !quiet;
+    try (Reader in = reader(input);
+         Writer out = writer(output);
+         Writer proj = projection == null ? null : writer(projection)) {
+      CsvBatchService.Stats s = new CsvBatchService(new CashflowService()).run(in, out, proj, o,
+          progress ? (rows, errors, rate) -> System.err.printf("\r%,d rows  %,.0f rows/s  %,d errors   ", rows, rate, errors) : null);
+      if (progress) System.err.printf("%n%,d rows in %.1f s (%,.0f rows/s), %,d errors%n", s.rows, s.seconds, s.rowsPerSecond(), s.errors);
+      return 0;
+    } catch (IllegalArgumentException e) {
+      System.err.println("error: " + e.getMessage());
+      return 2;
+    } catch (IOException e) {
+      System.err.println("error: " + e.getMessage());
+      return 1;
+    }
+  }
+
+  private static String value(String[] args, int i, String option) {
+    if (i >= args.length) throw new IllegalArgumentException(option + " needs a value");
+    return args[i];
+  }
+
+  /** "key=value" into `into`; the last '=' separates them so headers may contain one. */
+  private static void pair(String s, Map<String, String> into) {
+    int eq = s.lastIndexOf('=');
+    if (eq <= 0) throw new IllegalArgumentException("expected KEY=value: " + s);
+    into.put(s.substring(0, eq).trim(), s.substring(eq + 1).trim());
+  }
+
+  private static Reader reader(String name) throws IOException {
+    InputStream in = name.equals("-") ? System.in : Files.newInputStream(Path.of(name));
+    if (name.endsWith(".gz")) in = new GZIPInputStream(in, 1 << 16);
+    return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+  }
+
+  private static Writer writer(String name) throws IOException {
+    OutputStream out = name.equals("-") ? System.out : Files.newOutputStream(Path.of(name));
+    if (name.endsWith(".gz")) out = new GZIPOutputStream(out, 1 << 16);
+    return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+  }
+}
@@ -0,0 +1,541 @@
+package com.example.analysis.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Streaming CSV batch analysis for broker spreadsheets. The calling thread splits the input into
+ * records and packs them into blocks; workers parse the mapped cells straight into the
+ * PrimitiveRequest slots of their own AnalysisWorkspace, analyze and format each row; a writer
+ * thread emits the blocks in input order. A fixed pool of blocks circulates between the three
+ * (reader -> bounded work queue -> workers -> writer -> back to the pool), so memory stays flat
+ * however long the input is and the reader simply waits when the workers or the output fall behind.
+ *
+ * Cells: empty means unset (or the configured default); `$`, spaces, `_` and thousands separators
+ * are ignored, a trailing `%` divides by 100 and `(1,200)` is negative. Rows that fail to parse
+ * or analyze are written with an `error` and do not stop the run.
+ */
+public class CsvBatchService {
+
+  public static final int DEFAULT_BLOCK_ROWS = 256, MAX_BLOCK_ROWS = 100_000;
+
+  /** Summary KPI columns, in output order (PrimitiveSummary fields). */
+  public static final List<String> SUMMARY_COLUMNS = List.of("rpp", "cashToClose", "totalIncomeY1", "vacancyLossY1",
+      "egiY1", "totalExpensesY1", "noiY1", "annualDebtServiceY1", "dscrY1", "capRatePPY1", "capRateFMVY1", "grmY1",
+      "avgRentPerUnitY1", "monthlyProfitY1", "cashflowPerUnitPerMonthY1", "ltvFMV", "ltppPP", "cashOnCashY1",
+      "equityROIY1", "appreciationROIY1", "totalROIY1", "forcedAppreciationROIY1", "irr", "irrIterations", "mirr",
+      "equityMultiple", "saleProceedsNet");
+
+  /** Projection columns, one output row per input row and year (ProjectionColumns fields). */
+  public static final List<String> PROJECTION_COLUMNS = List.of("year", "totalIncome", "vacancyLoss", "egi",
+      "management", "repairsRateBased", "totalExpenses", "noi", "debtService", "cashFlowBeforeTax",
+      "endingBalanceFirst", "endingBalanceSecond", "propertyValue");
+
+  private static final int IGNORE = -1, MANAGEMENT_BASE = -2, ID = -3;
+
+  /** Run settings; everything has a default except what the file itself cannot tell. */
+  public static final class Options {
+    public Map<String, String> mapping = new LinkedHashMap<>();   // CSV header -> request field; other headers naming a field map to it
+    public Map<String, String> defaults = new LinkedHashMap<>();  // Request field -> value for empty or missing cells
+    public String idColumn;                                       // Echoed as `id` (default: a column named "id", if any)
+    public char delimiter = ',';
+    public int threads = Runtime.getRuntime().availableProcessors();
+    public int blockRows = DEFAULT_BLOCK_ROWS;
+    public int blocksInFlight;                                    // Block pool size (0 = 4 per thread)
+    public long progressMillis = 1000;
+  }
+
+  /** Called from the writer thread about every Options.progressMillis, and once at the end; throwing fails the run. */
+  public interface Progress {
+    void report(long rows, long errors, double rowsPerSecond);
+  }
+
+  /** Totals of a finished run. */
+  public static final class Stats {
+    public long rows, errors;
+    public double seconds;
+
+    public double rowsPerSecond() { return seconds > 0 ? rows / seconds : 0; }
+  }
+
+  private final CashflowService svc;
+
+  public CsvBatchService(CashflowService svc) { this.svc = svc; }
+
+  /**
+   * Analyze every data row of `in`, writing one summary line per row to `summary` and, when
+   * `projection` is given, one line per row and projection year to it. Writers are not closed.
+   * Throws IllegalArgumentException for a bad mapping or options, IOException for I/O failures.
+   */
+  public Stats run(Reader in, Writer summary, Writer projection, Options o, Progress progress) throws IOException {
+    if (o.threads < 1) throw new IllegalArgumentException("threads must be >= 1");
+    if (o.blockRows < 1 || o.blockRows > MAX_BLOCK_ROWS) throw new IllegalArgumentException("blockRows must be 1.." + MAX_BLOCK_ROWS);
+    if (o.delimiter == '"' || o.delimiter == '\n' || o.delimiter == '\r') throw new IllegalArgumentException("invalid delimiter");
+    RecordReader records = new RecordReader(in);
+    Block header = new Block();
+    if (!records.next(header)) throw new IllegalArgumentException("input has no header row");
+    Layout layout = new Layout(header, o);
+
+    summary.write(layout.summaryHeader());
+    if (projection != null) projection.write(layout.projectionHeader());
+
+    int pool = o.blocksInFlight > 0 ? o.blocksInFlight : 4 * o.threads;
+    Pipeline p = new Pipeline(layout, pool, summary, projection, progress, o.progressMillis);
+    Thread[] workers = new Thread[o.threads];
+    for (int i = 0; i < workers.length; i++) {
+      workers[i] = new Thread(p::work, "csv-batch-" + i);
+      workers[i].setDaemon(true);
+      workers[i].start();
+    }
+    Thread writer = new Thread(p::write, "csv-batch-writer");
+    writer.setDaemon(true);
+    writer.start();
+
+    long seq = 0, row = 0;
+    IOException readFailure = null;
+    try {
+      Block b = null;
+      while (p.failure == null) {
+        if (b == null) {
+          b = p.free.take();
+          b.reset(seq, row);
+        }
+        boolean more;
+        try {
+          more = records.next(b);
+        } catch (IOException e) {
+          readFailure = e;
+          more = false;
+        }
+        if (more && b.rows < o.blockRows) continue;
+        if (b.rows > 0) {
+          row += b.rows;
+          seq++;
+          p.work.put(b);
+        } else {
+          p.free.put(b);
+        }
+        b = null;
+        if (!more) break;
+      }
+      p.work.put(Block.POISON);
+      p.done.put(Block.end(seq));
+      for (Thread w : workers) w.join();
+      writer.join();
+    } catch (InterruptedException e) {
+      for (Thread w : workers) w.interrupt();
+      writer.interrupt();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("CSV batch interrupted");
+    }
+    if (readFailure != null) throw readFailure;
+    if (p.failure instanceof IOException) throw (IOException) p.failure;
+    if (p.failure != null) throw new IOException("CSV batch failed", p.failure);
+
+    Stats s = new Stats();
+    s.rows = p.rowsWritten; s.errors = p.errorsWritten;
+    s.seconds = (System.nanoTime() - p.started) / 1e9;
+    if (progress != null) progress.report(s.rows, s.errors, s.rowsPerSecond());
+    return s;
+  }
+
+  /** Column roles resolved from the header, shared read-only by the workers. */
+  private static final class Layout {
+    final String[] names;
+    final int[] kind;                  // Request slot, IGNORE, MANAGEMENT_BASE or ID per column
+    final char delimiter;
+    final boolean hasId;
+    final double[] defaults = new double[PrimitiveRequest.SLOTS];
+    final String defaultManagementBase;
+
+    Layout(Block header, Options o) {
+      delimiter = o.delimiter;
+      List<String> cols = new ArrayList<>();
+      Cells c = new Cells(delimiter);
+      c.start(header.text, 0, header.ends[0]);
+      while (c.next()) cols.add(c.text().trim());
+      if (!cols.isEmpty() && cols.get(0).startsWith("\uFEFF")) cols.set(0, cols.get(0).substring(1));
+      names = cols.toArray(new String[0]);
+      kind = new int[names.length];
+      List<String> numeric = RequestFields.numericNames();
+
+      Map<String, String> map = new LinkedHashMap<>();
+      for (Map.Entry<String, String> e : o.mapping.entrySet()) {
+        String field = e.getValue() == null ? "" : e.getValue().trim();
+        if (!numeric.contains(field) && !field.equals("managementBase"))
+          throw new IllegalArgumentException("mapping " + e.getKey() + ": not an analysis input: " + field);
+        if (!cols.contains(e.getKey().trim())) throw new IllegalArgumentException("mapping: no column " + e.getKey());
+        map.put(e.getKey().trim(), field);
+      }
+      String id = o.idColumn != null ? o.idColumn.trim() : null;
+      if (id != null && !cols.contains(id)) throw new IllegalArgumentException("no id column " + id);
+      boolean idFound = false;
+      for (int i = 0; i < names.length; i++) {
+        String field = map.containsKey(names[i]) ? map.get(names[i]) : fieldNamed(names[i], numeric);
+        if (!idFound && (id != null ? names[i].equals(id) : names[i].equalsIgnoreCase("id"))) {
+          kind[i] = ID; idFound = true;
+        } else if (field == null) kind[i] = IGNORE;
+        else if (field.equals("managementBase")) kind[i] = MANAGEMENT_BASE;
+        else kind[i] = numeric.indexOf(field);
+      }
+      hasId = idFound;
+
+      Arrays.fill(defaults, Double.NaN);
+      String mgmt = null;
+      for (Map.Entry<String, String> e : o.defaults.entrySet()) {
+        String field = e.getKey().trim();
+        if (field.equals("managementBase")) { mgmt = e.getValue(); continue; }
+        int slot = numeric.indexOf(field);
+        if (slot < 0) throw new IllegalArgumentException("default: not an analysis input: " + field);
+        Cells v = new Cells(delimiter);
+        char[] t = e.getValue() == null ? new char[0] : e.getValue().toCharArray();
+        v.start(t, 0, t.length);
+        v.next();
+        try {
+          defaults[slot] = v.number();
+        } catch (NumberFormatException ex) {
+          throw new IllegalArgumentException("default " + field + ": not a number: " + e.getValue());
+        }
+      }
+      defaultManagementBase = mgmt;
+    }
+
+    private static String fieldNamed(String header, List<String> numeric) {
+      if (header.equalsIgnoreCase("managementBase")) return "managementBase";
+      for (String f : numeric) if (f.equalsIgnoreCase(header)) return f;
+      return null;
+    }
+
+    String summaryHeader() {
+      StringBuilder sb = new StringBuilder("row");
+      if (hasId) sb.append(",id");
+      for (String c : SUMMARY_COLUMNS) sb.append(',').append(c);
+      return sb.append(",error\n").toString();
+    }
+
+    String projectionHeader() {
+      StringBuilder sb = new StringBuilder("row");
+      if (hasId) sb.append(",id");
+      for (String c : PROJECTION_COLUMNS) sb.append(',').append(c);
+      return sb.append('\n').toString();
+    }
+  }
+
+  /** The shared queues plus the worker and writer loops. */
+  private final class Pipeline {
+    final Layout layout;
+    final int pool;
+    final BlockingQueue<Block> free, work, done;
+    final Writer summary, projection;
+    final Progress progress;
+    final long progressNanos;
+    final long started = System.nanoTime();
+    volatile Throwable failure;
+    long rowsWritten, errorsWritten;
+
+    Pipeline(Layout layout, int pool, Writer summary, Writer projection, Progress progress, long progressMillis) {
+      this.layout = layout;
+      this.pool = pool;
+      free = new ArrayBlockingQueue<>(pool);
+      work = new ArrayBlockingQueue<>(pool + 1);
+      done = new ArrayBlockingQueue<>(pool + 1);
+      for (int i = 0; i < pool; i++) free.add(new Block());
+      this.summary = summary; this.projection = projection;
+      this.progress = progress;
+      this.progressNanos = progressMillis * 1_000_000L;
+    }
+
+    void work() {
+      AnalysisWorkspace ws = new AnalysisWorkspace();
+      Cells cells = new Cells(layout.delimiter);
+      try {
+        while (true) {
+          Block b = work.take();
+          if (b == Block.POISON) { work.put(b); return; }
+          try {
+            if (failure == null) for (int r = 0; r < b.rows; r++) analyzeRow(b, r, ws, cells);
+          } catch (Throwable t) {
+            failure = t;
+          }
+          done.put(b);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private void analyzeRow(Block b, int r, AnalysisWorkspace ws, Cells cells) {
+      PrimitiveRequest p = ws.request();
+      System.arraycopy(layout.defaults, 0, p.v, 0, PrimitiveRequest.SLOTS);
+      String mgmt = layout.defaultManagementBase, id = null, error = null;
+      cells.start(b.text, r == 0 ? 0 : b.ends[r - 1], b.ends[r]);
+      for (int col = 0; cells.next(); col++) {
+        int k = col < layout.kind.length ? layout.kind[col] : IGNORE;
+        if (k == IGNORE) continue;
+        if (k == ID) { id = cells.text(); continue; }
+        if (k == MANAGEMENT_BASE) { if (!cells.isEmpty()) mgmt = cells.text().trim(); continue; }
+        try {
+          double d = cells.number();
+          if (!Double.isNaN(d)) p.set(k, d);
+        } catch (NumberFormatException e) {
+          if (error == null) error = layout.names[col] + ": not a number: " + cells.text();
+        }
+      }
+      p.managementOnGrossRents("GROSS_RENTS".equalsIgnoreCase(mgmt));
+
+      StringBuilder out = b.out;
+      long row = b.firstRow + r + 1;
+      out.append(row);
+      if (layout.hasId) escape(out.append(','), id);
+      PrimitiveSummary s = null;
+      if (error == null) {
+        try {
+          s = svc.analyze(p, ws);
+        } catch (RuntimeException e) {
+          error = e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+        }
+      }
+      if (s == null) {
+        for (int i = 0; i < SUMMARY_COLUMNS.size(); i++) out.append(',');
+        escape(out.append(','), error).append('\n');
+        b.errors++;
+        return;
+      }
+      num(out, s.rpp); num(out, s.cashToClose); num(out, s.totalIncomeY1); num(out, s.vacancyLossY1);
+      num(out, s.egiY1); num(out, s.totalExpensesY1); num(out, s.noiY1); num(out, s.annualDebtServiceY1);
+      num(out, s.dscrY1); num(out, s.capRatePPY1); num(out, s.capRateFMVY1); num(out, s.grmY1);
+      num(out, s.avgRentPerUnitY1); num(out, s.monthlyProfitY1); num(out, s.cashflowPerUnitPerMonthY1);
+      num(out, s.ltvFMV); num(out, s.ltppPP); num(out, s.cashOnCashY1); num(out, s.equityROIY1);
+      num(out, s.appreciationROIY1); num(out, s.totalROIY1); num(out, s.forcedAppreciationROIY1);
+      num(out, s.irr); out.append(',').append(s.irrIterations); num(out, s.mirr);
+      num(out, s.equityMultiple); num(out, s.saleProceedsNet);
+      out.append(",\n");
+
+      if (projection == null) return;
+      ProjectionColumns c = ws.columns();
+      StringBuilder pr = b.proj;
+      for (int y = 0; y < c.years; y++) {
+        pr.append(row);
+        if (layout.hasId) escape(pr.append(','), id);
+        pr.append(',').append(y + 1);
+        num(pr, c.totalIncome[y]); num(pr, c.vacancyLoss[y]); num(pr, c.egi[y]); num(pr, c.management[y]);
+        num(pr, c.repairsRateBased[y]); num(pr, c.totalExpenses[y]); num(pr, c.noi[y]); num(pr, c.debtService[y]);
+        num(pr, c.cashFlowBeforeTax[y]); num(pr, c.endingBalanceFirst[y]); num(pr, c.endingBalanceSecond[y]);
+        num(pr, c.propertyValue[y]);
+        pr.append('\n');
+      }
+    }
+
+    /**
+   * Emit blocks in sequence order; out-of-order blocks wait in `pending` (at most the pool size).
+   * A failing writer or progress callback sets `failure`, and later blocks are recycled unwritten.
+   */
+    void write() {
+      Block[] pending = new Block[pool];
+      long next = 0, total = -1, lastReport = started;
+      try {
+        while (total < 0 || next < total) {
+          Block b = done.take();
+          if (b.end) { total = b.seq; continue; }
+          pending[(int) (b.seq % pending.length)] = b;
+          Block head;
+          while ((head = pending[(int) (next % pending.length)]) != null && head.seq == next) {
+            pending[(int) (next % pending.length)] = null;
+            if (failure == null) {
+              try {
+                summary.append(head.out);
+                if (projection != null) projection.append(head.proj);
+              } catch (Throwable t) {
+                failure = t;
+              }
+            }
+            rowsWritten += head.rows;
+            errorsWritten += head.errors;
+            next++;
+            free.put(head);
+          }
+          long now = System.nanoTime();
+          if (progress != null && failure == null && now - lastReport >= progressNanos) {
+            lastReport = now;
+            try {
+              progress.report(rowsWritten, errorsWritten, rowsWritten / ((now - started) / 1e9));
+            } catch (Throwable t) {
+              failure = t;   // Keep draining: the reader and workers wait on free blocks and the end marker
+            }
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /** Up to blockRows raw records (text plus end offsets) and their formatted output. */
+  static final class Block {
+    static final Block POISON = new Block();
+
+    char[] text = new char[8192];
+    int len, rows;
+    int[] ends = new int[16];
+    long seq, firstRow;
+    int errors;
+    boolean end;
+    final StringBuilder out = new StringBuilder(), proj = new StringBuilder();
+
+    static Block end(long total) {
+      Block b = new Block();
+      b.end = true; b.seq = total;
+      return b;
+    }
+
+    void reset(long seq, long firstRow) {
+      this.seq = seq; this.firstRow = firstRow;
+      len = 0; rows = 0; errors = 0;
+      out.setLength(0); proj.setLength(0);
+    }
+
+    void append(char c) {
+      if (len == text.length) text = Arrays.copyOf(text, len * 2);
+      text[len++] = c;
+    }
+
+    void endRecord() {
+      if (rows == ends.length) ends = Arrays.copyOf(ends, rows * 2);
+      ends[rows++] = len;
+    }
+  }
+
+  /** Splits the character stream into records: newlines inside quotes belong to the cell, blank lines are skipped. */
+  static final class RecordReader {
+    private final Reader in;
+    private final char[] buf = new char[1 << 16];
+    private int pos, lim;
+
+    RecordReader(Reader in) { this.in = in; }
+
+    /** Append the next record to `b`; false at end of input. */
+    boolean next(Block b) throws IOException {
+      int start = b.len;
+      boolean quoted = false;
+      while (true) {
+        if (pos == lim) {
+          lim = in.read(buf, 0, buf.length);
+          pos = 0;
+          if (lim <= 0) {
+            lim = 0;
+            if (b.len == start) return false;
+            b.endRecord();
+            return true;
+          }
+        }
+        char c = buf[pos++];
+        if (c == '"') quoted = !quoted;
+        else if (c == '\n' && !quoted) {
+          if (b.len > start && b.text[b.len - 1] == '\r') b.len--;
+          if (b.len == start) continue;
+          b.endRecord();
+          return true;
+        }
+        b.append(c);
+      }
+    }
+  }
+
+  /** Cursor over the cells of one record. */
+  static final class Cells {
+    private final char delimiter;
+    private final StringBuilder unquoted = new StringBuilder(), scratch = new StringBuilder();
+    private char[] b;
+    private int pos, end, cs, ce;
+    private boolean quoted;
+
+    Cells(char delimiter) { this.delimiter = delimiter; }
+
+    void start(char[] text, int from, int to) { b = text; pos = from; end = to; }
+
+    /** Move to the next cell; false after the last one. */
+    boolean next() {
+      if (pos > end) return false;
+      int i = pos;
+      quoted = i < end && b[i] == '"';
+      if (quoted) {
+        unquoted.setLength(0);
+        for (i++; i < end; i++) {
+          char c = b[i];
+          if (c != '"') unquoted.append(c);
+          else if (i + 1 < end && b[i + 1] == '"') { unquoted.append('"'); i++; }
+          else { i++; break; }
+        }
+        while (i < end && b[i] != delimiter) i++;
+      } else {
+        cs = i;
+        while (i < end && b[i] != delimiter) i++;
+        ce = i;
+      }
+      pos = i + 1;
+      return true;
+    }
+
+    boolean isEmpty() { return quoted ? unquoted.length() == 0 : ce == cs; }
+
+    String text() { return quoted ? unquoted.toString() : new String(b, cs, ce - cs); }
+
+    /** Cell as a number (NaN when empty). Throws NumberFormatException if it is not one. */
+    double number() {
+      StringBuilder s = scratch;
+      s.setLength(0);
+      boolean percent = false, negative = false;
+      int n = quoted ? unquoted.length() : ce - cs;
+      for (int i = 0; i < n; i++) {
+        char c = quoted ? unquoted.charAt(i) : b[cs + i];
+        if (c == ' ' || c == '\t' || c == '$' || c == ',' || c == '_') continue;
+        if (c == '%' && i > 0) percent = true;
+        else if (c == '(' || c == ')') negative = true;
+        else if (percent) throw new NumberFormatException();
+        else s.append(c);
+      }
+      if (s.length() == 0) {
+        if (percent || negative) throw new NumberFormatException();
+        return Double.NaN;
+      }
+      for (int i = 0; i < s.length(); i++) {
+        char c = s.charAt(i);
+        if (!(c >= '0' && c <= '9') && c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') throw new NumberFormatException();
+      }
+      double d = Double.parseDouble(s.toString());
+      if (negative) d = -d;
+      return percent ? d / 100 : d;
+    }
+  }
+
+  private static void num(StringBuilder out, double d) {
+    out.append(',');
+    if (!Double.isNaN(d)) out.append(d);
+  }
+
+  private static StringBuilder escape(StringBuilder out, String s) {
+    if (s == null) return out;
+    boolean quote = false;
+    for (int i = 0; i < s.length() && !quote; i++) {
+      char c = s.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) return out.append(s);
+    out.append('"');
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c == '"') out.append('"');
+      out.append(c);
+    }
+    return out.append('"');
+  }
+}
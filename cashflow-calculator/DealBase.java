@@ -0,0 +1,207 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowRequest;
+
+import java.util.Arrays;
+
+/**
+ * Primitive snapshot of everything in a CashflowRequest that does not depend on the
+ * growth/vacancy/rate/exit assumptions. Built once per base request and shared read-only
+ * across threads by the sweep engines, which then evaluate scenarios without touching
+ * the boxed DTO or re-deriving the Year-1 stack, opex sum and loan schedules.
+ *
+ * Fields are grouped by the AnalysisStage that derives them. An analysis session owns its
+ * instance and re-runs single stages (income, opex, closing, financing) in place after an edit;
+ * an AnalysisWorkspace reloads its instance for every request. Both reuse the per-year tables
+ * when they are large enough, so a warm reload allocates nothing.
+ */
+final class DealBase {
+
+  // Scenario parameters a sweep can vary (indexes into a double[PARAMS] vector)
+  static final int RENT_GROWTH = 0, EXPENSE_GROWTH = 1, VACANCY_RATE = 2,
+      FIRST_RATE_ANNUAL = 3, ANNUAL_APPRECIATION = 4, EXIT_COST_RATE = 5;
+  static final int PARAMS = 6;
+
+  // Outputs of evaluate() (indexes into a double[OUTPUTS] vector)
+  static final int OUT_IRR = 0, OUT_EQUITY_MULTIPLE = 1, OUT_DSCR_Y1 = 2, OUT_MIN_DSCR = 3, OUT_NET_PROFIT = 4;
+  static final int OUTPUTS = 5;
+
+  // Income stage
+  double totalIncomeBase;           // Year-1 income stack before vacancy
+  double grossRents;
+  boolean mgmtOnGrossRents;
+  double managementRate, repairsRate;
+
+  // Opex stage
+  double otherOpexY1;               // Flat opex block (grows with expenseGrowth)
+
+  // Closing stage
+  double offerPrice, rpp, cashToClose;
+
+  // Financing stage: first loan terms (its rate may be swept) and the hold that sizes the tables
+  int hold;
+  double firstPrincipal; int firstAmortYears, firstIoYears;
+
+  // Second loan + other financing never vary: per-year tables, index = year in 0..max(hold,1)
+  double[] otherDebtService;        // 2nd loan DS + other monthly financing * 12
+  double[] secondBalance;           // [0] = opening 2nd-loan principal
+
+  /** Scenario parameter vector of the base request. */
+  final double[] baseParams = new double[PARAMS];
+
+  DealBase(CashflowRequest r) { this(PrimitiveRequest.of(r)); }
+
+  DealBase(PrimitiveRequest r) { load(r); }
+
+  /** Empty instance for a workspace; call load() before use. */
+  DealBase() {}
+
+  /** Independent copy of `o` (tables cloned), for re-running single stages without touching `o`. */
+  DealBase(DealBase o) {
+    totalIncomeBase = o.totalIncomeBase; grossRents = o.grossRents; mgmtOnGrossRents = o.mgmtOnGrossRents;
+    managementRate = o.managementRate; repairsRate = o.repairsRate;
+    otherOpexY1 = o.otherOpexY1;
+    offerPrice = o.offerPrice; rpp = o.rpp; cashToClose = o.cashToClose;
+    hold = o.hold; firstPrincipal = o.firstPrincipal; firstAmortYears = o.firstAmortYears; firstIoYears = o.firstIoYears;
+    otherDebtService = o.otherDebtService.clone(); secondBalance = o.secondBalance.clone();
+    System.arraycopy(o.baseParams, 0, baseParams, 0, PARAMS);
+  }
+
+  /** Run every stage for `r`. */
+  void load(PrimitiveRequest r) {
+    income(r);
+    opex(r);
+    closing(r);
+    financing(r);
+    params(r);
+  }
+
+  void income(PrimitiveRequest r) {
+    totalIncomeBase = r.sum(0, PrimitiveRequest.INCOME);
+    grossRents = r.or(PrimitiveRequest.GROSS_RENTS_ANNUAL, 0);
+    mgmtOnGrossRents = r.mgmtOnGrossRents;
+    managementRate = r.or(PrimitiveRequest.MANAGEMENT_RATE, 0);
+    repairsRate = r.or(PrimitiveRequest.REPAIRS_RATE, 0);
+  }
+
+  void opex(PrimitiveRequest r) {
+    otherOpexY1 = r.sum(0, PrimitiveRequest.OPEX);
+  }
+
+  void closing(PrimitiveRequest r) {
+    offerPrice = r.or(PrimitiveRequest.OFFER_PRICE, 0);
+    rpp = r.sum(offerPrice, PrimitiveRequest.CLOSING);
+    cashToClose = rpp - r.or(PrimitiveRequest.FIRST_PRINCIPAL, 0) - r.or(PrimitiveRequest.SECOND_PRINCIPAL, 0);
+  }
+
+  void financing(PrimitiveRequest r) {
+    hold = holdYears(r);
+    firstPrincipal = r.or(PrimitiveRequest.FIRST_PRINCIPAL, 0);
+    firstAmortYears = r.intOr(PrimitiveRequest.FIRST_AMORT_YEARS, 30);
+    firstIoYears = r.intOr(PrimitiveRequest.FIRST_INTEREST_ONLY_YEARS, 0);
+
+    // Year-1 KPIs need year-1 loan figures even when hold is 0
+    int n = Math.max(hold, 1);
+    double otherFinAnnual = r.or(PrimitiveRequest.OTHER_MONTHLY_FINANCING_COSTS, 0) * 12;
+    otherDebtService = zeroed(otherDebtService, n + 1);
+    secondBalance = zeroed(secondBalance, n + 1);
+    double secondPrincipal = r.or(PrimitiveRequest.SECOND_PRINCIPAL, 0);
+    if (secondPrincipal > 0) {
+      CashflowService.Amort.fill(secondPrincipal, r.or(PrimitiveRequest.SECOND_RATE_ANNUAL, 0),
+          r.intOr(PrimitiveRequest.SECOND_AMORT_YEARS, 20), 0, n, otherDebtService, secondBalance);
+    }
+    for (int y = 1; y <= n; y++) otherDebtService[y] += otherFinAnnual;
+  }
+
+  /** Scenario parameters (cheap; refreshed on every edit). */
+  void params(PrimitiveRequest r) {
+    baseParams[RENT_GROWTH] = r.or(PrimitiveRequest.RENT_GROWTH, 0);
+    baseParams[EXPENSE_GROWTH] = r.or(PrimitiveRequest.EXPENSE_GROWTH, 0);
+    baseParams[VACANCY_RATE] = r.or(PrimitiveRequest.VACANCY_RATE, 0);
+    baseParams[FIRST_RATE_ANNUAL] = r.or(PrimitiveRequest.FIRST_RATE_ANNUAL, 0);
+    baseParams[ANNUAL_APPRECIATION] = r.or(PrimitiveRequest.ANNUAL_APPRECIATION, 0);
+    baseParams[EXIT_COST_RATE] = r.or(PrimitiveRequest.EXIT_COST_RATE, 0);
+  }
+
+  /** Projection length of a request (holdYears, default 10, never negative). */
+  static int holdYears(CashflowRequest r) {
+    return Math.max(0, nzInt(r.holdYears, 10));
+  }
+
+  static int holdYears(PrimitiveRequest r) {
+    return Math.max(0, r.intOr(PrimitiveRequest.HOLD_YEARS, 10));
+  }
+
+  /**
+   * First-loan table for a given rate: row 0 = annual debt service by year, row 1 = ending
+   * balance by year (index = year, 0..max(hold,1); [1][0] is the opening principal).
+   * Compute once per distinct rate and share.
+   */
+  double[][] firstLoanTable(double rate) { return firstLoanTable(rate, null); }
+
+  /** As firstLoanTable(rate), refilling `reuse` when it is large enough. */
+  double[][] firstLoanTable(double rate, double[][] reuse) {
+    int n = Math.max(hold, 1);
+    double[][] t = reuse != null && reuse[0].length >= n + 1 ? reuse : new double[2][n + 1];
+    if (t == reuse) { Arrays.fill(t[0], 0); Arrays.fill(t[1], 0); }
+    CashflowService.Amort.fill(firstPrincipal, rate, firstAmortYears, firstIoYears, n, t[0], t[1]);
+    return t;
+  }
+
+  /** `a` cleared if it holds at least `n` values, else a new array. */
+  private static double[] zeroed(double[] a, int n) {
+    if (a == null || a.length < n) return new double[n];
+    Arrays.fill(a, 0);
+    return a;
+  }
+
+  /**
+   * Evaluate one scenario. `p` is a parameter vector (see the index constants), `loan` the
+   * first-loan table for p[FIRST_RATE_ANNUAL], `cols` scratch columns with capacity >= hold,
+   * `solver`/`irrGuess` the caller's IRR solver and warm start (e.g. a neighbouring cell's root).
+   * Writes IRR (NaN if not converged), equity multiple, Year-1 DSCR, minimum DSCR over
+   * the hold (NaN without debt) and net profit (sum of all cash flows) into `out`. Allocation-free.
+   */
+  void evaluate(double[] p, double[][] loan, ProjectionColumns cols, IrrSolver solver, double irrGuess,
+                double[] out) {
+    evaluateCashflows(p, loan, cols, out);
+    out[OUT_IRR] = solver.irr(cols.cash, hold + 1, irrGuess);
+  }
+
+  /**
+   * evaluate() without the IRR (out[OUT_IRR] is left NaN): the projection and cash-flow vector
+   * stay in `cols` for callers that solve IRRs in batches (BatchIrrEvaluator).
+   */
+  void evaluateCashflows(double[] p, double[][] loan, ProjectionColumns cols, double[] out) {
+    ProjectionKernel.project(this, p, loan, cols);
+    double[] cash = cols.cash;
+
+    double minDscr = Double.NaN;
+    for (int i = 0; i < hold; i++) {
+      double ds = cols.debtService[i];
+      if (ds > 0) {
+        double d = cols.noi[i] / ds;
+        if (!(d >= minDscr)) minDscr = d;   // also replaces the initial NaN
+      }
+    }
+    double pos = 0, net = 0;
+    for (int t = 0; t <= hold; t++) { net += cash[t]; if (cash[t] > 0) pos += cash[t]; }
+
+    double dsY1 = loan[0][1] + otherDebtService[1];
+    double noiY1 = hold > 0 ? cols.noi[0] : noiY1(p[VACANCY_RATE]);
+    out[OUT_IRR] = Double.NaN;
+    out[OUT_EQUITY_MULTIPLE] = cashToClose > 0 ? pos / cashToClose : Double.NaN;
+    out[OUT_DSCR_Y1] = dsY1 > 0 ? noiY1 / dsY1 : Double.NaN;
+    out[OUT_MIN_DSCR] = minDscr;
+    out[OUT_NET_PROFIT] = net;
+  }
+
+  /** Year-1 NOI (same rules as the kernel's first row); used when there is no projection. */
+  double noiY1(double vac) {
+    double egi = totalIncomeBase + totalIncomeBase * vac * -1.0;
+    double mgmt = managementRate * Math.max(0, mgmtOnGrossRents ? grossRents : egi);
+    return egi - (mgmt + repairsRate * grossRents + otherOpexY1);
+  }
+
+  private static int nzInt(Integer i, int def){ return i == null ? def : i; }
+}
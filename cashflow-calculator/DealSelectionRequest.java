@@ -0,0 +1,27 @@
+package com.example.analysis.dto;
+
+import java.util.List;
+
+/**
+ * Input DTO for capital-constrained deal selection: pick the subset of candidates with the
+ * highest total NPV (at `hurdleRate`) whose cash to close fits `equityBudget`, subject to the
+ * optional per-deal filters (minDscr, minIrr) and portfolio limits (maxDeals, zip concentration).
+ * Zip codes come from each deal's `zip`; deals without one are not zip-constrained.
+ */
+public class DealSelectionRequest {
+  public List<Candidate> candidates;
+  public Double equityBudget;        // Total cash to close available (required, > 0)
+  public Double hurdleRate;          // Discount rate for NPV (default 0.10)
+  public Double minDscr;             // Lowest DSCR over the hold each selected deal must keep (deals without debt pass)
+  public Double minIrr;              // Minimum IRR per selected deal
+  public Integer maxDeals;           // At most this many deals
+  public Integer maxPerZip;          // At most this many deals per zip code
+  public Double maxZipShare;         // At most this fraction of equityBudget in one zip code (0..1]
+  public Integer exactLimit;         // Solve exactly up to this many eligible candidates (default 400), else greedy
+  public Long timeLimitMs;           // Branch-and-bound time limit (default 5000); best found so far is returned with its gap
+
+  public static class Candidate {
+    public String id;                // Caller's reference, echoed in the results
+    public CashflowRequest deal;
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.analysis.dto;
+
+import java.util.List;
+
+/**
+ * Output DTO for deal selection: the chosen ids, their totals, an upper bound on the best
+ * achievable NPV and the relative optimality gap ((upperBound - totalNpv) / upperBound; 0 when
+ * proven optimal), plus per-candidate metrics and why a candidate was not eligible.
+ */
+public class DealSelectionResponse {
+  public List<String> selected;      // Ids of the chosen deals, in input order
+  public double totalNpv;
+  public double totalEquity;         // Sum of cash to close of the chosen deals
+  public int count;
+  public double upperBound;          // Proven upper bound on the total NPV
+  public double gap;                 // Relative optimality gap (0 = optimal)
+  public boolean optimal;
+  public String method;              // BRANCH_AND_BOUND or GREEDY
+  public long nodes;                 // Branch-and-bound nodes explored (0 for GREEDY)
+  public int eligible;               // Candidates that passed the per-deal filters
+  public List<CandidateResult> candidates;
+
+  public static class CandidateResult {
+    public String id;
+    public String zip;
+    public double cashToClose;
+    public double npv;               // NPV of the deal's cash flows at the hurdle rate
+    public Double irr;
+    public Double minDscr;           // Lowest DSCR over the hold (null without debt)
+    public boolean selected;
+    public String excludedReason;    // Null when eligible, e.g. "npv <= 0", "dscr below minDscr"
+  }
+}
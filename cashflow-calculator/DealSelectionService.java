@@ -0,0 +1,348 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowRequest;
+import com.example.analysis.dto.DealSelectionRequest;
+import com.example.analysis.dto.DealSelectionResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Capital-constrained deal selection: a 0/1 knapsack over the candidates' NPV at the hurdle rate
+ * with cash to close as weight, plus count and per-zip limits. Candidates are analyzed in parallel
+ * on the primitive path; those failing a per-deal filter or with NPV <= 0 never help and are
+ * dropped. The rest are sorted by NPV per equity dollar and searched depth-first, take-branch
+ * first, fork/join style for the first levels. A node is cut when the smaller of two relaxations
+ * (fractional knapsack over the budget, and the largest remaining NPVs for the deals left under
+ * maxDeals) cannot beat the best selection found so far, which starts from the greedy one.
+ * Above `exactLimit` eligible candidates, or when the time limit runs out, the greedy or best
+ * selection is returned with its gap to the fractional bound.
+ */
+public class DealSelectionService {
+
+  public static final int MAX_CANDIDATES = 20_000;
+  public static final int DEFAULT_EXACT_LIMIT = 400, MAX_EXACT_LIMIT = 2_000;
+  public static final long DEFAULT_TIME_LIMIT_MS = 5_000, MAX_TIME_LIMIT_MS = 60_000;
+  public static final double DEFAULT_HURDLE_RATE = 0.10;
+  private static final int SPLIT_DEPTH = 12, SEQUENTIAL_ITEMS = 16, CHUNK = 16;
+  private static final double REL_TOL = 1e-9;
+
+  private final CashflowService service = new CashflowService();
+  private final ForkJoinPool pool;
+
+  public DealSelectionService() { this(ForkJoinPool.commonPool()); }
+
+  public DealSelectionService(ForkJoinPool pool) { this.pool = pool; }
+
+  /** Pick the deals. Throws IllegalArgumentException for invalid inputs. */
+  public DealSelectionResponse select(DealSelectionRequest req) {
+    if (req == null || req.candidates == null || req.candidates.isEmpty())
+      throw new IllegalArgumentException("at least one candidate is required");
+    int n = req.candidates.size();
+    if (n > MAX_CANDIDATES) throw new IllegalArgumentException("at most " + MAX_CANDIDATES + " candidates");
+    if (req.equityBudget == null || !(req.equityBudget > 0)) throw new IllegalArgumentException("equityBudget must be > 0");
+    double hurdle = req.hurdleRate == null ? DEFAULT_HURDLE_RATE : req.hurdleRate;
+    if (!(hurdle > -1)) throw new IllegalArgumentException("hurdleRate must be > -1");
+    if (req.maxDeals != null && req.maxDeals < 1) throw new IllegalArgumentException("maxDeals must be >= 1");
+    if (req.maxPerZip != null && req.maxPerZip < 1) throw new IllegalArgumentException("maxPerZip must be >= 1");
+    if (req.maxZipShare != null && !(req.maxZipShare > 0 && req.maxZipShare <= 1))
+      throw new IllegalArgumentException("maxZipShare must be in (0, 1]");
+    int exactLimit = req.exactLimit == null ? DEFAULT_EXACT_LIMIT : req.exactLimit;
+    if (exactLimit < 0 || exactLimit > MAX_EXACT_LIMIT) throw new IllegalArgumentException("exactLimit must be 0.." + MAX_EXACT_LIMIT);
+    long timeLimit = req.timeLimitMs == null ? DEFAULT_TIME_LIMIT_MS : req.timeLimitMs;
+    if (timeLimit < 1 || timeLimit > MAX_TIME_LIMIT_MS) throw new IllegalArgumentException("timeLimitMs must be 1.." + MAX_TIME_LIMIT_MS);
+    CashflowRequest[] deals = new CashflowRequest[n];
+    for (int i = 0; i < n; i++) {
+      DealSelectionRequest.Candidate c = req.candidates.get(i);
+      if (c == null || c.deal == null) throw new IllegalArgumentException("candidate " + i + ": deal is required");
+      deals[i] = c.deal;
+    }
+
+    // Per-candidate metrics, one workspace per chunk
+    DealSelectionResponse.CandidateResult[] res = new DealSelectionResponse.CandidateResult[n];
+    IntStream.range(0, (n + CHUNK - 1) / CHUNK).parallel().forEach(k -> {
+      AnalysisWorkspace ws = new AnalysisWorkspace();
+      for (int i = k * CHUNK, end = Math.min(n, i + CHUNK); i < end; i++) {
+        try {
+          res[i] = evaluate(deals[i], ws, hurdle);
+        } catch (IllegalArgumentException e) {
+          throw new IllegalArgumentException("candidate " + i + ": " + e.getMessage());
+        }
+      }
+    });
+
+    // Per-deal filters
+    double budget = req.equityBudget;
+    double zipCap = req.maxZipShare == null ? Double.POSITIVE_INFINITY : req.maxZipShare * budget;
+    List<Integer> eligible = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      DealSelectionResponse.CandidateResult r = res[i];
+      r.id = req.candidates.get(i).id;
+      r.zip = zipOf(deals[i]);
+      if (!(r.npv > 0)) r.excludedReason = "npv <= 0";
+      else if (r.cashToClose > budget) r.excludedReason = "cashToClose exceeds equityBudget";
+      else if (req.minIrr != null && !(r.irr != null && r.irr >= req.minIrr)) r.excludedReason = "irr below minIrr";
+      else if (req.minDscr != null && r.minDscr != null && r.minDscr < req.minDscr) r.excludedReason = "dscr below minDscr";
+      else if (r.zip != null && r.cashToClose > zipCap) r.excludedReason = "cashToClose exceeds maxZipShare of equityBudget";
+      else eligible.add(i);
+    }
+
+    Problem pb = new Problem(res, eligible, budget, zipCap,
+        req.maxDeals == null ? Integer.MAX_VALUE : req.maxDeals,
+        req.maxPerZip == null ? Integer.MAX_VALUE : req.maxPerZip,
+        System.nanoTime() + timeLimit * 1_000_000L);
+    double rootBound = pb.bound(pb.root(), 0);
+    pb.offer(pb.greedy());
+
+    DealSelectionResponse out = new DealSelectionResponse();
+    if (pb.n <= exactLimit) {
+      out.method = "BRANCH_AND_BOUND";
+      pool.invoke(new Search(pb, pb.root(), 0, 0));
+      out.nodes = pb.nodes.sum();
+      out.optimal = !pb.timedOut;
+    } else {
+      out.method = "GREEDY";
+      out.optimal = pb.best >= rootBound - pb.tol(rootBound);
+    }
+
+    out.selected = new ArrayList<>();
+    for (int j = 0; j < pb.n; j++) if (pb.bestTake[j]) res[pb.index[j]].selected = true;
+    for (int i = 0; i < n; i++) {
+      if (!res[i].selected) continue;
+      out.selected.add(res[i].id);
+      out.totalNpv += res[i].npv;
+      out.totalEquity += res[i].cashToClose;
+    }
+    out.count = out.selected.size();
+    out.upperBound = out.optimal ? out.totalNpv : Math.max(rootBound, out.totalNpv);
+    out.gap = out.upperBound > 0 ? (out.upperBound - out.totalNpv) / out.upperBound : 0;
+    out.eligible = pb.n;
+    out.candidates = new ArrayList<>(List.of(res));
+    return out;
+  }
+
+  private DealSelectionResponse.CandidateResult evaluate(CashflowRequest deal, AnalysisWorkspace ws, double hurdle) {
+    PrimitiveSummary s = service.analyze(ws.request().load(deal), ws);
+    ProjectionColumns c = ws.columns();
+    DealSelectionResponse.CandidateResult r = new DealSelectionResponse.CandidateResult();
+    r.cashToClose = s.cashToClose;
+    r.npv = NewtonBrentIrrSolver.npv(c.cash, c.years + 1, hurdle);
+    r.irr = Double.isNaN(s.irr) ? null : s.irr;
+    double min = c.years == 0 ? s.dscrY1 : Double.NaN;
+    for (int y = 0; y < c.years; y++) {
+      if (c.debtService[y] > 0 && !(c.noi[y] / c.debtService[y] >= min)) min = c.noi[y] / c.debtService[y];
+    }
+    r.minDscr = Double.isNaN(min) ? null : min;
+    return r;
+  }
+
+  private static String zipOf(CashflowRequest deal) {
+    return deal.zip == null || deal.zip.isBlank() ? null : deal.zip.trim();
+  }
+
+  /** Eligible deals in search order (NPV per equity dollar, descending) and the shared incumbent. */
+  static final class Problem {
+    final int n;
+    final int[] index, grp;          // Candidate index and zip group (-1 = none) per item
+    final double[] e, v;             // Cash to close and NPV per item
+    final int groups, maxDeals, maxPerZip, firstPositive;
+    final double budget, zipCap, tolE;
+    final double[][] topNpv;         // topNpv[i][k] = sum of the k largest NPVs in items i..n-1 (k <= maxDeals)
+    final long deadline;
+    final LongAdder nodes = new LongAdder();
+    volatile boolean timedOut;
+    volatile double best;
+    boolean[] bestTake;
+    final ReentrantLock bestLock = new ReentrantLock();   // Guards best / bestTake updates
+
+    Problem(DealSelectionResponse.CandidateResult[] res, List<Integer> eligible, double budget, double zipCap,
+            int maxDeals, int maxPerZip, long deadline) {
+      Integer[] order = eligible.toArray(new Integer[0]);
+      // Deals that free cash (cash to close <= 0) first, then by NPV per equity dollar
+      Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> res[i].cashToClose > 0 ? 1 : 0)
+          .thenComparingDouble(i -> res[i].cashToClose > 0 ? -res[i].npv / res[i].cashToClose : -res[i].npv)
+          .thenComparingInt(i -> i));
+      n = order.length;
+      index = new int[n]; grp = new int[n]; e = new double[n]; v = new double[n];
+      Map<String, Integer> zips = new HashMap<>();
+      int fp = n;
+      for (int j = 0; j < n; j++) {
+        DealSelectionResponse.CandidateResult r = res[order[j]];
+        index[j] = order[j];
+        e[j] = r.cashToClose; v[j] = r.npv;
+        grp[j] = r.zip == null ? -1 : zips.computeIfAbsent(r.zip, z -> zips.size());
+        if (e[j] > 0 && fp == n) fp = j;
+      }
+      groups = zips.size();
+      firstPositive = fp;
+      this.budget = budget; this.zipCap = zipCap; this.tolE = budget * REL_TOL;
+      this.maxDeals = maxDeals; this.maxPerZip = maxPerZip;
+      this.deadline = deadline;
+      bestTake = new boolean[n];
+
+      if (maxDeals < n) {
+        // Sorted top-maxDeals NPVs of each suffix, built from the back
+        topNpv = new double[n + 1][];
+        double[] top = new double[maxDeals];
+        int size = 0;
+        topNpv[n] = new double[1];
+        for (int i = n - 1; i >= 0; i--) {
+          int at = size < maxDeals ? size++ : maxDeals;
+          if (at == maxDeals && v[i] <= top[maxDeals - 1]) { topNpv[i] = topNpv[i + 1]; continue; }
+          if (at == maxDeals) at = maxDeals - 1;
+          while (at > 0 && top[at - 1] < v[i]) { top[at] = top[at - 1]; at--; }
+          top[at] = v[i];
+          double[] sums = new double[size + 1];
+          for (int k = 0; k < size; k++) sums[k + 1] = sums[k] + top[k];
+          topNpv[i] = sums;
+        }
+      } else {
+        topNpv = null;
+      }
+    }
+
+    Node root() { return new Node(this); }
+
+    double tol(double x) { return REL_TOL * Math.max(1, Math.abs(x)); }
+
+    /** True when item j can be added to `s`. */
+    boolean fits(Node s, int j) {
+      if (s.count >= maxDeals || e[j] > s.budget + tolE) return false;
+      int g = grp[j];
+      return g < 0 || (s.gCnt[g] < maxPerZip && s.gEq[g] + e[j] <= zipCap + tolE);
+    }
+
+    /** Upper bound on the NPV of any completion of `s` with items i..n-1. */
+    double bound(Node s, int i) {
+      int left = maxDeals - s.count;
+      if (left <= 0 || i >= n) return s.value;
+      double cap = s.budget, frac = 0;
+      boolean zipEquity = i >= firstPositive;   // No later item can lower a zip's equity
+      for (int j = i; j < n; j++) {
+        int g = grp[j];
+        if (g >= 0 && (s.gCnt[g] >= maxPerZip || (zipEquity && s.gEq[g] + e[j] > zipCap + tolE))) continue;
+        if (e[j] <= 0) { frac += v[j]; cap -= e[j]; continue; }
+        if (e[j] <= cap) { cap -= e[j]; frac += v[j]; }
+        else { frac += v[j] * cap / e[j]; break; }
+      }
+      if (topNpv != null) {
+        double[] t = topNpv[i];
+        frac = Math.min(frac, t[Math.min(left, t.length - 1)]);
+      }
+      return s.value + frac;
+    }
+
+    /** Take every item that still fits, once in search order and once in NPV order; keep the better. */
+    Node greedy() {
+      Integer[] byNpv = new Integer[n];
+      for (int j = 0; j < n; j++) byNpv[j] = j;
+      Arrays.sort(byNpv, Comparator.comparingDouble(j -> -v[j]));
+      Node a = root(), b = root();
+      for (int j = 0; j < n; j++) {
+        if (fits(a, j)) a.take(this, j);
+        int k = byNpv[j];
+        if (fits(b, k)) b.take(this, k);
+      }
+      return b.value > a.value ? b : a;
+    }
+
+    void offer(Node s) {
+      bestLock.lock();
+      try {
+        if (s.value > best + tol(best)) {
+          best = s.value;
+          bestTake = s.take.clone();
+        }
+      } finally {
+        bestLock.unlock();
+      }
+    }
+
+    /** Count the node, record it if better; false when its subtree needs no search. */
+    boolean visit(Node s, int i) {
+      if (timedOut) return false;
+      if ((++s.nodes & 1023) == 0 && System.nanoTime() > deadline) { timedOut = true; return false; }
+      if (s.value > best + tol(best)) offer(s);
+      return i < n && bound(s, i) > best + tol(best);
+    }
+
+    void dfs(Node s, int i) {
+      if (!visit(s, i)) return;
+      if (fits(s, i)) {
+        s.take(this, i);
+        dfs(s, i + 1);
+        s.drop(this, i);
+      }
+      dfs(s, i + 1);
+    }
+  }
+
+  /** A partial selection: items decided so far and what they use up. */
+  static final class Node {
+    double budget, value;
+    int count;
+    final double[] gEq;
+    final int[] gCnt;
+    final boolean[] take;
+    long nodes;
+
+    Node(Problem pb) {
+      budget = pb.budget;
+      gEq = new double[pb.groups]; gCnt = new int[pb.groups]; take = new boolean[pb.n];
+    }
+
+    private Node(Node o) {
+      budget = o.budget; value = o.value; count = o.count;
+      gEq = o.gEq.clone(); gCnt = o.gCnt.clone(); take = o.take.clone();
+    }
+
+    Node copy() { return new Node(this); }
+
+    void take(Problem pb, int j) {
+      budget -= pb.e[j]; value += pb.v[j]; count++; take[j] = true;
+      int g = pb.grp[j];
+      if (g >= 0) { gEq[g] += pb.e[j]; gCnt[g]++; }
+    }
+
+    void drop(Problem pb, int j) {
+      budget += pb.e[j]; value -= pb.v[j]; count--; take[j] = false;
+      int g = pb.grp[j];
+      if (g >= 0) { gEq[g] -= pb.e[j]; gCnt[g]--; }
+    }
+  }
+
+  /** Fork/join branch-and-bound from item i: both branches forked near the root, sequential below. */
+  private static final class Search extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    final Problem pb; final Node s; final int i, depth;
+
+    Search(Problem pb, Node s, int i, int depth) { this.pb = pb; this.s = s; this.i = i; this.depth = depth; }
+
+    @Override
+    protected void compute() {
+      if (depth >= SPLIT_DEPTH || pb.n - i <= SEQUENTIAL_ITEMS) {
+        pb.dfs(s, i);
+      } else if (pb.visit(s, i)) {
+        Search skip = new Search(pb, s.copy(), i + 1, depth + 1);
+        if (pb.fits(s, i)) {
+          Node t = s.copy();
+          t.take(pb, i);
+          invokeAll(new Search(pb, t, i + 1, depth + 1), skip);
+        } else {
+          skip.compute();
+        }
+      }
+      pb.nodes.add(s.nodes);
+    }
+  }
+}
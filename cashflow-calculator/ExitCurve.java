@@ -0,0 +1,34 @@
+package com.example.analysis.service;
+
+/**
+ * Exit-year table for one deal as primitive columns, index = exit year - 1: what the investor
+ * gets if the property is sold at the end of that year. Filled by CashflowService.exitCurve from
+ * a single projection over the longest hold; reusable like ProjectionColumns.
+ */
+public final class ExitCurve {
+  public int years;                  // Exit years held (= hold years of the projection)
+  public final double[] saleProceedsNet; // Net sale proceeds at that exit
+  public final double[] irr;         // Project IRR for that exit (NaN when no root)
+  public final double[] equityMultiple;
+  public final int[] irrIterations;  // Solver iterations per exit (warm-started from the previous exit)
+
+  public ExitCurve(int capacity) {
+    int n = Math.max(0, capacity);
+    saleProceedsNet = new double[n]; irr = new double[n]; equityMultiple = new double[n];
+    irrIterations = new int[n];
+  }
+
+  public int capacity() { return irr.length; }
+
+  /** Exit year with the highest IRR (first on ties), 0 if no exit has one. */
+  public int bestIrrYear() { return argMax(irr); }
+
+  /** Exit year with the highest equity multiple (first on ties), 0 if none. */
+  public int bestEquityMultipleYear() { return argMax(equityMultiple); }
+
+  private int argMax(double[] a) {
+    int best = 0;
+    for (int i = 0; i < years; i++) if (a[i] == a[i] && (best == 0 || a[i] > a[best - 1])) best = i + 1;
+    return best;
+  }
+}
@@ -0,0 +1,16 @@
+package com.example.analysis.dto;
+
+/**
+ * Output DTO for the exit curve: one column per metric, index = exit year - 1 (years 1..holdYears).
+ * Undefined IRRs are NaN.
+ */
+public class ExitCurveResponse {
+  public int years;                  // Longest hold = number of exit years
+  public double cashToClose;
+  public double[] saleProceedsNet;   // Net sale proceeds when selling at the end of that year
+  public double[] irr;               // Project IRR for that exit year
+  public double[] equityMultiple;    // (Total distributions) / (Total invested) for that exit year
+  public int[] irrIterations;        // Solver iterations per exit (warm start from the previous year)
+  public Integer bestIrrYear;        // Exit year with the highest IRR (null if none converged)
+  public Integer bestEquityMultipleYear;
+}
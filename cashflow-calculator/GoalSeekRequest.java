@@ -0,0 +1,23 @@
+package com.example.analysis.dto;
+
+import java.util.List;
+
+/**
+ * Input DTO for an inverse solve: the value of one input that meets every target KPI,
+ * e.g. the highest offerPrice that still yields IRR >= 15% and DSCR >= 1.25.
+ */
+public class GoalSeekRequest {
+  public CashflowRequest base;       // Deal being solved (every other input comes from here)
+  public String variable;            // offerPrice | grossRentsAnnual | firstPrincipal | vacancyRate
+  public String seek;                // MAX | MIN (default: MIN for grossRentsAnnual, MAX otherwise)
+  public List<Target> targets;       // All must hold at the solution
+  public Double lower; public Double upper; // Search range (defaults depend on the variable)
+  public Boolean scaleLoanWithPrice; // offerPrice only: keep the first loan at the base LTPP
+
+  /** One KPI constraint; give `min`, `max` or both. */
+  public static class Target {
+    // One of: irr, equityMultiple, dscrY1, minDscr, cashOnCashY1, capRatePPY1, capRateFMVY1, grmY1
+    public String metric;
+    public Double min; public Double max;
+  }
+}
@@ -0,0 +1,24 @@
+package com.example.analysis.dto;
+
+import java.util.List;
+
+/** Output DTO for an inverse solve. */
+public class GoalSeekResponse {
+  public String variable; public String seek;
+  public double lower; public double upper;  // Search range used
+  public boolean feasible;           // False if no value in range meets every target
+  public Double value;               // Solved input (null when infeasible)
+  public String message;             // Why the solve is infeasible, if it is
+  public List<Bound> bounds;         // One per constraint
+  public int evaluations;            // Full analyses run
+  public CashflowResponse.Summary summary; // KPIs at `value`
+
+  /** Range of the variable over which one constraint holds. */
+  public static class Bound {
+    public String metric;
+    public String op;                // ">=" or "<="
+    public double target;
+    public Double feasibleFrom; public Double feasibleTo; // Null when never met in range
+    public String method;            // CLOSED_FORM, BRACKETED or NONE (no crossing in range)
+  }
+}
@@ -0,0 +1,224 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowRequest;
+import com.example.analysis.dto.CashflowResponse;
+import com.example.analysis.dto.GoalSeekRequest;
+import com.example.analysis.dto.GoalSeekResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverse solve over CashflowService: finds the offerPrice, grossRentsAnnual, firstPrincipal
+ * or vacancyRate at which every target KPI holds, taking the highest (or lowest) such value.
+ *
+ * Each constraint is located on the search range independently. Year-1 ratio metrics (DSCR,
+ * CoC, cap rates, GRM) have an affine numerator and denominator in each of these inputs, so
+ * two endpoint analyses give the crossing in closed form; one more analysis confirms it.
+ * IRR, equity multiple and minimum DSCR are bracketed and solved with Brent's method.
+ * Every metric is assumed monotone in the variable, so each constraint holds on one interval
+ * and the answer is an end of their intersection. Endpoint analyses are shared.
+ */
+public class GoalSeekService {
+
+  private static final String[] VARIABLES = { "offerPrice", "grossRentsAnnual", "firstPrincipal", "vacancyRate" };
+  private static final String[] METRICS = {
+      "irr", "equityMultiple", "dscrY1", "minDscr", "cashOnCashY1", "capRatePPY1", "capRateFMVY1", "grmY1"
+  };
+  private static final double REL_TOL = 1e-10;
+  private static final int MAX_ITER = 100;
+
+  private final CashflowService svc;
+
+  public GoalSeekService(CashflowService svc) { this.svc = svc; }
+
+  /** Run the solve. Throws IllegalArgumentException for invalid inputs. */
+  public GoalSeekResponse solve(GoalSeekRequest req) {
+    if (req == null || req.base == null) throw new IllegalArgumentException("base request is required");
+    if (req.variable == null || !contains(VARIABLES, req.variable))
+      throw new IllegalArgumentException("variable must be one of " + String.join(", ", VARIABLES));
+    if (req.targets == null || req.targets.isEmpty()) throw new IllegalArgumentException("at least one target is required");
+    for (GoalSeekRequest.Target t : req.targets) {
+      if (t.metric == null || !contains(METRICS, t.metric))
+        throw new IllegalArgumentException("target metric must be one of " + String.join(", ", METRICS));
+      if (t.min == null && t.max == null) throw new IllegalArgumentException("target " + t.metric + " needs min or max");
+    }
+    String seek = req.seek != null ? req.seek.toUpperCase() : ("grossRentsAnnual".equals(req.variable) ? "MIN" : "MAX");
+    if (!seek.equals("MAX") && !seek.equals("MIN")) throw new IllegalArgumentException("seek must be MAX or MIN");
+
+    double[] range = range(req);
+    Solve s = new Solve(req);
+    double lo = range[0], hi = range[1];
+
+    GoalSeekResponse out = new GoalSeekResponse();
+    out.variable = req.variable; out.seek = seek; out.lower = lo; out.upper = hi;
+    out.bounds = new ArrayList<>();
+    double from = lo, to = hi;
+    boolean feasible = true;
+    for (GoalSeekRequest.Target t : req.targets) {
+      if (t.min != null) {
+        GoalSeekResponse.Bound b = s.bound(t.metric, ">=", t.min, lo, hi);
+        out.bounds.add(b);
+        if (b.feasibleFrom == null) feasible = false;
+        else { from = Math.max(from, b.feasibleFrom); to = Math.min(to, b.feasibleTo); }
+      }
+      if (t.max != null) {
+        GoalSeekResponse.Bound b = s.bound(t.metric, "<=", t.max, lo, hi);
+        out.bounds.add(b);
+        if (b.feasibleFrom == null) feasible = false;
+        else { from = Math.max(from, b.feasibleFrom); to = Math.min(to, b.feasibleTo); }
+      }
+    }
+    if (!feasible) out.message = "a target is not met anywhere in [" + lo + ", " + hi + "]";
+    else if (from > to) { feasible = false; out.message = "targets are met on disjoint ranges"; }
+
+    out.feasible = feasible;
+    if (feasible) {
+      out.value = seek.equals("MAX") ? to : from;
+      out.summary = s.eval(out.value).summary;
+    }
+    out.evaluations = s.evaluations;
+    return out;
+  }
+
+  /** Search range: explicit bounds, else a default around the base value. */
+  private static double[] range(GoalSeekRequest req) {
+    double base = nz(RequestFields.get(req.base, req.variable));
+    double lo, hi;
+    switch (req.variable) {
+      case "vacancyRate": lo = 0; hi = 1; break;
+      case "firstPrincipal": lo = 0; hi = new DealBase(req.base).rpp; break;
+      default: lo = 0.25 * base; hi = 4 * base;
+    }
+    if (req.lower != null) lo = req.lower;
+    if (req.upper != null) hi = req.upper;
+    if (!(lo < hi)) throw new IllegalArgumentException("search range is empty: give lower < upper for " + req.variable);
+    return new double[]{ lo, hi };
+  }
+
+  /** One analysis of the deal with the variable set to x. */
+  private static final class Eval {
+    CashflowResponse.Summary summary;
+    double minDscr, offerPrice, grossRents, fmv;
+  }
+
+  /** Per-request state: a private working copy of the base request and the analyses run so far. */
+  private final class Solve {
+    final CashflowRequest work;
+    final String variable;
+    final Double ltpp;
+    final Map<Double, Eval> seen = new HashMap<>();
+    int evaluations;
+
+    Solve(GoalSeekRequest req) {
+      work = RequestFields.copy(req.base);
+      variable = req.variable;
+      boolean scale = Boolean.TRUE.equals(req.scaleLoanWithPrice) && "offerPrice".equals(variable)
+          && nz(req.base.offerPrice) > 0;
+      ltpp = scale ? nz(req.base.firstPrincipal) / req.base.offerPrice : null;
+    }
+
+    Eval eval(double x) {
+      Eval e = seen.get(x);
+      if (e != null) return e;
+      RequestFields.set(work, variable, x);
+      if (ltpp != null) work.firstPrincipal = ltpp * x;
+      CashflowResponse r = svc.analyze(work);
+      evaluations++;
+      e = new Eval();
+      e.summary = r.summary;
+      e.offerPrice = nz(work.offerPrice); e.grossRents = nz(work.grossRentsAnnual); e.fmv = nz(work.fmv);
+      e.minDscr = Double.NaN;
+      for (CashflowResponse.YearRow y : r.projection) {
+        if (y.debtService != null && y.debtService > 0) {
+          double d = y.noi / y.debtService;
+          if (!(d >= e.minDscr)) e.minDscr = d;
+        }
+      }
+      seen.put(x, e);
+      return e;
+    }
+
+    /** Signed slack of a constraint at x: >= 0 where it holds; a missing metric counts as unmet. */
+    double slack(String metric, boolean atLeast, double target, double x) {
+      double m = metric(metric, eval(x));
+      if (Double.isNaN(m)) return -1;
+      double g = atLeast ? m - target : target - m;
+      return Double.isInfinite(g) ? Math.signum(g) : g;   // keep Brent's interpolation finite
+    }
+
+    GoalSeekResponse.Bound bound(String metric, String op, double target, double lo, double hi) {
+      boolean atLeast = op.equals(">=");
+      GoalSeekResponse.Bound b = new GoalSeekResponse.Bound();
+      b.metric = metric; b.op = op; b.target = target; b.method = "NONE";
+      double gLo = slack(metric, atLeast, target, lo), gHi = slack(metric, atLeast, target, hi);
+      if (gLo >= 0 && gHi >= 0) { b.feasibleFrom = lo; b.feasibleTo = hi; return b; }
+      if (gLo < 0 && gHi < 0) return b;
+
+      double x = closedForm(metric, target, lo, hi);
+      if (!Double.isNaN(x) && Math.abs(metric(metric, eval(x)) - target) <= 1e-9 * Math.max(1, Math.abs(target))) {
+        b.method = "CLOSED_FORM";
+      } else {
+        b.method = "BRACKETED";
+        x = RootFinder.brent(v -> slack(metric, atLeast, target, v), lo, hi, gLo, gHi, REL_TOL * (hi - lo), MAX_ITER);
+      }
+      if (gLo >= 0) { b.feasibleFrom = lo; b.feasibleTo = x; }
+      else { b.feasibleFrom = x; b.feasibleTo = hi; }
+      return b;
+    }
+
+    /**
+     * Crossing of a Year-1 ratio metric n(x)/d(x) = target, with n and d affine in x and
+     * read off the two endpoint analyses. NaN for non-ratio metrics or when there is no crossing.
+     */
+    double closedForm(String metric, double target, double lo, double hi) {
+      double[] a = ratio(metric, eval(lo)), b = ratio(metric, eval(hi));
+      if (a == null || b == null) return Double.NaN;
+      double denom = target * (b[1] - a[1]) - (b[0] - a[0]);
+      if (denom == 0) return Double.NaN;
+      double s = (a[0] - target * a[1]) / denom;
+      if (!(s >= 0 && s <= 1)) return Double.NaN;
+      return lo + s * (hi - lo);
+    }
+  }
+
+  /** Value of a target metric (NaN when it is undefined; DSCR without debt is unbounded). */
+  private static double metric(String metric, Eval e) {
+    CashflowResponse.Summary s = e.summary;
+    boolean noDebt = s.annualDebtServiceY1 != null && s.annualDebtServiceY1 == 0;
+    switch (metric) {
+      case "irr": return nan(s.irr);
+      case "equityMultiple": return nan(s.equityMultiple);
+      case "dscrY1": return noDebt ? Double.POSITIVE_INFINITY : nan(s.dscrY1);
+      case "minDscr": return noDebt && Double.isNaN(e.minDscr) ? Double.POSITIVE_INFINITY : e.minDscr;
+      case "cashOnCashY1": return nan(s.cashOnCashY1);
+      case "capRatePPY1": return nan(s.capRatePPY1);
+      case "capRateFMVY1": return nan(s.capRateFMVY1);
+      default: return nan(s.grmY1);
+    }
+  }
+
+  /** {numerator, denominator} of a Year-1 ratio metric, or null if it is not one (or undefined). */
+  private static double[] ratio(String metric, Eval e) {
+    CashflowResponse.Summary s = e.summary;
+    if (s.noiY1 == null || s.annualDebtServiceY1 == null) return null;
+    switch (metric) {
+      case "dscrY1": return new double[]{ s.noiY1, s.annualDebtServiceY1 };
+      case "cashOnCashY1": return s.cashToClose == null ? null : new double[]{ s.noiY1 - s.annualDebtServiceY1, s.cashToClose };
+      case "capRatePPY1": return new double[]{ s.noiY1, e.offerPrice };
+      case "capRateFMVY1": return new double[]{ s.noiY1, e.fmv };
+      case "grmY1": return new double[]{ e.offerPrice, e.grossRents };
+      default: return null;
+    }
+  }
+
+  private static boolean contains(String[] a, String s) {
+    for (String x : a) if (x.equals(s)) return true;
+    return false;
+  }
+
+  private static double nan(Double d) { return d == null ? Double.NaN : d; }
+  private static double nz(Double d) { return d == null ? 0.0 : d; }
+}
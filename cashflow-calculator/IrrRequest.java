@@ -0,0 +1,13 @@
+package com.example.analysis.dto;
+
+/**
+ * Input DTO for standalone IRR / XIRR / MIRR on an arbitrary cash-flow vector.
+ * Periodic flows by default; when `dates` (ISO yyyy-MM-dd, one per flow) is given, XIRR is computed too.
+ */
+public class IrrRequest {
+  public double[] cashFlows;         // cashFlows[0] is usually the (negative) investment
+  public String[] dates;             // Optional: one date per flow for XIRR
+  public Double guess;               // Optional starting rate (default 0.10)
+  public Double financeRate;         // MIRR: rate for negative flows (MIRR computed when both rates set)
+  public Double reinvestRate;        // MIRR: rate for positive flows
+}
@@ -0,0 +1,11 @@
+package com.example.analysis.dto;
+
+/** Output DTO for standalone IRR / XIRR / MIRR. Null where there is no solution or no input. */
+public class IrrResponse {
+  public Double irr;                 // Periodic IRR
+  public Integer irrIterations;      // NPV evaluations spent on the IRR
+  public Boolean irrBracketed;       // True if Newton failed and the bracketed fallback found it
+  public Double xirr;                // Annualized IRR of the dated flows
+  public Integer xirrIterations;
+  public Double mirr;                // Modified IRR
+}
@@ -0,0 +1,25 @@
+package com.example.analysis.service;
+
+/**
+ * Pluggable IRR strategy used by CashflowService and the sweep engines.
+ * Implementations may keep per-solve statistics, so an instance is meant to be used
+ * by one thread at a time (callers create one per request or per worker).
+ */
+public interface IrrSolver {
+
+  /** Periodic IRR of cash[0..n) (cash[0] usually negative), or NaN when no root is found. */
+  double irr(double[] cash, int n, double guess);
+
+  /** Iterations (NPV evaluations) spent by the most recent irr() call. */
+  int lastIterations();
+
+  /**
+   * True if the most recent irr() returned NaN because the cash flows have no IRR (no sign change
+   * of NPV over the rates tried), false if it converged or gave up on an existing root. Solvers
+   * that cannot tell the two apart keep the default.
+   */
+  default boolean lastNoRoot() { return false; }
+
+  /** Default solver: Newton–Raphson with a bracketed Brent fallback. */
+  static IrrSolver newDefault() { return new NewtonBrentIrrSolver(); }
+}
@@ -0,0 +1,128 @@
+package com.example.analysis.controller;
+
+import com.example.analysis.service.AnalysisMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AnalysisMetrics as Micrometer meters, visible through Actuator (/actuator/metrics, Prometheus):
+ *
+ *   analysis.stage{stage=income_opex|financing|year_one|projection|irr}   timer per analyze() stage
+ *                                                  (sampled, see AnalysisMetrics.TIMING_SAMPLE)
+ *   analysis.irr.iterations{le=1|2|..|100|+Inf}     cumulative counts of IRR solver iterations
+ *   analysis.irr.iterations.sum                    total iterations (with le=+Inf gives the mean)
+ *   analysis.irr.nonconvergence                    analyses whose IRR exists but the solver did not converge
+ *   analysis.irr.undefined                         analyses whose cash flows have no IRR (no sign change)
+ *   analysis.projection.years{le=1|3|..|50|+Inf}   cumulative counts of projection lengths
+ *   analysis.projection.years.sum                  total projection years
+ *
+ * Analyses only add to LongAdders (a Micrometer Timer or DistributionSummary per record roughly
+ * doubles the cost of a 30-year analysis); the meters read them when scraped, so histograms are
+ * published as `le`-tagged counters rather than Micrometer distributions. Only referenced once
+ * Micrometer is known to be on the classpath (see CashflowController).
+ */
+public final class MicrometerAnalysisMetrics implements AnalysisMetrics, MeterBinder {
+
+  private static final int[] ITERATION_BUCKETS = {1, 2, 3, 4, 5, 6, 8, 10, 15, 20, 30, 50, 100};
+  private static final int[] YEAR_BUCKETS = {1, 3, 5, 7, 10, 15, 20, 25, 30, 40, 50};
+
+  private final LongAdder nonConvergence = new LongAdder(), undefined = new LongAdder();
+  private final LongAdder[] stageCount = adders(Stage.values().length), stageNanos = adders(Stage.values().length);
+  private final Histogram iterations = new Histogram(ITERATION_BUCKETS), years = new Histogram(YEAR_BUCKETS);
+
+  /** Meters on Metrics.globalRegistry, to which Spring Boot adds its own registries by default. */
+  public static AnalysisMetrics global() {
+    MicrometerAnalysisMetrics m = new MicrometerAnalysisMetrics();
+    m.bindTo(Metrics.globalRegistry);
+    return m;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    for (Stage s : Stage.values()) {
+      LongAdder count = stageCount[s.ordinal()], nanos = stageNanos[s.ordinal()];
+      FunctionTimer.builder("analysis.stage", this, m -> count.sum(), m -> nanos.sum(), TimeUnit.NANOSECONDS)
+          .description("Time spent in one stage of a (sampled) cashflow analysis")
+          .tag("stage", s.tag())
+          .register(registry);
+    }
+    FunctionCounter.builder("analysis.irr.nonconvergence", nonConvergence, LongAdder::sum)
+        .description("Analyses whose IRR solver did not converge on an existing root (irr is null)")
+        .register(registry);
+    FunctionCounter.builder("analysis.irr.undefined", undefined, LongAdder::sum)
+        .description("Analyses whose cash flows have no IRR (irr is null)")
+        .register(registry);
+    iterations.bindTo(registry, "analysis.irr.iterations", "IRR solver iterations per analysis", "iterations");
+    years.bindTo(registry, "analysis.projection.years", "Projection length per analysis", "years");
+  }
+
+  @Override
+  public void stage(Stage stage, long nanos) {
+    stageCount[stage.ordinal()].increment();
+    stageNanos[stage.ordinal()].add(nanos);
+  }
+
+  @Override
+  public void analyzed(int projectionYears, int irrIterations, boolean irrFound, boolean irrNoRoot) {
+    years.record(projectionYears);
+    if (projectionYears == 0) return;   // No cash flows after closing: nothing to solve
+    iterations.record(irrIterations);
+    if (!irrFound) (irrNoRoot ? undefined : nonConvergence).increment();
+  }
+
+  /** Fixed upper bounds; bucket i counts values in (bounds[i-1], bounds[i]], the last one the rest. */
+  private static final class Histogram {
+    final int[] bounds;
+    final int[] bucketOf;   // value 0..max bound -> bucket index
+    final LongAdder[] counts;
+    final LongAdder sum = new LongAdder();
+
+    Histogram(int[] bounds) {
+      this.bounds = bounds;
+      counts = adders(bounds.length + 1);
+      bucketOf = new int[bounds[bounds.length - 1] + 1];
+      for (int v = 0, b = 0; v < bucketOf.length; v++) {
+        while (v > bounds[b]) b++;
+        bucketOf[v] = b;
+      }
+    }
+
+    void record(int v) {
+      counts[v < 0 ? 0 : v < bucketOf.length ? bucketOf[v] : bounds.length].increment();
+      sum.add(v);
+    }
+
+    long cumulative(int bucket) {
+      long n = 0;
+      for (int i = 0; i <= bucket; i++) n += counts[i].sum();
+      return n;
+    }
+
+    void bindTo(MeterRegistry registry, String name, String description, String unit) {
+      for (int i = 0; i <= bounds.length; i++) {
+        int bucket = i;
+        FunctionCounter.builder(name, this, h -> h.cumulative(bucket))
+            .description(description + " (cumulative count at or below le)")
+            .tag("le", i < bounds.length ? Integer.toString(bounds[i]) : "+Inf")
+            .baseUnit(unit)
+            .register(registry);
+      }
+      FunctionCounter.builder(name + ".sum", sum, LongAdder::sum)
+          .description(description + " (total)")
+          .baseUnit(unit)
+          .register(registry);
+    }
+  }
+
+  private static LongAdder[] adders(int n) {
+    LongAdder[] a = new LongAdder[n];
+    for (int i = 0; i < n; i++) a[i] = new LongAdder();
+    return a;
+  }
+}
@@ -0,0 +1,30 @@
+package com.example.analysis.dto;
+
+/**
+ * Input DTO for a Monte Carlo run over the cashflow projection.
+ * Each path draws the stochastic assumptions once and holds them for the whole projection.
+ * A null distribution keeps the base request's value.
+ */
+public class MonteCarloRequest {
+  public CashflowRequest base;       // Deal being simulated
+  public Integer paths;              // Number of paths (default 10,000)
+  public Long seed;                  // Same seed + inputs => identical results (random if null)
+
+  // Sampled assumptions (fractions, like the request fields they replace)
+  public Distribution rentGrowth;
+  public Distribution expenseGrowth;
+  public Distribution vacancyRate;
+  public Distribution annualAppreciation;
+  public Distribution exitCostRate;
+
+  /**
+   * Sampling distribution.
+   * type: FIXED (mean) | UNIFORM (min, max) | NORMAL (mean, stdDev) | TRIANGULAR (min, mode, max).
+   * For NORMAL, optional min/max clamp the draw.
+   */
+  public static class Distribution {
+    public String type;
+    public Double mean; public Double stdDev;
+    public Double min; public Double mode; public Double max;
+  }
+}
@@ -0,0 +1,23 @@
+package com.example.analysis.dto;
+
+/** Output DTO for a Monte Carlo run: outcome distributions across all paths. */
+public class MonteCarloResponse {
+  public int paths;                  // Paths simulated
+  public long seed;                  // Seed used (echo it back to reproduce the run)
+
+  public Stats irr;                  // Over paths where IRR converged
+  public int irrNotConverged;        // Paths with no IRR solution
+  public Stats equityMultiple;       // Over paths with cash invested (cashToClose > 0)
+  public Stats minDscr;              // Lowest yearly DSCR per path (empty without debt)
+
+  public Double probabilityOfLoss;   // Share of paths whose total cash returned < cash invested
+  public Double probabilityDscrBelowOne; // Share of paths with any year's DSCR < 1.0
+
+  /** Summary statistics of one outcome. */
+  public static class Stats {
+    public int count;
+    public Double mean; public Double stdDev; public Double min; public Double max;
+    public Double p05; public Double p10; public Double p25; public Double p50;
+    public Double p75; public Double p90; public Double p95;
+  }
+}
@@ -0,0 +1,197 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.MonteCarloRequest;
+import com.example.analysis.dto.MonteCarloResponse;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Stochastic mode for the cashflow projection. Each path samples rentGrowth, expenseGrowth,
+ * vacancyRate, annualAppreciation and exitCostRate, runs the primitive DealBase projection
+ * and records IRR, equity multiple and minimum DSCR.
+ *
+ * Paths are split into fixed-size chunks, each with its own SplittableRandom split off a
+ * seeded root in chunk order, so a run is reproducible from its seed regardless of how
+ * many threads execute it. The per-path loop allocates nothing. With the Vector API
+ * available IRRs are solved BATCH paths at a time in a BatchIrrEvaluator (SIMD across
+ * paths); otherwise path by path. Both give identical results.
+ */
+public class MonteCarloService {
+
+  public static final int DEFAULT_PATHS = 10_000;
+  public static final int MAX_PATHS = 2_000_000;
+  private static final int CHUNK = 4096;
+  private static final int BATCH = 256;
+
+  // Distribution kinds (resolved once per run, switched on in the inner loop)
+  private static final int FIXED = 0, UNIFORM = 1, NORMAL = 2, TRIANGULAR = 3;
+
+  /** Run the simulation. Throws IllegalArgumentException for invalid inputs. */
+  public MonteCarloResponse simulate(MonteCarloRequest req) {
+    if (req == null || req.base == null) throw new IllegalArgumentException("base request is required");
+    int paths = req.paths == null ? DEFAULT_PATHS : req.paths;
+    if (paths < 1 || paths > MAX_PATHS) throw new IllegalArgumentException("paths must be in 1.." + MAX_PATHS);
+    long seed = req.seed != null ? req.seed : new SplittableRandom().nextLong();
+
+    DealBase base = new DealBase(req.base);
+    double[][] loan = base.firstLoanTable(base.baseParams[DealBase.FIRST_RATE_ANNUAL]);
+
+    // Packed distribution table: one row {kind, a, b, c, lo, hi} per sampled parameter
+    int[] sampled = { DealBase.RENT_GROWTH, DealBase.EXPENSE_GROWTH, DealBase.VACANCY_RATE,
+        DealBase.ANNUAL_APPRECIATION, DealBase.EXIT_COST_RATE };
+    MonteCarloRequest.Distribution[] given = { req.rentGrowth, req.expenseGrowth, req.vacancyRate,
+        req.annualAppreciation, req.exitCostRate };
+    String[] names = { "rentGrowth", "expenseGrowth", "vacancyRate", "annualAppreciation", "exitCostRate" };
+    double[][] dist = new double[sampled.length][];
+    for (int k = 0; k < sampled.length; k++) {
+      dist[k] = resolve(names[k], given[k], base.baseParams[sampled[k]]);
+    }
+    // Rates that cannot leave [0, 1]
+    clampUnit(dist[2]); clampUnit(dist[4]);
+
+    // Deterministic base-case IRR as the warm start for every path
+    double[] probe = new double[DealBase.OUTPUTS];
+    base.evaluate(base.baseParams, loan, new ProjectionColumns(base.hold), IrrSolver.newDefault(),
+        NewtonBrentIrrSolver.DEFAULT_GUESS, probe);
+    double guess = Double.isNaN(probe[DealBase.OUT_IRR]) ? NewtonBrentIrrSolver.DEFAULT_GUESS : probe[DealBase.OUT_IRR];
+
+    double[] irr = new double[paths], em = new double[paths], minDscr = new double[paths];
+    boolean[] loss = new boolean[paths];
+
+    int chunks = (paths + CHUNK - 1) / CHUNK;
+    SplittableRandom root = new SplittableRandom(seed);
+    SplittableRandom[] rngs = new SplittableRandom[chunks];
+    for (int c = 0; c < chunks; c++) rngs[c] = root.split();
+
+    boolean simd = BatchIrrEvaluator.vectorized();
+    IntStream.range(0, chunks).parallel().forEach(c -> {
+      SplittableRandom rng = rngs[c];
+      double[] p = base.baseParams.clone();
+      ProjectionColumns cols = new ProjectionColumns(base.hold);
+      double[] res = new double[DealBase.OUTPUTS];
+      IrrSolver solver = IrrSolver.newDefault();
+      BatchIrrEvaluator batch = simd ? new BatchIrrEvaluator(BATCH, base.hold + 1) : null;
+      double[] roots = simd ? new double[BATCH] : null;
+      int from = c * CHUNK, to = Math.min(paths, from + CHUNK);
+      for (int i = from; i < to; i++) {
+        for (int k = 0; k < sampled.length; k++) p[sampled[k]] = draw(dist[k], rng);
+        if (!simd) {
+          base.evaluate(p, loan, cols, solver, guess, res);
+          irr[i] = res[DealBase.OUT_IRR];
+        } else {
+          base.evaluateCashflows(p, loan, cols, res);
+          batch.add(cols.cash, base.hold + 1);
+        }
+        em[i] = res[DealBase.OUT_EQUITY_MULTIPLE];
+        minDscr[i] = res[DealBase.OUT_MIN_DSCR];
+        loss[i] = res[DealBase.OUT_NET_PROFIT] < 0;
+        if (simd && (batch.lanes() == BATCH || i == to - 1)) {
+          int n = batch.lanes();
+          batch.irr(guess, roots, null);
+          System.arraycopy(roots, 0, irr, i + 1 - n, n);
+          batch.clear();
+        }
+      }
+    });
+
+    MonteCarloResponse out = new MonteCarloResponse();
+    out.paths = paths; out.seed = seed;
+    out.irr = stats(irr);
+    out.irrNotConverged = paths - out.irr.count;
+    out.equityMultiple = stats(em);
+    out.minDscr = stats(minDscr);
+    int losses = 0, weak = 0;
+    for (int i = 0; i < paths; i++) {
+      if (loss[i]) losses++;
+      if (minDscr[i] < 1.0) weak++;
+    }
+    out.probabilityOfLoss = (double) losses / paths;
+    out.probabilityDscrBelowOne = out.minDscr.count > 0 ? (double) weak / paths : null;
+    return out;
+  }
+
+  /** Validate a distribution and pack it as {kind, a, b, c, lo, hi}. Null => fixed at the base value. */
+  private static double[] resolve(String name, MonteCarloRequest.Distribution d, double baseValue) {
+    double lo = Double.NEGATIVE_INFINITY, hi = Double.POSITIVE_INFINITY;
+    if (d == null) return new double[]{ FIXED, baseValue, 0, 0, lo, hi };
+    String type = d.type == null ? "FIXED" : d.type.toUpperCase();
+    if (d.min != null) lo = d.min;
+    if (d.max != null) hi = d.max;
+    switch (type) {
+      case "FIXED":
+        return new double[]{ FIXED, d.mean != null ? d.mean : baseValue, 0, 0, lo, hi };
+      case "UNIFORM":
+        require(name, d.min != null && d.max != null && d.min <= d.max, "UNIFORM needs min <= max");
+        return new double[]{ UNIFORM, d.min, d.max, 0, lo, hi };
+      case "NORMAL":
+        require(name, d.stdDev != null && d.stdDev >= 0, "NORMAL needs stdDev >= 0");
+        return new double[]{ NORMAL, d.mean != null ? d.mean : baseValue, d.stdDev, 0, lo, hi };
+      case "TRIANGULAR":
+        require(name, d.min != null && d.max != null && d.mode != null && d.min <= d.mode && d.mode <= d.max
+            && d.min < d.max, "TRIANGULAR needs min <= mode <= max and min < max");
+        return new double[]{ TRIANGULAR, d.min, d.mode, d.max, lo, hi };
+      default:
+        throw new IllegalArgumentException(name + ": unknown distribution type " + d.type);
+    }
+  }
+
+  private static void require(String name, boolean ok, String msg) {
+    if (!ok) throw new IllegalArgumentException(name + ": " + msg);
+  }
+
+  private static void clampUnit(double[] d) {
+    d[4] = Math.max(0, d[4]); d[5] = Math.min(1, d[5]);
+  }
+
+  /** One draw from a packed distribution. */
+  private static double draw(double[] d, SplittableRandom rng) {
+    double x;
+    switch ((int) d[0]) {
+      case UNIFORM:
+        x = d[1] + (d[2] - d[1]) * rng.nextDouble();
+        break;
+      case NORMAL: {
+        // Box–Muller; 1 - u keeps the log argument in (0, 1]
+        double u = 1.0 - rng.nextDouble(), v = rng.nextDouble();
+        x = d[1] + d[2] * Math.sqrt(-2.0 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+        break;
+      }
+      case TRIANGULAR: {
+        double a = d[1], m = d[2], b = d[3], u = rng.nextDouble();
+        double f = (m - a) / (b - a);
+        x = u < f ? a + Math.sqrt(u * (b - a) * (m - a)) : b - Math.sqrt((1 - u) * (b - a) * (b - m));
+        break;
+      }
+      default:
+        x = d[1];
+    }
+    return x < d[4] ? d[4] : (x > d[5] ? d[5] : x);
+  }
+
+  /** Summary statistics over the finite values of `v` (moves them to the front, sorted, in place). */
+  private static MonteCarloResponse.Stats stats(double[] v) {
+    int n = 0;
+    double sum = 0;
+    for (double x : v) if (Double.isFinite(x)) { v[n++] = x; sum += x; }
+    Arrays.sort(v, 0, n);
+    MonteCarloResponse.Stats s = new MonteCarloResponse.Stats();
+    s.count = n;
+    if (n == 0) return s;
+    double mean = sum / n, ss = 0;
+    for (int i = 0; i < n; i++) ss += (v[i] - mean) * (v[i] - mean);
+    s.mean = mean; s.stdDev = n > 1 ? Math.sqrt(ss / (n - 1)) : 0.0;
+    s.min = v[0]; s.max = v[n - 1];
+    s.p05 = pct(v, n, 0.05); s.p10 = pct(v, n, 0.10); s.p25 = pct(v, n, 0.25); s.p50 = pct(v, n, 0.50);
+    s.p75 = pct(v, n, 0.75); s.p90 = pct(v, n, 0.90); s.p95 = pct(v, n, 0.95);
+    return s;
+  }
+
+  /** Linear-interpolated percentile over the sorted prefix v[0..n). */
+  private static double pct(double[] v, int n, double q) {
+    double pos = q * (n - 1);
+    int i = (int) pos;
+    return i + 1 < n ? v[i] + (v[i + 1] - v[i]) * (pos - i) : v[i];
+  }
+}
@@ -0,0 +1,27 @@
+package com.example.analysis.service;
+
+/**
+ * One chunk of a monthly projection as primitive columns: months fromMonth .. fromMonth + months - 1,
+ * index 0 .. months - 1. The same instance is refilled for every chunk of a run, so a sink must
+ * write or copy it before returning.
+ */
+public final class MonthlyChunk {
+  public int fromMonth;              // First month in this chunk (1-based)
+  public int months;                 // Rows currently held
+  public final double[] totalIncome, vacancyLoss, egi;
+  public final double[] management, repairsRateBased, totalExpenses, noi;
+  public final double[] debtService, capex, cashFlowBeforeTax;
+  public final double[] endingBalanceFirst, endingBalanceSecond;
+  public final double[] propertyValue;
+
+  public MonthlyChunk(int capacity) {
+    totalIncome = new double[capacity]; vacancyLoss = new double[capacity]; egi = new double[capacity];
+    management = new double[capacity]; repairsRateBased = new double[capacity];
+    totalExpenses = new double[capacity]; noi = new double[capacity];
+    debtService = new double[capacity]; capex = new double[capacity]; cashFlowBeforeTax = new double[capacity];
+    endingBalanceFirst = new double[capacity]; endingBalanceSecond = new double[capacity];
+    propertyValue = new double[capacity];
+  }
+
+  public int capacity() { return noi.length; }
+}
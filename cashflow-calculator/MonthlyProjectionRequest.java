@@ -0,0 +1,35 @@
+package com.example.analysis.dto;
+
+import java.util.List;
+
+/**
+ * Input DTO for a month-by-month projection of a deal (value-add modelling). The base request
+ * supplies the usual assumptions; growth steps once per projection year, appreciation compounds
+ * monthly and loans amortize monthly (holdYears * 12 months). Periods override occupancy and add
+ * capital spend for a month range; rate resets re-price the first loan from a given month.
+ * Month m (1-based) is the m-th month after `startDate`.
+ */
+public class MonthlyProjectionRequest {
+  public CashflowRequest base;       // Deal assumptions
+  public String startDate;           // Closing date, ISO yyyy-MM-dd (default: first day of the current month)
+  public Integer chunkMonths;        // Months per streamed chunk (default 12)
+  public List<Period> periods;       // Occupancy / capex overrides, may overlap (later entries win)
+  public List<RateReset> rateResets; // First-loan rate changes
+
+  /**
+   * Months fromMonth..toMonth (inclusive). `occupancy` replaces 1 - vacancyRate (0 = rehab, no
+   * rent); with `occupancyEnd` it ramps linearly to that value at toMonth (lease-up).
+   * `capex` is capital spend per month, paid from cash flow below NOI.
+   */
+  public static class Period {
+    public Integer fromMonth; public Integer toMonth;
+    public Double occupancy; public Double occupancyEnd;
+    public Double capex;
+  }
+
+  /** New first-loan APR from `month` on; the payment is re-amortized over the remaining term. */
+  public static class RateReset {
+    public Integer month;
+    public Double rateAnnual;
+  }
+}
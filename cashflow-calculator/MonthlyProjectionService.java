@@ -0,0 +1,221 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.MonthlyProjectionRequest;
+import com.example.analysis.dto.MonthlyProjectionSummary;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+/**
+ * Month-by-month projection for value-add deals: occupancy overrides (rehab, lease-up), monthly
+ * capital spend and first-loan rate resets on top of the yearly assumptions. Rows are produced
+ * in fixed-size chunks into one reusable MonthlyChunk and handed to a sink as they are computed;
+ * only the monthly cash-flow vector is kept for the IRR / XIRR at the end.
+ *
+ * Without periods or resets the months add up to the yearly projection (income, expenses, NOI,
+ * property value at year ends); debt service is read from the shared monthly AmortizationSchedule
+ * of the loan terms.
+ */
+public class MonthlyProjectionService {
+
+  public static final int MAX_MONTHS = 1200;
+  public static final int DEFAULT_CHUNK_MONTHS = 12, MAX_CHUNK_MONTHS = 120;
+
+  /** Receives each chunk as soon as it is filled. */
+  public interface ChunkSink {
+    void accept(MonthlyChunk chunk) throws IOException;
+  }
+
+  /** Validate the request and fix its inputs. Throws IllegalArgumentException for invalid inputs. */
+  public Plan plan(MonthlyProjectionRequest req) {
+    if (req == null || req.base == null) throw new IllegalArgumentException("base deal is required");
+    return new Plan(req);
+  }
+
+  /** A validated projection, ready to stream. Each run() is independent. */
+  public static final class Plan {
+    final DealBase base;
+    final PrimitiveRequest prim;
+    final int months, chunkMonths;
+    final LocalDate start;
+    // Per-month overrides, index = month (NaN = no override)
+    final double[] occupancy, capex, rate;
+
+    Plan(MonthlyProjectionRequest req) {
+      prim = PrimitiveRequest.of(req.base);
+      base = new DealBase(prim);
+      if ((long) base.hold * 12 > MAX_MONTHS) throw new IllegalArgumentException("at most " + MAX_MONTHS + " months");
+      months = base.hold * 12;
+      chunkMonths = req.chunkMonths == null ? DEFAULT_CHUNK_MONTHS : req.chunkMonths;
+      if (chunkMonths < 1 || chunkMonths > MAX_CHUNK_MONTHS)
+        throw new IllegalArgumentException("chunkMonths must be 1.." + MAX_CHUNK_MONTHS);
+      try {
+        start = req.startDate != null ? LocalDate.parse(req.startDate) : LocalDate.now().withDayOfMonth(1);
+      } catch (DateTimeParseException e) {
+        throw new IllegalArgumentException("startDate must be yyyy-MM-dd");
+      }
+
+      occupancy = nanArray(months + 1);
+      capex = new double[months + 1];
+      if (req.periods != null) {
+        for (int i = 0; i < req.periods.size(); i++) {
+          MonthlyProjectionRequest.Period p = req.periods.get(i);
+          String at = "periods[" + i + "]: ";
+          if (p == null || p.fromMonth == null || p.toMonth == null) throw new IllegalArgumentException(at + "fromMonth and toMonth are required");
+          if (p.fromMonth < 1 || p.toMonth < p.fromMonth || p.toMonth > months)
+            throw new IllegalArgumentException(at + "months must satisfy 1 <= fromMonth <= toMonth <= " + months);
+          if (p.occupancy != null && !(p.occupancy >= 0 && p.occupancy <= 1)) throw new IllegalArgumentException(at + "occupancy must be in [0, 1]");
+          if (p.occupancyEnd != null && !(p.occupancyEnd >= 0 && p.occupancyEnd <= 1)) throw new IllegalArgumentException(at + "occupancyEnd must be in [0, 1]");
+          if (p.occupancyEnd != null && p.occupancy == null) throw new IllegalArgumentException(at + "occupancyEnd needs occupancy");
+          int span = p.toMonth - p.fromMonth;
+          for (int m = p.fromMonth; m <= p.toMonth; m++) {
+            if (p.occupancy != null) {
+              double end = p.occupancyEnd != null ? p.occupancyEnd : p.occupancy;
+              occupancy[m] = span == 0 ? end : p.occupancy + (end - p.occupancy) * (m - p.fromMonth) / span;
+            }
+            if (p.capex != null) capex[m] = p.capex;
+          }
+        }
+      }
+
+      rate = nanArray(months + 1);
+      if (req.rateResets != null) {
+        for (MonthlyProjectionRequest.RateReset r : req.rateResets) {
+          if (r == null || r.month == null || r.rateAnnual == null) throw new IllegalArgumentException("rateResets need month and rateAnnual");
+          if (r.month < 1 || r.month > months) throw new IllegalArgumentException("rate reset month must be 1.." + months);
+          rate[r.month] = r.rateAnnual;
+        }
+      }
+    }
+
+    public int months() { return months; }
+
+    /** Compute every month, handing full chunks to `sink`, then solve IRR / XIRR. */
+    public MonthlyProjectionSummary run(ChunkSink sink) throws IOException {
+      DealBase b = base;
+      double[] p = b.baseParams;
+      double vac = p[DealBase.VACANCY_RATE];
+      double rentStep = 1 + p[DealBase.RENT_GROWTH], expStep = 1 + p[DealBase.EXPENSE_GROWTH];
+      double apprStepMonth = Math.pow(1 + p[DealBase.ANNUAL_APPRECIATION], 1.0 / 12);
+      double incomeM = b.totalIncomeBase / 12, grossRentsM = b.grossRents / 12, opexM = b.otherOpexY1 / 12;
+      double otherFinM = prim.or(PrimitiveRequest.OTHER_MONTHLY_FINANCING_COSTS, 0);
+
+      MonthlyLoan first = new MonthlyLoan(b.firstPrincipal, p[DealBase.FIRST_RATE_ANNUAL],
+          b.firstAmortYears * 12, b.firstIoYears * 12);
+      MonthlyLoan second = new MonthlyLoan(prim.or(PrimitiveRequest.SECOND_PRINCIPAL, 0),
+          prim.or(PrimitiveRequest.SECOND_RATE_ANNUAL, 0), prim.intOr(PrimitiveRequest.SECOND_AMORT_YEARS, 20) * 12, 0);
+
+      double[] cash = new double[months + 1];
+      cash[0] = -b.cashToClose;
+      MonthlyChunk c = new MonthlyChunk(Math.min(chunkMonths, Math.max(months, 1)));
+      c.fromMonth = 1;
+      c.months = 0;
+      double rentF = 1, expF = 1, pv = b.offerPrice;
+      double totalNoi = 0, totalCapex = 0, totalCf = 0, minDscr = Double.NaN;
+
+      for (int m = 1; m <= months; m++) {
+        if (!Double.isNaN(rate[m])) first.reset(m, rate[m]);
+        double income = incomeM * rentF;
+        double vacancy = Double.isNaN(occupancy[m]) ? income * vac * -1.0 : income * (1 - occupancy[m]) * -1.0;
+        double egi = income + vacancy;
+        double mgmtBase = b.mgmtOnGrossRents ? grossRentsM * rentF : egi;
+        double mgmt = b.managementRate * Math.max(0, mgmtBase);
+        double repairsRateBased = b.repairsRate * grossRentsM * rentF;
+        double totalExp = mgmt + repairsRateBased + opexM * expF;
+        double noi = egi - totalExp;
+        double ds = first.step(m) + second.step(m) + otherFinM;
+        double cf = noi - ds - capex[m];
+        pv *= apprStepMonth;
+
+        int i = c.months++;
+        c.totalIncome[i] = income; c.vacancyLoss[i] = vacancy; c.egi[i] = egi;
+        c.management[i] = mgmt; c.repairsRateBased[i] = repairsRateBased; c.totalExpenses[i] = totalExp;
+        c.noi[i] = noi; c.debtService[i] = ds; c.capex[i] = capex[m]; c.cashFlowBeforeTax[i] = cf;
+        c.endingBalanceFirst[i] = first.balance; c.endingBalanceSecond[i] = second.balance;
+        c.propertyValue[i] = pv;
+        cash[m] = cf;
+        totalNoi += noi; totalCapex += capex[m]; totalCf += cf;
+        if (ds > 0 && !(noi / ds >= minDscr)) minDscr = noi / ds;
+
+        if (m % 12 == 0) { rentF *= rentStep; expF *= expStep; }
+        if (c.months == c.capacity() || m == months) {
+          sink.accept(c);
+          c.fromMonth = m + 1;
+          c.months = 0;
+        }
+      }
+
+      MonthlyProjectionSummary out = new MonthlyProjectionSummary();
+      out.months = months;
+      out.startDate = start.toString();
+      out.exitDate = start.plusMonths(months).toString();
+      out.cashToClose = b.cashToClose;
+      out.totalNoi = totalNoi; out.totalCapex = totalCapex; out.totalCashFlow = totalCf;
+      out.minDscr = Double.isNaN(minDscr) ? null : minDscr;
+      if (months > 0) {
+        double netSale = pv - pv * p[DealBase.EXIT_COST_RATE] - (first.balance + second.balance);
+        out.saleProceedsNet = netSale;
+        cash[months] += netSale;
+      }
+      double pos = 0;
+      for (int m = 0; m <= months; m++) if (cash[m] > 0) pos += cash[m];
+      out.equityMultiple = pos / b.cashToClose;
+
+      NewtonBrentIrrSolver solver = new NewtonBrentIrrSolver();
+      double irrM = solver.irr(cash, months + 1, 0.01);   // ~12% a year
+      out.irrMonthly = Double.isNaN(irrM) ? null : irrM;
+      out.irrAnnualized = Double.isNaN(irrM) ? null : Math.pow(1 + irrM, 12) - 1;
+      out.irrIterations = solver.lastIterations();
+      double[] years = new double[months + 1];
+      for (int m = 0; m <= months; m++) years[m] = ChronoUnit.DAYS.between(start, start.plusMonths(m)) / 365.0;
+      double xirr = solver.xirr(cash, years, months + 1, Double.isNaN(irrM) ? NewtonBrentIrrSolver.DEFAULT_GUESS
+          : Math.pow(1 + irrM, 12) - 1);
+      out.xirr = Double.isNaN(xirr) ? null : xirr;
+      return out;
+    }
+  }
+
+  /**
+   * Walks a loan month by month through AmortizationSchedules. The original terms come from
+   * AmortizationScheduleCache.SHARED, so deals on standard terms share one schedule. A rate reset
+   * in month m switches to a schedule of the balance left after month m - 1 over the remaining
+   * term (interest-only months still ahead included); that balance is deal-specific, so it is
+   * built directly rather than cached.
+   */
+  static final class MonthlyLoan {
+    final int termMonths, ioMonths;
+    AmortizationSchedule schedule;   // Null for a term under one month (no payments)
+    int offset;                      // Loan month = offset + schedule month
+    double balance;
+
+    MonthlyLoan(double principal, double rateAnnual, int termMonths, int ioMonths) {
+      this.termMonths = termMonths;
+      this.ioMonths = Math.min(ioMonths, termMonths);
+      this.balance = Math.max(0, principal);
+      if (termMonths >= 1) schedule = AmortizationScheduleCache.SHARED.get(balance, rateAnnual, termMonths, this.ioMonths);
+    }
+
+    /** New APR from month m on. */
+    void reset(int m, double rateAnnual) {
+      if (schedule == null || m > termMonths) return;
+      schedule = AmortizationSchedule.build(balance, rateAnnual, termMonths - (m - 1), Math.max(0, ioMonths - (m - 1)));
+      offset = m - 1;
+    }
+
+    /** Payment for month m; updates the balance. */
+    double step(int m) {
+      if (schedule == null || m > termMonths) return 0;
+      balance = schedule.balance(m - offset);
+      return schedule.payment(m - offset);
+    }
+  }
+
+  private static double[] nanArray(int n) {
+    double[] a = new double[n];
+    Arrays.fill(a, Double.NaN);
+    return a;
+  }
+}
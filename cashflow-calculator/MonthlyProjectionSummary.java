@@ -0,0 +1,19 @@
+package com.example.analysis.dto;
+
+/**
+ * Totals and return metrics of a monthly projection; sent after the last chunk of rows.
+ * irrMonthly is the periodic IRR of the monthly cash-flow vector, irrAnnualized = (1 + irrMonthly)^12 - 1,
+ * xirr is the IRR on the actual dates (Actual/365).
+ */
+public class MonthlyProjectionSummary {
+  public int months;
+  public String startDate; public String exitDate;
+  public Double cashToClose;
+  public Double totalNoi; public Double totalCapex;
+  public Double totalCashFlow;       // Sum of monthly cash flow before tax (after capex), excluding the sale
+  public Double saleProceedsNet;     // Net sale proceeds at exit (null when months = 0)
+  public Double equityMultiple;
+  public Double irrMonthly; public Double irrAnnualized; public Integer irrIterations;
+  public Double xirr;
+  public Double minDscr;             // Lowest monthly NOI / debt service (null without debt)
+}
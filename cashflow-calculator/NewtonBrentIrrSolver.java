@@ -0,0 +1,149 @@
+package com.example.analysis.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * IRR solver: Newton–Raphson where NPV and its derivative come from a single Horner pass
+ * in v = 1/(1+r) (no Math.pow), falling back to Brent's method on a scanned sign-change
+ * bracket when Newton leaves the domain, stalls or runs out of iterations. A warm-start
+ * guess near the root (e.g. a neighbouring grid cell) typically converges in 2-3 steps.
+ * Also provides NPV, MIRR and XIRR (dated cash flows, Actual/365).
+ */
+public class NewtonBrentIrrSolver implements IrrSolver {
+
+  public static final double DEFAULT_GUESS = 0.10;
+  // Newton stops once a step is below STEP_TOL: convergence is quadratic, so the returned
+  // iterate is then accurate to ~STEP_TOL^2. Brent works to the tighter TOL.
+  static final double STEP_TOL = 1e-7;
+  private static final double TOL = 1e-10;
+  static final int MAX_NEWTON = 20;
+  private static final int MAX_BRENT = 100;
+  // Candidate rates scanned for a sign change when Newton fails
+  private static final double[] SCAN = {
+      -0.99, -0.9, -0.75, -0.5, -0.3, -0.15, -0.05, 0, 0.05, 0.1, 0.15, 0.2, 0.3, 0.5, 0.75, 1, 2, 5, 10, 100
+  };
+
+  private int iterations;
+  private boolean bracketed, noRoot;
+
+  @Override public int lastIterations() { return iterations; }
+
+  @Override public boolean lastNoRoot() { return noRoot; }
+
+  /** True if the most recent solve needed the bracketed fallback. */
+  public boolean lastUsedBracket() { return bracketed; }
+
+  @Override
+  public double irr(double[] cash, int n, double guess) {
+    iterations = 0; bracketed = false; noRoot = n < 2;
+    if (n < 2) return Double.NaN;
+    double x = (guess > -1 && guess < Double.POSITIVE_INFINITY) ? guess : DEFAULT_GUESS;
+    for (int i = 0; i < MAX_NEWTON; i++) {
+      iterations++;
+      double v = 1 / (1 + x);
+      // p(v) = sum c_t v^t and p'(v) in one pass from the highest power down
+      double p = cash[n - 1], dp = 0;
+      for (int t = n - 2; t >= 0; t--) { dp = dp * v + p; p = p * v + cash[t]; }
+      double d = -v * v * dp;                     // dNPV/dr = p'(v) * dv/dr
+      if (d == 0 || Double.isNaN(d) || Double.isInfinite(d)) break;
+      double x1 = x - p / d;
+      if (Double.isNaN(x1) || Double.isInfinite(x1) || x1 <= -1) break;
+      if (Math.abs(x1 - x) < STEP_TOL) return x1;
+      x = x1;
+    }
+    bracketed = true;
+    return brent(cash, n, null, guess);
+  }
+
+  /** NPV of cash[0..n) at a periodic rate (Horner form). */
+  public static double npv(double[] cash, int n, double rate) {
+    double v = 1 / (1 + rate), p = 0;
+    for (int t = n - 1; t >= 0; t--) p = p * v + cash[t];
+    return p;
+  }
+
+  /**
+   * Modified IRR: negative flows discounted to t=0 at `financeRate`, positive flows
+   * compounded to t=n-1 at `reinvestRate`. NaN if there are no positive or no negative flows.
+   */
+  public static double mirr(double[] cash, int n, double financeRate, double reinvestRate) {
+    if (n < 2) return Double.NaN;
+    double pvNeg = 0, fvPos = 0, fin = 1, re = 1;
+    for (int t = 0; t < n; t++) {
+      if (cash[t] < 0) pvNeg += cash[t] / fin;
+      fin *= 1 + financeRate;
+    }
+    for (int t = n - 1; t >= 0; t--) {
+      if (cash[t] > 0) fvPos += cash[t] * re;
+      re *= 1 + reinvestRate;
+    }
+    if (pvNeg >= 0 || fvPos <= 0) return Double.NaN;
+    return Math.pow(fvPos / -pvNeg, 1.0 / (n - 1)) - 1;
+  }
+
+  /** XIRR for dated cash flows (Actual/365 from the first date). NaN if no root is found. */
+  public double xirr(double[] amounts, LocalDate[] dates, double guess) {
+    if (amounts.length != dates.length) throw new IllegalArgumentException("amounts and dates differ in length");
+    double[] years = new double[dates.length];
+    for (int i = 0; i < dates.length; i++) years[i] = ChronoUnit.DAYS.between(dates[0], dates[i]) / 365.0;
+    return xirr(amounts, years, amounts.length, guess);
+  }
+
+  /** XIRR where `years[i]` is the time of amounts[i] in years from the first flow. */
+  public double xirr(double[] amounts, double[] years, int n, double guess) {
+    iterations = 0; bracketed = false; noRoot = n < 2;
+    if (n < 2) return Double.NaN;
+    double x = (guess > -1 && guess < Double.POSITIVE_INFINITY) ? guess : DEFAULT_GUESS;
+    for (int i = 0; i < MAX_NEWTON; i++) {
+      iterations++;
+      double lg = Math.log1p(x), f = 0, d = 0;
+      for (int k = 0; k < n; k++) {
+        double disc = Math.exp(-years[k] * lg);
+        f += amounts[k] * disc;
+        d -= years[k] * amounts[k] * disc / (1 + x);
+      }
+      if (d == 0 || Double.isNaN(d) || Double.isInfinite(d)) break;
+      double x1 = x - f / d;
+      if (Double.isNaN(x1) || Double.isInfinite(x1) || x1 <= -1) break;
+      if (Math.abs(x1 - x) < STEP_TOL) return x1;
+      x = x1;
+    }
+    bracketed = true;
+    return brent(amounts, n, years, guess);
+  }
+
+  // ---------- Bracketed fallback ----------
+
+  /** NPV at `rate`: periodic when `years` is null, dated otherwise. Counts as one iteration. */
+  private double f(double[] c, int n, double[] years, double rate) {
+    iterations++;
+    if (years == null) return npv(c, n, rate);
+    double lg = Math.log1p(rate), s = 0;
+    for (int k = 0; k < n; k++) s += c[k] * Math.exp(-years[k] * lg);
+    return s;
+  }
+
+  /** Scan SCAN for the sign change nearest to `guess`, then run Brent's method inside it. */
+  private double brent(double[] c, int n, double[] years, double guess) {
+    double g = (guess > -1 && guess < Double.POSITIVE_INFINITY) ? guess : DEFAULT_GUESS;
+    double a = Double.NaN, b = Double.NaN, fa = 0, fb = 0, best = Double.POSITIVE_INFINITY;
+    double prevX = SCAN[0], prevF = f(c, n, years, prevX);
+    if (prevF == 0) return prevX;
+    for (int i = 1; i < SCAN.length; i++) {
+      double x = SCAN[i], fx = f(c, n, years, x);
+      if (fx == 0) return x;
+      if ((prevF < 0) != (fx < 0) && !Double.isNaN(prevF) && !Double.isNaN(fx)) {
+        double dist = g < prevX ? prevX - g : (g > x ? g - x : 0);
+        if (dist < best) { best = dist; a = prevX; b = x; fa = prevF; fb = fx; }
+      }
+      prevX = x; prevF = fx;
+    }
+    if (Double.isNaN(a)) {                           // No sign change: no IRR in range
+      noRoot = true;
+      return Double.NaN;
+    }
+
+    return RootFinder.brent(x -> f(c, n, years, x), a, b, fa, fb, TOL, MAX_BRENT);
+  }
+}
@@ -0,0 +1,45 @@
+package com.example.analysis.service;
+
+/**
+ * Inner loop of the batch IRR evaluator: NPV polynomial p(v) = sum c_t v^t and p'(v) for many
+ * lanes at once, in Horner form from the highest power down (the same multiply-then-add order
+ * as NewtonBrentIrrSolver, so every lane is bit-identical to the scalar solve).
+ */
+interface NpvKernel {
+
+  /**
+   * Lane-major flows: lane j, period t at cf[t * stride + j]. For lanes 0..lanes-1 and periods
+   * 0..n-1 (n >= 1) write p(v[j]) into p[j] and p'(v[j]) into dp[j].
+   */
+  void lanes(double[] cf, int stride, int lanes, int n, double[] v, double[] p, double[] dp);
+
+  /** One flow vector cash[0..n) at k points v[0..k): p(v[j]) into p[j]. */
+  void points(double[] cash, int n, double[] v, int k, double[] p);
+
+  /** Plain loops over the lane index; C2 can auto-vectorize the inner loops. */
+  NpvKernel SCALAR = new NpvKernel() {
+    @Override
+    public void lanes(double[] cf, int stride, int lanes, int n, double[] v, double[] p, double[] dp) {
+      int last = (n - 1) * stride;
+      for (int j = 0; j < lanes; j++) { p[j] = cf[last + j]; dp[j] = 0; }
+      for (int t = n - 2; t >= 0; t--) {
+        int row = t * stride;
+        for (int j = 0; j < lanes; j++) {
+          dp[j] = dp[j] * v[j] + p[j];
+          p[j] = p[j] * v[j] + cf[row + j];
+        }
+      }
+    }
+
+    @Override
+    public void points(double[] cash, int n, double[] v, int k, double[] p) {
+      for (int j = 0; j < k; j++) p[j] = cash[n - 1];
+      for (int t = n - 2; t >= 0; t--) {
+        double c = cash[t];
+        for (int j = 0; j < k; j++) p[j] = p[j] * v[j] + c;
+      }
+    }
+
+    @Override public String toString() { return "scalar"; }
+  };
+}
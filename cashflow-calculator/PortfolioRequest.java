@@ -0,0 +1,18 @@
+package com.example.analysis.dto;
+
+import java.util.List;
+
+/**
+ * Input DTO for a portfolio roll-up. Each property is a full CashflowRequest placed on the
+ * calendar: its equity goes in during `acquisitionYear` and projection year t lands in
+ * calendar year acquisitionYear + t, so the exit falls in acquisitionYear + holdYears.
+ */
+public class PortfolioRequest {
+  public List<Property> properties;
+
+  public static class Property {
+    public String id;                // Caller's reference, echoed in the per-property results
+    public Integer acquisitionYear;  // Calendar year of closing, e.g. 2021
+    public CashflowRequest deal;
+  }
+}
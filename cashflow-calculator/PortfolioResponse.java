@@ -0,0 +1,32 @@
+package com.example.analysis.dto;
+
+import java.util.List;
+
+/**
+ * Output DTO for a portfolio roll-up. Yearly columns are indexed by calendar year
+ * (years[i] = firstYear + i) and summed across every property held in that year.
+ */
+public class PortfolioResponse {
+  public int properties;
+  public int firstYear; public int lastYear;
+  public int[] years;
+  public double[] noi; public double[] debtService; public double[] cashFlowBeforeTax;
+  public double[] equityInvested;    // Cash to close of acquisitions in the year
+  public double[] saleProceedsNet;   // Net proceeds of exits in the year
+  public double[] netCashFlow;       // -equity + cash flow + sale proceeds: the portfolio IRR vector
+
+  public Double irr;                 // IRR of netCashFlow (null if it has no root)
+  public Integer irrIterations;
+  public Double equityMultiple;      // Total distributions / total equity invested
+  public double totalEquityInvested; public double totalDistributions;
+
+  public List<PropertyResult> holdings; // In request order
+
+  /** Per-property KPIs from the same projection. */
+  public static class PropertyResult {
+    public String id;
+    public int acquisitionYear; public int exitYear;
+    public double cashToClose;
+    public Double irr; public Double equityMultiple;
+  }
+}
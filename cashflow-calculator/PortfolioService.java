@@ -0,0 +1,158 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowRequest;
+import com.example.analysis.dto.PortfolioRequest;
+import com.example.analysis.dto.PortfolioResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Portfolio roll-up: projects every property with the primitive DealBase/ProjectionKernel path,
+ * shifts each onto the calendar by its acquisition year and sums NOI, debt service, cash flow,
+ * equity and sale proceeds per calendar year. The property list is split fork/join style; each
+ * leaf accumulates into its own primitive columns and siblings are added on join, so there is no
+ * shared mutable state. A single IRR is solved on the combined net cash-flow vector.
+ */
+public class PortfolioService {
+
+  public static final int MAX_PROPERTIES = 10_000;
+  public static final int MAX_SPAN_YEARS = 500;
+  private static final int LEAF = 8;
+
+  private final ForkJoinPool pool;
+
+  public PortfolioService() { this(ForkJoinPool.commonPool()); }
+
+  public PortfolioService(ForkJoinPool pool) { this.pool = pool; }
+
+  /** Run the roll-up. Throws IllegalArgumentException for invalid inputs. */
+  public PortfolioResponse aggregate(PortfolioRequest req) {
+    if (req == null || req.properties == null || req.properties.isEmpty())
+      throw new IllegalArgumentException("at least one property is required");
+    int n = req.properties.size();
+    if (n > MAX_PROPERTIES) throw new IllegalArgumentException("at most " + MAX_PROPERTIES + " properties");
+
+    // Calendar span from acquisition years and hold periods
+    CashflowRequest[] deals = new CashflowRequest[n];
+    int[] acq = new int[n];
+    int first = Integer.MAX_VALUE, last = Integer.MIN_VALUE;
+    for (int i = 0; i < n; i++) {
+      PortfolioRequest.Property p = req.properties.get(i);
+      if (p == null || p.deal == null) throw new IllegalArgumentException("property " + i + ": deal is required");
+      if (p.acquisitionYear == null) throw new IllegalArgumentException("property " + i + ": acquisitionYear is required");
+      deals[i] = p.deal;
+      acq[i] = p.acquisitionYear;
+      first = Math.min(first, acq[i]);
+      last = Math.max(last, acq[i] + DealBase.holdYears(p.deal));
+    }
+    if ((long) last - first + 1 > MAX_SPAN_YEARS)
+      throw new IllegalArgumentException("portfolio spans more than " + MAX_SPAN_YEARS + " years");
+    int span = last - first + 1;
+
+    PortfolioResponse.PropertyResult[] results = new PortfolioResponse.PropertyResult[n];
+    Totals t = pool.invoke(new Roll(deals, acq, first, span, results, 0, n));
+
+    PortfolioResponse out = new PortfolioResponse();
+    out.properties = n; out.firstYear = first; out.lastYear = last;
+    out.years = new int[span];
+    for (int i = 0; i < span; i++) out.years[i] = first + i;
+    out.noi = t.noi; out.debtService = t.debtService; out.cashFlowBeforeTax = t.cashFlow;
+    out.equityInvested = t.equity; out.saleProceedsNet = t.sale; out.netCashFlow = t.net;
+    out.totalEquityInvested = t.invested; out.totalDistributions = t.distributions;
+    out.equityMultiple = t.invested > 0 ? t.distributions / t.invested : null;
+
+    IrrSolver solver = IrrSolver.newDefault();
+    double irr = solver.irr(t.net, span, NewtonBrentIrrSolver.DEFAULT_GUESS);
+    out.irr = Double.isNaN(irr) ? null : irr;
+    out.irrIterations = solver.lastIterations();
+
+    List<PortfolioResponse.PropertyResult> holdings = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      results[i].id = req.properties.get(i).id;
+      holdings.add(results[i]);
+    }
+    out.holdings = holdings;
+    return out;
+  }
+
+  /** Per-calendar-year primitive accumulators for a slice of the portfolio. */
+  private static final class Totals {
+    final double[] noi, debtService, cashFlow, equity, sale, net;
+    double invested, distributions;
+
+    Totals(int span) {
+      noi = new double[span]; debtService = new double[span]; cashFlow = new double[span];
+      equity = new double[span]; sale = new double[span]; net = new double[span];
+    }
+
+    Totals add(Totals o) {
+      for (int i = 0; i < noi.length; i++) {
+        noi[i] += o.noi[i]; debtService[i] += o.debtService[i]; cashFlow[i] += o.cashFlow[i];
+        equity[i] += o.equity[i]; sale[i] += o.sale[i]; net[i] += o.net[i];
+      }
+      invested += o.invested; distributions += o.distributions;
+      return this;
+    }
+  }
+
+  /** Fork/join task over properties [from, to). */
+  private static final class Roll extends RecursiveTask<Totals> {
+    private static final long serialVersionUID = 1L;
+
+    final CashflowRequest[] deals; final int[] acq; final int first, span;
+    final PortfolioResponse.PropertyResult[] results;
+    final int from, to;
+
+    Roll(CashflowRequest[] deals, int[] acq, int first, int span, PortfolioResponse.PropertyResult[] results,
+         int from, int to) {
+      this.deals = deals; this.acq = acq; this.first = first; this.span = span; this.results = results;
+      this.from = from; this.to = to;
+    }
+
+    @Override
+    protected Totals compute() {
+      if (to - from > LEAF) {
+        int mid = (from + to) >>> 1;
+        Roll left = new Roll(deals, acq, first, span, results, from, mid);
+        left.fork();
+        Totals right = new Roll(deals, acq, first, span, results, mid, to).compute();
+        return left.join().add(right);
+      }
+      Totals t = new Totals(span);
+      IrrSolver solver = IrrSolver.newDefault();
+      for (int i = from; i < to; i++) {
+        DealBase b = new DealBase(deals[i]);
+        ProjectionColumns c = new ProjectionColumns(b.hold);
+        ProjectionKernel.project(b, b.baseParams, b.firstLoanTable(b.baseParams[DealBase.FIRST_RATE_ANNUAL]), c);
+
+        // Year t of the projection lands in calendar year acq + t
+        int off = acq[i] - first;
+        t.equity[off] += b.cashToClose;
+        for (int y = 0; y < b.hold; y++) {
+          t.noi[off + 1 + y] += c.noi[y];
+          t.debtService[off + 1 + y] += c.debtService[y];
+          t.cashFlow[off + 1 + y] += c.cashFlowBeforeTax[y];
+        }
+        if (b.hold > 0) t.sale[off + b.hold] += c.saleProceedsNet;
+        double pos = 0;
+        for (int y = 0; y <= b.hold; y++) {
+          t.net[off + y] += c.cash[y];
+          if (c.cash[y] > 0) pos += c.cash[y];
+        }
+        t.invested += b.cashToClose;
+        t.distributions += pos;
+
+        PortfolioResponse.PropertyResult r = new PortfolioResponse.PropertyResult();
+        r.acquisitionYear = acq[i]; r.exitYear = acq[i] + b.hold; r.cashToClose = b.cashToClose;
+        double irr = solver.irr(c.cash, b.hold + 1, NewtonBrentIrrSolver.DEFAULT_GUESS);
+        r.irr = Double.isNaN(irr) ? null : irr;
+        r.equityMultiple = b.cashToClose > 0 ? pos / b.cashToClose : null;
+        results[i] = r;
+      }
+      return t;
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowRequest;
+
+import java.util.Arrays;
+
+/**
+ * CashflowRequest as a flat double[] (one slot per numeric field, NaN = not set) plus the
+ * management-base flag. Built once per request, or filled in place and reused by batch callers
+ * (CSV readers can `set` slots directly), so the analysis never unboxes the DTO. Integer fields
+ * (years, unit counts) are stored as doubles and rounded on read.
+ */
+public final class PrimitiveRequest {
+
+  // Slots, in CashflowRequest declaration order (= RequestFields.numericNames())
+  public static final int FMV = slot("fmv"), OFFER_PRICE = slot("offerPrice"),
+      ANNUAL_APPRECIATION = slot("annualAppreciation");
+  public static final int GROSS_RENTS_ANNUAL = slot("grossRentsAnnual"), NUMBER_OF_UNITS = slot("numberOfUnits"),
+      PARKING_ANNUAL = slot("parkingAnnual"), STORAGE_ANNUAL = slot("storageAnnual"),
+      LAUNDRY_VENDING_ANNUAL = slot("laundryVendingAnnual"), OTHER_INCOME_ANNUAL = slot("otherIncomeAnnual");
+  public static final int VACANCY_RATE = slot("vacancyRate"), MANAGEMENT_RATE = slot("managementRate"),
+      REPAIRS_RATE = slot("repairsRate");
+  public static final int FIRST_PRINCIPAL = slot("firstPrincipal"), FIRST_RATE_ANNUAL = slot("firstRateAnnual"),
+      FIRST_AMORT_YEARS = slot("firstAmortYears"), FIRST_INTEREST_ONLY_YEARS = slot("firstInterestOnlyYears");
+  public static final int SECOND_PRINCIPAL = slot("secondPrincipal"), SECOND_RATE_ANNUAL = slot("secondRateAnnual"),
+      SECOND_AMORT_YEARS = slot("secondAmortYears"), OTHER_MONTHLY_FINANCING_COSTS = slot("otherMonthlyFinancingCosts");
+  public static final int HOLD_YEARS = slot("holdYears"), RENT_GROWTH = slot("rentGrowth"),
+      EXPENSE_GROWTH = slot("expenseGrowth"), EXIT_COST_RATE = slot("exitCostRate");
+  public static final int FINANCE_RATE = slot("financeRate"), REINVEST_RATE = slot("reinvestRate");
+
+  /** Income streams summed into the Year-1 income stack (gross rents first). */
+  static final int[] INCOME = slots("grossRentsAnnual", "parkingAnnual", "storageAnnual", "laundryVendingAnnual",
+      "otherIncomeAnnual");
+  /** Flat annual operating expenses. */
+  static final int[] OPEX = slots("propertyTaxes", "insurance", "electricity", "gas", "waterSewer", "cable",
+      "caretaking", "advertising", "associationFees", "pest", "security", "trash", "misc", "commonAreaMaintenance",
+      "capitalImprovements", "accounting", "legal", "badDebts", "evictions", "otherExpenses");
+  /** Closing costs and rehab added to the offer price for RPP. */
+  static final int[] CLOSING = slots("repairs", "repairsContingency", "lenderFee", "brokerFee", "environmentals",
+      "inspections", "appraisals", "transferTax", "legalClose", "otherClosingCosts");
+
+  public static final int SLOTS = RequestFields.numericNames().size();
+
+  final double[] v = new double[SLOTS];
+  boolean mgmtOnGrossRents;
+
+  public PrimitiveRequest() { clear(); }
+
+  public static PrimitiveRequest of(CashflowRequest r) { return new PrimitiveRequest().load(r); }
+
+  /** Overwrite every slot from `r` (allocation-free). */
+  public PrimitiveRequest load(CashflowRequest r) {
+    RequestFields.load(r, v);
+    mgmtOnGrossRents = "GROSS_RENTS".equalsIgnoreCase(r.managementBase);
+    return this;
+  }
+
+  /** Independent copy of every slot and the management-base flag. */
+  public PrimitiveRequest copy() {
+    PrimitiveRequest out = new PrimitiveRequest();
+    System.arraycopy(v, 0, out.v, 0, SLOTS);
+    out.mgmtOnGrossRents = mgmtOnGrossRents;
+    return out;
+  }
+
+  /** Unset every field. */
+  public PrimitiveRequest clear() {
+    Arrays.fill(v, Double.NaN);
+    mgmtOnGrossRents = false;
+    return this;
+  }
+
+  /** Value of a slot, NaN if not set. */
+  public double get(int slot) { return v[slot]; }
+
+  public boolean has(int slot) { return !Double.isNaN(v[slot]); }
+
+  /** Set a slot; NaN unsets it. */
+  public PrimitiveRequest set(int slot, double value) { v[slot] = value; return this; }
+
+  /** Management fee on gross rents instead of EGI (managementBase = "GROSS_RENTS"). */
+  public PrimitiveRequest managementOnGrossRents(boolean on) { mgmtOnGrossRents = on; return this; }
+
+  /** Value of a slot, or `def` if not set. */
+  double or(int slot, double def) {
+    double d = v[slot];
+    return d != d ? def : d;
+  }
+
+  /** Whole-number slot (rounded), or `def` if not set. */
+  int intOr(int slot, int def) {
+    double d = v[slot];
+    return d != d ? def : (int) Math.round(d);
+  }
+
+  /** Sum of the given slots, unset counted as 0, left to right from `start`. */
+  double sum(double start, int[] slots) {
+    double s = start;
+    for (int slot : slots) s += or(slot, 0);
+    return s;
+  }
+
+  private static int slot(String name) {
+    int i = RequestFields.numericNames().indexOf(name);
+    if (i < 0) throw new IllegalStateException("no numeric request field " + name);
+    return i;
+  }
+
+  private static int[] slots(String... names) {
+    int[] out = new int[names.length];
+    for (int i = 0; i < names.length; i++) out[i] = slot(names[i]);
+    return out;
+  }
+}
@@ -0,0 +1,41 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowResponse;
+
+/**
+ * CashflowResponse.Summary as primitives, written in place by the analysis stages.
+ * NaN stands for a KPI that is undefined (null in the DTO), e.g. DSCR without debt.
+ */
+public final class PrimitiveSummary {
+  public double rpp, cashToClose;
+  public double totalIncomeY1, vacancyLossY1, egiY1, totalExpensesY1, noiY1;
+  public double annualDebtServiceY1, dscrY1;
+  public double capRatePPY1, capRateFMVY1, grmY1, avgRentPerUnitY1;
+  public double monthlyProfitY1, cashflowPerUnitPerMonthY1;
+  public double ltvFMV, ltppPP;
+  public double cashOnCashY1, equityROIY1, appreciationROIY1, totalROIY1, forcedAppreciationROIY1;
+  public double irr = Double.NaN, mirr = Double.NaN, equityMultiple, saleProceedsNet;
+  public int irrIterations;
+  public boolean irrNoRoot;          // irr is NaN because the cash flows have none (not a solver failure)
+
+  /** Boxed DTO; amounts and sums that are always defined stay as-is, optional KPIs map NaN to null. */
+  public CashflowResponse.Summary toSummary() {
+    CashflowResponse.Summary s = new CashflowResponse.Summary();
+    s.rpp = rpp; s.cashToClose = cashToClose;
+    s.totalIncomeY1 = totalIncomeY1; s.vacancyLossY1 = vacancyLossY1;
+    s.egiY1 = egiY1; s.totalExpensesY1 = totalExpensesY1; s.noiY1 = noiY1;
+    s.annualDebtServiceY1 = annualDebtServiceY1; s.dscrY1 = opt(dscrY1);
+    s.capRatePPY1 = opt(capRatePPY1); s.capRateFMVY1 = opt(capRateFMVY1);
+    s.grmY1 = opt(grmY1); s.avgRentPerUnitY1 = opt(avgRentPerUnitY1);
+    s.monthlyProfitY1 = monthlyProfitY1; s.cashflowPerUnitPerMonthY1 = opt(cashflowPerUnitPerMonthY1);
+    s.ltvFMV = opt(ltvFMV); s.ltppPP = opt(ltppPP);
+    s.cashOnCashY1 = opt(cashOnCashY1); s.equityROIY1 = opt(equityROIY1);
+    s.appreciationROIY1 = opt(appreciationROIY1); s.totalROIY1 = totalROIY1;
+    s.forcedAppreciationROIY1 = opt(forcedAppreciationROIY1);
+    s.irr = opt(irr); s.irrIterations = irrIterations; s.mirr = opt(mirr);
+    s.equityMultiple = equityMultiple; s.saleProceedsNet = opt(saleProceedsNet);
+    return s;
+  }
+
+  private static Double opt(double d) { return Double.isNaN(d) ? null : d; }
+}
@@ -0,0 +1,53 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Struct-of-arrays projection: one primitive column per YearRow field, index = year - 1.
+ * Written by ProjectionKernel; instances are reusable across runs of the same (or shorter)
+ * horizon so sweep callers keep one per worker.
+ */
+public final class ProjectionColumns {
+  public int years;                  // Rows currently held (= hold years)
+  public final double[] totalIncome, vacancyLoss, egi;
+  public final double[] management, repairsRateBased, totalExpenses, noi;
+  public final double[] debtService, cashFlowBeforeTax;
+  public final double[] endingBalanceFirst, endingBalanceSecond;
+  public final double[] propertyValue;
+
+  /** Investor cash-flow vector for IRR: [0] = -cash to close, [years] includes net sale. */
+  public final double[] cash;
+  public double saleProceedsNet;     // NaN when there is no exit year (hold = 0)
+
+  public ProjectionColumns(int capacity) {
+    int n = Math.max(0, capacity);
+    totalIncome = new double[n]; vacancyLoss = new double[n]; egi = new double[n];
+    management = new double[n]; repairsRateBased = new double[n]; totalExpenses = new double[n]; noi = new double[n];
+    debtService = new double[n]; cashFlowBeforeTax = new double[n];
+    endingBalanceFirst = new double[n]; endingBalanceSecond = new double[n];
+    propertyValue = new double[n];
+    cash = new double[n + 1];
+  }
+
+  public int capacity() { return noi.length; }
+
+  /** Adapter to today's boxed response rows. */
+  public List<CashflowResponse.YearRow> toYearRows() {
+    List<CashflowResponse.YearRow> rows = new ArrayList<>(years);
+    for (int i = 0; i < years; i++) {
+      CashflowResponse.YearRow row = new CashflowResponse.YearRow();
+      row.year = i + 1;
+      row.totalIncome = totalIncome[i]; row.vacancyLoss = vacancyLoss[i]; row.egi = egi[i];
+      row.management = management[i]; row.repairsRateBased = repairsRateBased[i];
+      row.totalExpenses = totalExpenses[i]; row.noi = noi[i];
+      row.debtService = debtService[i]; row.cashFlowBeforeTax = cashFlowBeforeTax[i];
+      row.endingBalanceFirst = endingBalanceFirst[i]; row.endingBalanceSecond = endingBalanceSecond[i];
+      row.propertyValue = propertyValue[i];
+      rows.add(row);
+    }
+    return rows;
+  }
+}
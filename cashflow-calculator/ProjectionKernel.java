@@ -0,0 +1,75 @@
+package com.example.analysis.service;
+
+/**
+ * Yearly projection kernel. One forward pass over the hold period: growth factors and
+ * property value are carried multiplicatively (no Math.pow per year), loan figures come
+ * from precomputed Amort tables, and every output goes into a primitive column.
+ * Same rules as the original per-year loop in CashflowService.analyze.
+ */
+final class ProjectionKernel {
+
+  private ProjectionKernel() {}
+
+  /**
+   * Project `b` under scenario parameters `p` (see DealBase index constants) with first-loan
+   * table `loan` (DealBase.firstLoanTable) into `c`, which must have capacity >= b.hold.
+   */
+  static void project(DealBase b, double[] p, double[][] loan, ProjectionColumns c) {
+    int hold = b.hold;
+    if (c.capacity() < hold) throw new IllegalArgumentException("columns too small for " + hold + " years");
+    double rentStep = 1 + p[DealBase.RENT_GROWTH], expStep = 1 + p[DealBase.EXPENSE_GROWTH];
+    double apprStep = 1 + p[DealBase.ANNUAL_APPRECIATION];
+    double vac = p[DealBase.VACANCY_RATE];
+    double[] ds1 = loan[0], bal1 = loan[1];
+
+    c.years = hold;
+    c.cash[0] = -b.cashToClose;
+    double rentF = 1, expF = 1, pv = b.offerPrice;
+    for (int i = 0; i < hold; i++) {
+      int y = i + 1;
+      double totalIncome = b.totalIncomeBase * rentF;
+      double vacancy = totalIncome * vac * -1.0;
+      double egi = totalIncome + vacancy;
+
+      // Management/repairs follow rent; the flat opex block follows expenseGrowth
+      double mgmtBase = b.mgmtOnGrossRents ? b.grossRents * rentF : egi;
+      double mgmt = b.managementRate * Math.max(0, mgmtBase);
+      double repairsRateBased = b.repairsRate * b.grossRents * rentF;
+      double totalExp = mgmt + repairsRateBased + b.otherOpexY1 * expF;
+      double noi = egi - totalExp;
+
+      double ds = ds1[y] + b.otherDebtService[y];
+      double cf = noi - ds;
+      pv *= apprStep;
+
+      c.totalIncome[i] = totalIncome; c.vacancyLoss[i] = vacancy; c.egi[i] = egi;
+      c.management[i] = mgmt; c.repairsRateBased[i] = repairsRateBased; c.totalExpenses[i] = totalExp;
+      c.noi[i] = noi; c.debtService[i] = ds; c.cashFlowBeforeTax[i] = cf;
+      c.endingBalanceFirst[i] = bal1[y]; c.endingBalanceSecond[i] = b.secondBalance[y];
+      c.propertyValue[i] = pv;
+      c.cash[y] = cf;
+
+      rentF *= rentStep; expF *= expStep;
+    }
+    exit(b, p[DealBase.EXIT_COST_RATE], loan, c);
+  }
+
+  /**
+   * Exit step of a finished projection: net sale proceeds at the end of the hold, added to the
+   * last year's cash flow. Re-running it with another exit cost rate leaves the rest of `c` as is.
+   */
+  static void exit(DealBase b, double exitRate, double[][] loan, ProjectionColumns c) {
+    int hold = c.years;
+    c.saleProceedsNet = Double.NaN;
+    if (hold == 0) return;
+    double netSale = netSale(b, exitRate, loan, c, hold);
+    c.saleProceedsNet = netSale;
+    c.cash[hold] = c.cashFlowBeforeTax[hold - 1] + netSale;
+  }
+
+  /** Net sale proceeds if the property were sold at the end of year y (1..c.years). */
+  static double netSale(DealBase b, double exitRate, double[][] loan, ProjectionColumns c, int y) {
+    double pvExit = c.propertyValue[y - 1];
+    return pvExit - pvExit * exitRate - (loan[1][y] + b.secondBalance[y]);
+  }
+}
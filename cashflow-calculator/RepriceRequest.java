@@ -0,0 +1,21 @@
+package com.example.analysis.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Input DTO for a bulk re-price of saved deals: assumption overrides applied to every saved deal,
+ * or to those matching all given filters. `set` replaces a field's value; `shift` adds to it and
+ * skips deals where the field is not set. Any numeric request field may be overridden, typically
+ * firstRateAnnual, rentGrowth and exitCostRate. Only deals whose summary changes are updated.
+ */
+public class RepriceRequest {
+  public Map<String, Double> set;      // e.g. {"exitCostRate":0.07}
+  public Map<String, Double> shift;    // e.g. {"firstRateAnnual":0.005} = +50 bp
+  public List<String> ids;             // Only these deals
+  public String state;                 // Only deals in this state / city / zip (case-insensitive)
+  public String city;
+  public String zip;
+  public Boolean dryRun;               // Report the deltas without saving anything
+  public Integer top;                  // Deals listed in `deals`, largest IRR change first (default 20)
+}
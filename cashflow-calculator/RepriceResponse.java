@@ -0,0 +1,41 @@
+package com.example.analysis.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Output DTO for a bulk re-price: how many deals matched and changed, the change of each KPI
+ * across the changed deals (after minus before; deals where the KPI is undefined on either side
+ * are left out of its statistics), the deals with the largest IRR change and any failures.
+ */
+public class RepriceResponse {
+  public int matched;                // Deals passing the filters
+  public int changed;                // Deals whose summary changed (saved unless dryRun)
+  public int inputsOnly;             // Inputs changed but not the summary (saved unless dryRun)
+  public int unchanged;              // Overrides did not change the inputs
+  public int failed;                 // Invalid after the overrides (see failures)
+  public int conflicts;              // Changed by another call meanwhile; left as they were
+  public boolean saved;              // False for dryRun
+  public long elapsedMs;
+  public Map<String, KpiDelta> kpis; // By KPI name: irr, cashOnCashY1, dscrY1, noiY1, ...
+  public List<DealDelta> deals;
+  public List<Failure> failures;     // First 100
+
+  public static class KpiDelta {
+    public int count;                // Changed deals with the KPI defined before and after
+    public Double meanBefore, meanAfter;
+    public Double meanDelta, minDelta, maxDelta;
+  }
+
+  public static class DealDelta {
+    public String id;
+    public long version;             // Version after the re-price
+    public Double irrBefore, irrAfter;
+    public Map<String, Double> delta;  // After minus before, by KPI name (defined on both sides)
+  }
+
+  public static class Failure {
+    public String id;
+    public String error;
+  }
+}
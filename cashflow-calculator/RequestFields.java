@@ -0,0 +1,119 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowRequest;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Name-based access to the numeric inputs of CashflowRequest (Double and Integer fields),
+ * for engines that address inputs by field name: goal seek, sensitivity ranking, caching,
+ * CSV mapping. Field handles are resolved once; declaration order is preserved.
+ */
+public final class RequestFields {
+
+  private static final Map<String, Field> NUMERIC = new LinkedHashMap<>();
+  private static final Map<String, Field> ALL = new LinkedHashMap<>();
+  private static final Field[] NUMERIC_FIELDS;
+
+  static {
+    for (Field f : CashflowRequest.class.getFields()) {
+      if (Modifier.isStatic(f.getModifiers())) continue;
+      ALL.put(f.getName(), f);
+      if (f.getType() == Double.class || f.getType() == Integer.class) NUMERIC.put(f.getName(), f);
+    }
+    NUMERIC_FIELDS = NUMERIC.values().toArray(new Field[0]);
+  }
+
+  private RequestFields() {}
+
+  /** Names of all numeric request fields, in declaration order. */
+  public static List<String> numericNames() {
+    return Collections.unmodifiableList(new ArrayList<>(NUMERIC.keySet()));
+  }
+
+  public static boolean isNumeric(String name) { return NUMERIC.containsKey(name); }
+
+  /** True if the field holds whole numbers (years, unit counts). */
+  public static boolean isInteger(String name) { return field(name).getType() == Integer.class; }
+
+  /** Value of a numeric field as Double (null if unset). */
+  public static Double get(CashflowRequest r, String name) {
+    try {
+      Object v = field(name).get(r);
+      return v == null ? null : ((Number) v).doubleValue();
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Set a numeric field; integer fields are rounded. Null clears the field. */
+  public static void set(CashflowRequest r, String name, Double value) {
+    Field f = field(name);
+    try {
+      if (value == null) f.set(r, null);
+      else if (f.getType() == Integer.class) f.set(r, (int) Math.round(value));
+      else f.set(r, value);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** True if `name` is any request field (numeric or text). */
+  public static boolean isField(String name) { return ALL.containsKey(name); }
+
+  /**
+   * Set any field from a loosely typed value (e.g. a parsed JSON patch): numbers for numeric
+   * fields, strings for text fields, null to clear. Throws IllegalArgumentException otherwise.
+   */
+  public static void assign(CashflowRequest r, String name, Object value) {
+    Field f = ALL.get(name);
+    if (f == null) throw new IllegalArgumentException("unknown request field: " + name);
+    if (f.getType() == String.class) {
+      if (value != null && !(value instanceof String)) throw new IllegalArgumentException(name + " must be a string");
+      try {
+        f.set(r, value);
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
+      return;
+    }
+    if (value != null && !(value instanceof Number)) throw new IllegalArgumentException(name + " must be a number");
+    set(r, name, value == null ? null : ((Number) value).doubleValue());
+  }
+
+  /** Numeric fields in declaration order into `into` (NaN for unset), without boxing or lookups. */
+  static void load(CashflowRequest r, double[] into) {
+    Field[] fs = NUMERIC_FIELDS;
+    try {
+      for (int i = 0; i < fs.length; i++) {
+        Object v = fs[i].get(r);
+        into[i] = v == null ? Double.NaN : ((Number) v).doubleValue();
+      }
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Shallow copy of every public field (all are immutable values). */
+  public static CashflowRequest copy(CashflowRequest r) {
+    CashflowRequest c = new CashflowRequest();
+    try {
+      for (Field f : ALL.values()) f.set(c, f.get(r));
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+    return c;
+  }
+
+  private static Field field(String name) {
+    Field f = NUMERIC.get(name);
+    if (f == null) throw new IllegalArgumentException("unknown numeric request field: " + name);
+    return f;
+  }
+}
@@ -0,0 +1,40 @@
+package com.example.analysis.service;
+
+import java.util.function.DoubleUnaryOperator;
+
+/** Bracketed scalar root finding shared by the IRR fallback and the goal-seek solver. */
+final class RootFinder {
+
+  private RootFinder() {}
+
+  /**
+   * Brent's method (inverse quadratic interpolation / secant / bisection) on [a, b] where
+   * fa = f(a) and fb = f(b) have opposite signs. Stops when the bracket is below `tol`
+   * or after `maxIter` evaluations of f.
+   */
+  static double brent(DoubleUnaryOperator f, double a, double b, double fa, double fb, double tol, int maxIter) {
+    double c = a, fc = fa, d = b - a, e = d;
+    for (int i = 0; i < maxIter; i++) {
+      if ((fb > 0) == (fc > 0)) { c = a; fc = fa; d = b - a; e = d; }
+      if (Math.abs(fc) < Math.abs(fb)) { a = b; b = c; c = a; fa = fb; fb = fc; fc = fa; }
+      double tol1 = 2 * 1e-16 * Math.abs(b) + 0.5 * tol, m = 0.5 * (c - b);
+      if (Math.abs(m) <= tol1 || fb == 0) return b;
+      if (Math.abs(e) >= tol1 && Math.abs(fa) > Math.abs(fb)) {
+        double s = fb / fa, p, q;
+        if (a == c) { p = 2 * m * s; q = 1 - s; }
+        else {
+          double qq = fa / fc, r = fb / fc;
+          p = s * (2 * m * qq * (qq - r) - (b - a) * (r - 1));
+          q = (qq - 1) * (r - 1) * (s - 1);
+        }
+        if (p > 0) q = -q; else p = -p;
+        if (2 * p < Math.min(3 * m * q - Math.abs(tol1 * q), Math.abs(e * q))) { e = d; d = p / q; }
+        else { d = m; e = m; }
+      } else { d = m; e = m; }
+      a = b; fa = fb;
+      b += Math.abs(d) > tol1 ? d : (m > 0 ? tol1 : -tol1);
+      fb = f.applyAsDouble(b);
+    }
+    return b;
+  }
+}
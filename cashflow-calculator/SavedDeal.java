@@ -0,0 +1,17 @@
+package com.example.analysis.dto;
+
+import java.util.List;
+
+/**
+ * A deal in the saved-deal store: its inputs and the summary of their latest analysis. `version`
+ * starts at 1 and goes up with every save or re-price that changed the summary. The projection is
+ * not stored (it follows from the request) and is only filled in when asked for.
+ */
+public class SavedDeal {
+  public String id;
+  public long version;
+  public long updatedAt;             // Epoch millis of the last change
+  public CashflowRequest request;
+  public CashflowResponse.Summary summary;
+  public List<CashflowResponse.YearRow> projection;   // Null unless requested
+}
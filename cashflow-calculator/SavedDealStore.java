@@ -0,0 +1,663 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowRequest;
+import com.example.analysis.dto.CashflowResponse;
+import com.example.analysis.dto.RepriceRequest;
+import com.example.analysis.dto.RepriceResponse;
+import com.example.analysis.dto.SavedDeal;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Embedded, file-backed store of saved deals (the request and the summary of its latest analysis)
+ * with a bulk re-price. Deals are held in memory; the file is an append-only NDJSON log of put /
+ * update / delete records, replayed on open. A save appends one line; a re-price appends one short
+ * update per changed deal (the overridden fields and the summary fields that changed, typically
+ * half of them for a rate move), all in one write forced to disk before the call returns. A torn
+ * last line left by a crash is dropped on open, and the log is rewritten to one put per deal (temp
+ * file, then atomic rename) once it holds more than COMPACT_RATIO records per deal. Re-pricing
+ * analyzes a snapshot in parallel chunks on the primitive path, one workspace per chunk, without
+ * holding the lock; changed deals are then committed under the write lock, except those saved or
+ * deleted meanwhile (`conflicts`). Deals are immutable snapshots, replaced on change: requests and
+ * summaries handed out are the store's own and must not be modified.
+ */
+public class SavedDealStore implements Closeable {
+
+  public static final int DEFAULT_TOP = 20, MAX_TOP = 1_000, MAX_LIST = 1_000, MAX_FAILURES = 100;
+  /** Compact when the log holds more than this many records per live deal (and at least COMPACT_MIN). */
+  public static final int COMPACT_RATIO = 3, COMPACT_MIN = 1_024;
+  /** KPIs whose changes a re-price reports. */
+  public static final List<String> KPIS = List.of("irr", "cashOnCashY1", "dscrY1", "noiY1", "annualDebtServiceY1",
+      "monthlyProfitY1", "equityMultiple", "saleProceedsNet");
+  private static final int CHUNK = 256;
+
+  private static final ObjectMapper JSON = new ObjectMapper()
+      .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+      .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  private static final Field[] SUMMARY_FIELDS = CashflowResponse.Summary.class.getFields();
+  private static final Field[] KPI_FIELDS = KPIS.stream().map(SavedDealStore::summaryField).toArray(Field[]::new);
+
+  /** One saved deal; replaced, never modified. */
+  private static final class Deal {
+    final String id;
+    final CashflowRequest request;
+    final CashflowResponse.Summary summary;
+    final long version, updatedAt;
+
+    Deal(String id, CashflowRequest request, CashflowResponse.Summary summary, long version, long updatedAt) {
+      this.id = id; this.request = request; this.summary = summary; this.version = version; this.updatedAt = updatedAt;
+    }
+  }
+
+  /** One log line. */
+  static final class Record {
+    public String op;                          // put | update | delete
+    public String id;
+    public Long v;                             // Deal version after this record
+    public Long at;                            // Epoch millis
+    public CashflowRequest request;            // put
+    public Map<String, Double> set;            // update: overridden numeric fields
+    public CashflowResponse.Summary summary;   // put
+    @JsonInclude(value = JsonInclude.Include.NON_NULL, content = JsonInclude.Include.ALWAYS)
+    public Map<String, Double> summaryDiff;    // update: changed summary fields (null = now undefined); absent if none
+  }
+
+  /** A validated override of one request slot. */
+  private static final class Assumption {
+    final String name;
+    final int slot;
+    final double value;
+    final boolean shift, integer;
+
+    Assumption(String name, double value, boolean shift) {
+      this.name = name; this.value = value; this.shift = shift;
+      this.slot = RequestFields.numericNames().indexOf(name);
+      this.integer = RequestFields.isInteger(name);
+    }
+  }
+
+  /** Re-price result of one changed or failed deal. */
+  private static final class Outcome {
+    final Deal before;
+    Deal after;
+    byte[] line;                               // Update record, unless dry run
+    String error;
+    boolean inputsOnly;                        // Inputs changed, summary did not
+
+    Outcome(Deal before) { this.before = before; }
+  }
+
+  private final Path file;
+  private final CashflowService svc;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, Deal> deals = new LinkedHashMap<>();
+  private FileChannel log;
+  private long records;                        // Lines in the log
+
+  /** -Danalysis.deals.file, default data/saved-deals.ndjson. */
+  public static Path defaultFile() {
+    return Paths.get(System.getProperty("analysis.deals.file", "data/saved-deals.ndjson"));
+  }
+
+  /** Open (or create) the store at `file`, replaying its log. Analyses run on `svc`. */
+  public SavedDealStore(Path file, CashflowService svc) throws IOException {
+    this.file = file;
+    this.svc = svc;
+    Path dir = file.toAbsolutePath().getParent();
+    if (dir != null) Files.createDirectories(dir);
+    boolean dirty = Files.exists(file) && replay();
+    log = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    if (dirty || compactionDue()) rewrite();
+  }
+
+  /**
+   * Analyze `r` and save it under `id` (a new random id when null), replacing any deal with that
+   * id. The request is copied, so the caller may keep changing its own.
+   */
+  public SavedDeal save(String id, CashflowRequest r) {
+    if (r == null) throw new IllegalArgumentException("request body is required");
+    if (id != null && id.isBlank()) throw new IllegalArgumentException("id must not be blank");
+    CashflowRequest copy = RequestFields.copy(r);
+    CashflowResponse.Summary summary = svc.analyze(copy).summary;
+    String key = id != null ? id : UUID.randomUUID().toString();
+    lock.writeLock().lock();
+    try {
+      Deal old = deals.get(key);
+      Deal d = new Deal(key, copy, summary, old == null ? 1 : old.version + 1, System.currentTimeMillis());
+      Record rec = putRecord(d);
+      append(List.of(line(rec)));
+      deals.put(key, d);
+      afterAppend();
+      return view(d, false);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** The deal saved under `id`, with its projection if asked for. Throws NoSuchElementException if none. */
+  public SavedDeal get(String id, boolean projection) {
+    Deal d;
+    lock.readLock().lock();
+    try {
+      d = deals.get(id);
+    } finally {
+      lock.readLock().unlock();
+    }
+    if (d == null) throw new NoSuchElementException("no such deal: " + id);
+    return view(d, projection);
+  }
+
+  /** Saved deals matching the filters (null = any; case-insensitive), in save order, without projections. */
+  public List<SavedDeal> list(String state, String city, String zip, int offset, int limit) {
+    if (offset < 0) throw new IllegalArgumentException("offset must be >= 0");
+    if (limit < 1 || limit > MAX_LIST) throw new IllegalArgumentException("limit must be 1.." + MAX_LIST);
+    List<SavedDeal> out = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      int skip = offset;
+      for (Deal d : deals.values()) {
+        if (!matches(d.request, state, city, zip)) continue;
+        if (skip > 0) { skip--; continue; }
+        out.add(view(d, false));
+        if (out.size() == limit) break;
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return out;
+  }
+
+  /** Remove a deal; false if there was none. */
+  public boolean delete(String id) {
+    lock.writeLock().lock();
+    try {
+      if (!deals.containsKey(id)) return false;
+      Record rec = new Record();
+      rec.op = "delete";
+      rec.id = id;
+      rec.at = System.currentTimeMillis();
+      append(List.of(line(rec)));
+      deals.remove(id);
+      afterAppend();
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return deals.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Records in the log (one per live deal right after a compaction). */
+  public long logRecords() {
+    lock.readLock().lock();
+    try {
+      return records;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Apply the overrides to every matching deal, re-analyze, and save the deals whose inputs
+   * changed (unless dryRun); those whose summary stayed the same are counted as `inputsOnly` and
+   * left out of the KPI statistics. Throws IllegalArgumentException for unknown fields or no
+   * overrides; deals that become invalid are reported in `failures` and left unchanged.
+   */
+  public RepriceResponse reprice(RepriceRequest req) {
+    long t0 = System.nanoTime();
+    if (req == null) throw new IllegalArgumentException("request body is required");
+    Assumption[] ov = overrides(req);
+    boolean dryRun = Boolean.TRUE.equals(req.dryRun);
+    int top = req.top == null ? DEFAULT_TOP : req.top;
+    if (top < 0 || top > MAX_TOP) throw new IllegalArgumentException("top must be 0.." + MAX_TOP);
+    Set<String> ids = req.ids == null ? null : new HashSet<>(req.ids);
+
+    Deal[] snap;
+    lock.readLock().lock();
+    try {
+      snap = deals.values().stream()
+          .filter(d -> (ids == null || ids.contains(d.id)) && matches(d.request, req.state, req.city, req.zip))
+          .toArray(Deal[]::new);
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    // Re-analyze in parallel; null = unchanged
+    int n = snap.length;
+    long at = System.currentTimeMillis();
+    Outcome[] res = new Outcome[n];
+    IntStream.range(0, (n + CHUNK - 1) / CHUNK).parallel().forEach(k -> {
+      AnalysisWorkspace ws = new AnalysisWorkspace();
+      for (int i = k * CHUNK, end = Math.min(n, i + CHUNK); i < end; i++) res[i] = reprice(snap[i], ov, ws, at, dryRun);
+    });
+
+    RepriceResponse out = new RepriceResponse();
+    out.matched = n;
+    out.saved = !dryRun;
+    out.failures = new ArrayList<>();
+    List<Outcome> changed = new ArrayList<>();   // Inputs changed, summary possibly not
+    for (Outcome o : res) {
+      if (o == null) continue;
+      if (o.error == null) { changed.add(o); continue; }
+      out.failed++;
+      if (out.failures.size() < MAX_FAILURES) {
+        RepriceResponse.Failure f = new RepriceResponse.Failure();
+        f.id = o.before.id;
+        f.error = o.error;
+        out.failures.add(f);
+      }
+    }
+    if (!dryRun && !changed.isEmpty()) {
+      int before = changed.size();
+      changed = commit(changed);
+      out.conflicts = before - changed.size();
+    }
+    List<Outcome> repriced = new ArrayList<>(changed.size());
+    for (Outcome o : changed) {
+      if (o.inputsOnly) out.inputsOnly++;
+      else repriced.add(o);
+    }
+    changed = repriced;
+    out.changed = changed.size();
+    out.unchanged = n - out.changed - out.inputsOnly - out.failed - out.conflicts;
+    out.kpis = kpiDeltas(changed);
+    out.deals = topDeltas(changed, top);
+    out.elapsedMs = (System.nanoTime() - t0) / 1_000_000;
+    return out;
+  }
+
+  /** Rewrite the log to one record per live deal. */
+  public void compact() {
+    lock.writeLock().lock();
+    try {
+      rewrite();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    lock.writeLock().lock();
+    try {
+      log.close();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // ---- re-price ----
+
+  private static Assumption[] overrides(RepriceRequest req) {
+    List<Assumption> out = new ArrayList<>();
+    Set<String> seen = new HashSet<>();
+    for (int pass = 0; pass < 2; pass++) {
+      Map<String, Double> m = pass == 0 ? req.set : req.shift;
+      if (m == null) continue;
+      for (Map.Entry<String, Double> e : m.entrySet()) {
+        String name = e.getKey();
+        if (!RequestFields.isNumeric(name)) throw new IllegalArgumentException("unknown numeric request field: " + name);
+        if (!seen.add(name)) throw new IllegalArgumentException(name + " is both set and shifted");
+        if (e.getValue() == null || !Double.isFinite(e.getValue()))
+          throw new IllegalArgumentException(name + " needs a finite value");
+        out.add(new Assumption(name, e.getValue(), pass == 1));
+      }
+    }
+    if (out.isEmpty()) throw new IllegalArgumentException("at least one override (set or shift) is required");
+    return out.toArray(new Assumption[0]);
+  }
+
+  /** Apply the overrides to `d` and re-analyze it in `ws`; null if its inputs do not change. */
+  private Outcome reprice(Deal d, Assumption[] ov, AnalysisWorkspace ws, long at, boolean dryRun) {
+    PrimitiveRequest p = ws.request().load(d.request);
+    Map<String, Double> set = null;
+    for (Assumption o : ov) {
+      double cur = p.get(o.slot);
+      if (o.shift && Double.isNaN(cur)) continue;
+      double v = o.shift ? cur + o.value : o.value;
+      if (o.integer) v = Math.round(v);
+      if (v == cur) continue;
+      p.set(o.slot, v);
+      if (set == null) set = new LinkedHashMap<>();
+      set.put(o.name, v);
+    }
+    if (set == null) return null;
+    Outcome out = new Outcome(d);
+    try {
+      svc.analyze(p, ws);
+    } catch (IllegalArgumentException e) {
+      out.error = e.getMessage();
+      return out;
+    }
+    CashflowResponse.Summary summary = ws.summary().toSummary();
+    Map<String, Double> diff = diff(d.summary, summary);
+    // Same summary (e.g. a rate set on a deal without a loan): the inputs are still saved
+    out.inputsOnly = diff == null;
+    CashflowRequest r = RequestFields.copy(d.request);
+    for (Map.Entry<String, Double> e : set.entrySet()) RequestFields.set(r, e.getKey(), e.getValue());
+    out.after = new Deal(d.id, r, out.inputsOnly ? d.summary : summary, d.version + 1, at);
+    if (!dryRun) {
+      Record rec = new Record();
+      rec.op = "update";
+      rec.id = d.id;
+      rec.v = out.after.version;
+      rec.at = at;
+      rec.set = set;
+      rec.summaryDiff = diff;
+      out.line = line(rec);
+    }
+    return out;
+  }
+
+  /** Save the outcomes whose deal is still the one analyzed; returns those. */
+  private List<Outcome> commit(List<Outcome> changed) {
+    lock.writeLock().lock();
+    try {
+      List<Outcome> current = new ArrayList<>(changed.size());
+      List<byte[]> lines = new ArrayList<>(changed.size());
+      for (Outcome o : changed) {
+        if (deals.get(o.before.id) != o.before) continue;
+        current.add(o);
+        lines.add(o.line);
+      }
+      append(lines);
+      for (Outcome o : current) deals.put(o.after.id, o.after);
+      afterAppend();
+      return current;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Summary fields that differ from `before` to `after`, or null if none but irrIterations (a
+   * solver statistic, saved along with real changes only) does.
+   */
+  private static Map<String, Double> diff(CashflowResponse.Summary before, CashflowResponse.Summary after) {
+    Map<String, Double> out = null;
+    boolean changed = false;
+    try {
+      for (Field f : SUMMARY_FIELDS) {
+        Object a = f.get(after);
+        if (Objects.equals(f.get(before), a)) continue;
+        if (out == null) out = new LinkedHashMap<>();
+        out.put(f.getName(), a == null ? null : ((Number) a).doubleValue());
+        changed |= !f.getName().equals("irrIterations");
+      }
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+    return changed ? out : null;
+  }
+
+  /** Copy of `s` with `diff` applied. */
+  private static CashflowResponse.Summary patched(CashflowResponse.Summary s, Map<String, Double> diff) {
+    CashflowResponse.Summary out = new CashflowResponse.Summary();
+    try {
+      for (Field f : SUMMARY_FIELDS) {
+        if (!diff.containsKey(f.getName())) { f.set(out, f.get(s)); continue; }
+        Double v = diff.get(f.getName());
+        f.set(out, v == null ? null : f.getType() == Integer.class ? (Object) (int) Math.round(v) : v);
+      }
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+    return out;
+  }
+
+  private static Double kpi(CashflowResponse.Summary s, int k) {
+    try {
+      return (Double) KPI_FIELDS[k].get(s);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static Map<String, RepriceResponse.KpiDelta> kpiDeltas(List<Outcome> changed) {
+    Map<String, RepriceResponse.KpiDelta> out = new LinkedHashMap<>();
+    for (int k = 0; k < KPI_FIELDS.length; k++) {
+      int count = 0;
+      double before = 0, after = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+      for (Outcome o : changed) {
+        Double b = kpi(o.before.summary, k), a = kpi(o.after.summary, k);
+        if (b == null || a == null) continue;
+        count++;
+        before += b;
+        after += a;
+        min = Math.min(min, a - b);
+        max = Math.max(max, a - b);
+      }
+      RepriceResponse.KpiDelta d = new RepriceResponse.KpiDelta();
+      d.count = count;
+      if (count > 0) {
+        d.meanBefore = before / count;
+        d.meanAfter = after / count;
+        d.meanDelta = (after - before) / count;
+        d.minDelta = min;
+        d.maxDelta = max;
+      }
+      out.put(KPIS.get(k), d);
+    }
+    return out;
+  }
+
+  /** The `top` changed deals with the largest absolute IRR change (undefined IRR changes last). */
+  private static List<RepriceResponse.DealDelta> topDeltas(List<Outcome> changed, int top) {
+    Comparator<Outcome> byIrrChange = Comparator.comparingDouble(o -> {
+      Double b = o.before.summary.irr, a = o.after.summary.irr;
+      return b == null || a == null ? -1 : Math.abs(a - b);
+    });
+    List<RepriceResponse.DealDelta> out = new ArrayList<>();
+    changed.stream().sorted(byIrrChange.reversed()).limit(top).forEach(o -> {
+      RepriceResponse.DealDelta d = new RepriceResponse.DealDelta();
+      d.id = o.after.id;
+      d.version = o.after.version;
+      d.irrBefore = o.before.summary.irr;
+      d.irrAfter = o.after.summary.irr;
+      d.delta = new LinkedHashMap<>();
+      for (int k = 0; k < KPI_FIELDS.length; k++) {
+        Double b = kpi(o.before.summary, k), a = kpi(o.after.summary, k);
+        if (b != null && a != null) d.delta.put(KPIS.get(k), a - b);
+      }
+      out.add(d);
+    });
+    return out;
+  }
+
+  private static boolean matches(CashflowRequest r, String state, String city, String zip) {
+    return (state == null || state.equalsIgnoreCase(r.state))
+        && (city == null || city.equalsIgnoreCase(r.city))
+        && (zip == null || zip.equalsIgnoreCase(r.zip));
+  }
+
+  private SavedDeal view(Deal d, boolean projection) {
+    SavedDeal out = new SavedDeal();
+    out.id = d.id;
+    out.version = d.version;
+    out.updatedAt = d.updatedAt;
+    out.request = d.request;
+    out.summary = d.summary;
+    if (projection) out.projection = svc.analyze(d.request).projection;
+    return out;
+  }
+
+  // ---- log ----
+
+  private static Record putRecord(Deal d) {
+    Record rec = new Record();
+    rec.op = "put";
+    rec.id = d.id;
+    rec.v = d.version;
+    rec.at = d.updatedAt;
+    rec.request = d.request;
+    rec.summary = d.summary;
+    return rec;
+  }
+
+  private static byte[] line(Record rec) {
+    try {
+      return JSON.writeValueAsBytes(rec);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Append `lines` and force them to disk; on failure the log is cut back to where it was. Write lock held. */
+  private void append(List<byte[]> lines) {
+    if (lines.isEmpty()) return;
+    long start = -1;
+    try {
+      start = log.size();
+      OutputStream out = new BufferedOutputStream(Channels.newOutputStream(log), 1 << 16);
+      for (byte[] l : lines) {
+        out.write(l);
+        out.write('\n');
+      }
+      out.flush();
+      log.force(false);
+      records += lines.size();
+    } catch (IOException e) {
+      try {
+        if (start >= 0) log.truncate(start);
+      } catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void afterAppend() {
+    if (!compactionDue()) return;
+    try {
+      rewrite();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private boolean compactionDue() {
+    return records > COMPACT_MIN && records > (long) COMPACT_RATIO * deals.size();
+  }
+
+  /** One put per live deal into a temp file, forced, then renamed over the log. */
+  private void rewrite() throws IOException {
+    Path tmp = file.resolveSibling(file.getFileName() + ".compact");
+    try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      OutputStream out = new BufferedOutputStream(Channels.newOutputStream(ch), 1 << 16);
+      for (Deal d : deals.values()) {
+        out.write(line(putRecord(d)));
+        out.write('\n');
+      }
+      out.flush();
+      ch.force(true);
+    }
+    log.close();
+    Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    log = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    records = deals.size();
+  }
+
+  /** Replay the log into `deals`; true if it ends in a torn or unterminated line (to be rewritten). */
+  private boolean replay() throws IOException {
+    long n = 0;
+    try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line, next = in.readLine();
+      while ((line = next) != null) {
+        next = in.readLine();
+        n++;
+        if (line.isBlank()) continue;
+        Record rec;
+        try {
+          rec = JSON.readValue(line, Record.class);
+        } catch (JsonProcessingException e) {
+          if (next == null) return true;   // Partly written when the process died
+          throw new IOException(file + " line " + n + ": " + e.getOriginalMessage());
+        }
+        apply(rec, n);
+        records++;
+      }
+    }
+    return !endsWithNewline();
+  }
+
+  private void apply(Record rec, long n) throws IOException {
+    if (rec.id == null) throw new IOException(file + " line " + n + ": record without id");
+    switch (String.valueOf(rec.op)) {
+      case "put":
+        deals.put(rec.id, new Deal(rec.id, rec.request, rec.summary, rec.v == null ? 1 : rec.v, rec.at == null ? 0 : rec.at));
+        break;
+      case "update": {
+        Deal d = deals.get(rec.id);
+        if (d == null) throw new IOException(file + " line " + n + ": update of unknown deal " + rec.id);
+        CashflowRequest r = RequestFields.copy(d.request);
+        if (rec.set != null) for (Map.Entry<String, Double> e : rec.set.entrySet()) RequestFields.set(r, e.getKey(), e.getValue());
+        CashflowResponse.Summary summary = rec.summaryDiff == null ? d.summary : patched(d.summary, rec.summaryDiff);
+        deals.put(rec.id, new Deal(rec.id, r, summary, rec.v == null ? d.version + 1 : rec.v, rec.at == null ? 0 : rec.at));
+        break;
+      }
+      case "delete":
+        deals.remove(rec.id);
+        break;
+      default:
+        throw new IOException(file + " line " + n + ": unknown op " + rec.op);
+    }
+  }
+
+  private boolean endsWithNewline() throws IOException {
+    try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (ch.size() == 0) return true;
+      ByteBuffer b = ByteBuffer.allocate(1);
+      ch.read(b, ch.size() - 1);
+      return b.get(0) == '\n';
+    }
+  }
+
+  private static Field summaryField(String name) {
+    try {
+      return CashflowResponse.Summary.class.getField(name);
+    } catch (NoSuchFieldException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.example.analysis.dto;
+
+import java.util.List;
+
+/**
+ * Input DTO for a multi-dimensional sensitivity sweep.
+ * Every cell is the base request with the swept fields replaced by one value per axis.
+ */
+public class SensitivityGridRequest {
+  public CashflowRequest base;       // Deal being swept (all non-swept inputs come from here)
+  public List<Axis> axes;            // 1..6 axes; the last axis varies fastest in the output
+
+  /** One swept input. Give either explicit `values` or `from`/`to`/`steps` (inclusive, steps >= 2). */
+  public static class Axis {
+    // One of: rentGrowth, expenseGrowth, vacancyRate, firstRateAnnual, annualAppreciation, exitCostRate
+    public String field;
+    public double[] values;
+    public Double from; public Double to; public Integer steps;
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.analysis.dto;
+
+import java.util.List;
+
+/**
+ * Output DTO for a sensitivity sweep: flat row-major matrices (last axis fastest), one value per cell.
+ * Undefined cells (IRR not converged, no debt for DSCR, no cash invested for equity multiple) are NaN.
+ */
+public class SensitivityGridResponse {
+  public List<SensitivityGridRequest.Axis> axes; // Resolved axes (values always filled in)
+  public int[] shape;                // Number of values per axis
+  public int cells;                  // Product of shape
+
+  public double[] irr;               // Project IRR over the holding period
+  public double[] equityMultiple;    // (Total distributions) / (Total invested)
+  public double[] dscrY1;            // Year-1 DSCR
+  public double[] minDscr;           // Lowest DSCR over the holding period
+}
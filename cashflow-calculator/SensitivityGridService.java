@@ -0,0 +1,119 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.SensitivityGridRequest;
+import com.example.analysis.dto.SensitivityGridResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Sensitivity grid engine: evaluates IRR, equity multiple and DSCR over the cartesian
+ * product of up to six assumption axes. The base request is reduced once to a DealBase
+ * and first-loan schedules are built once per distinct rate, so a cell only runs the
+ * primitive projection loop. Cells are evaluated in parallel in contiguous chunks, each
+ * warm-starting its IRR solve from the previous cell's root.
+ */
+public class SensitivityGridService {
+
+  /** Hard cap on the number of cells per sweep (about 32 MB of output matrices). */
+  public static final int MAX_CELLS = 1_000_000;
+
+  private static final String[] FIELDS = {
+      "rentGrowth", "expenseGrowth", "vacancyRate", "firstRateAnnual", "annualAppreciation", "exitCostRate"
+  };
+  private static final int CHUNK = 256;
+
+  /** Run the sweep. Throws IllegalArgumentException for invalid axis definitions. */
+  public SensitivityGridResponse sweep(SensitivityGridRequest req) {
+    if (req == null || req.base == null) throw new IllegalArgumentException("base request is required");
+    if (req.axes == null || req.axes.isEmpty()) throw new IllegalArgumentException("at least one axis is required");
+    if (req.axes.size() > DealBase.PARAMS) throw new IllegalArgumentException("at most " + DealBase.PARAMS + " axes");
+
+    int n = req.axes.size();
+    int[] param = new int[n];
+    double[][] values = new double[n][];
+    int[] shape = new int[n];
+    long cells = 1;
+    boolean[] seen = new boolean[DealBase.PARAMS];
+    List<SensitivityGridRequest.Axis> resolved = new ArrayList<>(n);
+    for (int a = 0; a < n; a++) {
+      SensitivityGridRequest.Axis axis = req.axes.get(a);
+      param[a] = paramIndex(axis.field);
+      if (seen[param[a]]) throw new IllegalArgumentException("duplicate axis: " + axis.field);
+      seen[param[a]] = true;
+      values[a] = axisValues(axis);
+      shape[a] = values[a].length;
+      cells *= shape[a];
+      if (cells > MAX_CELLS) throw new IllegalArgumentException("grid exceeds " + MAX_CELLS + " cells");
+
+      SensitivityGridRequest.Axis echo = new SensitivityGridRequest.Axis();
+      echo.field = FIELDS[param[a]]; echo.values = values[a];
+      resolved.add(echo);
+    }
+
+    DealBase base = new DealBase(req.base);
+
+    // One first-loan schedule per distinct rate; cells just index into it
+    int rateAxis = -1;
+    for (int a = 0; a < n; a++) if (param[a] == DealBase.FIRST_RATE_ANNUAL) rateAxis = a;
+    double[][][] loans;
+    if (rateAxis < 0) {
+      loans = new double[][][]{ base.firstLoanTable(base.baseParams[DealBase.FIRST_RATE_ANNUAL]) };
+    } else {
+      loans = new double[shape[rateAxis]][][];
+      for (int i = 0; i < loans.length; i++) loans[i] = base.firstLoanTable(values[rateAxis][i]);
+    }
+
+    int total = (int) cells;
+    SensitivityGridResponse out = new SensitivityGridResponse();
+    out.axes = resolved; out.shape = shape; out.cells = total;
+    out.irr = new double[total]; out.equityMultiple = new double[total];
+    out.dscrY1 = new double[total]; out.minDscr = new double[total];
+
+    final int fRateAxis = rateAxis;
+    int chunks = (total + CHUNK - 1) / CHUNK;
+    IntStream.range(0, chunks).parallel().forEach(c -> {
+      double[] p = base.baseParams.clone();
+      ProjectionColumns cols = new ProjectionColumns(base.hold);
+      double[] res = new double[DealBase.OUTPUTS];
+      IrrSolver solver = IrrSolver.newDefault();
+      double guess = NewtonBrentIrrSolver.DEFAULT_GUESS;
+      int[] idx = new int[n];
+      int from = c * CHUNK, to = Math.min(total, from + CHUNK);
+      for (int cell = from; cell < to; cell++) {
+        // Decode the row-major cell index (last axis fastest)
+        int rem = cell;
+        for (int a = n - 1; a >= 0; a--) {
+          idx[a] = rem % shape[a]; rem /= shape[a];
+          p[param[a]] = values[a][idx[a]];
+        }
+        base.evaluate(p, loans[fRateAxis < 0 ? 0 : idx[fRateAxis]], cols, solver, guess, res);
+        // Neighbouring cells have nearby roots: warm-start the next solve from this one
+        if (!Double.isNaN(res[DealBase.OUT_IRR])) guess = res[DealBase.OUT_IRR];
+        out.irr[cell] = res[DealBase.OUT_IRR];
+        out.equityMultiple[cell] = res[DealBase.OUT_EQUITY_MULTIPLE];
+        out.dscrY1[cell] = res[DealBase.OUT_DSCR_Y1];
+        out.minDscr[cell] = res[DealBase.OUT_MIN_DSCR];
+      }
+    });
+    return out;
+  }
+
+  private static int paramIndex(String field) {
+    for (int i = 0; i < FIELDS.length; i++) if (FIELDS[i].equals(field)) return i;
+    throw new IllegalArgumentException("unsupported axis field: " + field);
+  }
+
+  private static double[] axisValues(SensitivityGridRequest.Axis axis) {
+    if (axis.values != null && axis.values.length > 0) return axis.values.clone();
+    if (axis.from == null || axis.to == null || axis.steps == null || axis.steps < 2)
+      throw new IllegalArgumentException("axis " + axis.field + " needs values or from/to/steps (steps >= 2)");
+    if (axis.steps > MAX_CELLS) throw new IllegalArgumentException("grid exceeds " + MAX_CELLS + " cells");
+    double[] v = new double[axis.steps];
+    double step = (axis.to - axis.from) / (axis.steps - 1);
+    for (int i = 0; i < v.length; i++) v[i] = axis.from + step * i;
+    v[v.length - 1] = axis.to;
+    return v;
+  }
+}
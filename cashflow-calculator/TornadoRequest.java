@@ -0,0 +1,13 @@
+package com.example.analysis.dto;
+
+import java.util.List;
+
+/**
+ * Input DTO for a one-at-a-time (tornado) sensitivity ranking: each numeric input of `base` is
+ * moved down and up by `delta` (relative) with everything else held at the base value.
+ */
+public class TornadoRequest {
+  public CashflowRequest base;       // Deal being ranked
+  public Double delta;               // Relative move per side, e.g. 0.10 = +/-10% (default 0.10, 0 < delta < 1)
+  public List<String> fields;        // Inputs to rank (default: every numeric request field)
+}
@@ -0,0 +1,30 @@
+package com.example.analysis.dto;
+
+import java.util.List;
+
+/**
+ * Output DTO for a tornado ranking: one bar per perturbed input (sorted by IRR swing, widest
+ * first) and the input order by swing for each metric. Undefined values (IRR without a root,
+ * cash-on-cash without equity) are null; an input with an undefined swing is left out of
+ * that metric's ranking.
+ */
+public class TornadoResponse {
+  public double delta;
+  public Double baseIrr; public Double baseNoiY1; public Double baseCashOnCashY1;
+  public List<Bar> bars;
+  public List<String> rankByIrr;     // Field names, widest swing first
+  public List<String> rankByNoi;
+  public List<String> rankByCashOnCash;
+  public List<String> skipped;       // Inputs that are null or zero in the base deal
+  public int evaluations;            // Perturbed analyses run (2 per bar)
+
+  /** One input moved to `lowValue` and `highValue`; swing = |high - low| of each metric. */
+  public static class Bar {
+    public String field;
+    public double baseValue, lowValue, highValue;
+    public Double irrLow, irrHigh, irrSwing;
+    public Double noiLow, noiHigh, noiSwing;
+    public Double cashOnCashLow, cashOnCashHigh, cashOnCashSwing;
+    public List<String> recomputed;  // Analysis stages re-run for this input
+  }
+}
@@ -0,0 +1,160 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.TornadoRequest;
+import com.example.analysis.dto.TornadoResponse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * One-at-a-time sensitivity ranking ("tornado"): every non-zero numeric input is moved down and
+ * up by a relative delta and the swing in IRR, Year-1 NOI and Year-1 cash-on-cash is measured.
+ * The base deal is analyzed once; each perturbation copies its DealBase and re-runs only the
+ * stages the input feeds (AnalysisStage): opex inputs keep the base loan table, Year-1-only
+ * inputs (fmv, units) skip the projection, exit inputs only re-solve the IRR over the base cash
+ * flows. Inputs are evaluated in parallel, each IRR warm-started from the base root.
+ */
+public class TornadoService {
+
+  public static final double DEFAULT_DELTA = 0.10;
+
+  private final CashflowService service = new CashflowService();
+
+  /** Rank the inputs of `req.base`. Throws IllegalArgumentException for invalid input. */
+  public TornadoResponse rank(TornadoRequest req) {
+    if (req == null || req.base == null) throw new IllegalArgumentException("base request is required");
+    double delta = req.delta == null ? DEFAULT_DELTA : req.delta;
+    if (!(delta > 0 && delta < 1)) throw new IllegalArgumentException("delta must be in (0, 1)");
+    List<String> names = RequestFields.numericNames();
+    LinkedHashSet<String> fields = new LinkedHashSet<>();
+    if (req.fields == null || req.fields.isEmpty()) fields.addAll(names);
+    else for (String f : req.fields) {
+      if (f == null || !RequestFields.isNumeric(f)) throw new IllegalArgumentException("not a numeric request field: " + f);
+      fields.add(f);
+    }
+
+    // Base analysis: its DealBase, loan table and projection are shared read-only below
+    AnalysisWorkspace ws = new AnalysisWorkspace();
+    PrimitiveRequest base = ws.request().load(req.base);
+    PrimitiveSummary baseSummary = service.analyze(base, ws);
+
+    TornadoResponse out = new TornadoResponse();
+    out.delta = delta;
+    out.baseIrr = opt(baseSummary.irr); out.baseNoiY1 = baseSummary.noiY1; out.baseCashOnCashY1 = opt(baseSummary.cashOnCashY1);
+    out.skipped = new ArrayList<>();
+    List<String> active = new ArrayList<>();
+    for (String f : fields) {
+      double v = base.get(names.indexOf(f));
+      if (Double.isNaN(v) || v == 0) out.skipped.add(f); else active.add(f);
+    }
+
+    TornadoResponse.Bar[] bars = new TornadoResponse.Bar[active.size()];
+    IntStream.range(0, bars.length).parallel().forEach(i -> {
+      String f = active.get(i);
+      int slot = names.indexOf(f);
+      double v = base.get(slot);
+      double lo = v * (1 - delta), hi = v * (1 + delta);
+      if (RequestFields.isInteger(f)) {
+        // Whole-number inputs move by at least one
+        lo = Math.min(Math.round(lo), v - 1); hi = Math.max(Math.round(hi), v + 1);
+        if (lo < 0) lo = 0;
+      }
+      EnumSet<AnalysisStage> dirty = AnalysisStage.invalidatedBy(List.of(f));
+      Scratch s = new Scratch(base, ws.base.hold);
+      double[] low = s.evaluate(ws, slot, lo, dirty), high = s.evaluate(ws, slot, hi, dirty);
+
+      TornadoResponse.Bar b = new TornadoResponse.Bar();
+      b.field = f; b.baseValue = v; b.lowValue = lo; b.highValue = hi;
+      b.irrLow = opt(low[0]); b.irrHigh = opt(high[0]); b.irrSwing = swing(low[0], high[0]);
+      b.noiLow = opt(low[1]); b.noiHigh = opt(high[1]); b.noiSwing = swing(low[1], high[1]);
+      b.cashOnCashLow = opt(low[2]); b.cashOnCashHigh = opt(high[2]); b.cashOnCashSwing = swing(low[2], high[2]);
+      b.recomputed = new ArrayList<>(dirty.size());
+      for (AnalysisStage st : dirty) b.recomputed.add(st.name());
+      bars[i] = b;
+    });
+
+    out.bars = new ArrayList<>(List.of(bars));
+    out.bars.sort(bySwing(b -> b.irrSwing));
+    out.rankByIrr = ranking(bars, b -> b.irrSwing);
+    out.rankByNoi = ranking(bars, b -> b.noiSwing);
+    out.rankByCashOnCash = ranking(bars, b -> b.cashOnCashSwing);
+    out.evaluations = 2 * bars.length;
+    return out;
+  }
+
+  /** Per-input scratch state: request copy, DealBase copy, loan table, columns, solver. */
+  private static final class Scratch {
+    final PrimitiveRequest p;
+    final PrimitiveSummary summary = new PrimitiveSummary();
+    final IrrSolver solver = IrrSolver.newDefault();
+    double[][] loan;
+    ProjectionColumns cols;
+    final double[] cash;
+
+    Scratch(PrimitiveRequest base, int hold) {
+      p = base.copy();
+      cash = new double[hold + 1];
+    }
+
+    /** {IRR, NOI Y1, cash-on-cash Y1} with `slot` set to `value`; only `dirty` stages are re-run. */
+    double[] evaluate(AnalysisWorkspace ws, int slot, double value, EnumSet<AnalysisStage> dirty) {
+      PrimitiveSummary baseSummary = ws.summary;
+      p.set(slot, value);
+      DealBase b = new DealBase(ws.base);
+      if (dirty.contains(AnalysisStage.INCOME)) b.income(p);
+      if (dirty.contains(AnalysisStage.OPEX)) b.opex(p);
+      if (dirty.contains(AnalysisStage.CLOSING)) b.closing(p);
+      if (dirty.contains(AnalysisStage.FINANCING)) b.financing(p);
+      b.params(p);
+      double[][] first = ws.loan;
+      if (dirty.contains(AnalysisStage.FINANCING)) first = loan = b.firstLoanTable(b.baseParams[DealBase.FIRST_RATE_ANNUAL], loan);
+
+      double noi = baseSummary.noiY1, coc = baseSummary.cashOnCashY1, irr = baseSummary.irr;
+      double guess = Double.isNaN(irr) ? NewtonBrentIrrSolver.DEFAULT_GUESS : irr;
+      if (dirty.contains(AnalysisStage.YEAR_ONE_KPIS)) {
+        CashflowService.yearOne(p, b, first, summary);
+        noi = summary.noiY1; coc = summary.cashOnCashY1;
+      }
+      if (dirty.contains(AnalysisStage.PROJECTION)) {
+        if (cols == null || cols.capacity() < b.hold) cols = new ProjectionColumns(b.hold);
+        ProjectionKernel.project(b, b.baseParams, first, cols);
+        CashflowService.exit(p, cols, summary, solver, guess);
+        irr = summary.irr;
+      } else if (dirty.contains(AnalysisStage.EXIT)) {
+        // Same projection as the base: swap in this exit's net sale and re-solve
+        ProjectionColumns c = ws.cols;
+        int hold = c.years;
+        System.arraycopy(c.cash, 0, cash, 0, hold + 1);
+        if (hold > 0) cash[hold] = c.cashFlowBeforeTax[hold - 1]
+            + ProjectionKernel.netSale(b, b.baseParams[DealBase.EXIT_COST_RATE], first, c, hold);
+        irr = solver.irr(cash, hold + 1, guess);
+      }
+      p.set(slot, ws.request.get(slot));
+      return new double[]{ irr, noi, coc };
+    }
+  }
+
+  private static Comparator<TornadoResponse.Bar> bySwing(Function<TornadoResponse.Bar, Double> swing) {
+    return Comparator.comparing(swing, Comparator.nullsLast(Comparator.reverseOrder()));
+  }
+
+  private static List<String> ranking(TornadoResponse.Bar[] bars, Function<TornadoResponse.Bar, Double> swing) {
+    List<TornadoResponse.Bar> sorted = new ArrayList<>();
+    for (TornadoResponse.Bar b : bars) if (swing.apply(b) != null) sorted.add(b);
+    sorted.sort(bySwing(swing));
+    List<String> out = new ArrayList<>(sorted.size());
+    for (TornadoResponse.Bar b : sorted) out.add(b.field);
+    return out;
+  }
+
+  private static Double swing(double lo, double hi) {
+    return Double.isNaN(lo) || Double.isNaN(hi) ? null : Math.abs(hi - lo);
+  }
+
+  private static Double opt(double d) { return Double.isNaN(d) ? null : d; }
+}
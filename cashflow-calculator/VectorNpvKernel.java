@@ -0,0 +1,54 @@
+package com.example.analysis.service;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * NpvKernel on the JDK Vector API (jdk.incubator.vector, preferred species: 4 doubles on AVX2,
+ * 8 on AVX-512). Each block of lanes keeps p and p' in registers across all periods; remaining
+ * lanes go through the scalar kernel. Only loaded when the incubator module is resolved
+ * (`--add-modules jdk.incubator.vector`), see BatchIrrEvaluator.
+ */
+final class VectorNpvKernel implements NpvKernel {
+
+  private static final VectorSpecies<Double> S = DoubleVector.SPECIES_PREFERRED;
+
+  @Override
+  public void lanes(double[] cf, int stride, int lanes, int n, double[] v, double[] p, double[] dp) {
+    int bound = S.loopBound(lanes), last = (n - 1) * stride;
+    for (int j = 0; j < bound; j += S.length()) {
+      DoubleVector vv = DoubleVector.fromArray(S, v, j);
+      DoubleVector pp = DoubleVector.fromArray(S, cf, last + j), dd = DoubleVector.zero(S);
+      for (int t = n - 2; t >= 0; t--) {
+        // mul + add (not fma) to round exactly like the scalar solver
+        dd = dd.mul(vv).add(pp);
+        pp = pp.mul(vv).add(DoubleVector.fromArray(S, cf, t * stride + j));
+      }
+      pp.intoArray(p, j);
+      dd.intoArray(dp, j);
+    }
+    for (int j = bound; j < lanes; j++) {
+      double pj = cf[last + j], dj = 0, vj = v[j];
+      for (int t = n - 2; t >= 0; t--) { dj = dj * vj + pj; pj = pj * vj + cf[t * stride + j]; }
+      p[j] = pj; dp[j] = dj;
+    }
+  }
+
+  @Override
+  public void points(double[] cash, int n, double[] v, int k, double[] p) {
+    int bound = S.loopBound(k);
+    for (int j = 0; j < bound; j += S.length()) {
+      DoubleVector vv = DoubleVector.fromArray(S, v, j);
+      DoubleVector pp = DoubleVector.broadcast(S, cash[n - 1]);
+      for (int t = n - 2; t >= 0; t--) pp = pp.mul(vv).add(cash[t]);
+      pp.intoArray(p, j);
+    }
+    for (int j = bound; j < k; j++) {
+      double pj = cash[n - 1], vj = v[j];
+      for (int t = n - 2; t >= 0; t--) pj = pj * vj + cash[t];
+      p[j] = pj;
+    }
+  }
+
+  @Override public String toString() { return "vector-" + S.length(); }
+}
@@ -0,0 +1,38 @@
+package com.example.analysis.service;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Virtual-thread checks for code compiled for Java 17: Thread.isVirtual is looked up once and
+ * answers false on runtimes without it. Per-thread caches (the CashflowService workspaces) use
+ * this to avoid building a fresh workspace for every short-lived virtual thread.
+ */
+public final class VirtualThreads {
+
+  private static final MethodHandle IS_VIRTUAL = lookup();
+
+  private VirtualThreads() {}
+
+  /** True when this runtime has virtual threads (Java 21+). */
+  public static boolean available() { return IS_VIRTUAL != null; }
+
+  /** True when `t` is a virtual thread. */
+  public static boolean isVirtual(Thread t) {
+    if (IS_VIRTUAL == null) return false;
+    try {
+      return (boolean) IS_VIRTUAL.invokeExact(t);
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static MethodHandle lookup() {
+    try {
+      return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+  }
+}
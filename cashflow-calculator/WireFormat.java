@@ -0,0 +1,50 @@
+package com.example.analysis.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Encodings for streamed endpoints (batch). JSON is newline-delimited; Smile and CBOR are plain
+ * sequences of root-level values (Smile shares field names across the whole stream). Single-value
+ * endpoints get the same formats through Spring's Jackson CBOR/Smile message converters, which
+ * are registered automatically when the dataformat modules are on the classpath.
+ */
+public enum WireFormat {
+  JSON("application/x-ndjson", new ObjectMapper()),
+  SMILE("application/x-jackson-smile", new ObjectMapper(new SmileFactory())),
+  CBOR("application/cbor-seq", new ObjectMapper(new CBORFactory()));
+
+  /** Media type of a single Smile / CBOR document (request bodies, non-streamed responses). */
+  public static final String SMILE_VALUE = "application/x-jackson-smile", CBOR_VALUE = "application/cbor";
+
+  private final String streamType;
+  private final ObjectMapper mapper;
+
+  WireFormat(String streamType, ObjectMapper mapper) {
+    this.streamType = streamType;
+    this.mapper = mapper
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+        .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+  }
+
+  /** Content type of a stream of values in this format. */
+  public String streamType() { return streamType; }
+
+  /** Shared, thread-safe mapper for this format. */
+  public ObjectMapper mapper() { return mapper; }
+
+  /** Response format for an Accept header; JSON unless Smile or CBOR is asked for. */
+  public static WireFormat forAccept(String accept) {
+    if (accept == null) return JSON;
+    String a = accept.toLowerCase();
+    if (a.contains(SMILE_VALUE)) return SMILE;
+    if (a.contains(CBOR_VALUE)) return CBOR;   // application/cbor and application/cbor-seq
+    return JSON;
+  }
+
+  /** Request body format for a Content-Type header; JSON unless Smile or CBOR. */
+  public static WireFormat forContentType(String contentType) { return forAccept(contentType); }
+}
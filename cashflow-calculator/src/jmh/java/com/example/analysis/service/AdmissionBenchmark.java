@@ -0,0 +1,52 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowRequest;
+import com.example.analysis.dto.CashflowResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of admission control on the interactive path: an uncontended permit on its own, and a
+ * 30-year analysis with and without one, from 1 and 4 threads (the gate must stay in the noise).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdmissionBenchmark {
+
+  private final AdmissionGate gate = new AdmissionGate(AdmissionGate.Limits.defaults());
+  private final CashflowService svc = new CashflowService();
+  private CashflowRequest req;
+
+  @Setup
+  public void setup() {
+    req = Fixtures.load("single-loan-io-30y");
+  }
+
+  @Benchmark
+  public void permit() {
+    gate.acquire(AdmissionGate.Lane.INTERACTIVE).close();
+  }
+
+  @Benchmark
+  public CashflowResponse analyze() {
+    return svc.analyze(req);
+  }
+
+  @Benchmark
+  public CashflowResponse admittedAnalyze() {
+    try (AdmissionGate.Permit p = gate.acquire(AdmissionGate.Lane.INTERACTIVE)) {
+      return svc.analyze(req);
+    }
+  }
+
+  @Benchmark
+  @Threads(4)
+  public CashflowResponse admittedAnalyze4() {
+    return admittedAnalyze();
+  }
+}
@@ -0,0 +1,55 @@
+package com.example.analysis.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Yearly loan tables from CashflowService.Amort: the one-pass fill() used by the projection
+ * against per-year balanceEndOfYear() lookups, for short and long terms with and without
+ * an interest-only period.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AmortBenchmark {
+
+  @Param({ "5", "30", "50" })
+  public int years;
+
+  @Param({ "0", "5" })
+  public int ioYears;
+
+  private CashflowService.Amort amort;
+  private double[] ds, bal;
+
+  @Setup
+  public void setup() {
+    amort = new CashflowService.Amort(1_125_000, 0.0625, 30, ioYears);
+    ds = new double[years + 1];
+    bal = new double[years + 1];
+  }
+
+  @Benchmark
+  public double[] fill() {
+    amort.fill(years, ds, bal);
+    return bal;
+  }
+
+  @Benchmark
+  public void perYearLookup(Blackhole bh) {
+    for (int y = 1; y <= years; y++) {
+      bh.consume(amort.annualDebtService(y));
+      bh.consume(amort.balanceEndOfYear(y));
+    }
+  }
+
+  @Benchmark
+  public CashflowService.Amort construct() {
+    return new CashflowService.Amort(1_125_000, 0.0625, 30, ioYears);
+  }
+}
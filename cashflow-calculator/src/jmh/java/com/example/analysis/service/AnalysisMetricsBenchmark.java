@@ -0,0 +1,49 @@
+package com.example.analysis.service;
+
+import com.example.analysis.controller.MicrometerAnalysisMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of AnalysisMetrics on the allocation-free 30-year analysis: no metrics,
+ * MicrometerAnalysisMetrics bound to a SimpleMeterRegistry, and the metered service in a JVM
+ * started with -Danalysis.metrics=false (should match `plain`).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnalysisMetricsBenchmark {
+
+  private final CashflowService plain = new CashflowService();
+  private final MicrometerAnalysisMetrics metrics = new MicrometerAnalysisMetrics();
+  private final CashflowService metered = new CashflowService(IrrSolver::newDefault, metrics);
+  private final AnalysisWorkspace ws = new AnalysisWorkspace();
+  private PrimitiveRequest req;
+
+  @Setup
+  public void setup() {
+    metrics.bindTo(new SimpleMeterRegistry());
+    req = ws.request().load(Fixtures.load("single-loan-io-30y"));
+  }
+
+  @Benchmark
+  public PrimitiveSummary plain() {
+    return plain.analyze(req, ws);
+  }
+
+  @Benchmark
+  public PrimitiveSummary metered() {
+    return metered.analyze(req, ws);
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = "-Danalysis.metrics=false")
+  public PrimitiveSummary meteredDisabled() {
+    return metered.analyze(req, ws);
+  }
+}
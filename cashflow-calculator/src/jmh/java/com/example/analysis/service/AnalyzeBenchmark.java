@@ -0,0 +1,54 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowRequest;
+import com.example.analysis.dto.CashflowResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CashflowService.analyze over every fixture: the DTO path (boxed request in, response with
+ * yearly rows out) and the primitive path on a warm workspace. `primitive` and `loadAndAnalyze`
+ * must report gc.alloc.rate.norm ~ 0 B/op; `analyze` allocates only its response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnalyzeBenchmark {
+
+  @Param({ "single-loan-5y", "single-loan-io-30y", "two-loans-io-30y", "two-loans-io-50y", "no-irr-root-10y" })
+  public String fixture;
+
+  private CashflowService svc;
+  private CashflowRequest req;
+  private PrimitiveRequest prim;
+  private AnalysisWorkspace ws;
+
+  @Setup
+  public void setup() {
+    svc = new CashflowService();
+    req = Fixtures.load(fixture);
+    prim = PrimitiveRequest.of(req);
+    ws = new AnalysisWorkspace();
+  }
+
+  @Benchmark
+  public CashflowResponse analyze() {
+    return svc.analyze(req);
+  }
+
+  /** Primitive request, warm workspace, primitive summary + columns out. */
+  @Benchmark
+  public double primitive() {
+    return svc.analyze(prim, ws).irr;
+  }
+
+  /** As `primitive`, but reading the boxed DTO into the workspace's request first. */
+  @Benchmark
+  public double loadAndAnalyze() {
+    return svc.analyze(ws.request().load(req), ws).irr;
+  }
+}
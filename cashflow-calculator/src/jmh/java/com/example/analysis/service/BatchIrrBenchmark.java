@@ -0,0 +1,97 @@
+package com.example.analysis.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 4096 Monte Carlo-style cash-flow vectors (projections of a fixture with sampled growth,
+ * vacancy, appreciation and exit cost), solved one at a time by NewtonBrentIrrSolver vs. 256
+ * lanes at a time by BatchIrrEvaluator on the Vector API kernel and on plain lane loops.
+ * Timings are per 4096 vectors. The fork resolves jdk.incubator.vector; results are identical
+ * on every path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+@State(Scope.Thread)
+public class BatchIrrBenchmark {
+
+  private static final int VECTORS = 4096, LANES = 256;
+
+  @Param({ "single-loan-5y", "single-loan-io-30y", "two-loans-io-50y" })
+  public String fixture;
+
+  @Param({ "vector", "scalar" })
+  public String kernel;
+
+  private double[][] cash;
+  private int n;
+  private double guess;
+  private final NewtonBrentIrrSolver solver = new NewtonBrentIrrSolver();
+  private BatchIrrEvaluator batch, all;
+  private final double[] roots = new double[VECTORS];
+
+  @Setup
+  public void setup() {
+    DealBase base = new DealBase(Fixtures.load(fixture));
+    double[][] loan = base.firstLoanTable(base.baseParams[DealBase.FIRST_RATE_ANNUAL]);
+    ProjectionColumns cols = new ProjectionColumns(base.hold);
+    double[] p = base.baseParams.clone(), res = new double[DealBase.OUTPUTS];
+    n = base.hold + 1;
+    cash = new double[VECTORS][];
+    SplittableRandom rng = new SplittableRandom(42);
+    for (int i = 0; i < VECTORS; i++) {
+      p[DealBase.RENT_GROWTH] = base.baseParams[DealBase.RENT_GROWTH] + 0.02 * (rng.nextDouble() - 0.5);
+      p[DealBase.VACANCY_RATE] = Math.max(0, base.baseParams[DealBase.VACANCY_RATE] + 0.05 * (rng.nextDouble() - 0.5));
+      p[DealBase.ANNUAL_APPRECIATION] = base.baseParams[DealBase.ANNUAL_APPRECIATION] + 0.04 * (rng.nextDouble() - 0.5);
+      p[DealBase.EXIT_COST_RATE] = 0.03 + 0.05 * rng.nextDouble();
+      base.evaluateCashflows(p, loan, cols, res);
+      cash[i] = java.util.Arrays.copyOf(cols.cash, n);
+    }
+    double g = solver.irr(cash[0], n, NewtonBrentIrrSolver.DEFAULT_GUESS);
+    guess = Double.isNaN(g) ? NewtonBrentIrrSolver.DEFAULT_GUESS : g;
+
+    NpvKernel k = "vector".equals(kernel) ? new VectorNpvKernel() : NpvKernel.SCALAR;
+    batch = new BatchIrrEvaluator(LANES, n, k);
+    all = new BatchIrrEvaluator(VECTORS, n, k);
+    for (double[] c : cash) all.add(c, n);
+  }
+
+  /** Baseline: one scalar Newton/Brent solve per vector (kernel-independent). */
+  @Benchmark
+  public double[] irrScalar() {
+    for (int i = 0; i < VECTORS; i++) roots[i] = solver.irr(cash[i], n, guess);
+    return roots;
+  }
+
+  /** Load 256 vectors column-wise, solve them in lock-step, repeat. */
+  @Benchmark
+  public double[] irrBatch() {
+    double[] out = new double[LANES];
+    for (int from = 0; from < VECTORS; from += LANES) {
+      batch.clear();
+      for (int i = from; i < from + LANES; i++) batch.add(cash[i], n);
+      batch.irr(guess, out, null);
+      System.arraycopy(out, 0, roots, from, LANES);
+    }
+    return roots;
+  }
+
+  @Benchmark
+  public double npvScalar() {
+    double s = 0;
+    for (int i = 0; i < VECTORS; i++) s += NewtonBrentIrrSolver.npv(cash[i], n, 0.10);
+    return s;
+  }
+
+  /** NPV of all 4096 pre-loaded lanes at one rate. */
+  @Benchmark
+  public double[] npvBatch() {
+    all.npv(0.10, roots);
+    return roots;
+  }
+}
@@ -0,0 +1,23 @@
+package com.example.analysis.service;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar: the standard JMH command line with the GC profiler always
+ * on, so every run reports allocation rate (gc.alloc.rate.norm, bytes/op) next to ns/op.
+ * Example: java -jar target/benchmarks.jar Analyze -rf json -rff results.json
+ */
+public class CashflowBenchmarks {
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    new Runner(new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
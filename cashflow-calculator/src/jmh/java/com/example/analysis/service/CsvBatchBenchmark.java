@@ -0,0 +1,62 @@
+package com.example.analysis.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV batch pipeline over 10,000 in-memory rows (price, rents, loan varied per row, the rest from
+ * defaults) into a discarding writer: summary only vs. summary plus the 10-year projection, on one
+ * worker and on every core. Rows per second = 10,000 / score.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvBatchBenchmark {
+
+  private static final int ROWS = 10_000;
+
+  @Param({ "false", "true" })
+  public boolean projection;
+
+  @Param({ "1", "0" })
+  public int threads;                 // 0 = all cores
+
+  private final CsvBatchService svc = new CsvBatchService(new CashflowService());
+  private final Writer discard = new Writer() {
+    @Override public void write(char[] c, int off, int len) {}
+    @Override public void flush() {}
+    @Override public void close() {}
+  };
+  private String csv;
+  private CsvBatchService.Options options;
+
+  @Setup
+  public void setup() {
+    StringBuilder sb = new StringBuilder("id,Asking Price,Gross Rents,Loan\n");
+    for (int i = 0; i < ROWS; i++) {
+      sb.append(i).append(",\"$").append(String.format("%,d", 500_000 + i % 1000 * 1000)).append("\",")
+          .append(60_000 + i % 700 * 50).append(',').append(350_000 + i % 500 * 500).append('\n');
+    }
+    csv = sb.toString();
+    options = new CsvBatchService.Options();
+    options.mapping.put("Asking Price", "offerPrice");
+    options.mapping.put("Gross Rents", "grossRentsAnnual");
+    options.mapping.put("Loan", "firstPrincipal");
+    options.defaults.put("firstRateAnnual", "0.065");
+    options.defaults.put("holdYears", "10");
+    options.defaults.put("vacancyRate", "0.05");
+    if (threads > 0) options.threads = threads;
+  }
+
+  @Benchmark
+  public long run() throws IOException {
+    return svc.run(new StringReader(csv), discard, projection ? discard : null, options, null).rows;
+  }
+}
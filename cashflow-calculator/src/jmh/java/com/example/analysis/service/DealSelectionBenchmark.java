@@ -0,0 +1,66 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowRequest;
+import com.example.analysis.dto.DealSelectionRequest;
+import com.example.analysis.dto.DealSelectionResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deal selection over 100 and 300 candidates: the single-loan fixture with seeded price, rent,
+ * leverage and zip variations, a budget of about a tenth of their equity and count / zip limits.
+ * `exact` is branch-and-bound to optimality, `greedy` the fallback heuristic (exactLimit = 0).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DealSelectionBenchmark {
+
+  @Param({ "100", "300" })
+  public int candidates;
+
+  @Param({ "exact", "greedy" })
+  public String method;
+
+  private final DealSelectionService svc = new DealSelectionService();
+  private DealSelectionRequest req;
+
+  @Setup
+  public void setup() {
+    CashflowRequest base = Fixtures.load("single-loan-5y");
+    Random rnd = new Random(18);
+    req = new DealSelectionRequest();
+    req.candidates = new ArrayList<>(candidates);
+    double equity = 0;
+    for (int i = 0; i < candidates; i++) {
+      CashflowRequest d = RequestFields.copy(base);
+      double scale = 0.5 + rnd.nextDouble();
+      d.offerPrice = base.offerPrice * scale;
+      if (base.fmv != null) d.fmv = base.fmv * scale;
+      d.grossRentsAnnual = base.grossRentsAnnual * scale * (0.9 + 0.25 * rnd.nextDouble());
+      if (base.firstPrincipal != null) d.firstPrincipal = base.firstPrincipal * scale * (0.85 + 0.2 * rnd.nextDouble());
+      d.zip = String.valueOf(10000 + rnd.nextInt(20));
+      DealSelectionRequest.Candidate c = new DealSelectionRequest.Candidate();
+      c.id = "D" + i;
+      c.deal = d;
+      req.candidates.add(c);
+      equity += new DealBase(d).cashToClose;
+    }
+    req.equityBudget = equity / 10;
+    req.maxDeals = Math.max(2, candidates / 15);
+    req.maxPerZip = 3;
+    req.maxZipShare = 0.3;
+    req.exactLimit = method.equals("exact") ? DealSelectionService.DEFAULT_EXACT_LIMIT : 0;
+  }
+
+  @Benchmark
+  public DealSelectionResponse select() {
+    return svc.select(req);
+  }
+}
@@ -0,0 +1,48 @@
+package com.example.analysis.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every exit year of a 30- / 50-year hold: the one-pass exit curve vs. one primitive analysis
+ * per candidate hold (holdYears = 1..N), both on a warm workspace.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExitCurveBenchmark {
+
+  @Param({ "single-loan-io-30y", "two-loans-io-50y" })
+  public String fixture;
+
+  private final CashflowService service = new CashflowService();
+  private final AnalysisWorkspace ws = new AnalysisWorkspace();
+  private PrimitiveRequest req;
+  private int hold;
+
+  @Setup
+  public void setup() {
+    req = PrimitiveRequest.of(Fixtures.load(fixture));
+    hold = (int) req.get(PrimitiveRequest.HOLD_YEARS);
+  }
+
+  @Benchmark
+  public ExitCurve curve() {
+    req.set(PrimitiveRequest.HOLD_YEARS, hold);
+    return service.exitCurve(req, ws);
+  }
+
+  @Benchmark
+  public double perYear() {
+    double best = Double.NEGATIVE_INFINITY;
+    for (int k = 1; k <= hold; k++) {
+      req.set(PrimitiveRequest.HOLD_YEARS, k);
+      best = Math.max(best, service.analyze(req, ws).irr);
+    }
+    return best;
+  }
+}
@@ -0,0 +1,35 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowRequest;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Benchmark input fixtures (src/jmh/resources/fixtures). Fixtures are versioned with the
+ * benchmarks: add new ones rather than editing existing ones, so results stay comparable
+ * across versions.
+ */
+final class Fixtures {
+
+  /** Every fixture, in the order benchmarks report them. */
+  static final String[] NAMES = {
+      "single-loan-5y", "single-loan-io-30y", "two-loans-io-30y", "two-loans-io-50y", "no-irr-root-10y"
+  };
+
+  private static final ObjectMapper OM = new ObjectMapper()
+      .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  private Fixtures() {}
+
+  static CashflowRequest load(String name) {
+    try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name + ".json")) {
+      if (in == null) throw new IllegalArgumentException("no such fixture: " + name);
+      return OM.readValue(in, CashflowRequest.class);
+    } catch (IOException e) {
+      throw new IllegalStateException("cannot read fixture " + name, e);
+    }
+  }
+}
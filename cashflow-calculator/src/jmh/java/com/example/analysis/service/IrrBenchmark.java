@@ -0,0 +1,54 @@
+package com.example.analysis.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IRR solves on synthetic hold-period cash flows: a cold start from the default guess, a
+ * warm start from the known root, and a vector with no sign change (no root, so the solver
+ * runs Newton to failure and then the full bracket scan).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IrrBenchmark {
+
+  @Param({ "5", "30", "50" })
+  public int holdYears;
+
+  private final NewtonBrentIrrSolver solver = new NewtonBrentIrrSolver();
+  private double[] cash, positive;
+  private double root;
+
+  @Setup
+  public void setup() {
+    int n = holdYears + 1;
+    cash = new double[n];
+    positive = new double[n];
+    // Equity in, growing distributions, sale at exit
+    cash[0] = -500_000;
+    for (int t = 1; t < n; t++) cash[t] = 40_000 * Math.pow(1.03, t - 1);
+    cash[n - 1] += 900_000 * Math.pow(1.03, holdYears);
+    for (int t = 0; t < n; t++) positive[t] = Math.abs(cash[t]);
+    root = solver.irr(cash, n, NewtonBrentIrrSolver.DEFAULT_GUESS);
+  }
+
+  @Benchmark
+  public double cold() {
+    return solver.irr(cash, cash.length, NewtonBrentIrrSolver.DEFAULT_GUESS);
+  }
+
+  @Benchmark
+  public double warm() {
+    return solver.irr(cash, cash.length, root);
+  }
+
+  @Benchmark
+  public double noRoot() {
+    return solver.irr(positive, positive.length, NewtonBrentIrrSolver.DEFAULT_GUESS);
+  }
+}
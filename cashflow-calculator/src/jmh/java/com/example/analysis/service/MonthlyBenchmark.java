@@ -0,0 +1,49 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.MonthlyProjectionRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monthly projection of a 50-year deal (600 months) with a rehab / lease-up period and a rate
+ * reset, chunks consumed by a Blackhole. Per run it allocates one chunk buffer (chunkMonths
+ * rows of columns) plus the cash / date vectors for IRR and XIRR, never a row object.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MonthlyBenchmark {
+
+  @Param({ "1", "12", "120" })
+  public int chunkMonths;
+
+  private MonthlyProjectionService.Plan plan;
+
+  @Setup
+  public void setup() {
+    MonthlyProjectionRequest req = new MonthlyProjectionRequest();
+    req.base = Fixtures.load("two-loans-io-50y");
+    req.startDate = "2025-01-01";
+    req.chunkMonths = chunkMonths;
+    MonthlyProjectionRequest.Period leaseUp = new MonthlyProjectionRequest.Period();
+    leaseUp.fromMonth = 1; leaseUp.toMonth = 18; leaseUp.occupancy = 0.0; leaseUp.occupancyEnd = 0.95;
+    leaseUp.capex = 15000.0;
+    MonthlyProjectionRequest.RateReset reset = new MonthlyProjectionRequest.RateReset();
+    reset.month = 61; reset.rateAnnual = 0.075;
+    req.periods = List.of(leaseUp);
+    req.rateResets = List.of(reset);
+    plan = new MonthlyProjectionService().plan(req);
+  }
+
+  @Benchmark
+  public Object project(Blackhole bh) throws IOException {
+    return plan.run(c -> bh.consume(c.cashFlowBeforeTax[c.months - 1]));
+  }
+}
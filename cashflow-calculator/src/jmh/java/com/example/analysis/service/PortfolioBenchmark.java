@@ -0,0 +1,42 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.PortfolioRequest;
+import com.example.analysis.dto.PortfolioResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/** Portfolio roll-up of 40 and 200 properties cycled from the fixtures, acquired over ten years. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PortfolioBenchmark {
+
+  @Param({ "40", "200" })
+  public int properties;
+
+  private final PortfolioService svc = new PortfolioService();
+  private PortfolioRequest req;
+
+  @Setup
+  public void setup() {
+    req = new PortfolioRequest();
+    req.properties = new ArrayList<>(properties);
+    for (int i = 0; i < properties; i++) {
+      PortfolioRequest.Property p = new PortfolioRequest.Property();
+      p.id = "P" + i;
+      p.acquisitionYear = 2015 + i % 10;
+      p.deal = Fixtures.load(Fixtures.NAMES[i % Fixtures.NAMES.length]);
+      req.properties.add(p);
+    }
+  }
+
+  @Benchmark
+  public PortfolioResponse aggregate() {
+    return svc.aggregate(req);
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.CashflowRequest;
+import com.example.analysis.dto.RepriceRequest;
+import com.example.analysis.dto.RepriceResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Bulk re-price of 50k saved deals (the 30-year interest-only fixture with seeded price, rent and
+ * rate variations) in a temporary store. Each call moves every first-loan rate by +/-25 bp in
+ * turn, so every deal changes and is appended to the log (with a compaction every few calls);
+ * `dryRun` only analyzes and reports.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SavedDealRepriceBenchmark {
+
+  @Param({ "50000" })
+  public int deals;
+
+  @Param({ "save", "dryRun" })
+  public String mode;
+
+  private Path dir;
+  private SavedDealStore store;
+  private final RepriceRequest up = new RepriceRequest(), down = new RepriceRequest();
+  private boolean next;
+
+  @Setup
+  public void setup() throws IOException {
+    dir = Files.createTempDirectory("reprice-bench");
+    store = new SavedDealStore(dir.resolve("deals.ndjson"), new CashflowService());
+    CashflowRequest base = Fixtures.load("single-loan-io-30y");
+    Random rnd = new Random(23);
+    for (int i = 0; i < deals; i++) {
+      CashflowRequest d = RequestFields.copy(base);
+      double scale = 0.5 + rnd.nextDouble();
+      d.offerPrice = base.offerPrice * scale;
+      d.grossRentsAnnual = base.grossRentsAnnual * scale * (0.9 + 0.25 * rnd.nextDouble());
+      if (base.firstPrincipal != null) d.firstPrincipal = base.firstPrincipal * scale;
+      d.firstRateAnnual = 0.05 + 0.02 * rnd.nextDouble();
+      store.save("D" + i, d);
+    }
+    boolean dryRun = mode.equals("dryRun");
+    up.shift = Map.of("firstRateAnnual", 0.0025);
+    down.shift = Map.of("firstRateAnnual", -0.0025);
+    up.dryRun = down.dryRun = dryRun;
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    store.close();
+    try (Stream<Path> files = Files.walk(dir)) {
+      files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+    }
+  }
+
+  @Benchmark
+  public RepriceResponse reprice() {
+    next = !next;
+    return store.reprice(next ? up : down);
+  }
+}
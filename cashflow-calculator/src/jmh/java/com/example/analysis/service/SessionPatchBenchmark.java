@@ -0,0 +1,59 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.AnalysisSessionResponse;
+import com.example.analysis.dto.CashflowRequest;
+import com.example.analysis.dto.CashflowResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slider edit on an open session versus a full re-analysis of the same edit. Alternates between
+ * two values so every call changes something.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionPatchBenchmark {
+
+  @Param({ "single-loan-io-30y", "two-loans-io-50y" })
+  public String fixture;
+
+  @Param({ "exitCostRate", "rentGrowth", "propertyTaxes" })
+  public String field;
+
+  private CashflowService svc;
+  private AnalysisSessionService sessions;
+  private String id;
+  private CashflowRequest req;
+  private double low, high;
+  private boolean flip;
+
+  @Setup
+  public void setup() {
+    svc = new CashflowService();
+    sessions = new AnalysisSessionService();
+    req = Fixtures.load(fixture);
+    id = sessions.open(req).sessionId;
+    double v = RequestFields.get(req, field) != null ? RequestFields.get(req, field) : 0.0;
+    low = v * 0.95 + 0.001;
+    high = v * 1.05 + 0.002;
+  }
+
+  @Benchmark
+  public AnalysisSessionResponse patch() {
+    flip = !flip;
+    return sessions.patch(id, Map.of(field, flip ? high : low));
+  }
+
+  @Benchmark
+  public CashflowResponse fullAnalyze() {
+    flip = !flip;
+    RequestFields.set(req, field, flip ? high : low);
+    return svc.analyze(req);
+  }
+}
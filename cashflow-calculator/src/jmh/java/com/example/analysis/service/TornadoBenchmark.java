@@ -0,0 +1,37 @@
+package com.example.analysis.service;
+
+import com.example.analysis.dto.TornadoRequest;
+import com.example.analysis.dto.TornadoResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full tornado ranking (+/-10% on every non-zero input, parallel) per fixture; the report
+ * viewer shows it inline, so the target is tens of milliseconds at most.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TornadoBenchmark {
+
+  @Param({ "single-loan-5y", "two-loans-io-30y", "two-loans-io-50y" })
+  public String fixture;
+
+  private final TornadoService service = new TornadoService();
+  private TornadoRequest req;
+
+  @Setup
+  public void setup() {
+    req = new TornadoRequest();
+    req.base = Fixtures.load(fixture);
+  }
+
+  @Benchmark
+  public TornadoResponse rank() {
+    return service.rank(req);
+  }
+}
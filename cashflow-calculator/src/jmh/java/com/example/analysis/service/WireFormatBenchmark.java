@@ -0,0 +1,48 @@
+package com.example.analysis.service;
+
+import com.example.analysis.controller.WireFormat;
+import com.example.analysis.dto.CashflowColumnsResponse;
+import com.example.analysis.dto.CashflowResponse;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response encoding cost per format and projection layout (rows = one object per year,
+ * columns = CashflowColumnsResponse). Column packing is included in the `columns` timing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+  @Param({ "single-loan-io-30y", "two-loans-io-50y" })
+  public String fixture;
+
+  @Param({ "JSON", "SMILE", "CBOR" })
+  public WireFormat format;
+
+  private CashflowResponse resp;
+  private ObjectWriter writer;
+
+  @Setup
+  public void setup() {
+    resp = new CashflowService().analyze(Fixtures.load(fixture));
+    writer = format.mapper().writer();
+  }
+
+  @Benchmark
+  public byte[] rows() throws IOException {
+    return writer.writeValueAsBytes(resp);
+  }
+
+  @Benchmark
+  public byte[] columns() throws IOException {
+    return writer.writeValueAsBytes(CashflowColumnsResponse.of(resp));
+  }
+}
@@ -1,9 +1,12 @@
 package com.example.map;
 
+import com.example.map.geo.GeoRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(GeoRuntimeHints.class)
 public class Application {
     public static void main(String[] args) {
         SpringApplication.run(Application.class, args);
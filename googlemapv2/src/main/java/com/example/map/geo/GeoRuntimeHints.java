@@ -0,0 +1,49 @@
+package com.example.map.geo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.BigIntegerNode;
+import com.fasterxml.jackson.databind.node.BinaryNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DecimalNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.FloatNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.POJONode;
+import com.fasterxml.jackson.databind.node.ShortNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Reflection metadata for the AOT / native-image build (see PROJECT-STATUS.md, "Fast Startup").
+ * GeoController passes RapidAPI responses through as a JsonNode tree and reads /raw bodies into a
+ * Map, so Jackson meets the node classes and LinkedHashMap only at run time; the virtual-thread
+ * executor is looked up reflectively by GoogleApi31Service.
+ */
+public class GeoRuntimeHints implements RuntimeHintsRegistrar {
+
+  static final List<Class<?>> JSON_NODES = List.of(JsonNode.class, ObjectNode.class, ArrayNode.class, TextNode.class,
+      IntNode.class, LongNode.class, ShortNode.class, BigIntegerNode.class, DoubleNode.class, FloatNode.class,
+      DecimalNode.class, BooleanNode.class, NullNode.class, MissingNode.class, BinaryNode.class, POJONode.class);
+
+  @Override
+  public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+    for (Class<?> node : JSON_NODES)
+      hints.reflection().registerType(node, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+    hints.reflection().registerType(LinkedHashMap.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+    // Java 21+ only; registered by name so a Java 17 image builds too
+    hints.reflection().registerType(Executors.class,
+        b -> b.withMethod("newVirtualThreadPerTaskExecutor", List.of(), ExecutableMode.INVOKE));
+  }
+}
@@ -3,6 +3,8 @@ package com.example.map.geo;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -13,18 +15,33 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 @Service
 public class GoogleApi31Service {
 
+  private static final Logger log = LoggerFactory.getLogger(GoogleApi31Service.class);
+
   @Value("${googleapi31.rapidapi.host}") private String host;
   @Value("${googleapi31.rapidapi.key}")  private String key;
   @Value("${googleapi31.endpoint}")      private String endpoint;
 
-  private final HttpClient http = HttpClient.newBuilder()
-      .connectTimeout(Duration.ofSeconds(10)).build();
+  private final HttpClient http;
   private final ObjectMapper om = new ObjectMapper();
 
+  /**
+   * With spring.threads.virtual.enabled (Java 21+), Spring Boot serves requests on virtual threads;
+   * the client's own tasks then run on virtual threads too, and the blocking send() in query()
+   * parks the request's virtual thread instead of holding a platform thread for the upstream call.
+   */
+  public GoogleApi31Service(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+    HttpClient.Builder b = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10));
+    Executor executor = virtualThreads ? virtualThreadExecutor() : null;
+    if (executor != null) b.executor(executor);
+    this.http = b.build();
+  }
+
   /**
    * Thin wrapper for POST https://google-api31.p.rapidapi.com/map
    * Accepted fields (per RapidAPI playground): text, place, street, city, country,
@@ -73,4 +90,14 @@ public class GoogleApi31Service {
   }
 
   private static String nvl(String s){ return (s==null || s.isBlank()) ? "" : s; }
+
+  /** Executors.newVirtualThreadPerTaskExecutor() when the runtime has it (the build targets Java 17). */
+  private static Executor virtualThreadExecutor() {
+    try {
+      return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      log.warn("Virtual threads need Java 21+; upstream calls use the default HttpClient executor");
+      return null;
+    }
+  }
 }
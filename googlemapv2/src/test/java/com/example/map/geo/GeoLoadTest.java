@@ -0,0 +1,190 @@
+package com.example.map.geo;
+
+import com.example.map.Application;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load comparison of platform-thread and virtual-thread request handling. The app is started
+ * in-process against a local stub upstream that answers every /map call after a fixed delay, so
+ * results are reproducible and never touch RapidAPI. For each mode and concurrency level, N
+ * closed-loop clients call /api/geo/text for a fixed time; throughput and p50 / p99 latency are
+ * printed. Skipped unless -Dload=true:
+ *
+ *   mvn test -Dtest=GeoLoadTest -Dload=true             (Java 17: platform threads only)
+ *   mvn -Pjava21 test -Dtest=GeoLoadTest -Dload=true    (Java 21: platform vs. virtual)
+ *
+ * Options: load.concurrency (default 1000,2500,5000,10000), load.seconds (10), load.upstreamDelayMs
+ * (100), load.modes (platform,virtual). Each in-flight request holds a connection into the app and
+ * one out to the stub, both ends open in this JVM: 10k concurrency needs ~40k file descriptors.
+ */
+@EnabledIfSystemProperty(named = "load", matches = "true")
+public class GeoLoadTest {
+
+    private static final byte[] STUB_BODY = "{\"status\":\"OK\",\"results\":[]}".getBytes(StandardCharsets.UTF_8);
+    private static final int MAX_SAMPLES = 4_000_000;
+
+    @Test
+    public void platformVersusVirtualThreads() throws Exception {
+        int[] levels = Arrays.stream(System.getProperty("load.concurrency", "1000,2500,5000,10000").split(","))
+            .mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+        long seconds = Long.getLong("load.seconds", 10);
+        long delayMs = Long.getLong("load.upstreamDelayMs", 100);
+        List<String> modes = Arrays.asList(System.getProperty("load.modes", "platform,virtual").split(","));
+
+        ScheduledExecutorService timer = Executors.newScheduledThreadPool(4);
+        HttpServer stub = stub(delayMs, timer);
+        ExecutorService clientPool = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clientPool).build();
+        List<String> report = new ArrayList<>();
+        try {
+            for (String mode : modes) {
+                boolean virtual = mode.trim().equals("virtual");
+                if (virtual && !virtualThreadsAvailable()) {
+                    report.add(String.format("%-9s skipped: virtual threads need Java 21+ (running %s)",
+                        "virtual", System.getProperty("java.version")));
+                    continue;
+                }
+                ConfigurableApplicationContext ctx = start(virtual, stub.getAddress().getPort());
+                try {
+                    int port = ((WebServerApplicationContext) ctx).getWebServer().getPort();
+                    URI uri = URI.create("http://127.0.0.1:" + port + "/api/geo/text?text=load&city=test");
+                    run(client, uri, Math.min(levels[0], 200), 2);   // warm-up
+                    for (int c : levels) {
+                        Result r = run(client, uri, c, seconds);
+                        assertTrue(r.requests > 0, mode + " at " + c + " completed no requests");
+                        report.add(String.format("%-9s %11d %9d %7d %9.0f %8.1f %8.1f", virtual ? "virtual" : "platform",
+                            c, r.requests, r.errors, r.throughput, r.p50Millis, r.p99Millis));
+                    }
+                } finally {
+                    ctx.close();
+                }
+            }
+        } finally {
+            stub.stop(0);
+            timer.shutdownNow();
+            clientPool.shutdownNow();
+        }
+
+        System.out.printf("%nUpstream delay %d ms, %d s per level (platform mode: Tomcat's default 200 request threads)%n",
+            delayMs, seconds);
+        System.out.printf("%-9s %11s %9s %7s %9s %8s %8s%n", "mode", "concurrency", "requests", "errors", "req/s", "p50 ms", "p99 ms");
+        report.forEach(System.out::println);
+    }
+
+    /** Stub of the RapidAPI /map endpoint: answers after `delayMs` without holding a thread meanwhile. */
+    private static HttpServer stub(long delayMs, ScheduledExecutorService timer) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 16384);
+        server.createContext("/map", ex -> {
+            ex.getRequestBody().readAllBytes();
+            timer.schedule(() -> {
+                try {
+                    ex.getResponseHeaders().set("Content-Type", "application/json");
+                    ex.sendResponseHeaders(200, STUB_BODY.length);
+                    ex.getResponseBody().write(STUB_BODY);
+                } catch (IOException e) {
+                    // Client went away; nothing to answer
+                } finally {
+                    ex.close();
+                }
+            }, delayMs, TimeUnit.MILLISECONDS);
+        });
+        server.start();
+        return server;
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtual, int stubPort) {
+        // Command-line arguments, so they win over application.yml
+        return new SpringApplicationBuilder(Application.class).run(
+            "--server.port=0",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN",
+            "--spring.threads.virtual.enabled=" + virtual,
+            "--server.tomcat.max-connections=20000",
+            "--server.tomcat.accept-count=10000",
+            "--googleapi31.endpoint=http://127.0.0.1:" + stubPort + "/map");
+    }
+
+    private static boolean virtualThreadsAvailable() {
+        try {
+            Thread.class.getMethod("isVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static final class Result {
+        long requests, errors;
+        double throughput, p50Millis, p99Millis;
+    }
+
+    /** `concurrency` clients, each sending its next request when the previous one completes, for `seconds`. */
+    private static Result run(HttpClient client, URI uri, int concurrency, long seconds) throws InterruptedException {
+        HttpRequest req = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long[] samples = new long[MAX_SAMPLES];
+        AtomicInteger count = new AtomicInteger();
+        LongAdder errors = new LongAdder();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) next(client, req, end, samples, count, errors, done);
+        done.await();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        int n = Math.min(count.get(), MAX_SAMPLES);
+        long[] sorted = Arrays.copyOf(samples, n);
+        Arrays.sort(sorted);
+        Result r = new Result();
+        r.requests = count.get() + errors.sum();
+        r.errors = errors.sum();
+        r.throughput = count.get() / elapsed;
+        r.p50Millis = n == 0 ? Double.NaN : sorted[(int) (n * 0.50)] / 1e6;
+        r.p99Millis = n == 0 ? Double.NaN : sorted[Math.min(n - 1, (int) (n * 0.99))] / 1e6;
+        return r;
+    }
+
+    private static void next(HttpClient client, HttpRequest req, long end, long[] samples, AtomicInteger count,
+                             LongAdder errors, CountDownLatch done) {
+        long t0 = System.nanoTime();
+        if (t0 >= end) {
+            done.countDown();
+            return;
+        }
+        client.sendAsync(req, HttpResponse.BodyHandlers.discarding()).whenComplete((res, err) -> {
+            if (err != null || res.statusCode() != 200) {
+                errors.increment();
+            } else {
+                int i = count.getAndIncrement();
+                if (i < MAX_SAMPLES) samples[i] = System.nanoTime() - t0;
+            }
+            next(client, req, end, samples, count, errors, done);
+        });
+    }
+}
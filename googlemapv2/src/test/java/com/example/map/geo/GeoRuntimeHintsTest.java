@@ -0,0 +1,24 @@
+package com.example.map.geo;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.util.LinkedHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GeoRuntimeHintsTest {
+
+    @Test
+    public void registersJsonNodePassthroughAndRawBody() {
+        RuntimeHints hints = new RuntimeHints();
+        new GeoRuntimeHints().registerHints(hints, getClass().getClassLoader());
+        for (Class<?> node : GeoRuntimeHints.JSON_NODES) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(node).test(hints), node.getName());
+        }
+        assertTrue(RuntimeHintsPredicates.reflection().onType(LinkedHashMap.class).test(hints));
+        assertTrue(hints.reflection().getTypeHint(java.util.concurrent.Executors.class).methods()
+            .anyMatch(m -> m.getName().equals("newVirtualThreadPerTaskExecutor")));
+    }
+}
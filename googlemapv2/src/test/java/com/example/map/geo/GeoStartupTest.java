@@ -0,0 +1,206 @@
+package com.example.map.geo;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Startup comparison of the packaged variants of the app. Each variant is launched as its own
+ * process against a local stub upstream; the time from launch to the first successful
+ * /api/geo/text response and the resident set size (VmRSS) at that point and after a burst of
+ * requests are recorded, and the medians over several launches are printed. Variants whose
+ * artifact has not been built are skipped. Skipped unless -Dstartup=true:
+ *
+ *   mvn package -DskipTests                                  (jar)
+ *   mvn -Pnative package -DskipTests                         (aot: AOT-processed jar)
+ *   mvn -Pcds package -DskipTests                            (cds: exploded jar + class-data archive)
+ *   mvn -Pnative native:compile -DskipTests                  (native: GraalVM executable)
+ *   mvn test -Dtest=GeoStartupTest -Dstartup=true
+ *
+ * Options: startup.runs (default 5), startup.variants (jar,aot,cds,native), startup.requests (200).
+ * Process output goes to target/startup-logs. RSS is read from /proc and is only reported on Linux.
+ */
+@EnabledIfSystemProperty(named = "startup", matches = "true")
+public class GeoStartupTest {
+
+    private static final byte[] STUB_BODY = "{\"status\":\"OK\",\"results\":[]}".getBytes(StandardCharsets.UTF_8);
+    private static final String AOT_INITIALIZER = "com/example/map/Application__ApplicationContextInitializer.class";
+    private static final Path TARGET = Paths.get("target");
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(120);
+
+    @Test
+    public void startupTimeAndFootprint() throws Exception {
+        int runs = Integer.getInteger("startup.runs", 5);
+        int requests = Integer.getInteger("startup.requests", 200);
+        List<String> variants = Arrays.asList(System.getProperty("startup.variants", "jar,aot,cds,native").split(","));
+        Path logs = Files.createDirectories(TARGET.resolve("startup-logs"));
+
+        HttpServer stub = stub();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(1)).build();
+        List<String> report = new ArrayList<>();
+        try {
+            for (String v : variants) {
+                String variant = v.trim();
+                List<String> command = command(variant);
+                if (command == null) {
+                    report.add(String.format("%-7s skipped: not built", variant));
+                    continue;
+                }
+                long[] startMillis = new long[runs], rssFirst = new long[runs], rssLoaded = new long[runs];
+                for (int i = 0; i < runs; i++) {
+                    Launch l = launch(command, stub.getAddress().getPort(), client, requests,
+                        logs.resolve(variant + "-" + (i + 1) + ".log"));
+                    startMillis[i] = l.startMillis;
+                    rssFirst[i] = l.rssFirstKb;
+                    rssLoaded[i] = l.rssLoadedKb;
+                }
+                report.add(String.format("%-7s %5d %16d %15s %15s", variant, runs, median(startMillis),
+                    megabytes(median(rssFirst)), megabytes(median(rssLoaded))));
+            }
+        } finally {
+            stub.stop(0);
+        }
+
+        System.out.printf("%nMedians over each variant's launches; %d requests before the second RSS reading%n", requests);
+        System.out.printf("%-7s %5s %16s %15s %15s%n", "variant", "runs", "first resp. ms", "RSS first MB", "RSS loaded MB");
+        report.forEach(System.out::println);
+    }
+
+    /** The launch command of `variant`, or null when its artifact is missing. */
+    private static List<String> command(String variant) throws IOException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Path jar = TARGET.resolve("googlemapv2-1.0.0.jar");
+        Path cdsJar = TARGET.resolve("cds/googlemapv2.jar"), archive = TARGET.resolve("cds/googlemapv2.jsa");
+        switch (variant) {
+            case "jar":
+                return Files.exists(jar) ? List.of(java, "-jar", jar.toString()) : null;
+            case "aot":
+                return Files.exists(jar) && contains(jar, "BOOT-INF/classes/" + AOT_INITIALIZER)
+                    ? List.of(java, "-Dspring.aot.enabled=true", "-jar", jar.toString()) : null;
+            case "cds":
+                if (!Files.exists(cdsJar) || !Files.exists(archive)) return null;
+                List<String> cmd = new ArrayList<>(List.of(java, "-XX:SharedArchiveFile=" + archive));
+                if (contains(cdsJar, AOT_INITIALIZER)) cmd.add("-Dspring.aot.enabled=true");
+                cmd.addAll(List.of("-jar", cdsJar.toString()));
+                return cmd;
+            case "native":
+                Path exe = TARGET.resolve("googlemapv2");
+                return Files.isExecutable(exe) ? List.of(exe.toString()) : null;
+            default:
+                throw new IllegalArgumentException("unknown variant: " + variant);
+        }
+    }
+
+    private static boolean contains(Path jar, String entry) throws IOException {
+        try (JarFile f = new JarFile(jar.toFile())) {
+            return f.getEntry(entry) != null;
+        }
+    }
+
+    /** Start one process, wait for its first good response, load it, and stop it. */
+    private static Launch launch(List<String> command, int stubPort, HttpClient client, int requests, Path log)
+        throws Exception {
+        int port = freePort();
+        List<String> cmd = new ArrayList<>(command);
+        cmd.add("--server.port=" + port);
+        cmd.add("--googleapi31.endpoint=http://127.0.0.1:" + stubPort + "/map");
+        HttpRequest probe = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/geo/text?text=startup&city=test"))
+            .timeout(Duration.ofSeconds(5)).build();
+
+        long t0 = System.nanoTime();
+        Process p = new ProcessBuilder(cmd).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            Launch l = new Launch();
+            long deadline = t0 + START_TIMEOUT.toNanos();
+            while (true) {
+                assertTrue(p.isAlive(), "process exited during startup, see " + log);
+                assertTrue(System.nanoTime() < deadline, "no response within " + START_TIMEOUT + ", see " + log);
+                try {
+                    if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) break;
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(10);
+            }
+            l.startMillis = (System.nanoTime() - t0) / 1_000_000;
+            l.rssFirstKb = rssKb(p.pid());
+            for (int i = 0; i < requests; i++) {
+                int status = client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode();
+                assertTrue(status == 200, "request " + i + " returned " + status + ", see " + log);
+            }
+            l.rssLoadedKb = rssKb(p.pid());
+            return l;
+        } finally {
+            p.destroy();
+            if (!p.waitFor(10, TimeUnit.SECONDS)) p.destroyForcibly().waitFor();
+        }
+    }
+
+    /** VmRSS of `pid` in kB, or -1 where /proc is not available. */
+    private static long rssKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/" + pid + "/status"))) {
+                if (line.startsWith("VmRSS:")) return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux
+        }
+        return -1;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket s = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return s.getLocalPort();
+        }
+    }
+
+    /** Stub of the RapidAPI /map endpoint, answering at once. */
+    private static HttpServer stub() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 64);
+        server.createContext("/map", ex -> {
+            ex.getRequestBody().readAllBytes();
+            ex.getResponseHeaders().set("Content-Type", "application/json");
+            ex.sendResponseHeaders(200, STUB_BODY.length);
+            ex.getResponseBody().write(STUB_BODY);
+            ex.close();
+        });
+        server.start();
+        return server;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static String megabytes(long kb) {
+        return kb < 0 ? "n/a" : String.format("%.0f", kb / 1024.0);
+    }
+
+    private static final class Launch {
+        long startMillis, rssFirstKb, rssLoadedKb;
+    }
+}
@@ -1,9 +1,17 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.*;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.node.*;
 
@@ -39,16 +47,25 @@ public class API {
 
   // -------- Low-level GET --------
   private JsonNode get(String pathWithQuery) throws Exception {
-    HttpRequest req = HttpRequest.newBuilder(URI.create(BASE + pathWithQuery))
-        .timeout(Duration.ofSeconds(20))
+    return parse(pathWithQuery, http.send(request(pathWithQuery, Duration.ofSeconds(20)), HttpResponse.BodyHandlers.ofString()));
+  }
+  // Non-blocking GET; `timeout` bounds the wait for the response headers
+  private CompletableFuture<JsonNode> getAsync(String pathWithQuery, Duration timeout) {
+    return http.sendAsync(request(pathWithQuery, timeout), HttpResponse.BodyHandlers.ofString())
+        .thenApply(res -> parse(pathWithQuery, res));
+  }
+  private HttpRequest request(String pathWithQuery, Duration timeout) {
+    return HttpRequest.newBuilder(URI.create(BASE + pathWithQuery))
+        .timeout(timeout)
         .header("x-rapidapi-key", apiKey())
         .header("x-rapidapi-host", HOST)
         .GET().build();
-    HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
+  }
+  private JsonNode parse(String pathWithQuery, HttpResponse<String> res) {
     if (res.statusCode() < 200 || res.statusCode() >= 300) {
       throw new RuntimeException("GET " + pathWithQuery + " -> " + res.statusCode() + " " + res.body());
     }
-    return om.readTree(res.body());
+    try { return om.readTree(res.body()); } catch (IOException e) { throw new UncheckedIOException(e); }
   }
 
   // -------- Endpoint wrappers (v1) --------
@@ -264,85 +281,124 @@ public class API {
     public String zillowWebUrl;
     public List<String> tour3dUrls;
     public List<String> floorPlanUrls;
+    // sections left empty because their call failed or timed out: section -> reason
+    public Map<String, String> failedSections = new LinkedHashMap<>();
+
+    public boolean isComplete() { return failedSections.isEmpty(); }
 
     @Override public String toString() {
       return "EnrichedProperty{zpid=" + zpid + ", price=" + price + ", beds=" + bedrooms +
         ", baths=" + bathrooms + ", sqft=" + livingArea + ", year=" + yearBuilt +
         ", tax=" + annualTax + ", hoaMonthly=" + hoaMonthly + ", zest=" + zestimate +
-        ", rent=" + rentEstimate + ", comps=" + compsCount + "}";
+        ", rent=" + rentEstimate + ", comps=" + compsCount +
+        (failedSections.isEmpty() ? "" : ", failed=" + failedSections.keySet()) + "}";
     }
   }
 
+  // Limits of fetchEnrichedByZpid: each call, and the whole enrichment (detail call included)
+  public static final Duration ENRICH_CALL_TIMEOUT = Duration.ofSeconds(8);
+  public static final Duration ENRICH_DEADLINE = Duration.ofSeconds(12);
+
+  /**
+   * Blocking form of fetchEnrichedByZpidAsync with the default limits. Throws if the detail call
+   * fails; any other section that fails is named in failedSections.
+   */
   public EnrichedProperty fetchEnrichedByZpid(String zpid) throws Exception {
-    EnrichedProperty ep = new EnrichedProperty();
-    ep.zpid = zpid;
+    try {
+      return fetchEnrichedByZpidAsync(zpid, ENRICH_CALL_TIMEOUT, ENRICH_DEADLINE).get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+      throw e;
+    }
+  }
 
-    // detail
-    JsonNode detail = propertyDetail(zpid);
-    PropertyDetailMin d = toDetailMin(detail);
-    if (d != null) {
-      ep.address = d.address; ep.price = d.price; ep.bedrooms = d.beds; ep.bathrooms = d.baths;
-      ep.livingArea = d.livingArea; ep.lotAreaValue = d.lotArea; ep.lat = d.lat; ep.lon = d.lon;
-      ep.yearBuilt = d.yearBuilt; ep.hoaMonthly = d.hoaMonthly; ep.zestimate = d.zestimate;
-      if (d.photos != null) ep.photoUrls.addAll(d.photos);
+  /**
+   * Detail call first, then the eight independent calls (tax, zestimate, rent, images, comps,
+   * 3D tour, floor plan, web URL) concurrently, so an enrichment takes about two round trips
+   * instead of nine. Each call gets `callTimeout`, capped by what is left of `deadline`. The
+   * future fails only if the detail call does; otherwise it completes with whatever sections
+   * arrived in time, and failedSections records the rest.
+   */
+  public CompletableFuture<EnrichedProperty> fetchEnrichedByZpidAsync(String zpid, Duration callTimeout, Duration deadline) {
+    long deadlineAt = System.nanoTime() + deadline.toNanos();
+    String z = enc(zpid);
+    return within(getAsync("/property?zpid=" + z, callTimeout), callTimeout, deadlineAt).thenCompose(detail -> {
+      EnrichedProperty ep = new EnrichedProperty();
+      ep.zpid = zpid;
+      applyDetail(ep, detail);
 
-      JsonNode root = first(detail, "data", "result", "property", null);
-      if (root != null) {
-        ep.heating = readStringArray(root, "resoFacts", "heating");
-        ep.cooling = readStringArray(root, "resoFacts", "cooling");
-        ep.parkingFeatures = readStringArray(root, "resoFacts", "parkingFeatures");
-      }
-    }
+      // Each section writes only its own fields of ep, and only before its future completes
+      Map<String, CompletableFuture<String>> sections = new LinkedHashMap<>();
+      sections.put("tax", section(getAsync("/priceAndTaxHistory?zpid=" + z, callTimeout), callTimeout, deadlineAt, n -> {
+        Double t = pickLatestTaxPaid(n); if (t != null) ep.annualTax = t;
+      }));
+      if (ep.zestimate == null) sections.put("zestimate", section(getAsync("/zestimate?zpid=" + z, callTimeout), callTimeout, deadlineAt,
+          n -> ep.zestimate = num(n, "zestimate", "amount", "price")));
+      sections.put("rentEstimate", section(getAsync("/rentEstimate?zpid=" + z, callTimeout), callTimeout, deadlineAt,
+          n -> ep.rentEstimate = num(n, "rent", "rentZestimate", "amount")));
+      sections.put("images", section(getAsync("/images?zpid=" + z, callTimeout), callTimeout, deadlineAt,
+          n -> ep.photoUrls.addAll(urls(n, "url", "src"))));
+      sections.put("comps", section(getAsync("/propertyComps?zpid=" + z + "&count=10", callTimeout), callTimeout, deadlineAt, n -> {
+        var s = summarizeComps(n);
+        ep.compsCount = s.count; ep.compsMedianSoldPrice = s.medPrice; ep.compsMedianPpsf = s.medPpsf;
+      }));
+      sections.put("tour3d", section(getAsync("/property3dtour?zpid=" + z, callTimeout), callTimeout, deadlineAt, n -> {
+        List<String> t = urls(n, "url", "src", "link"); if (!t.isEmpty()) ep.tour3dUrls = t;
+      }));
+      sections.put("floorPlan", section(getAsync("/propertyFloorPlan?zpid=" + z, callTimeout), callTimeout, deadlineAt, n -> {
+        List<String> f = urls(n, "url", "src"); if (!f.isEmpty()) ep.floorPlanUrls = f;
+      }));
+      sections.put("webUrl", section(getAsync("/buildWebUrl?zpid=" + z, callTimeout), callTimeout, deadlineAt,
+          n -> ep.zillowWebUrl = str(n, "url", "link", "webUrl")));
 
-    // tax
-    try { Double t = pickLatestTaxPaid(priceAndTaxHistory(zpid)); if (t != null) ep.annualTax = t; } catch (Exception ignore){}
+      return CompletableFuture.allOf(sections.values().toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+        sections.forEach((name, f) -> { String err = f.join(); if (err != null) ep.failedSections.put(name, err); });
+        // derived
+        if (ep.price != null && ep.livingArea != null && ep.livingArea > 0) ep.pricePerSqft = ep.price / ep.livingArea;
+        if (ep.lotAreaValue != null && ep.livingArea != null && ep.livingArea > 0) ep.lotToBuildingRatio = ep.lotAreaValue / ep.livingArea;
+        return ep;
+      });
+    });
+  }
 
-    // estimates
-    if (ep.zestimate == null) try { ep.zestimate = num(zestimate(zpid), "zestimate", "amount", "price"); } catch (Exception ignore){}
-    try { ep.rentEstimate = num(rentEstimate(zpid), "rent", "rentZestimate", "amount"); } catch (Exception ignore){}
+  private void applyDetail(EnrichedProperty ep, JsonNode detail) {
+    PropertyDetailMin d = toDetailMin(detail);
+    if (d == null) return;
+    ep.address = d.address; ep.price = d.price; ep.bedrooms = d.beds; ep.bathrooms = d.baths;
+    ep.livingArea = d.livingArea; ep.lotAreaValue = d.lotArea; ep.lat = d.lat; ep.lon = d.lon;
+    ep.yearBuilt = d.yearBuilt; ep.hoaMonthly = d.hoaMonthly; ep.zestimate = d.zestimate;
+    if (d.photos != null) ep.photoUrls.addAll(d.photos);
 
-    // images
-    try {
-      JsonNode imgs = images(zpid);
-      if (imgs.isArray()) for (JsonNode p : imgs) {
-        String u = p.isTextual() ? p.asText() : str(p, "url", "src");
-        if (u != null && !u.isBlank()) ep.photoUrls.add(u);
-      }
-    } catch (Exception ignore){}
+    JsonNode root = first(detail, "data", "result", "property", null);
+    if (root != null) {
+      ep.heating = readStringArray(root, "resoFacts", "heating");
+      ep.cooling = readStringArray(root, "resoFacts", "cooling");
+      ep.parkingFeatures = readStringArray(root, "resoFacts", "parkingFeatures");
+    }
+  }
 
-    // comps
-    try {
-      JsonNode comps = propertyComps(zpid, 10);
-      var s = summarizeComps(comps);
-      ep.compsCount = s.count; ep.compsMedianSoldPrice = s.medPrice; ep.compsMedianPpsf = s.medPpsf;
-    } catch (Exception ignore){}
+  // Fails `call` with a TimeoutException after `callTimeout` or at the deadline, whichever is first
+  private static <T> CompletableFuture<T> within(CompletableFuture<T> call, Duration callTimeout, long deadlineAt) {
+    long left = Math.max(0, Math.min(callTimeout.toNanos(), deadlineAt - System.nanoTime()));
+    return call.orTimeout(left, TimeUnit.NANOSECONDS);
+  }
 
-    // extras: 3d, floorplan, web url
-    try {
-      JsonNode tours = property3dTour(zpid);
-      List<String> t = new ArrayList<>();
-      if (tours.isArray()) for (JsonNode x : tours) {
-        String u = x.isTextual() ? x.asText() : str(x, "url", "src", "link");
-        if (u != null && !u.isBlank()) t.add(u);
-      }
-      if (!t.isEmpty()) ep.tour3dUrls = t;
-    } catch (Exception ignore){}
-    try {
-      JsonNode fps = propertyFloorPlan(zpid);
-      List<String> f = new ArrayList<>();
-      if (fps.isArray()) for (JsonNode x : fps) {
-        String u = x.isTextual() ? x.asText() : str(x, "url", "src");
-        if (u != null && !u.isBlank()) f.add(u);
+  // Completes with null once `apply` has run on the response, or with the reason the section is missing
+  private static CompletableFuture<String> section(CompletableFuture<JsonNode> call, Duration callTimeout, long deadlineAt,
+                                                   Consumer<JsonNode> apply) {
+    return within(call, callTimeout, deadlineAt).handle((n, ex) -> {
+      if (ex == null) {
+        try { apply.accept(n); return null; } catch (RuntimeException e) { ex = e; }
       }
-      if (!f.isEmpty()) ep.floorPlanUrls = f;
-    } catch (Exception ignore){}
-    try { JsonNode w = buildWebUrl(zpid); ep.zillowWebUrl = str(w, "url", "link", "webUrl"); } catch (Exception ignore){}
-
-    // derived
-    if (ep.price != null && ep.livingArea != null && ep.livingArea > 0) ep.pricePerSqft = ep.price / ep.livingArea;
-    if (ep.lotAreaValue != null && ep.livingArea != null && ep.livingArea > 0) ep.lotToBuildingRatio = ep.lotAreaValue / ep.livingArea;
+      return describe(ex);
+    });
+  }
 
-    return ep;
+  private static String describe(Throwable ex) {
+    while (ex instanceof CompletionException && ex.getCause() != null) ex = ex.getCause();
+    if (ex instanceof TimeoutException || ex instanceof HttpTimeoutException) return "timed out";
+    String msg = ex.getClass().getSimpleName() + (ex.getMessage() == null ? "" : ": " + ex.getMessage());
+    return msg.length() > 200 ? msg.substring(0, 200) + "..." : msg;
   }
 
   // -------- Helpers --------
@@ -371,6 +427,14 @@ public class API {
   private static Integer intval(JsonNode n, String... ks) {
     Double d = num(n, ks); return d==null?null:d.intValue();
   }
+  private static List<String> urls(JsonNode arr, String... ks) {
+    List<String> out = new ArrayList<>();
+    if (arr.isArray()) for (JsonNode x : arr) {
+      String u = x.isTextual() ? x.asText() : str(x, ks);
+      if (u != null && !u.isBlank()) out.add(u);
+    }
+    return out;
+  }
   private static List<String> readStringArray(JsonNode base, String objKey, String arrayKey) {
     List<String> out = new ArrayList<>();
     JsonNode arr = base.path(objKey).path(arrayKey);